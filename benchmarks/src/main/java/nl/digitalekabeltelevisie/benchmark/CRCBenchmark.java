@@ -0,0 +1,92 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import nl.digitalekabeltelevisie.data.mpeg.CRCcheck;
+
+/**
+ * Compares CRCcheck.crc32 with the original byte by byte implementation, for the sizes of real sections:
+ * a PAT (16 bytes), a full EIT schedule section (4096 bytes) and a DSM-CC DownloadDataBlock section (4084 bytes).
+ *
+ * @author Eric Berendsen
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CRCBenchmark {
+
+	@Param({ "16", "4096", "4084" })
+	private int sectionLength;
+
+	private byte[] section;
+	private ByteBuffer directSection;
+
+	@Setup
+	public void setUp() {
+		section = new byte[sectionLength];
+		new Random(sectionLength).nextBytes(section);
+		directSection = ByteBuffer.allocateDirect(sectionLength);
+		directSection.put(section).clear();
+	}
+
+	@Benchmark
+	public long byteByByte() {
+		return referenceCrc32(section, 0, section.length);
+	}
+
+	@Benchmark
+	public long sliceBy8() {
+		return CRCcheck.crc32(section, 0, section.length);
+	}
+
+	@Benchmark
+	public long sliceBy8DirectBuffer() {
+		return CRCcheck.crc32(directSection, 0, sectionLength);
+	}
+
+	/**
+	 * the implementation CRCcheck used before slice-by-8
+	 */
+	private static long referenceCrc32(final byte[] data, final int offset, final int len) {
+		long crc = 0xffffffffL;
+		for (int i = offset; i < (len + offset); i++) {
+			crc = ((crc << 8) & 0xffffffffL) ^ CRCcheck.crc_table[(((int) (crc >> 24)) ^ Byte.toUnsignedInt(data[i])) & 0xff];
+		}
+		return crc;
+	}
+}
@@ -34,10 +34,13 @@ import static nl.digitalekabeltelevisie.util.Utils.*;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Enumeration;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.swing.JMenuItem;
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.MutableTreeNode;
 
 import nl.digitalekabeltelevisie.gui.*;
 import nl.digitalekabeltelevisie.util.Utils;
@@ -63,6 +66,10 @@ import nl.digitalekabeltelevisie.util.Utils;
  * <p>
  * Also there can be a {@code JMenuItem} and owner associated with the KVP (always together).
  * This is used by DVB Inspector to show a sub menu for some items, and associate it with a handler (owner)
+ * <p>
+ * Children can be added lazily by setting a child provider (see {@link #setChildProvider(Consumer)}). The provider is called once,
+ * the first time anybody asks for the children of this node (like JTree does when the node is expanded). Until then the node
+ * is not a leaf, so JTree will show it as expandable.
  *
  *
  * @author Eric Berendsen
@@ -136,6 +143,11 @@ public class KVP extends DefaultMutableTreeNode{
 	private String labelAppend = "";
 	private String htmlLabel;
 
+	/**
+	 * adds the children to this node when they are first needed, null when the children have been added (or there is no provider)
+	 */
+	private Consumer<KVP> childProvider;
+
 	public KVP(String label) {
         this.label = label;
 		this.fieldType = FIELD_TYPE.LABEL;
@@ -501,6 +513,11 @@ public class KVP extends DefaultMutableTreeNode{
 		return this;
 	}
 
+	public KVP addBackgroundImageSource(BackgroundImageSource imageSource, String label) {
+		detailViews.add(new DetailView(imageSource, label));
+		return this;
+	}
+
 	public KVP addTableSource(TableSource tableSource, String label) {
 		detailViews.add(new DetailView(tableSource, label));
 		return this;
@@ -530,5 +547,67 @@ public class KVP extends DefaultMutableTreeNode{
 		Utils.addToList(this, itemList, modus);
 		return this;
 	}
+
+	/**
+	 * Defer creating the children of this node until they are needed. The provider should add the children to the node it is passed,
+	 * it will be called at most once. Children added directly to this node are added after the ones created by the provider.
+	 *
+	 * @param childProvider adds the children to the KVP passed to it
+	 * @return this
+	 */
+	public KVP setChildProvider(Consumer<KVP> childProvider) {
+		this.childProvider = childProvider;
+		return this;
+	}
+
+	/**
+	 * @return true when the children of this node have not been created yet
+	 */
+	public boolean hasPendingChildren() {
+		return childProvider != null;
+	}
+
+	private void materializeChildren() {
+		if (childProvider != null) {
+			Consumer<KVP> provider = childProvider;
+			childProvider = null; // provider will call add(), which calls getChildCount()
+			provider.accept(this);
+		}
+	}
+
+	@Override
+	public int getChildCount() {
+		materializeChildren();
+		return super.getChildCount();
+	}
+
+	@Override
+	public javax.swing.tree.TreeNode getChildAt(int index) {
+		materializeChildren();
+		return super.getChildAt(index);
+	}
+
+	@Override
+	public int getIndex(javax.swing.tree.TreeNode aChild) {
+		materializeChildren();
+		return super.getIndex(aChild);
+	}
+
+	@Override
+	public Enumeration<javax.swing.tree.TreeNode> children() {
+		materializeChildren();
+		return super.children();
+	}
+
+	@Override
+	public void insert(MutableTreeNode newChild, int childIndex) {
+		materializeChildren();
+		super.insert(newChild, childIndex);
+	}
+
+	@Override
+	public boolean isLeaf() {
+		return childProvider == null && super.isLeaf();
+	}
 	
 }
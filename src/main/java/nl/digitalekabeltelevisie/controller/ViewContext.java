@@ -42,18 +42,18 @@ public class ViewContext {
 	private List<ChartLabel> shown = new ArrayList<>();
 	private List<ChartLabel> notShown = new ArrayList<>();
 
-	private int startPacket ;
-	private int endPacket;
-	private int maxPacket;
+	private long startPacket ;
+	private long endPacket;
+	private long maxPacket;
 	private TransportStream transportStream;
 
 	private int graphSteps =100;
 
-	public int getEndPacket() {
+	public long getEndPacket() {
 		return endPacket;
 	}
 
-	public void setEndPacket(final int endPacket) {
+	public void setEndPacket(final long endPacket) {
 		this.endPacket = endPacket;
 	}
 
@@ -81,19 +81,19 @@ public class ViewContext {
 		this.shown = shown;
 	}
 
-	public int getStartPacket() {
+	public long getStartPacket() {
 		return startPacket;
 	}
 
-	public void setStartPacket(final int startPacket) {
+	public void setStartPacket(final long startPacket) {
 		this.startPacket = startPacket;
 	}
 
-	public int getMaxPacket() {
+	public long getMaxPacket() {
 		return maxPacket;
 	}
 
-	public void setMaxPacket(final int maxPacket) {
+	public void setMaxPacket(final long maxPacket) {
 		this.maxPacket = maxPacket;
 	}
 
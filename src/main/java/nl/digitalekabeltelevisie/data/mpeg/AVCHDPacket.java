@@ -30,6 +30,7 @@ package nl.digitalekabeltelevisie.data.mpeg;
 import static nl.digitalekabeltelevisie.util.Utils.*;
 
 import java.awt.Color;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import nl.digitalekabeltelevisie.controller.KVP;
@@ -49,13 +50,56 @@ public class AVCHDPacket extends TSPacket {
 	
 	int arrivalTimestamp;
 
-	public AVCHDPacket(byte[] buf, int no, TransportStream ts) {
+	public AVCHDPacket(byte[] buf, long no, TransportStream ts) {
 		super(Arrays.copyOfRange(buf,4,192), no, ts);
 		tp_extra_header = Arrays.copyOf(buf,4);
 		arrivalTimestamp = getInt(tp_extra_header,0,4,MASK_30BITS);
 	}
 
-	
+	public AVCHDPacket(ByteBuffer src, int index, long no, TransportStream ts) {
+		super(src, index + 4, 188, no, ts);
+		tp_extra_header = new byte[4];
+		src.get(index, tp_extra_header);
+		arrivalTimestamp = getInt(tp_extra_header,0,4,MASK_30BITS);
+	}
+
+	/**
+	 * Creates an empty packet, to be reused for all packets during the first pass. See {@link TSPacket#wrap(ByteBuffer, int, int)}
+	 * @param ts
+	 */
+	AVCHDPacket(TransportStream ts) {
+		super(188, ts);
+		tp_extra_header = new byte[4];
+	}
+
+	/**
+	 * @param src buffer containing the packet
+	 * @param index position of the tp_extra_header of the packet in src
+	 * @param no position number of this packet in the stream
+	 */
+	@Override
+	void wrap(ByteBuffer src, int index, long no) {
+		super.wrap(src, index + 4, no);
+		src.get(index, tp_extra_header);
+		arrivalTimestamp = getInt(tp_extra_header,0,4,MASK_30BITS);
+	}
+
+	@Override
+	void copyFrom(TSPacket other) {
+		super.copyFrom(other);
+		if(other instanceof AVCHDPacket avchdPacket) {
+			System.arraycopy(avchdPacket.tp_extra_header, 0, tp_extra_header, 0, 4);
+			arrivalTimestamp = avchdPacket.arrivalTimestamp;
+		}
+	}
+
+	@Override
+	AVCHDPacket copy() {
+		final AVCHDPacket result = new AVCHDPacket(transportStream);
+		result.copyFrom(this);
+		return result;
+	}
+
 	public byte[] getTP_extra_header() {
 		return tp_extra_header;
 	}
@@ -32,6 +32,7 @@ import static nl.digitalekabeltelevisie.util.Utils.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.logging.Logger;
 
 
@@ -566,43 +567,58 @@ public class AdaptationField implements HTMLSource, TreeNode{
 
 
 	public AdaptationField(final byte[] data) {
-		adaptation_field_length =   getInt(data,0,1,MASK_8BITS);
+		this(data, 0, data.length);
+	}
+
+	/**
+	 * Parses the adaptation field directly from the packet bytes, without copying them first.
+	 * Reading beyond end throws an IndexOutOfBoundsException, just like reading beyond a copy of the field would.
+	 * @param data
+	 * @param start position of the adaptation_field_length in data
+	 * @param end end of the adaptation field (exclusive)
+	 */
+	AdaptationField(final byte[] data, final int start, final int end) {
+		adaptation_field_length =   getInt(data,start,1,MASK_8BITS);
 		if(adaptation_field_length >0) {
-			discontinuity_indicator = getBitAsBoolean(data[1],1);
-			random_access_indicator  = getBitAsBoolean(data[1],2);
-			elementary_stream_priority_indicator = getBitAsBoolean(data[1],3);
-			PCR_flag = getBitAsBoolean(data[1],4);
-			OPCR_flag = getBitAsBoolean(data[1],5);
-			splicing_point_flag = getBitAsBoolean(data[1],6);
-			transport_private_data_flag = getBitAsBoolean(data[1],7);
-			adaptation_field_extension_flag = getBitAsBoolean(data[1],8);
-			int offset = 2;
+			discontinuity_indicator = getBitAsBoolean(data[start+1],1);
+			random_access_indicator  = getBitAsBoolean(data[start+1],2);
+			elementary_stream_priority_indicator = getBitAsBoolean(data[start+1],3);
+			PCR_flag = getBitAsBoolean(data[start+1],4);
+			OPCR_flag = getBitAsBoolean(data[start+1],5);
+			splicing_point_flag = getBitAsBoolean(data[start+1],6);
+			transport_private_data_flag = getBitAsBoolean(data[start+1],7);
+			adaptation_field_extension_flag = getBitAsBoolean(data[start+1],8);
+			int offset = start + 2;
 			if(PCR_flag){
+				Objects.checkFromIndexSize(offset, 6, end);
 				program_clock_reference = getPCRfromBytes(data, offset);
 				offset +=6; //33+6+9 bits = 6 bytes
 			}
 			if(OPCR_flag){
+				Objects.checkFromIndexSize(offset, 6, end);
 				original_program_clock_reference = getPCRfromBytes(data, offset);
 				offset +=6; //33+6+9 bits = 6 bytes
 			}
 			if(splicing_point_flag){
+				Objects.checkIndex(offset, end);
 				splice_countdown =  getInt(data, offset,1,MASK_8BITS);
 				logger.info("splicing_point_flag is set, splice_countdown="+splice_countdown);
 				offset +=1;
 			}
 			if(transport_private_data_flag){
+				Objects.checkIndex(offset, end);
 				transport_private_data_length = getInt(data, offset,1,MASK_8BITS);
 				offset += 1;
-				private_data_byte = getBytes(data, offset, Math.min(transport_private_data_length, adaptation_field_length+ 1 - offset));
+				private_data_byte = getBytes(data, offset, Math.min(transport_private_data_length, adaptation_field_length+ 1 - (offset - start)));
 				if(private_data_byte.length>0){
 					privatedataFields = buildPrivatedataFieldsList(private_data_byte);
 				}
 				offset += transport_private_data_length ;
 			}
-			if(adaptation_field_extension_flag&& data.length> offset +2){ //extension is at least 2 bytes
+			if(adaptation_field_extension_flag&& end> offset +2){ //extension is at least 2 bytes
 				adaptation_field_extension_length =  getInt(data, offset,1,MASK_8BITS);
 				offset +=1;
-				adaptation_field_extension_byte = getBytes(data, offset, Math.min(adaptation_field_extension_length, adaptation_field_length+ 1 - offset));
+				adaptation_field_extension_byte = getBytes(data, offset, Math.min(adaptation_field_extension_length, adaptation_field_length+ 1 - (offset - start)));
 				int adaptation_field_extension_offset = 0;
 				ltw_flag = getBitAsBoolean(adaptation_field_extension_byte[adaptation_field_extension_offset],1);
 				piecewise_rate_flag =  getBitAsBoolean(adaptation_field_extension_byte[adaptation_field_extension_offset],2);
@@ -29,9 +29,18 @@ package nl.digitalekabeltelevisie.data.mpeg;
 
 import static java.lang.Byte.toUnsignedInt;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
 
  * Based on crc32.c part of DVBSnoop
+ * <p>
+ * The data is processed 8 bytes per step ("slice-by-8"), using 8 tables derived from crc_table. The last byte is always processed
+ * with crc_table itself, so the result is exactly the same long as the original byte by byte implementation returned (including the
+ * sign extension of the negative table entries).
  * 
  * @see <a href="http://dvbsnoop.sourceforge.net/">http://dvbsnoop.sourceforge.net/</a>
  *
@@ -92,6 +101,27 @@ final public class CRCcheck {
 		0x933eb0bb, 0x97ffad0c, 0xafb010b1, 0xab710d06, 0xa6322bdf, 0xa2f33668,
 		0xbcb4666d, 0xb8757bda, 0xb5365d03, 0xb1f740b4};
 
+	private static final int SLICES = 8;
+
+	/**
+	 * slice_table[k][n] is the crc of byte n followed by k zero bytes
+	 */
+	private static final int[][] slice_table = new int[SLICES][256];
+
+	private static final VarHandle LONG_BIG_ENDIAN = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+	static {
+		for (int n = 0; n < 256; n++) {
+			slice_table[0][n] = (int) crc_table[n];
+		}
+		for (int k = 1; k < SLICES; k++) {
+			for (int n = 0; n < 256; n++) {
+				final int prev = slice_table[k - 1][n];
+				slice_table[k][n] = (prev << 8) ^ slice_table[0][prev >>> 24];
+			}
+		}
+	}
+
 	/**
 	 * check the crc32 check of the data
 	 * @param data to be checked, starting from [0]
@@ -110,14 +140,69 @@ final public class CRCcheck {
 	 * @return 0 if crc correct, everything else is fail.
 	 */
 	public static long crc32(final byte[] data, final int offset, final int len) {
-		int i;
-		long crc = 0xffffffffL;
+		if (len <= 0) {
+			return 0xffffffffL;
+		}
+		final int last = (offset + len) - 1;
+		int crc = 0xffffffff;
+		int i = offset;
+		for (; i <= (last - SLICES); i += SLICES) {
+			crc = update(crc, (long) LONG_BIG_ENDIAN.get(data, i));
+		}
+		for (; i < last; i++) {
+			crc = (crc << 8) ^ slice_table[0][(crc >>> 24) ^ toUnsignedInt(data[i])];
+		}
+		return lastByte(crc, data[last]);
+	}
 
-		for (i = offset; i < (len + offset); i++) {
-			crc = ((crc << 8) & 0xffffffffL) ^ crc_table[(((int) (crc >> 24)) ^ toUnsignedInt(data[i])) & 0xff];
+	/**
+	 * check the crc32 check of the data in buf, the position and limit of buf are not used or changed
+	 * @param buf data to be checked
+	 * @param offset index of the first byte in buf
+	 * @param len total length to be checked, INCLUDING the crc bytes!
+	 * @return 0 if crc correct, everything else is fail.
+	 */
+	public static long crc32(final ByteBuffer buf, final int offset, final int len) {
+		if (len <= 0) {
+			return 0xffffffffL;
 		}
+		final boolean bigEndian = buf.order() == ByteOrder.BIG_ENDIAN;
+		final int last = (offset + len) - 1;
+		int crc = 0xffffffff;
+		int i = offset;
+		for (; i <= (last - SLICES); i += SLICES) {
+			final long word = buf.getLong(i);
+			crc = update(crc, bigEndian ? word : Long.reverseBytes(word));
+		}
+		for (; i < last; i++) {
+			crc = (crc << 8) ^ slice_table[0][(crc >>> 24) ^ toUnsignedInt(buf.get(i))];
+		}
+		return lastByte(crc, buf.get(last));
+	}
 
-		return crc;
+	/**
+	 * @param crc
+	 * @param word next 8 bytes, first byte in the most significant position
+	 * @return crc after processing the 8 bytes
+	 */
+	private static int update(final int crc, final long word) {
+		final int high = crc ^ (int) (word >>> 32);
+		final int low = (int) word;
+		return slice_table[7][high >>> 24]
+				^ slice_table[6][(high >>> 16) & 0xff]
+				^ slice_table[5][(high >>> 8) & 0xff]
+				^ slice_table[4][high & 0xff]
+				^ slice_table[3][low >>> 24]
+				^ slice_table[2][(low >>> 16) & 0xff]
+				^ slice_table[1][(low >>> 8) & 0xff]
+				^ slice_table[0][low & 0xff];
+	}
+
+	/**
+	 * last step exactly like the original implementation, crc_table contains sign extended values, which end up in the upper 32 bits of the result
+	 */
+	private static long lastByte(final int crc, final byte b) {
+		return (((crc & 0xffffffffL) << 8) & 0xffffffffL) ^ crc_table[((crc >>> 24) ^ toUnsignedInt(b)) & 0xff];
 	}
 
 }
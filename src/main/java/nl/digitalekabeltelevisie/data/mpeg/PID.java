@@ -28,9 +28,14 @@
 package nl.digitalekabeltelevisie.data.mpeg;
 
 import static java.lang.Byte.toUnsignedInt;
+import static nl.digitalekabeltelevisie.data.mpeg.MPEGConstants.PAYLOAD_PACKET_LENGTH;
 import static nl.digitalekabeltelevisie.data.mpeg.MPEGConstants.system_clock_frequency;
 import static nl.digitalekabeltelevisie.util.Utils.printPCRTime;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.logging.Level;
@@ -58,7 +63,12 @@ import nl.digitalekabeltelevisie.util.PreferencesManager;
 public class PID implements TreeNode{
 	
 
-	private record ContinuityError(int lastPacketNo, int lastCCounter, int newPacketNo,int newCCounter) {}
+	private record ContinuityError(long lastPacketNo, int lastCCounter, long newPacketNo,int newCCounter) {}
+
+	/**
+	 * section or mega-frame initialization packet that was completed in packet packetNo, but not yet handed to PSI. update does that.
+	 */
+	record DeferredSection(long packetNo, Runnable update) {}
 	
 	private static final Logger logger = Logger.getLogger(PID.class.getName());
 
@@ -74,6 +84,12 @@ public class PID implements TreeNode{
 	 */
 	private GeneralPSITable psi ;
 
+	/**
+	 * last stored sections for this PID, to skip parsing of repeated sections. One for the PSI tables, one for the general PSI table.
+	 */
+	private SectionRepeatCache psiRepeatCache;
+	private SectionRepeatCache generalPsiRepeatCache;
+
 
 	/**
 	 * generalPesHandler that is able to interpret the PES_packet_data_byte, and turn it into something we can display
@@ -83,7 +99,7 @@ public class PID implements TreeNode{
 	/**
 	 * number of TS packets in this PID
 	 */
-	private int packets = 0;
+	private long packets = 0;
 	/**
 	 * number of different duplicate packets
 	 */
@@ -96,21 +112,22 @@ public class PID implements TreeNode{
 
 	private int last_continuity_counter = -1;
 	private int pid = -1;
-	private int last_packet_no=-1;
+	private long last_packet_no=-1;
 	private TSPacket last_packet = null;
 	private int dup_found=0; // number of times current packet is duplicated. 
 	private PCR lastPCR;
 	private PCR firstPCR;
-	private int lastPCRpacketNo = -1;
-	private int firstPCRpacketNo =-1;
+	private long lastPCRpacketNo = -1;
+	private long firstPCRpacketNo =-1;
 	private long pcr_count =-1;
+	private final PcrTimeIndex pcrTimeIndex = new PcrTimeIndex();
 	protected TransportStream parentTransportStream = null;
 
 	private final GatherPIDData gatherer = new GatherPIDData();
 	
-	private final ArrayList<TimeStamp> pcrList = new ArrayList<>();
-	private final ArrayList<TimeStamp> ptsList = new ArrayList<>();
-	private final ArrayList<TimeStamp> dtsList = new ArrayList<>();
+	private final TimeStampList pcrList = new TimeStampList();
+	private final TimeStampList ptsList = new TimeStampList();
+	private final TimeStampList dtsList = new TimeStampList();
 	
 
 	/**
@@ -121,6 +138,11 @@ public class PID implements TreeNode{
 
 	private final LabelMaker labelMaker = new LabelMaker();
 
+	/**
+	 * completed PSI sections, only used when parsing in parallel. See ParallelPacketProcessor
+	 */
+	private List<DeferredSection> deferredSections = new ArrayList<>();
+
 
 	/**
 	 *
@@ -141,8 +163,11 @@ public class PID implements TreeNode{
 		private void processPayload(final TSPacket packet, final TransportStream ts, final PID parentPID)
 		{
 			parentTransportStream = ts;
-			final byte []data = packet.getData();
-			if(data.length==0) {
+			// payload is read directly from the packet, packets are reused during the first pass so nothing may keep a reference to data
+			final byte []data = packet.getBuffer();
+			final int payloadStart = packet.getPayloadOffset();
+			final int dataLength = PAYLOAD_PACKET_LENGTH - payloadStart;
+			if(dataLength==0) {
 				logger.info("packet pretends to have payload, but data is empty, packetNo;"+packet.getPacketNo());
 				return;
 			}
@@ -151,18 +176,18 @@ public class PID implements TreeNode{
 			if((lastPSISection==null)){ // nothing started
 				// sometimes PayloadUnitStartIndicator is 1, and there is no payload, so check
 				// AdaptationFieldControl
-				if (packet.isPayloadUnitStartIndicator() && (data.length > 1) && packetHasPayload) {
-					startNewSection(packet, parentPID, data);
+				if (packet.isPayloadUnitStartIndicator() && (dataLength > 1) && packetHasPayload) {
+					startNewSection(packet, parentPID, data, payloadStart, dataLength);
 				}
 				//	something started
 			} else if (packetHasPayload && type==PSI) {
 				int start;
 				if(packet.isPayloadUnitStartIndicator()){ //first byte is pointer, skip pointer and continue with what we already got from previous TSPacket
-					start = 1;
+					start = payloadStart + 1;
 				}else{
-					start = 0;
+					start = payloadStart;
 				}
-				int available = data.length -start;
+				int available = PAYLOAD_PACKET_LENGTH -start;
 				if(!lastPSISection.isComplete()){
 					final int bytes_read=lastPSISection.readBytes(data, start, available);
 					start+=bytes_read;
@@ -182,20 +207,20 @@ public class PID implements TreeNode{
 			}
 		}
 
-		private void startNewSection(final TSPacket packet, final PID parentPID, final byte[] data) {
+		private void startNewSection(final TSPacket packet, final PID parentPID, final byte[] data, final int payloadStart, final int dataLength) {
 			{ // start something
 				// at least one byte plus pointer available
 				int start;
 				int available;
-				if ((data[0] != 0) 
+				if ((data[payloadStart] != 0) 
 					|| ((getPid() == 0) 
-					|| (data[1] != 0))) { // starting PSI section after offset
+					|| (data[payloadStart + 1] != 0))) { // starting PSI section after offset
 					// this is just an educated guess, it might still be private data of unspecified
 					// format
 					type = PSI;
 
-					start = 1 + toUnsignedInt(data[0]);
-					available = data.length - start;
+					start = payloadStart + 1 + toUnsignedInt(data[payloadStart]);
+					available = PAYLOAD_PACKET_LENGTH - start;
 					while ((available > 0) && (toUnsignedInt(data[start]) != 0xFF)) {
 						lastPSISection = new PsiSectionData(parentPID, packet.getPacketNo(), parentTransportStream);
 						final int bytes_read = lastPSISection.readBytes(data, start, available);
@@ -207,7 +232,7 @@ public class PID implements TreeNode{
 					}
 				// could be starting PES stream, make sure it really is, Should start with
 				// packet_start_code_prefix -'0000 0000 0000 0000 0000 0001' (0x000001)
-				} else if ((data.length > 2) && (data[0] == 0) && (data[1] == 0) && (data[2] == 1)) {
+				} else if ((dataLength > 2) && (data[payloadStart] == 0) && (data[payloadStart + 1] == 0) && (data[payloadStart + 2] == 1)) {
 					startPesPacket(packet, parentPID);
 				}
 			}
@@ -225,10 +250,10 @@ public class PID implements TreeNode{
 
 						final int pts_dts_flags = pesHeader.getPts_dts_flags();
 						if ((pts_dts_flags == 2) || (pts_dts_flags == 3)) { // PTS present,
-							ptsList.add(new TimeStamp(packet.getTimeBase(), pesHeader.getPts()));
+							ptsList.add(packet.getTimeBase(), pesHeader.getPts());
 						}
 						if (pts_dts_flags == 3) { // DTS present,
-							dtsList.add(new TimeStamp(packet.getTimeBase(), pesHeader.getDts()));
+							dtsList.add(packet.getTimeBase(), pesHeader.getDts());
 						}
 					}
 				} catch (Exception e) {
@@ -305,21 +330,14 @@ public class PID implements TreeNode{
 
 	
 	/**
-	 * calculate value of pcr based on this pid for packet packetNo
+	 * calculate value of pcr based on this pid for packet packetNo, interpolated between the surrounding PCRs
 	 * @param packetNo
-	 * @return pcr based on 27 Mhz clock
+	 * @return pcr based on 27 Mhz clock, null when this pid has less than 2 PCRs
 	 */
 	public Long getPacketPcrTime(long packetNo) {
 		
-		if((firstPCR != null) && 
-			(lastPCR != null) && 
-			!firstPCR.equals(lastPCR)){
-			
-			long diffPCR = lastPCR.getProgram_clock_reference() - firstPCR.getProgram_clock_reference();
-			long diffPackets = lastPCRpacketNo - firstPCRpacketNo;
-			
-			return firstPCR.getProgram_clock_reference() + (packetNo - firstPCRpacketNo) * diffPCR /  diffPackets;
-				
+		if(pcrTimeIndex.size() >= 2){
+			return pcrTimeIndex.getPcr(packetNo);
 		}
 		
 		return null;
@@ -392,7 +410,7 @@ public class PID implements TreeNode{
 	private void handleNormalPacket(final TSPacket packet) {
 		last_continuity_counter = packet.getContinuityCounter();
 		last_packet_no = packet.getPacketNo();
-		last_packet = packet;
+		retainLastPacket(packet);
 		dup_found = 0;
 
 		if(packet.getTransportScramblingControl()==0){ // not scrambled, or else payload is of no use
@@ -402,6 +420,18 @@ public class PID implements TreeNode{
 		}
 	}
 
+	/**
+	 * packets are reused during the first pass, so keep a copy. The copy is reused for the next packet of this PID.
+	 * @param packet
+	 */
+	private void retainLastPacket(final TSPacket packet) {
+		if(last_packet==null) {
+			last_packet = packet.copy();
+		}else {
+			last_packet.copyFrom(packet);
+		}
+	}
+
 	private AdaptationField handleAdaptationField(final TSPacket packet) {
 		AdaptationField adaptationField;
 		try{
@@ -419,7 +449,7 @@ public class PID implements TreeNode{
 		continuityErrors.add(new ContinuityError(last_packet_no, last_continuity_counter, packet.getPacketNo(), packet.getContinuityCounter()));
 		last_continuity_counter=packet.getContinuityCounter();
 		last_packet_no = packet.getPacketNo();
-		last_packet = packet;
+		retainLastPacket(packet);
 		continuity_errors_count++;
 		gatherer.reset();
 		gatherer.processPayload(packet,parentTransportStream,this);
@@ -428,22 +458,40 @@ public class PID implements TreeNode{
 	private void updateMegaFrameInitializationPacket(final TSPacket packet) {
 		// MIP has only TSPackets, no structure with PSISectionData
 		if((packet.getData()!=null)&&(packet.getData().length>=14)){
-			try {
-				final MegaFrameInitializationPacket mip= new MegaFrameInitializationPacket(packet);
-				parentTransportStream.getPsi().getNetworkSync().update(mip);
-			} catch (Exception exception) {
-				logger.log(Level.WARNING, "Exception trying to create MegaFrameInitializationPacket. ", exception);
+			// packets are reused during the first pass, so keep a copy
+			final byte[] buffer = Arrays.copyOf(packet.getBuffer(), PAYLOAD_PACKET_LENGTH);
+			final long packetNo = packet.getPacketNo();
+			if(parentTransportStream.isParallelParsing()) {
+				deferredSections.add(new DeferredSection(packetNo, () -> updateNetworkSync(buffer, packetNo)));
+			}else {
+				parentTransportStream.updatePsi(() -> updateNetworkSync(buffer, packetNo));
 			}
 		}
 	}
 
+	/**
+	 * hand a mega-frame initialization packet to PSI, also used when loading from the index cache
+	 * @param buffer the packet, starting with the sync byte
+	 * @param packetNo
+	 */
+	void updateNetworkSync(final byte[] buffer, final long packetNo) {
+		parentTransportStream.recordMegaFrameInitializationPacket(pid, packetNo, buffer);
+		try {
+			final MegaFrameInitializationPacket mip= new MegaFrameInitializationPacket(new TSPacket(buffer, packetNo, parentTransportStream));
+			parentTransportStream.getPsi().getNetworkSync().update(mip);
+		} catch (Exception exception) {
+			logger.log(Level.WARNING, "Exception trying to create MegaFrameInitializationPacket. ", exception);
+		}
+	}
+
 
-	private void processAdaptationField(AdaptationField adaptationField, int packetNo, long timeBase) {
+	private void processAdaptationField(AdaptationField adaptationField, long packetNo, long timeBase) {
 		if (adaptationField.isPCR_flag()) {
 			final PCR newPCR = adaptationField.getProgram_clock_reference();
 			if(PreferencesManager.isEnablePcrPtsView()) {
-				pcrList.add(new TimeStamp(timeBase, newPCR.getProgram_clock_reference_base()));
+				pcrList.add(timeBase, newPCR.getProgram_clock_reference_base());
 			}
+			pcrTimeIndex.add(packetNo, newPCR.getProgram_clock_reference(), adaptationField.isDiscontinuity_indicator());
 			if ((firstPCR != null) && !adaptationField.isDiscontinuity_indicator()) {
 				final long packetsDiff = packetNo - firstPCRpacketNo;
 
@@ -468,7 +516,7 @@ public class PID implements TreeNode{
 		}
 	}
 
-	private void processTEMI(AdaptationField adaptationField, Map<Integer, ArrayList<TemiTimeStamp>> temiList, int packetNo) {
+	private void processTEMI(AdaptationField adaptationField, Map<Integer, ArrayList<TemiTimeStamp>> temiList, long packetNo) {
 		if (adaptationField.isAdaptation_field_extension_flag()) {
 			if (!adaptationField.isAf_descriptor_not_present_flag()) {
 				List<AFDescriptor> afDescriptorList = adaptationField.getAfDescriptorList();
@@ -488,7 +536,7 @@ public class PID implements TreeNode{
 	/**
 	 * @return number of TS packets found for this PID
 	 */
-	public int getPackets() {
+	public long getPackets() {
 		return packets;
 	}
 	@Override
@@ -613,7 +661,7 @@ public class PID implements TreeNode{
 		return sb.toString();
 	}
 
-	private String getPacketColumns(int packetNo, int cCounter) {
+	private String getPacketColumns(long packetNo, int cCounter) {
 		return new StringBuilder().
 				append("<td align=\"right\">").
 				append("<a href=\"").
@@ -627,7 +675,7 @@ public class PID implements TreeNode{
 				toString();
 	}
 	
-	private String getPacketCrumbTrail(int packetNo) {
+	private String getPacketCrumbTrail(long packetNo) {
 		return new StringBuilder().
 		append("root/pids/pid:").
 		append(pid).
@@ -660,6 +708,20 @@ public class PID implements TreeNode{
 		this.psi = psi;
 	}
 
+	SectionRepeatCache getPsiRepeatCache() {
+		if(psiRepeatCache==null) {
+			psiRepeatCache = new SectionRepeatCache();
+		}
+		return psiRepeatCache;
+	}
+
+	SectionRepeatCache getGeneralPsiRepeatCache() {
+		if(generalPsiRepeatCache==null) {
+			generalPsiRepeatCache = new SectionRepeatCache();
+		}
+		return generalPsiRepeatCache;
+	}
+
 	public long getBitRate() {
 		return bitRate;
 	}
@@ -715,16 +777,23 @@ public class PID implements TreeNode{
 		return gatherer;
 	}
 
-	public ArrayList<TimeStamp> getPcrList() {
-		return pcrList;
+	/**
+	 * @return packet number to time mapping based on all PCRs of this pid
+	 */
+	public PcrTimeIndex getPcrTimeIndex() {
+		return pcrTimeIndex;
+	}
+
+	public TimeStampSeries getPcrList() {
+		return pcrList.view();
 	}
 
-	public ArrayList<TimeStamp> getPtsList() {
-		return ptsList;
+	public TimeStampSeries getPtsList() {
+		return ptsList.view();
 	}
 
-	public ArrayList<TimeStamp> getDtsList() {
-		return dtsList;
+	public TimeStampSeries getDtsList() {
+		return dtsList.view();
 	}
 
 	public Map<Integer, ArrayList<TemiTimeStamp>> getTemiMap() {
@@ -735,4 +804,137 @@ public class PID implements TreeNode{
 		return labelMaker;
 	}
 
+	/**
+	 * called for a completed section, last_packet_no is the packet that is being processed.
+	 */
+	void deferPsiUpdate(PsiSectionData section) {
+		deferredSections.add(new DeferredSection(last_packet_no, section::updatePSI));
+	}
+
+	List<DeferredSection> takeDeferredSections() {
+		List<DeferredSection> result = deferredSections;
+		deferredSections = new ArrayList<>();
+		return result;
+	}
+
+	/**
+	 * write the state built by the first pass through the file, for the index cache (see StreamIndex).
+	 * The PSI tables are not written, they are rebuilt from the sections. The last packet and partially received sections are not written.
+	 * @param out
+	 * @throws IOException
+	 */
+	void writeIndex(final DataOutput out) throws IOException {
+		out.writeInt(type);
+		out.writeBoolean(scrambled);
+		out.writeLong(bitRate);
+		out.writeLong(packets);
+		out.writeInt(dup_packets);
+		out.writeLong(continuity_errors_count);
+		out.writeInt(continuityErrors.size());
+		for(ContinuityError error: continuityErrors) {
+			out.writeLong(error.lastPacketNo());
+			out.writeInt(error.lastCCounter());
+			out.writeLong(error.newPacketNo());
+			out.writeInt(error.newCCounter());
+		}
+		out.writeInt(last_continuity_counter);
+		out.writeLong(last_packet_no);
+		out.writeInt(dup_found);
+		writePCR(out, firstPCR);
+		writePCR(out, lastPCR);
+		out.writeLong(firstPCRpacketNo);
+		out.writeLong(lastPCRpacketNo);
+		out.writeLong(pcr_count);
+		pcrTimeIndex.write(out);
+		pcrList.write(out);
+		ptsList.write(out);
+		dtsList.write(out);
+		out.writeInt(temiMap.size());
+		for(ArrayList<TemiTimeStamp> timeLine: temiMap.values()) {
+			writeTemiTimeStamps(out, timeLine);
+		}
+		writeTemiTimeStamps(out, temiBuffer);
+	}
+
+	/**
+	 * restore the state written by writeIndex
+	 * @param in
+	 * @throws IOException
+	 */
+	void readIndex(final DataInput in) throws IOException {
+		type = in.readInt();
+		scrambled = in.readBoolean();
+		bitRate = in.readLong();
+		packets = in.readLong();
+		dup_packets = in.readInt();
+		continuity_errors_count = in.readLong();
+		int errors = in.readInt();
+		for (int i = 0; i < errors; i++) {
+			continuityErrors.add(new ContinuityError(in.readLong(), in.readInt(), in.readLong(), in.readInt()));
+		}
+		last_continuity_counter = in.readInt();
+		last_packet_no = in.readLong();
+		dup_found = in.readInt();
+		firstPCR = readPCR(in);
+		lastPCR = readPCR(in);
+		firstPCRpacketNo = in.readLong();
+		lastPCRpacketNo = in.readLong();
+		pcr_count = in.readLong();
+		pcrTimeIndex.read(in);
+		pcrList.read(in);
+		ptsList.read(in);
+		dtsList.read(in);
+		int timeLines = in.readInt();
+		for (int i = 0; i < timeLines; i++) {
+			ArrayList<TemiTimeStamp> timeLine = new ArrayList<>();
+			readTemiTimeStamps(in, timeLine);
+			if(!timeLine.isEmpty()) {
+				temiMap.put(timeLine.getFirst().getTimeline_id(), timeLine);
+			}
+		}
+		readTemiTimeStamps(in, temiBuffer);
+	}
+
+	private static void writePCR(final DataOutput out, final PCR pcr) throws IOException {
+		out.writeBoolean(pcr != null);
+		if(pcr != null) {
+			out.writeLong(pcr.getProgram_clock_reference_base());
+			out.writeLong(pcr.getReserved());
+			out.writeLong(pcr.getProgram_clock_reference_extension());
+		}
+	}
+
+	private static PCR readPCR(final DataInput in) throws IOException {
+		if(in.readBoolean()) {
+			return new PCR(in.readLong(), in.readLong(), in.readLong());
+		}
+		return null;
+	}
+
+	private static void writeTemiTimeStamps(final DataOutput out, final List<TemiTimeStamp> timeStamps) throws IOException {
+		out.writeInt(timeStamps.size());
+		for(TemiTimeStamp temi: timeStamps) {
+			out.writeLong(temi.getPacketNo());
+			out.writeLong(temi.getPts());
+			byte[] mediaTimeStamp = temi.getMediaTimeStamp().toByteArray();
+			out.writeInt(mediaTimeStamp.length);
+			out.write(mediaTimeStamp);
+			out.writeLong(temi.getTimescale());
+			out.writeInt(temi.getDiscontinuity());
+			out.writeInt(temi.getTimeline_id());
+			out.writeInt(temi.getPaused());
+		}
+	}
+
+	private static void readTemiTimeStamps(final DataInput in, final List<TemiTimeStamp> timeStamps) throws IOException {
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			long packetNo = in.readLong();
+			long pts = in.readLong();
+			byte[] mediaTimeStamp = new byte[in.readInt()];
+			in.readFully(mediaTimeStamp);
+			timeStamps.add(new TemiTimeStamp(packetNo, pts, new BigInteger(mediaTimeStamp), in.readLong(), in.readInt(), in.readInt(), in.readInt()));
+		}
+	}
+
 }
@@ -0,0 +1,184 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Per packet data that is kept for the whole transport stream after the first pass: the PID plus flags (see TransportStream.ADAPTATION_FIELD_FLAG etc.),
+ * and for AVCHD the arrival time stamp.
+ * <p>
+ * Packets are addressed by a long, and stored in chunks that are only allocated when packets are added, so the size is not limited to what fits in one array,
+ * and nothing is allocated for packets that were never read.
+ * The first HEAP_CHUNKS chunks are plain heap buffers. Beyond that (very long recordings) chunks are memory mapped temporary files,
+ * so the heap use stays bounded and the OS can page out the parts of the file that are not looked at.
+ * <p>
+ * There is one writer (the thread reading the file), but views may read packets from other threads (like Grid, which renders tiles in the background)
+ * while a followed file grows. The chunks are kept in an array that is replaced, never changed, when a chunk is added, so readers always see a complete array.
+ * The data of a packet is written once, before the packet is counted, so readers that only look at packets that were counted when they started see stable data.
+ *
+ * @author Eric Berendsen
+ *
+ */
+final class PacketMetadataStore {
+
+	private static final int CHUNK_BITS = 22;
+	/**
+	 * packets per chunk, 4M packets is 8 MiB for normal TS, 24 MiB for AVCHD
+	 */
+	static final int CHUNK_PACKETS = 1 << CHUNK_BITS;
+	private static final long CHUNK_MASK = CHUNK_PACKETS - 1L;
+	/**
+	 * number of chunks kept on the heap, about 33 million packets. That is more than 6 GB of TS with 188 byte packets.
+	 */
+	private static final int HEAP_CHUNKS = 8;
+
+	private static final int PID_FLAGS_OFFSET = 0;
+	private static final int ATS_OFFSET = Short.BYTES;
+
+	private final int recordSize;
+	private final boolean arrivalTimeStamps;
+	private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+
+	/**
+	 * @param arrivalTimeStamps true when an arrival time stamp (AVCHD) has to be stored for each packet
+	 */
+	PacketMetadataStore(boolean arrivalTimeStamps) {
+		this.arrivalTimeStamps = arrivalTimeStamps;
+		this.recordSize = arrivalTimeStamps ? Short.BYTES + Integer.BYTES : Short.BYTES;
+	}
+
+	boolean hasArrivalTimeStamps() {
+		return arrivalTimeStamps;
+	}
+
+	short getPidFlags(long packetNo) {
+		return chunk(packetNo).getShort(position(packetNo) + PID_FLAGS_OFFSET);
+	}
+
+	void setPidFlags(long packetNo, short pidFlags) {
+		writableChunk(packetNo).putShort(position(packetNo) + PID_FLAGS_OFFSET, pidFlags);
+	}
+
+	int getArrivalTimeStamp(long packetNo) {
+		return chunk(packetNo).getInt(position(packetNo) + ATS_OFFSET);
+	}
+
+	void setArrivalTimeStamp(long packetNo, int arrivalTimeStamp) {
+		writableChunk(packetNo).putInt(position(packetNo) + ATS_OFFSET, arrivalTimeStamp);
+	}
+
+	private ByteBuffer chunk(long packetNo) {
+		return chunks[(int) (packetNo >>> CHUNK_BITS)];
+	}
+
+	private int position(long packetNo) {
+		return (int) (packetNo & CHUNK_MASK) * recordSize;
+	}
+
+	private ByteBuffer writableChunk(long packetNo) {
+		int chunkNo = (int) (packetNo >>> CHUNK_BITS);
+		ByteBuffer[] current = chunks;
+		if (chunkNo >= current.length) {
+			ByteBuffer[] grown = Arrays.copyOf(current, chunkNo + 1);
+			for (int i = current.length; i < grown.length; i++) {
+				grown[i] = allocateChunk(i);
+			}
+			chunks = grown;
+			current = grown;
+		}
+		return current[chunkNo];
+	}
+
+	private ByteBuffer allocateChunk(int chunkNo) {
+		int size = CHUNK_PACKETS * recordSize;
+		if (chunkNo < HEAP_CHUNKS) {
+			return ByteBuffer.allocate(size);
+		}
+		try {
+			// the mapping stays valid after the channel is closed, the file itself is removed on close
+			Path path = Files.createTempFile("dvbinspector", ".packets");
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE)) {
+				return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not create temporary file for packet data", e);
+		}
+	}
+
+	/**
+	 * write the data of the first count packets, used for the index cache
+	 * @param out
+	 * @param count
+	 * @throws IOException
+	 */
+	void write(DataOutput out, long count) throws IOException {
+		byte[] buffer = new byte[64 * 1024];
+		long remaining = count * recordSize;
+		for (int i = 0; remaining > 0; i++) {
+			ByteBuffer chunk = chunks[i];
+			int chunkBytes = (int) Math.min(remaining, chunk.capacity());
+			for (int pos = 0; pos < chunkBytes; pos += buffer.length) {
+				int n = Math.min(buffer.length, chunkBytes - pos);
+				chunk.get(pos, buffer, 0, n);
+				out.write(buffer, 0, n);
+			}
+			remaining -= chunkBytes;
+		}
+	}
+
+	/**
+	 * read the data of count packets, as written by write
+	 * @param in
+	 * @param count
+	 * @throws IOException
+	 */
+	void read(DataInput in, long count) throws IOException {
+		byte[] buffer = new byte[64 * 1024];
+		long remaining = count * recordSize;
+		for (int i = 0; remaining > 0; i++) {
+			ByteBuffer chunk = writableChunk((long) i << CHUNK_BITS);
+			int chunkBytes = (int) Math.min(remaining, chunk.capacity());
+			for (int pos = 0; pos < chunkBytes; pos += buffer.length) {
+				int n = Math.min(buffer.length, chunkBytes - pos);
+				in.readFully(buffer, 0, n);
+				chunk.put(pos, buffer, 0, n);
+			}
+			remaining -= chunkBytes;
+		}
+	}
+}
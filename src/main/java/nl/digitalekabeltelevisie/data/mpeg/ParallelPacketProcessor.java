@@ -0,0 +1,200 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import java.io.InterruptedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+
+/**
+ * Runs the PID state machines of the initial parse on multiple threads.
+ * <p>
+ * The reading thread hands over packets (after registering them in packet_pid), they are collected in batches and divided over lanes by PID number.
+ * Each lane processes the packets of its PIDs in order, so every PID is only updated by one thread at a time, and always in packet order.
+ * While the lanes work on a batch, the reading thread fills the next one. The reader reuses a single TSPacket, so the lanes keep copies,
+ * the packet objects of the two batches are reused as well.
+ * <p>
+ * Updates of the PSI tables depend on each other (a PMT is only recognized after the PAT has been seen), so completed sections are not handed to PSI by the lanes.
+ * They are collected per PID, and when a batch is finished they are merged in packet order and applied by the reading thread. The end result is the same as a serial parse.
+ *
+ * @author Eric Berendsen
+ *
+ */
+class ParallelPacketProcessor implements AutoCloseable {
+
+	private static final Logger logger = Logger.getLogger(ParallelPacketProcessor.class.getName());
+
+	private static final int BATCH_SIZE = 32 * 1024;
+
+	private final TransportStream transportStream;
+	private final int lanes;
+	private final ExecutorService executor;
+
+	private List<Lane> batch;
+	private List<Lane> spareBatch;
+	private int batchCount = 0;
+
+	private final List<Future<?>> running = new ArrayList<>();
+	private final Set<PID> runningPids = new HashSet<>();
+
+	ParallelPacketProcessor(TransportStream transportStream) {
+		this.transportStream = transportStream;
+		this.lanes = Math.max(1, Runtime.getRuntime().availableProcessors());
+		this.executor = Executors.newFixedThreadPool(lanes);
+		this.batch = createBatch();
+		this.spareBatch = createBatch();
+		logger.info("Parsing with " + lanes + " lanes");
+	}
+
+	/**
+	 * @param pid PID this packet belongs to, already registered in the TransportStream
+	 * @param packet
+	 * @throws InterruptedIOException
+	 */
+	void process(PID pid, TSPacket packet) throws InterruptedIOException {
+		batch.get(pid.getPid() % lanes).add(packet);
+		batchCount++;
+		if (batchCount == BATCH_SIZE) {
+			flush();
+		}
+	}
+
+	private void flush() throws InterruptedIOException {
+		awaitRunning();
+		for (Lane lane : batch) {
+			if (lane.size > 0) {
+				for (int i = 0; i < lane.size; i++) {
+					runningPids.add(transportStream.getPID(lane.packets.get(i).getPID()));
+				}
+				running.add(executor.submit(() -> processLane(lane)));
+			}
+		}
+		// the spare batch is no longer running, so it can be filled again
+		List<Lane> next = spareBatch;
+		spareBatch = batch;
+		batch = next;
+		for (Lane lane : batch) {
+			lane.size = 0;
+		}
+		batchCount = 0;
+	}
+
+	private void processLane(Lane lane) {
+		for (int i = 0; i < lane.size; i++) {
+			TSPacket packet = lane.packets.get(i);
+			transportStream.getPID(packet.getPID()).updatePacket(packet);
+		}
+	}
+
+	/**
+	 * wait till all lanes have finished the running batch, and then update PSI with the sections completed in that batch, in packet order.
+	 * @throws InterruptedIOException
+	 */
+	private void awaitRunning() throws InterruptedIOException {
+		try {
+			awaitAll(running);
+		} finally {
+			running.clear();
+		}
+
+		List<PID.DeferredSection> sections = new ArrayList<>();
+		for (PID pid : runningPids) {
+			sections.addAll(pid.takeDeferredSections());
+		}
+		runningPids.clear();
+		// List.sort is stable, so multiple sections ending in the same packet keep their order
+		sections.sort(Comparator.comparingLong(PID.DeferredSection::packetNo));
+		for (PID.DeferredSection deferred : sections) {
+			transportStream.updatePsi(deferred.update());
+		}
+	}
+
+	/**
+	 * wait for all futures, an exception thrown by a task is rethrown (unwrapped) on the calling thread.
+	 * @param futures
+	 * @throws InterruptedIOException
+	 */
+	static void awaitAll(Collection<? extends Future<?>> futures) throws InterruptedIOException {
+		try {
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for parser threads");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private List<Lane> createBatch() {
+		List<Lane> result = new ArrayList<>(lanes);
+		for (int i = 0; i < lanes; i++) {
+			result.add(new Lane());
+		}
+		return result;
+	}
+
+	/**
+	 * Packets for one lane in a batch. Only the first size packets are valid, the others are kept to be overwritten by the next batch.
+	 */
+	private static final class Lane {
+		private final List<TSPacket> packets = new ArrayList<>();
+		private int size = 0;
+
+		void add(TSPacket packet) {
+			if (size < packets.size()) {
+				packets.get(size).copyFrom(packet);
+			} else {
+				packets.add(packet.copy());
+			}
+			size++;
+		}
+	}
+
+	/**
+	 * Processes the last (partial) batch, and waits for it to finish
+	 */
+	@Override
+	public void close() throws InterruptedIOException {
+		try {
+			flush();
+			awaitRunning();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,228 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import static nl.digitalekabeltelevisie.data.mpeg.MPEGConstants.system_clock_frequency;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Maps packet numbers to time and back, based on the PCRs of one PID.
+ * <p>
+ * For every PCR the packet number, the PCR value, and a continuous time are kept in primitive arrays. The continuous time (27 MHz, 0 at the first PCR)
+ * follows the PCR, except at discontinuities; the discontinuity_indicator, a PCR that goes backwards, or a jump of more than MAX_PCR_GAP.
+ * There the time is advanced by the number of packets since the previous PCR, at the rate of the segment before the discontinuity.
+ * PCR wrap around (after 26.5 hours) is not a discontinuity.
+ * <p>
+ * Lookups are a binary search plus a linear interpolation between the two surrounding PCRs, so VBR streams get the local rate,
+ * not the average of the whole stream. Before the first and after the last PCR the time is extrapolated.
+ * <p>
+ * There is one writer, but lookups may come from other threads while a followed file is read. Like TimeStampList the arrays are replaced, not changed,
+ * when they grow, and an element is written before size is increased, so readers see the PCRs that were added before they read size.
+ *
+ * @author Eric Berendsen
+ *
+ */
+public final class PcrTimeIndex {
+
+	private static final long PCR_MODULO = (1L << 33) * 300;
+	/**
+	 * max PCR interval is 100 ms (ISO/IEC 13818-1 2.7.2), a larger jump means missing data or a discontinuity without indicator
+	 */
+	private static final long MAX_PCR_GAP = system_clock_frequency;
+
+	private static final class Columns {
+		final long[] packetNos;
+		final long[] pcrs;
+		final long[] times;
+
+		Columns(final int length) {
+			this(new long[length], new long[length], new long[length]);
+		}
+
+		Columns(final long[] packetNos, final long[] pcrs, final long[] times) {
+			this.packetNos = packetNos;
+			this.pcrs = pcrs;
+			this.times = times;
+		}
+	}
+
+	private volatile Columns columns = new Columns(64);
+	private volatile int size;
+	/**
+	 * index of first PCR of the current segment
+	 */
+	private int segmentStart;
+
+	/**
+	 * @param packetNo packet containing the PCR, must be larger than of the previous call
+	 * @param pcr 27 MHz value (base * 300 + extension)
+	 * @param discontinuity discontinuity_indicator of the adaptation field
+	 */
+	void add(final long packetNo, final long pcr, final boolean discontinuity) {
+		Columns c = columns;
+		final int n = size;
+		long time = 0;
+		if (n > 0) {
+			long diff = pcr - c.pcrs[n - 1];
+			if (diff < -(PCR_MODULO / 2)) { // wrap around
+				diff += PCR_MODULO;
+			}
+			if (discontinuity || (diff <= 0) || (diff > MAX_PCR_GAP)) {
+				diff = estimateTicks(c, n, packetNo - c.packetNos[n - 1]);
+				segmentStart = n;
+			}
+			time = c.times[n - 1] + diff;
+		}
+		if (n == c.packetNos.length) {
+			final int newLength = n * 2;
+			c = new Columns(Arrays.copyOf(c.packetNos, newLength), Arrays.copyOf(c.pcrs, newLength), Arrays.copyOf(c.times, newLength));
+			columns = c;
+		}
+		c.packetNos[n] = packetNo;
+		c.pcrs[n] = pcr;
+		c.times[n] = time;
+		size = n + 1;
+	}
+
+	/**
+	 * ticks for packets, at the rate of the current segment, or when that has only one PCR the rate so far.
+	 */
+	private long estimateTicks(final Columns c, final int n, final long packets) {
+		final int last = n - 1;
+		int first = segmentStart;
+		if (first == last) {
+			first = 0;
+		}
+		final long segmentPackets = c.packetNos[last] - c.packetNos[first];
+		if (segmentPackets == 0) {
+			return 0;
+		}
+		return (packets * (c.times[last] - c.times[first])) / segmentPackets;
+	}
+
+	/**
+	 * @return number of PCRs, lookups need at least 2
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param packetNo
+	 * @return continuous time in 27 MHz ticks since the first PCR, negative before the first PCR
+	 */
+	public long getTime(final long packetNo) {
+		final int n = size;
+		return getTime(columns, n, packetNo);
+	}
+
+	private static long getTime(final Columns c, final int n, final long packetNo) {
+		final long[] packetNos = c.packetNos;
+		final long[] times = c.times;
+		final int i = segmentIndex(packetNos, n, packetNo);
+		return times[i] + (((packetNo - packetNos[i]) * (times[i + 1] - times[i])) / Math.max(1, packetNos[i + 1] - packetNos[i]));
+	}
+
+	/**
+	 * @param packetNo
+	 * @return the (interpolated) value of the PCR at packetNo, in 27 MHz. After a discontinuity this is the PCR of the new timeline.
+	 */
+	public long getPcr(final long packetNo) {
+		final int n = size;
+		final Columns c = columns;
+		final long time = getTime(c, n, packetNo);
+		int i = segmentIndex(c.packetNos, n, packetNo);
+		if (packetNo >= c.packetNos[i + 1]) {
+			i++;
+		}
+		return Math.floorMod(c.pcrs[i] + (time - c.times[i]), PCR_MODULO);
+	}
+
+	/**
+	 * @param time continuous time in 27 MHz ticks since the first PCR
+	 * @return the packet number at that time
+	 */
+	public long getPacketNo(final long time) {
+		final int n = size;
+		final Columns c = columns;
+		final long[] packetNos = c.packetNos;
+		final long[] times = c.times;
+		final int i = segmentIndex(times, n, time);
+		final long ticks = times[i + 1] - times[i];
+		if (ticks == 0) {
+			return packetNos[i];
+		}
+		return packetNos[i] + (((time - times[i]) * (packetNos[i + 1] - packetNos[i])) / ticks);
+	}
+
+	/**
+	 * @return index i of the pair (i, i+1) to interpolate or extrapolate from, 0 &lt;= i &lt; size - 1
+	 */
+	private static int segmentIndex(final long[] keys, final int size, final long key) {
+		int low = 0;
+		int high = size - 1;
+		while (low < high) { // last index with keys[i] <= key
+			final int mid = (low + high + 1) >>> 1;
+			if (keys[mid] <= key) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return Math.min(low, size - 2);
+	}
+
+	void write(final DataOutput out) throws IOException {
+		final int n = size;
+		final Columns c = columns;
+		out.writeInt(n);
+		out.writeInt(segmentStart);
+		for (int i = 0; i < n; i++) {
+			out.writeLong(c.packetNos[i]);
+			out.writeLong(c.pcrs[i]);
+			out.writeLong(c.times[i]);
+		}
+	}
+
+	void read(final DataInput in) throws IOException {
+		final int newSize = in.readInt();
+		segmentStart = in.readInt();
+		final Columns c = new Columns(Math.max(64, newSize));
+		for (int i = 0; i < newSize; i++) {
+			c.packetNos[i] = in.readLong();
+			c.pcrs[i] = in.readLong();
+			c.times[i] = in.readLong();
+		}
+		columns = c;
+		size = newSize;
+	}
+}
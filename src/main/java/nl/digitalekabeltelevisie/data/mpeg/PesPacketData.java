@@ -27,12 +27,17 @@
 
 package nl.digitalekabeltelevisie.data.mpeg;
 
+import static nl.digitalekabeltelevisie.data.mpeg.MPEGConstants.PAYLOAD_PACKET_LENGTH;
 import static nl.digitalekabeltelevisie.gui.utils.GuiUtils.getErrorKVP;
 import static nl.digitalekabeltelevisie.util.Utils.MASK_8BITS;
 import static nl.digitalekabeltelevisie.util.Utils.getInt;
 import static nl.digitalekabeltelevisie.util.Utils.printTimebase90kHz;
 import static nl.digitalekabeltelevisie.util.Utils.showPtsModus;
 
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
 import nl.digitalekabeltelevisie.controller.KVP;
 import nl.digitalekabeltelevisie.controller.TreeNode;
 import nl.digitalekabeltelevisie.data.mpeg.pes.GeneralPesHandler;
@@ -51,6 +56,13 @@ import nl.digitalekabeltelevisie.data.mpeg.pes.PesHeader;
  */
 public class PesPacketData  implements TreeNode{
 
+	private static final Logger logger = Logger.getLogger(PesPacketData.class.getName());
+
+	/**
+	 * fixed part of the PES header, plus the maximum PES_header_data_length
+	 */
+	private static final int MAX_PES_HEADER_LENGTH = 9 + 255;
+
 	/**
 	 * Data including packet_start_code_prefix, stream id, PES packet length, pesHeader
 	 *
@@ -71,7 +83,15 @@ public class PesPacketData  implements TreeNode{
 	protected int pesDataLen;
 
 	protected int bytesRead = 0;
-	protected int startPacketNo;
+	protected long startPacketNo;
+	/**
+	 * last TS packet of which the payload was added by readBytes(TSPacket), -1 when not known
+	 */
+	protected long lastPacketNo = -1;
+	/**
+	 * data read again from the file after releaseData(), may be cleared by the garbage collector
+	 */
+	private SoftReference<byte[]> rereadData;
 
 	public static final int program_stream_map = 0xBC;
 	public static final int private_stream_1 = 0xBD;
@@ -100,7 +120,7 @@ public class PesPacketData  implements TreeNode{
 	 * @param pesHandler
 	 * @param i 
 	 */
-	public PesPacketData(final int pesStreamID, final int pesLength,final GeneralPesHandler pesHandler, int packetNo) {
+	public PesPacketData(final int pesStreamID, final int pesLength,final GeneralPesHandler pesHandler, long packetNo) {
 		this.stream_id = pesStreamID;
 		this.noBytes = pesLength;
 		this.pesHandler = pesHandler;
@@ -129,6 +149,7 @@ public class PesPacketData  implements TreeNode{
 		this.pesDataLen = pesPacket.getPesDataLen();
 		this.bytesRead = pesPacket.bytesRead;
 		this.startPacketNo = pesPacket.startPacketNo;
+		this.lastPacketNo = pesPacket.lastPacketNo;
 		processPayload();
 
 	}
@@ -169,10 +190,70 @@ public class PesPacketData  implements TreeNode{
 
 
 	/**
-	 * @return All Data of packet, including packet_start_code_prefix, stream id, PES packet length, pesHeader
+	 * Add the payload of packet, and remember it as last packet of this PES packet, so the data can be read again after releaseData()
+	 *
+	 * @param packet
+	 */
+	public void readBytes(final TSPacket packet){
+		final int payloadOffset = packet.getPayloadOffset();
+		readBytes(packet.getBuffer(), payloadOffset, PAYLOAD_PACKET_LENGTH - payloadOffset);
+		lastPacketNo = packet.getPacketNo();
+	}
+
+	/**
+	 * @return All Data of packet, including packet_start_code_prefix, stream id, PES packet length, pesHeader. Read again from the file after releaseData()
 	 */
 	public byte[] getData() {
-		return data;
+		if(data != null) {
+			return data;
+		}
+		byte[] reread = (rereadData != null) ? rereadData.get() : null;
+		if(reread == null) {
+			reread = readData();
+			rereadData = new SoftReference<>(reread);
+		}
+		return reread;
+	}
+
+	/**
+	 * Drop the reference to data, it is read again from the file when getData() is called. The PES header is kept.
+	 * Subclasses that keep references into data should override this, and release those too.
+	 *
+	 * @return false when the data can not be read again, then data is kept
+	 */
+	public boolean releaseData() {
+		if(data == null) {
+			return true;
+		}
+		if((lastPacketNo < startPacketNo) || (pesHandler == null) || (pesHandler.getTransportStream() == null) || (pesHandler.getPID() == null)) {
+			return false;
+		}
+		try {
+			// own copy of the header bytes, PesHeader keeps a reference to its data
+			pesHeader = new PesHeader(Arrays.copyOf(data, Math.min(data.length, MAX_PES_HEADER_LENGTH)), 0);
+		} catch (final RuntimeException e) {
+			return false;
+		}
+		data = null;
+		return true;
+	}
+
+	/**
+	 * Collect the payloads of the TS packets from startPacketNo to lastPacketNo again, the same way GeneralPesHandler did.
+	 */
+	private byte[] readData() {
+		final PesPacketData reread = new PesPacketData(stream_id, noBytes, pesHandler, startPacketNo);
+		final int pid = pesHandler.getPID().getPid();
+		for(final TSPacket packet : pesHandler.getTransportStream().getTSPackets(pid, startPacketNo, lastPacketNo)) {
+			// a packet with payload_unit_start_indicator after the first one did not belong to this PES packet
+			if(packet.hasPayload() && ((packet.getPacketNo() == startPacketNo) || !packet.isPayloadUnitStartIndicator())) {
+				reread.readBytes(packet);
+			}
+		}
+		if(reread.bytesRead != bytesRead) {
+			logger.warning("Reading PES packet starting at TS packet "+startPacketNo+" again from file, expected "+bytesRead+" bytes, found "+reread.bytesRead);
+		}
+		return reread.data;
 	}
 
 
@@ -256,14 +337,15 @@ public class PesPacketData  implements TreeNode{
 		phv.addToJtree(kvp,modus);
 		if(noBytes==0){
 			kvp.add(new KVP("Actual PES length",bytesRead));
-			kvp.add(new KVP("data",data,0,bytesRead));
+			kvp.add(new KVP("data",getData(),0,bytesRead));
 		}else{
 			if((noBytes+6)!=bytesRead){
 				kvp.add(getErrorKVP("Actual PES length does not match PES Header Length"));
 				kvp.add(new KVP("Actual PES length",bytesRead));
 			}
-			kvp.add(new KVP("data",data));
-			kvp.add(new KVP("payload",data,pesDataStart,pesDataLen));
+			final byte[] pesData = getData();
+			kvp.add(new KVP("data",pesData));
+			kvp.add(new KVP("payload",pesData,pesDataStart,pesDataLen));
 		}
 
 		return kvp;
@@ -304,7 +386,7 @@ public class PesPacketData  implements TreeNode{
 		return pesHandler;
 	}
 
-	public int getStartPacketNo() {
+	public long getStartPacketNo() {
 		return startPacketNo;
 	}
 
@@ -0,0 +1,138 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import nl.digitalekabeltelevisie.data.mpeg.pes.GeneralPidHandler;
+
+/**
+ * Feeds the packets of one PID to its GeneralPidHandler on a separate thread. Used by parsePidStreams when more than one PID is parsed, 
+ * so the file is still read once, while the handlers do their work on different cores.
+ * <p>
+ * Packets are handed over in chunks through a bounded queue, so a slow handler slows down the reading instead of filling up memory.
+ *
+ * @author Eric Berendsen
+ *
+ */
+class PidHandlerWorker implements Runnable {
+
+	private static final int CHUNK_SIZE = 256;
+	private static final int QUEUE_CHUNKS = 16;
+	private static final List<TSPacket> END_OF_STREAM = new ArrayList<>();
+
+	private final int pid;
+	private final GeneralPidHandler handler;
+	private final BlockingQueue<List<TSPacket>> queue = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+	private List<TSPacket> chunk = new ArrayList<>(CHUNK_SIZE);
+
+	/**
+	 * exception thrown by the handler, after that the remaining packets are ignored (but still taken from the queue, so the reader does not block)
+	 */
+	private Throwable failure;
+
+	PidHandlerWorker(int pid, GeneralPidHandler handler) {
+		this.pid = pid;
+		this.handler = handler;
+	}
+
+	void add(TSPacket packet) throws InterruptedIOException {
+		chunk.add(packet);
+		if (chunk.size() == CHUNK_SIZE) {
+			put(chunk);
+			chunk = new ArrayList<>(CHUNK_SIZE);
+		}
+	}
+
+	/**
+	 * hand over the last packets, and signal end of stream
+	 * @throws InterruptedIOException
+	 */
+	void finish() throws InterruptedIOException {
+		if (!chunk.isEmpty()) {
+			put(chunk);
+			chunk = new ArrayList<>(CHUNK_SIZE);
+		}
+		put(END_OF_STREAM);
+	}
+
+	private void put(List<TSPacket> packets) throws InterruptedIOException {
+		try {
+			queue.put(packets);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while handing over packets for pid " + pid);
+		}
+	}
+
+	@Override
+	public void run() {
+		try {
+			List<TSPacket> packets = queue.take();
+			while (packets != END_OF_STREAM) {
+				if (failure == null) {
+					processPackets(packets);
+				}
+				packets = queue.take();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void processPackets(List<TSPacket> packets) {
+		try {
+			for (TSPacket packet : packets) {
+				handler.processTSPacket(packet);
+			}
+		} catch (RuntimeException | Error e) {
+			failure = e;
+		}
+	}
+
+	/**
+	 * To be called after the thread running this worker has finished. Throws the exception the handler threw while processing packets, if any.
+	 */
+	void rethrowFailure() {
+		if (failure instanceof RuntimeException runtimeException) {
+			throw runtimeException;
+		}
+		if (failure instanceof Error error) {
+			throw error;
+		}
+	}
+
+	GeneralPidHandler getHandler() {
+		return handler;
+	}
+
+}
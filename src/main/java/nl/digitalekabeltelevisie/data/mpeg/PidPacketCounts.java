@@ -0,0 +1,156 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import static nl.digitalekabeltelevisie.data.mpeg.MPEGConstants.MAX_PIDS;
+
+import java.util.Arrays;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Number of packets per PID in any range of packets, without looking at every packet in the range.
+ * <p>
+ * The packets are divided in blocks of BLOCK_SIZE packets. For every PID that occurs there is an array with the number of packets of that PID
+ * before the start of each block (a prefix sum of the counts per block). The count for a range then is the difference of two array entries,
+ * plus the packets in the partial blocks at both ends of the range, which are counted one by one (less than 2 * BLOCK_SIZE packets).
+ * <p>
+ * Only complete blocks are indexed, {@link #update(long)} adds the blocks that were completed since the last call (when following a growing file).
+ * Memory use is 4 bytes per PID per 1024 packets, about 11 MB for one hour of a 40 Mbps mux with 30 PIDs.
+ * The int entries wrap around after 2^32 packets of a PID, the difference of two entries is still exact for ranges shorter than that.
+ *
+ * @author Eric Berendsen
+ *
+ */
+public final class PidPacketCounts {
+
+	private static final int BLOCK_BITS = 10;
+	private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+	/**
+	 * PID of a packet number
+	 */
+	private final LongToIntFunction packetPid;
+
+	/**
+	 * cumulative[pid][b] is the number of packets with this pid in blocks 0..b-1. null for PIDs not found in the indexed blocks.
+	 */
+	private final int[][] cumulative = new int[MAX_PIDS][];
+	/**
+	 * PIDs for which cumulative != null, in order of first occurrence
+	 */
+	private short[] usedPids = new short[16];
+	private int noUsedPids;
+	/**
+	 * number of complete blocks that have been counted
+	 */
+	private int blocks;
+	private int capacity = 16;
+
+	/**
+	 * @param packetPid returns the PID of a packet, for packet numbers lower than the noPackets passed to update
+	 */
+	PidPacketCounts(LongToIntFunction packetPid) {
+		this.packetPid = packetPid;
+	}
+
+	/**
+	 * Count the packets of the complete blocks that were not counted yet
+	 * @param noPackets number of packets in the transport stream
+	 */
+	void update(long noPackets) {
+		int completeBlocks = (int) (noPackets >>> BLOCK_BITS);
+		if (completeBlocks <= blocks) {
+			return;
+		}
+		ensureCapacity(completeBlocks + 1);
+		final int[] blockCount = new int[MAX_PIDS];
+		for (int block = blocks; block < completeBlocks; block++) {
+			long start = (long) block << BLOCK_BITS;
+			for (long packet = start; packet < start + BLOCK_SIZE; packet++) {
+				int pid = packetPid.applyAsInt(packet);
+				if (cumulative[pid] == null) {
+					addPid(pid);
+				}
+				blockCount[pid]++;
+			}
+			for (int i = 0; i < noUsedPids; i++) {
+				int pid = usedPids[i];
+				cumulative[pid][block + 1] = cumulative[pid][block] + blockCount[pid];
+				blockCount[pid] = 0;
+			}
+		}
+		blocks = completeBlocks;
+	}
+
+	/**
+	 * Adds the number of packets per PID in the range [from, to) to pidCount
+	 *
+	 * @param from first packet
+	 * @param to first packet after the range
+	 * @param pidCount array of MAX_PIDS, the count for each PID is added to it
+	 */
+	public void addCounts(long from, long to, int[] pidCount) {
+		int firstBlock = (int) ((from + BLOCK_SIZE - 1) >>> BLOCK_BITS);
+		int endBlock = (int) Math.min(to >>> BLOCK_BITS, blocks);
+		if (endBlock <= firstBlock) {
+			countPackets(from, to, pidCount);
+			return;
+		}
+		countPackets(from, (long) firstBlock << BLOCK_BITS, pidCount);
+		for (int i = 0; i < noUsedPids; i++) {
+			int pid = usedPids[i];
+			pidCount[pid] += cumulative[pid][endBlock] - cumulative[pid][firstBlock];
+		}
+		countPackets((long) endBlock << BLOCK_BITS, to, pidCount);
+	}
+
+	private void countPackets(long from, long to, int[] pidCount) {
+		for (long packet = from; packet < to; packet++) {
+			pidCount[packetPid.applyAsInt(packet)]++;
+		}
+	}
+
+	private void addPid(int pid) {
+		cumulative[pid] = new int[capacity];
+		if (noUsedPids == usedPids.length) {
+			usedPids = Arrays.copyOf(usedPids, noUsedPids * 2);
+		}
+		usedPids[noUsedPids++] = (short) pid;
+	}
+
+	private void ensureCapacity(int minCapacity) {
+		if (minCapacity <= capacity) {
+			return;
+		}
+		capacity = Math.max(minCapacity, capacity + (capacity >> 1));
+		for (int i = 0; i < noUsedPids; i++) {
+			int pid = usedPids[i];
+			cumulative[pid] = Arrays.copyOf(cumulative[pid], capacity);
+		}
+	}
+}
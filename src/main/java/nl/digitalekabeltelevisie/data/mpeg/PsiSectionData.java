@@ -35,6 +35,8 @@ import static nl.digitalekabeltelevisie.util.Utils.getInt;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -57,17 +59,22 @@ public class PsiSectionData {
 
 	private byte [] data ;
 	private int noBytes=0;
-	private int packet_no=0;
+	private long packet_no=0;
 	final TransportStream transportStream;
 	private final PID parentPID;
 
 	private boolean complete = false;
+
+	/**
+	 * set when this section is handed to a table that keeps versions, the TableSection the table holds for it. See AbstractPSITabel.updateSectionVersion
+	 */
+	private TableSection storedSection;
 	
 	
 
 	private static final Logger logger = Logger.getLogger(PsiSectionData.class.getName());
 
-	public PsiSectionData(final PID parent, final int packetNo, final TransportStream transportStream) {
+	public PsiSectionData(final PID parent, final long packetNo, final TransportStream transportStream) {
 		this.parentPID = parent;
 		this.packet_no = packetNo;
 		this.transportStream = transportStream;
@@ -84,6 +91,23 @@ public class PsiSectionData {
 	}
 
 
+	/**
+	 * Recreates a section that was completed while parsing the file, used when loading from the index cache.
+	 * @param parent
+	 * @param packetNo
+	 * @param transportStream
+	 * @param data
+	 * @param noBytes
+	 */
+	PsiSectionData(final PID parent, final long packetNo, final TransportStream transportStream, final byte[] data, final int noBytes) {
+		this.parentPID = parent;
+		this.packet_no = packetNo;
+		this.transportStream = transportStream;
+		this.data = data;
+		this.noBytes = noBytes;
+		this.complete = true;
+	}
+
 	public PsiSectionData(byte[] src) {
 		this.parentPID = null;
 		this.packet_no = -1;
@@ -127,29 +151,87 @@ public class PsiSectionData {
 			noBytes+=read2; // now we have read2 bytes more.
 			if(read2==need){
 				// complete SI section, handle it in PSI
-				updatePSI(pid);
-
-				// now put it in general PID table
-				// when it is not valid an exception will be thrown, caught and ignored. The section will be discarded
-
-				if(PreferencesManager.isEnableGenericPSI()) {
-        				try {
-        					final TableSection psi= new TableSection(this,parentPID);
-        					parentPID.getPsi().update(psi);
-        				} catch (final RuntimeException re) {
-        					logger.log(Level.WARNING, "RuntimeException in readBytes PIDs: pid="+pid, re);
-        				}
+				// when parsing in parallel this is postponed, so PSI is still updated in packet order
+				if(transportStream.isParallelParsing()) {
+					parentPID.deferPsiUpdate(this);
+				}else {
+					transportStream.updatePsi(this::updatePSI);
 				}
+
+				updateGeneralPSITable(pid);
 				complete=true;
 			}
 		}
 		return(read1+read2);
 	}
 
+	/**
+	 * now put it in general PID table
+	 * when it is not valid an exception will be thrown, caught and ignored. The section will be discarded
+	 * @param pid
+	 */
+	private void updateGeneralPSITable(final int pid) {
+		if(PreferencesManager.isEnableGenericPSI()) {
+			try {
+				final SectionRepeatCache repeatCache = parentPID.getGeneralPsiRepeatCache();
+				final TableSection repeat = repeatCache.findRepeat(this);
+				if(repeat!=null) {
+					parentPID.getPsi().updateRepeat(repeat, packet_no);
+					return;
+				}
+				final TableSection psi= new TableSection(this,parentPID);
+				storedSection = null;
+				parentPID.getPsi().update(psi);
+				repeatCache.put(this, storedSection != null ? storedSection : psi);
+				storedSection = null;
+			} catch (final RuntimeException re) {
+				logger.log(Level.WARNING, "RuntimeException in readBytes PIDs: pid="+pid, re);
+			}
+		}
+	}
+
+	void updatePSI() {
+		updatePSI(parentPID.getPid());
+	}
+
+	/**
+	 * hand a section loaded from the index cache to PSI and the general PID table, like readBytes does when it completes a section
+	 */
+	void replay() {
+		final int pid = parentPID.getPid();
+		updatePSI(pid);
+		updateGeneralPSITable(pid);
+	}
+
+	/**
+	 * Hand a section to a table that keeps one chain of versions per table_id/table_id_extension/section_number.
+	 * When this section is a repeat of the last version, only the statistics of that version are updated, without building a new typed section.
+	 * @param table
+	 * @param sectionBuilder
+	 */
+	private <T extends TableSection> void updateTable(final Consumer<T> table, final Supplier<T> sectionBuilder) {
+		final SectionRepeatCache repeatCache = parentPID.getPsiRepeatCache();
+		final TableSection repeat = repeatCache.findRepeat(this);
+		if(repeat!=null) {
+			AbstractPSITabel.updateOccurrence(repeat, packet_no);
+			return;
+		}
+		final T section = sectionBuilder.get();
+		storedSection = null;
+		table.accept(section);
+		repeatCache.put(this, storedSection != null ? storedSection : section);
+		storedSection = null;
+	}
+
+	public void setStoredSection(final TableSection storedSection) {
+		this.storedSection = storedSection;
+	}
+
 	/**
 	 * @param pid
 	 */
 	private void updatePSI(final int pid) {
+		transportStream.recordSection(this);
 		try {
 			if(pid==0){
 				transportStream.getPsi().getPat().update(new PATsection(this,parentPID));
@@ -158,23 +240,23 @@ public class PsiSectionData {
 				final int tableId = Byte.toUnsignedInt(data[0]);
 				if((tableId==0x02)&&
 						(transportStream.getPsi().getPat().inPAT(pid))){
-					transportStream.getPsi().getPmts().update(new PMTsection(this,parentPID));
+					updateTable(transportStream.getPsi().getPmts()::update, () -> new PMTsection(this,parentPID));
 				}else if((tableId==0x01)&&(pid==0x01)){
-					transportStream.getPsi().getCat().update(new CAsection(this,parentPID));
+					updateTable(transportStream.getPsi().getCat()::update, () -> new CAsection(this,parentPID));
 				}else if((tableId==0x03)&&(pid==0x02)){
 					transportStream.getPsi().getTsdt().update(new TSDTsection(this,parentPID));
 				}else if((pid==0x10)&&((tableId==0x40)||(tableId==0x41))){  // NIT
-					transportStream.getPsi().getNit().update(new NITsection(this,parentPID));
+					updateTable(transportStream.getPsi().getNit()::update, () -> new NITsection(this,parentPID));
 				}else if((tableId==0x4A)&&(pid==0x11)){
-					transportStream.getPsi().getBat().update(new BATsection(this,parentPID));
+					updateTable(transportStream.getPsi().getBat()::update, () -> new BATsection(this,parentPID));
 				}else if((0x4E<=tableId)&&(tableId<=0x6F)&&(pid==0x12)){
-					transportStream.getPsi().getEit().update(new EITsection(this,parentPID));
+					updateTable(transportStream.getPsi().getEit()::update, () -> new EITsection(this,parentPID));
 				}else if((pid==0x14) &&(tableId==0x70)){
 					transportStream.getPsi().getTdt().update(new TDTsection(this,parentPID));
 				}else if((pid==0x14) &&(tableId==0x73)){
 					transportStream.getPsi().getTot().update(new TOTsection(this,parentPID));
 				}else if((pid==0x11) &&((tableId==0x42)||(tableId==0x46))){
-					transportStream.getPsi().getSdt().update(new SDTsection(this,parentPID));
+					updateTable(transportStream.getPsi().getSdt()::update, () -> new SDTsection(this,parentPID));
 				}else if((pid==0x1F) &&(tableId==0x7F)){
 					transportStream.getPsi().getSit().update(new SITsection(this,parentPID));
 				}else if((tableId==0x4c)&&isINTSection(pid)){ // check for linkage descriptors 0x0B located in the NIT  //ETSI EN 301 192 V1.4.2
@@ -290,7 +372,7 @@ public class PsiSectionData {
 	 * @return the position of the first TSpacket of this PSISection in the TransportStream
 	 */
 
-	public int getPacket_no() {
+	public long getPacket_no() {
 		return packet_no;
 	}
 	
@@ -440,7 +522,7 @@ public class PsiSectionData {
 		return false;
 	}
 
-	public void setPacket_no(final int packet_no) {
+	public void setPacket_no(final long packet_no) {
 		this.packet_no = packet_no;
 	}
 
@@ -0,0 +1,117 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import nl.digitalekabeltelevisie.data.mpeg.psi.TableSection;
+
+/**
+ * Remembers, per (table_id, table_id_extension, section_number), and for SDT and EIT also per (original_network_id, transport_stream_id), the TableSection that was stored last in a PSI table for a PID.
+ * When the next section with that key has exactly the same bytes, and the stored section is still the last version in its table,
+ * the table would only update the statistics of the stored section. Then there is no need to build (and parse the descriptors of) a new TableSection.
+ * <p>
+ * Only used for sections with section_syntax_indicator set, and only for tables that keep one chain of versions per key,
+ * see {@link nl.digitalekabeltelevisie.data.mpeg.psi.AbstractPSITabel#updateSectionVersion(TableSection, TableSection)}.
+ * Not thread safe, a PID has separate instances for the typed PSI tables and for the general PSI table, as those can be updated from different threads during a parallel parse.
+ *
+ * @author Eric Berendsen
+ *
+ */
+final class SectionRepeatCache {
+
+	private final Map<Long, TableSection> lastSections = new HashMap<>();
+
+	/**
+	 * @param section
+	 * @return the stored TableSection that has the same bytes as section, or null if section has to be parsed and handed to the table
+	 */
+	TableSection findRepeat(PsiSectionData section) {
+		if (!hasSyntaxIndicator(section)) {
+			return null;
+		}
+		TableSection last = lastSections.get(key(section));
+		if ((last == null) || (last.getNextVersion() != null) || !sameBytes(last.getRaw_data(), section)) {
+			return null;
+		}
+		return last;
+	}
+
+	/**
+	 * @param section the section that was just handed to a table
+	 * @param stored the TableSection the table holds for it, either the one created from section, or the existing version it was equal to
+	 */
+	void put(PsiSectionData section, TableSection stored) {
+		if (hasSyntaxIndicator(section)) {
+			lastSections.put(key(section), stored);
+		}
+	}
+
+	private static boolean hasSyntaxIndicator(PsiSectionData section) {
+		byte[] data = section.getData();
+		return (data.length > 8) && ((data[1] & 0x80) != 0);
+	}
+
+	private static Long key(PsiSectionData section) {
+		byte[] data = section.getData();
+		int tableId = Byte.toUnsignedInt(data[0]);
+		int key = (tableId << 24) | (Byte.toUnsignedInt(data[3]) << 16) | (Byte.toUnsignedInt(data[4]) << 8) | Byte.toUnsignedInt(data[6]);
+		return ((long)networkKey(tableId, data) << 32) | Integer.toUnsignedLong(key);
+	}
+
+	/**
+	 * SDT and EIT tables keep their sections per transport stream (the actual and other tables carry those of many streams),
+	 * so sections of different streams with the same table_id_extension should not replace each other in the cache.
+	 *
+	 * @return original_network_id for an SDT, (transport_stream_id, original_network_id) for an EIT, 0 for other tables
+	 */
+	private static int networkKey(int tableId, byte[] data) {
+		if (((tableId == 0x42) || (tableId == 0x46)) && (data.length > 10)) { // SDT, tid_ext is transport_stream_id
+			return (Byte.toUnsignedInt(data[8]) << 8) | Byte.toUnsignedInt(data[9]);
+		}
+		if ((tableId >= 0x4E) && (tableId <= 0x6F) && (data.length > 12)) { // EIT, tid_ext is service_id
+			return (Byte.toUnsignedInt(data[8]) << 24) | (Byte.toUnsignedInt(data[9]) << 16) | (Byte.toUnsignedInt(data[10]) << 8) | Byte.toUnsignedInt(data[11]);
+		}
+		return 0;
+	}
+
+	/**
+	 * same test as PsiSectionData.equals for two sections of the same PID, the CRC_32 at the end is compared first, as it will differ for most changed sections
+	 */
+	private static boolean sameBytes(PsiSectionData stored, PsiSectionData section) {
+		byte[] a = stored.getData();
+		byte[] b = section.getData();
+		if ((a.length != b.length) || (stored.getNoBytes() != section.getNoBytes())) {
+			return false;
+		}
+		int crcStart = a.length - 4;
+		return Arrays.equals(a, crcStart, a.length, b, crcStart, b.length) && Arrays.equals(a, b);
+	}
+}
@@ -0,0 +1,272 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import nl.digitalekabeltelevisie.util.PreferencesManager;
+
+/**
+ * Sidecar index file ("&lt;file&gt;.dvbidx") that stores the result of the first pass through a transport stream, so opening the same file again does not require reading all of it.
+ * <p>
+ * The index holds the packet_pid array, the file offsets of the packets, the AVCHD arrival time stamps, the state of all PIDs and all input to PSI:
+ * the completed PSI sections and the mega-frame initialization packets. Each distinct section is stored once, with the packet numbers of all its occurrences.
+ * When loading, the PSI tables are rebuilt by handing the sections to PSI again, in the original order.
+ * <p>
+ * The index is only used when length, modification time and a hash of the start and end of the file match,
+ * and the settings that change the result of the first pass are the same. Otherwise the file is parsed again, and the index is rewritten.
+ *
+ * @author Eric Berendsen
+ *
+ */
+final class StreamIndex {
+
+	private static final Logger logger = Logger.getLogger(StreamIndex.class.getName());
+
+	static final String SUFFIX = ".dvbidx";
+
+	private static final int MAGIC = 0x44564249; // "DVBI"
+	private static final int VERSION = 5;
+
+	/**
+	 * number of bytes at start and at end of the file that are used for the content hash
+	 */
+	private static final int HASH_BLOCK_SIZE = 64 * 1024;
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private StreamIndex() {
+		// static only
+	}
+
+	static File getIndexFile(File file) {
+		return new File(file.getPath() + SUFFIX);
+	}
+
+	/**
+	 * @param transportStream freshly reset TransportStream
+	 * @return true when the state of transportStream was loaded from a valid index, false when the file has to be parsed
+	 */
+	static boolean load(TransportStream transportStream) {
+		File indexFile = getIndexFile(transportStream.getFile());
+		if (!indexFile.isFile()) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(indexFile), BUFFER_SIZE), BUFFER_SIZE))) {
+			if (!keyMatches(in, transportStream)) {
+				logger.info("Index " + indexFile + " is out of date, parsing file");
+				return false;
+			}
+			transportStream.readIndex(in);
+			logger.info("Loaded index " + indexFile);
+			return true;
+		} catch (IOException | RuntimeException e) {
+			logger.log(Level.WARNING, "Could not load index " + indexFile + ", parsing file", e);
+			return false;
+		}
+	}
+
+	/**
+	 * Write the index for a transport stream that was just parsed. Failing to write (like for a file on read only media) is logged and otherwise ignored.
+	 * @param transportStream
+	 * @param psiRecorder all input to PSI during parsing
+	 */
+	static void save(TransportStream transportStream, PsiRecorder psiRecorder) {
+		File indexFile = getIndexFile(transportStream.getFile());
+		File tmpFile = new File(indexFile.getPath() + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tmpFile), BUFFER_SIZE), BUFFER_SIZE))) {
+				writeKey(out, transportStream);
+				transportStream.writeIndex(out, psiRecorder);
+			}
+			Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			logger.info("Written index " + indexFile);
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Could not write index " + indexFile, e);
+			tmpFile.delete();
+		}
+	}
+
+	private static void writeKey(DataOutput out, TransportStream transportStream) throws IOException {
+		File file = transportStream.getFile();
+		long length = transportStream.getLen();
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeLong(length);
+		out.writeLong(file.lastModified());
+		out.writeLong(contentHash(file, length));
+		out.writeInt(transportStream.getPacketLenghth());
+		out.writeBoolean(PreferencesManager.isEnablePcrPtsView());
+		out.writeBoolean(PreferencesManager.isEnableHumaxAtsFix());
+	}
+
+	private static boolean keyMatches(DataInput in, TransportStream transportStream) throws IOException {
+		File file = transportStream.getFile();
+		long length = file.length();
+		return (in.readInt() == MAGIC)
+				&& (in.readInt() == VERSION)
+				&& (in.readLong() == length)
+				&& (in.readLong() == file.lastModified())
+				&& (in.readLong() == contentHash(file, length))
+				&& (in.readInt() == transportStream.getPacketLenghth())
+				&& (in.readBoolean() == PreferencesManager.isEnablePcrPtsView())
+				&& (in.readBoolean() == PreferencesManager.isEnableHumaxAtsFix());
+	}
+
+	/**
+	 * CRC32 of the first and last HASH_BLOCK_SIZE bytes of the file, catches a file that was replaced by another one of the same size
+	 */
+	private static long contentHash(File file, long length) throws IOException {
+		CRC32 crc = new CRC32();
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+			byte[] block = new byte[(int) Math.min(HASH_BLOCK_SIZE, length)];
+			randomAccessFile.readFully(block);
+			crc.update(block);
+			randomAccessFile.seek(length - block.length);
+			randomAccessFile.readFully(block);
+			crc.update(block);
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Records everything that is handed to PSI during the first pass, in order. Most sections are repeated many times,
+	 * so each distinct payload is kept once, and every occurrence is only a payload number and a packet number.
+	 */
+	static final class PsiRecorder {
+
+		private static final byte SECTION = 0;
+		private static final byte MEGA_FRAME_INITIALIZATION_PACKET = 1;
+
+		/**
+		 * @param type SECTION or MEGA_FRAME_INITIALIZATION_PACKET
+		 * @param data compared by content
+		 */
+		private record Payload(byte type, int pid, ByteBuffer data) {}
+
+		private final Map<Payload, Integer> payloadIds = new HashMap<>();
+		private final List<Payload> payloads = new ArrayList<>();
+		/**
+		 * payload id and packet number of each occurrence
+		 */
+		private int[] occurrenceIds = new int[1024];
+		private long[] occurrencePacketNos = new long[1024];
+		private int noOccurrences;
+
+		void addSection(PsiSectionData section) {
+			add(SECTION, section.getPid(), section.getPacket_no(), section.getData(), section.getNoBytes());
+		}
+
+		void addMegaFrameInitializationPacket(int pid, long packetNo, byte[] packet) {
+			add(MEGA_FRAME_INITIALIZATION_PACKET, pid, packetNo, packet, packet.length);
+		}
+
+		private void add(byte type, int pid, long packetNo, byte[] data, int length) {
+			Integer id = payloadIds.get(new Payload(type, pid, ByteBuffer.wrap(data, 0, length)));
+			if (id == null) {
+				final Payload payload = new Payload(type, pid, ByteBuffer.wrap(Arrays.copyOf(data, length)));
+				id = payloads.size();
+				payloads.add(payload);
+				payloadIds.put(payload, id);
+			}
+			if (noOccurrences == occurrenceIds.length) {
+				occurrenceIds = Arrays.copyOf(occurrenceIds, noOccurrences * 2);
+				occurrencePacketNos = Arrays.copyOf(occurrencePacketNos, noOccurrences * 2);
+			}
+			occurrenceIds[noOccurrences] = id;
+			occurrencePacketNos[noOccurrences] = packetNo;
+			noOccurrences++;
+		}
+
+		int getNoPayloads() {
+			return payloads.size();
+		}
+
+		int getNoOccurrences() {
+			return noOccurrences;
+		}
+
+		void write(DataOutput out) throws IOException {
+			out.writeInt(payloads.size());
+			for (final Payload payload : payloads) {
+				out.writeByte(payload.type());
+				out.writeShort(payload.pid());
+				final byte[] data = payload.data().array();
+				out.writeInt(data.length);
+				out.write(data);
+			}
+			out.writeInt(noOccurrences);
+			for (int i = 0; i < noOccurrences; i++) {
+				out.writeInt(occurrenceIds[i]);
+				out.writeLong(occurrencePacketNos[i]);
+			}
+		}
+
+		/**
+		 * Hand everything written by write to PSI again, in the original order
+		 * @param in
+		 * @param pids the PIDs of transportStream, already restored
+		 * @param transportStream
+		 */
+		static void replay(DataInput in, PID[] pids, TransportStream transportStream) throws IOException {
+			final int noPayloads = in.readInt();
+			final byte[] types = new byte[noPayloads];
+			final int[] payloadPids = new int[noPayloads];
+			final byte[][] data = new byte[noPayloads][];
+			for (int i = 0; i < noPayloads; i++) {
+				types[i] = in.readByte();
+				payloadPids[i] = in.readShort();
+				data[i] = new byte[in.readInt()];
+				in.readFully(data[i]);
+			}
+			final int noOccurrences = in.readInt();
+			for (int i = 0; i < noOccurrences; i++) {
+				final int id = in.readInt();
+				final long packetNo = in.readLong();
+				final PID pid = pids[payloadPids[id]];
+				if (types[id] == SECTION) {
+					new PsiSectionData(pid, packetNo, transportStream, data[id], data[id].length).replay();
+				} else {
+					pid.updateNetworkSync(data[id], packetNo);
+				}
+			}
+		}
+	}
+}
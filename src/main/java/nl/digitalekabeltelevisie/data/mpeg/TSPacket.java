@@ -39,6 +39,7 @@ import static nl.digitalekabeltelevisie.util.Utils.getInt;
 import static nl.digitalekabeltelevisie.util.Utils.toHexString;
 
 import java.awt.Color;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.logging.Logger;
 
@@ -67,7 +68,7 @@ public class TSPacket implements HTMLSource, TreeNode{
 	private static final String ERROR_PARSING_ADAPTATION_FIELD = "Error parsing AdaptationField";
 	protected final byte[] buffer ;
 
-	protected int packetNo=-1;
+	protected long packetNo=-1;
 	final protected static Color HEADER_COLOR = new Color(0x0000ff);
 	final protected static Color ADAPTATION_FIELD_COLOR = new Color(0x008000);
 	final protected static Color FEC_COLOR = new Color(0x800080);
@@ -104,12 +105,72 @@ public class TSPacket implements HTMLSource, TreeNode{
 	 * @param no position number of this packet in the stream
 	 * @param ts TransportStream this packet belongs to, needed to find stuff like service name.
 	 */
-	public TSPacket(final byte[] buf, final int no, final TransportStream ts) {
+	public TSPacket(final byte[] buf, final long no, final TransportStream ts) {
 		buffer=Arrays.copyOf(buf, buf.length); //buf should be copied, or else PID.getLast_packet() will always point to last packet parsed, regardless of the actual pid.
 		packetNo = no;
 		transportStream = ts;
 	}
 
+	/**
+	 * Creates a packet from a view on a (mapped) buffer, bytes are copied once directly from the buffer into the packet.
+	 * @param src buffer containing the packet
+	 * @param index position of the first byte of the packet in src
+	 * @param length number of bytes in the packet
+	 * @param no position number of this packet in the stream
+	 * @param ts TransportStream this packet belongs to
+	 */
+	public TSPacket(final ByteBuffer src, final int index, final int length, final long no, final TransportStream ts) {
+		buffer = new byte[length];
+		src.get(index, buffer);
+		packetNo = no;
+		transportStream = ts;
+	}
+
+	/**
+	 * Creates an empty packet, that gets its content from {@link #wrap(ByteBuffer, int, long)}.
+	 * During the first pass through a file one instance is reused for all packets, so no arrays are allocated per packet.
+	 * Use {@link #copy()} when the packet has to be retained.
+	 * @param length number of bytes in the packet
+	 * @param ts TransportStream this packet belongs to
+	 */
+	TSPacket(final int length, final TransportStream ts) {
+		buffer = new byte[length];
+		transportStream = ts;
+	}
+
+	/**
+	 * Replaces the content of this packet with the packet at index in src
+	 * @param src buffer containing the packet
+	 * @param index position of the first byte of the packet in src
+	 * @param no position number of this packet in the stream
+	 */
+	void wrap(final ByteBuffer src, final int index, final long no) {
+		src.get(index, buffer);
+		packetNo = no;
+		packetOffset = -1;
+		pesHeader = null;
+	}
+
+	/**
+	 * Replaces the content of this packet with that of other, without allocating. Both packets should have the same length.
+	 * @param other
+	 */
+	void copyFrom(final TSPacket other) {
+		System.arraycopy(other.buffer, 0, buffer, 0, buffer.length);
+		packetNo = other.packetNo;
+		packetOffset = other.packetOffset;
+		pesHeader = null;
+	}
+
+	/**
+	 * @return a new packet with the same content, that does not change when this packet is reused
+	 */
+	TSPacket copy() {
+		final TSPacket result = new TSPacket(buffer.length, transportStream);
+		result.copyFrom(this);
+		return result;
+	}
+
 	public int getTransportScramblingControl(){
 		return (buffer[3] & 0xC0) >>6;
 	}
@@ -191,7 +252,12 @@ public class TSPacket implements HTMLSource, TreeNode{
 		if((adaptationFieldControl==2)||(adaptationFieldControl==3)) { //Adaptation field present
 			AdaptationField adaptationField;
 			try {
-				adaptationField =  new AdaptationField(Arrays.copyOfRange(buffer,4, 4+toUnsignedInt(buffer[4])+1));
+				final int end = 4+toUnsignedInt(buffer[4])+1;
+				if(end<=buffer.length) {
+					adaptationField =  new AdaptationField(buffer, 4, end);
+				}else { // broken adaptation_field_length, copy pads with zeros
+					adaptationField =  new AdaptationField(Arrays.copyOfRange(buffer,4, end));
+				}
 				return adaptationField;
 			} catch (Exception e) {
 				logger.info("Exception creating AdaptationField");
@@ -204,14 +270,20 @@ public class TSPacket implements HTMLSource, TreeNode{
 	 * @return the payload of this TSPacket, direct after the adaptationField
 	 */
 	public byte[] getData(){
+		return Arrays.copyOfRange(buffer, getPayloadOffset(), PAYLOAD_PACKET_LENGTH);
+	}
+
+	/**
+	 * @return position in {@link #getBuffer()} where the payload starts, the payload ends at PAYLOAD_PACKET_LENGTH. Equal to PAYLOAD_PACKET_LENGTH if there is no payload.
+	 */
+	public int getPayloadOffset(){
 		final int adaptationFieldControl = getAdaptationFieldControl();
 		if((adaptationFieldControl==1)) { //payload only
-			return Arrays.copyOfRange(buffer,4, PAYLOAD_PACKET_LENGTH);
+			return 4;
 		}else if((adaptationFieldControl==3)) { //Adaptation followed by payload
-			final int start = Math.min(4+toUnsignedInt(buffer[4])+1, PAYLOAD_PACKET_LENGTH);
-			return Arrays.copyOfRange(buffer, start,PAYLOAD_PACKET_LENGTH);
+			return Math.min(4+toUnsignedInt(buffer[4])+1, PAYLOAD_PACKET_LENGTH);
 		}
-		return new byte[0];
+		return PAYLOAD_PACKET_LENGTH;
 	}
 
 	public short getPID()
@@ -231,7 +303,7 @@ public class TSPacket implements HTMLSource, TreeNode{
 	/**
 	 * @return the position of this packet in the TransportStream
 	 */
-	public int getPacketNo() {
+	public long getPacketNo() {
 		return packetNo;
 	}
 
@@ -244,7 +316,7 @@ public class TSPacket implements HTMLSource, TreeNode{
 	/**
 	 * @param packet_no
 	 */
-	public void setPacketNo(final int packet_no) {
+	public void setPacketNo(final long packet_no) {
 		this.packetNo = packet_no;
 	}
 
@@ -36,7 +36,7 @@ import nl.digitalekabeltelevisie.gui.HTMLSource;
 
 public class TemiTimeStamp implements TreeNode, HTMLSource {
 
-	private final int packetNo;
+	private final long packetNo;
 	private long pts;
 	private final BigInteger media_timestamp;
 	private final long timescale;
@@ -46,7 +46,7 @@ public class TemiTimeStamp implements TreeNode, HTMLSource {
 	private final int paused;
 
 
-	public TemiTimeStamp(int packetNo, long pts, BigInteger media_timestamp, long timescale, int discontinuity, int timeline_id,
+	public TemiTimeStamp(long packetNo, long pts, BigInteger media_timestamp, long timescale, int discontinuity, int timeline_id,
 			int paused) {
 		this.packetNo = packetNo;
 		this.pts = pts;
@@ -59,7 +59,7 @@ public class TemiTimeStamp implements TreeNode, HTMLSource {
 	}
 
 
-	public TemiTimeStamp(int packetNo, BigInteger media_timestamp, long timescale, int discontinuity, int timeline_id,
+	public TemiTimeStamp(long packetNo, BigInteger media_timestamp, long timescale, int discontinuity, int timeline_id,
 			int paused) {
 		this.packetNo = packetNo;
 		this.pts = -1L;
@@ -73,7 +73,7 @@ public class TemiTimeStamp implements TreeNode, HTMLSource {
 	public double getTime(){
 		return media_timestamp.doubleValue()/timescale;
 	}
-	public int getPacketNo() {
+	public long getPacketNo() {
 		return packetNo;
 	}
 	
@@ -0,0 +1,151 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Growable list of time stamps (PCR, PTS or DTS), stored as parallel arrays instead of one object per time stamp.
+ * Readers get an immutable snapshot through view().
+ * <p>
+ * There is one writer thread at a time (the parse, or the follow mode worker), view() can be called from any thread.
+ * The arrays are published through a volatile Columns, and size is volatile and written after the new time stamp,
+ * so a view always sees the time stamps up to its size.
+ * <p>
+ * The x value is the packet number, which fits in an int, so normally a time stamp takes 12 bytes. For AVCHD the x value is the arrival time,
+ * which needs a long. The x values are widened to a long array the first time a value does not fit in an int.
+ *
+ * @author Eric Berendsen
+ *
+ */
+public final class TimeStampList {
+
+	private static final int[] EMPTY_INT = new int[0];
+	private static final long[] EMPTY = new long[0];
+
+	/**
+	 * the arrays, replaced by new ones when they grow or the x values are widened
+	 */
+	private static final class Columns {
+		/**
+		 * x values while they all fit in an int, null after widening
+		 */
+		final int[] intXs;
+		/**
+		 * x values after widening, null before
+		 */
+		final long[] longXs;
+		final long[] times;
+
+		Columns(final int[] intXs, final long[] longXs, final long[] times) {
+			this.intXs = intXs;
+			this.longXs = longXs;
+			this.times = times;
+		}
+	}
+
+	private volatile Columns columns = new Columns(EMPTY_INT, null, EMPTY);
+	private volatile int size;
+
+	/**
+	 * @param x packet number, or for AVCHD the arrival time
+	 * @param time value of the time stamp
+	 */
+	public void add(final long x, final long time) {
+		Columns c = columns;
+		final int n = size;
+		if ((c.intXs != null) && (x != (int) x)) {
+			c = widen(c, n);
+		}
+		if (n == c.times.length) {
+			final int newLength = Math.max(16, n + (n >> 1));
+			c = new Columns(c.intXs != null ? Arrays.copyOf(c.intXs, newLength) : null,
+					c.longXs != null ? Arrays.copyOf(c.longXs, newLength) : null,
+					Arrays.copyOf(c.times, newLength));
+			columns = c;
+		}
+		if (c.intXs != null) {
+			c.intXs[n] = (int) x;
+		} else {
+			c.longXs[n] = x;
+		}
+		c.times[n] = time;
+		size = n + 1;
+	}
+
+	/**
+	 * copy the x values to a new long array, views that were handed out keep the int array
+	 */
+	private Columns widen(final Columns c, final int n) {
+		final long[] longXs = new long[c.times.length];
+		for (int i = 0; i < n; i++) {
+			longXs[i] = c.intXs[i];
+		}
+		final Columns widened = new Columns(null, longXs, c.times);
+		columns = widened;
+		return widened;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return the time stamps added so far. Later additions do not change the returned series
+	 */
+	public TimeStampSeries view() {
+		final int n = size; // read before columns, columns published later hold copies of the first n time stamps
+		final Columns c = columns;
+		return new TimeStampSeries(c.intXs, c.longXs, c.times, n);
+	}
+
+	void write(final DataOutput out) throws IOException {
+		final TimeStampSeries series = view();
+		out.writeInt(series.size());
+		for (int i = 0; i < series.size(); i++) {
+			out.writeLong(series.getX(i));
+			out.writeLong(series.getTime(i));
+		}
+	}
+
+	void read(final DataInput in) throws IOException {
+		final int newSize = in.readInt();
+		columns = new Columns(EMPTY_INT, null, EMPTY);
+		size = 0;
+		for (int i = 0; i < newSize; i++) {
+			add(in.readLong(), in.readLong());
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+/**
+ * Read only view on the first size elements of a TimeStampList. Because a TimeStampList only appends,
+ * the arrays can be shared with the list.
+ *
+ * @author Eric Berendsen
+ *
+ */
+public final class TimeStampSeries {
+
+	/**
+	 * x values as stored by the TimeStampList, exactly one of intXs and longXs is not null
+	 */
+	private final int[] intXs;
+	private final long[] longXs;
+	private final long[] times;
+	private final int size;
+
+	TimeStampSeries(final int[] intXs, final long[] longXs, final long[] times, final int size) {
+		this.intXs = intXs;
+		this.longXs = longXs;
+		this.times = times;
+		this.size = size;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @param index
+	 * @return packet number, or for AVCHD the arrival time
+	 */
+	public long getX(final int index) {
+		return (intXs != null) ? intXs[index] : longXs[index];
+	}
+
+	public long getTime(final int index) {
+		return times[index];
+	}
+}
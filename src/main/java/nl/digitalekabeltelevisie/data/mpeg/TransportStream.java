@@ -29,16 +29,20 @@ package nl.digitalekabeltelevisie.data.mpeg;
 
 import static nl.digitalekabeltelevisie.data.mpeg.MPEGConstants.AVCHD_PACKET_LENGTH;
 import static nl.digitalekabeltelevisie.data.mpeg.MPEGConstants.MAX_PIDS;
-import static nl.digitalekabeltelevisie.data.mpeg.MPEGConstants.sync_byte;
+import static nl.digitalekabeltelevisie.data.mpeg.MPEGConstants.system_clock_frequency;
 import static nl.digitalekabeltelevisie.data.mpeg.descriptors.Descriptor.findGenericDescriptorsInList;
 import static nl.digitalekabeltelevisie.util.Utils.*;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -113,10 +117,13 @@ public class TransportStream implements TreeNode{
 	 */
 	private PID [] pids = new PID [MAX_PIDS];
 	/**
-	 * for every TSPacket read, store it's packet_id. Used for bit rate calculations, and Grid View
+	 * for every TSPacket read, store it's packet_id and flags, and for AVCHD the arrival time stamp. Used for bit rate calculations, and Grid View
 	 */
-	private final short [] packet_pid;
-	private int [] packetATS;
+	private PacketMetadataStore packetStore;
+	/**
+	 * packets per PID per block, for bitrate graphs. Created on first use
+	 */
+	private PidPacketCounts pidPacketCounts;
 
 	private OffsetHelper offsetHelper;
 	private RollOverHelper rollOverHelper;
@@ -132,11 +139,23 @@ public class TransportStream implements TreeNode{
 	/**
 	 * how many TSPackets have bean read.
 	 */
-	private int no_packets;
+	private long no_packets;
+	/**
+	 * how many TSPackets the views may look at, see getNo_packets. Lags behind no_packets while readAppendedPackets runs.
+	 */
+	private volatile long publishedPackets;
+	/**
+	 * PSI updates of the packets read by readAppendedPackets, kept till publishAppendedPackets. null when PSI is updated directly.
+	 */
+	private List<Runnable> pendingPsiUpdates;
+	/**
+	 * held by readAppendedPackets and publishAppendedPackets, so a new follower can't start reading while the read of a stopped one is still running
+	 */
+	private final Object followLock = new Object();
 	/**
 	 * number of TSPackets that had Transport Error Indicator set.
 	 */
-	private int error_packets;
+	private long error_packets;
 	/**
 	 * Bitrate based on the average of all PIDs that contain a PCR. This is the most accurate way to calculate the bit rate.
 	 */
@@ -149,8 +168,23 @@ public class TransportStream implements TreeNode{
 	 * time at which this transportStream started. Calculated by calculating backwards from first TDT, using bitrate. null if no TDT found
 	 */
 	private LocalDateTime zeroTime;
+	/**
+	 * PCRs of the PID with the most PCRs, used to calculate the time of a packet. null if no PID has at least 2 PCRs
+	 */
+	private PcrTimeIndex pcrTimeIndex;
 
-	private final long len;
+	private long len;
+
+	/**
+	 * offset in the file where reading stopped, followStream continues from here
+	 */
+	private long parsedLength;
+
+	/**
+	 * state of the AVCHD arrival time stamp roll over, kept between reads when following a growing file
+	 */
+	private int lastArrivalTimeStamp = Integer.MAX_VALUE;
+	private long currentRollOver = -1L;
 	
 	/**
 	 * number of times sync was lost
@@ -160,6 +194,16 @@ public class TransportStream implements TreeNode{
 	private int packetLength = 188;
 
 	public static final int [] ALLOWED_PACKET_LENGTHS = {188,AVCHD_PACKET_LENGTH,204,208};
+
+	/**
+	 * true while parseStream runs with a ParallelPacketProcessor, completed PSI sections are then collected per PID, instead of being handed to PSI directly.
+	 */
+	private boolean parallelParsing = false;
+
+	/**
+	 * while parsing with the index cache enabled, records all input to PSI in the order it was handed to PSI. null otherwise.
+	 */
+	private StreamIndex.PsiRecorder psiRecorder;
 	
 
 	/**
@@ -181,10 +225,9 @@ public class TransportStream implements TreeNode{
 		this.file = file;
 		len = file.length();
 		packetLength = determinePacketLengthToUse(file);
-		int max_packets = (int) (len / packetLength);
-		packet_pid = new short [max_packets];
+		long max_packets = maxPackets(len);
+		packetStore = new PacketMetadataStore(isAVCHD());
 		if(isAVCHD()) {
-			packetATS = new int [max_packets];
 			enabledHumaxAtsFix = PreferencesManager.isEnableHumaxAtsFix();
 			rollOverHelper = new RollOverHelper(max_packets);
 		}
@@ -209,14 +252,13 @@ public class TransportStream implements TreeNode{
 		if(file.length() < 752L) {
 			throw new NotAnMPEGFileException("File too short to determine packet length automatic. File should have at least 5 consecutive packets.\n\nTry setting packet length manual.");
 		}
-		try(RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")){
-			for(int possiblePacketLength:ALLOWED_PACKET_LENGTHS){
-				logger.log(Level.INFO, "Trying for packetLength {0}",possiblePacketLength);
-	
-				if(usesPacketLength(possiblePacketLength, randomAccessFile)){
-					logger.log(Level.INFO, "Found packetLength {0}",possiblePacketLength);
-					return possiblePacketLength;
-				}
+		ByteBuffer start = readStartOfFile(file);
+		for(int possiblePacketLength:ALLOWED_PACKET_LENGTHS){
+			logger.log(Level.FINE, "Trying for packetLength {0}",possiblePacketLength);
+			int startPos = SyncScanner.findPacketStart(start, 0, MAX_SEARCH_BYTES + 1, possiblePacketLength, 0, CONSECUTIVE_PACKETS);
+			if(startPos >= 0){
+				logger.log(Level.INFO, "Found packetLength {0} at position {1}",new Object[]{possiblePacketLength,startPos});
+				return possiblePacketLength;
 			}
 		}
 		throw new NotAnMPEGFileException("""
@@ -230,149 +272,348 @@ public class TransportStream implements TreeNode{
 	}
 
 	/**
-	 * @param possiblePacketLength
-	 * @param randomAccessFile
+	 * read the part of the file where determineActualPacketLength looks for sync bytes, in one read.
+	 * The buffer is always large enough for all start positions and packet lengths, bytes after the end of the file are 0.
+	 * @param file
 	 * @return
 	 * @throws IOException
 	 */
-	private static boolean usesPacketLength(int possiblePacketLength, RandomAccessFile randomAccessFile) throws IOException {
-		int startPos = 0;
-		do{
-			logger.log(Level.INFO, "starting at position {0}",startPos);
-			randomAccessFile.seek(startPos);
-			int b = randomAccessFile.read();
-			while ((b != sync_byte)&&(startPos<MAX_SEARCH_BYTES)){
-				b = randomAccessFile.read();
-				startPos++;
-			}
-			logger.log(Level.INFO, "found a sync byte at position {0}",startPos);
-			// found a sync byte, try to find next 4 sync bytes
-			boolean seqFound = true;
-			for (int i = 1; (i < CONSECUTIVE_PACKETS) && seqFound; i++) {
-				randomAccessFile.seek(startPos + ((long)i * possiblePacketLength));
-				logger.log(Level.INFO, "found {0} sequence syncs at pos {1}",new Object[]{i,startPos + (i * possiblePacketLength)});
-				seqFound = (randomAccessFile.read() == sync_byte);
-			}
-			if(seqFound){
-				return true;
+	private static ByteBuffer readStartOfFile(File file) throws IOException {
+		int maxPacketLength = Arrays.stream(ALLOWED_PACKET_LENGTHS).max().getAsInt();
+		byte[] start = new byte[MAX_SEARCH_BYTES + 1 + ((CONSECUTIVE_PACKETS - 1) * maxPacketLength)];
+		try(RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")){
+			int read = 0;
+			int n;
+			while((read < start.length) && ((n = randomAccessFile.read(start, read, start.length - read)) > 0)){
+				read += n;
 			}
-			startPos++;
-		}while(startPos <MAX_SEARCH_BYTES);
-		return false;
+		}
+		return ByteBuffer.wrap(start);
 	}
 
 	/**
 	 * read the file, and parse it. Packets are counted, bitrate calculated, etc. Used for initial construction. PES data is not analyzed.
+	 * The file is read through a MappedPacketReader, which maps large windows of the file into memory.
 	 * @throws IOException
 	 */
 	public void parseStream(java.awt.Component component) throws IOException {
-		try (InputStream is = new FileInputStream(file);
-				PositionPushbackInputStream fileStream = (component==null) ? 
-						new PositionPushbackInputStream(new BufferedInputStream(is),300): 
-						new PositionPushbackInputStream(new BufferedInputStream(new ProgressMonitorLargeInputStream(component,
-						"Reading file \"" + file.getPath() +"\"",is, file.length())),300)
-	
-				) {
-			no_packets = 0;
+		boolean useIndex = PreferencesManager.isEnableIndexCache();
+		if (useIndex) {
+			resetParseState();
+			if (StreamIndex.load(this)) {
+				postProcess();
+				return;
+			}
+		}
+		try (MappedPacketReader reader = new MappedPacketReader(file, packetLength, isAVCHD() ? 4 : 0)) {
+			if (component != null) {
+				reader.setProgressMonitor(component, "Reading file \"" + file.getPath() + "\"");
+			}
+			resetParseState();
+			if (useIndex) {
+				psiRecorder = new StreamIndex.PsiRecorder();
+			}
+			readAllPackets(reader);
+			if (useIndex) {
+				StreamIndex.save(this, psiRecorder);
+			}
+		} finally {
+			psiRecorder = null;
+		}
+		postProcess();
+	}
+
+	private void resetParseState() {
+		no_packets = 0;
+		publishedPackets = 0;
+
+		pids = new PID[MAX_PIDS];
+		psi = new PSI();
+		error_packets = 0;
+		sync_errors = 0;
+		bitRate = -1L;
+		bitRateTDT = -1L;
+		pcrTimeIndex = null;
+		lastArrivalTimeStamp = Integer.MAX_VALUE;
+		currentRollOver = -1L;
+		packetStore = new PacketMetadataStore(isAVCHD());
+		pidPacketCounts = null;
+		offsetHelper = new OffsetHelper(offsetHelper.getMaxPacket(), packetLength);
+		if (isAVCHD()) {
+			rollOverHelper = new RollOverHelper(rollOverHelper.getMaxPacket());
+		}
+	}
 
-			pids = new PID[MAX_PIDS];
-			psi = new PSI();
-			error_packets = 0;
-			bitRate = -1L;
-			bitRateTDT = -1L;
+	/**
+	 * called by PsiSectionData for every section that is handed to PSI, so it can be stored in the index cache
+	 * @param section
+	 */
+	void recordSection(PsiSectionData section) {
+		if (psiRecorder != null) {
+			psiRecorder.addSection(section);
+		}
+	}
 
+	/**
+	 * called by PID for every mega-frame initialization packet that is handed to PSI, so it can be stored in the index cache
+	 * @param pid
+	 * @param packetNo
+	 * @param packet
+	 */
+	void recordMegaFrameInitializationPacket(int pid, long packetNo, byte[] packet) {
+		if (psiRecorder != null) {
+			psiRecorder.addMegaFrameInitializationPacket(pid, packetNo, packet);
+		}
+	}
+
+	/**
+	 * Write the state after the first pass, used by StreamIndex
+	 * @param out
+	 * @param psiRecorder
+	 * @throws IOException
+	 */
+	void writeIndex(DataOutput out, StreamIndex.PsiRecorder psiRecorder) throws IOException {
+		out.writeLong(no_packets);
+		out.writeLong(error_packets);
+		out.writeInt(sync_errors);
+		out.writeLong(parsedLength);
+		packetStore.write(out, no_packets);
+		offsetHelper.writeIndex(out);
+		if (isAVCHD()) {
+			rollOverHelper.writeIndex(out);
+			out.writeInt(lastArrivalTimeStamp);
+			out.writeLong(currentRollOver);
+		}
+		out.writeInt(getNoPIDS());
+		for (PID pid : pids) {
+			if (pid != null) {
+				out.writeShort(pid.getPid());
+				pid.writeIndex(out);
+			}
+		}
+		psiRecorder.write(out);
+	}
+
+	/**
+	 * Restore the state written by writeIndex, the PSI tables are rebuilt from the stored sections
+	 * @param in
+	 * @throws IOException
+	 */
+	void readIndex(DataInput in) throws IOException {
+		ensureCapacity(file.length());
+		no_packets = in.readLong();
+		error_packets = in.readLong();
+		sync_errors = in.readInt();
+		parsedLength = in.readLong();
+		packetStore.read(in, no_packets);
+		offsetHelper.readIndex(in);
+		if (isAVCHD()) {
+			rollOverHelper.readIndex(in);
+			lastArrivalTimeStamp = in.readInt();
+			currentRollOver = in.readLong();
+		}
+		int noPids = in.readInt();
+		for (int i = 0; i < noPids; i++) {
+			int pid = in.readShort();
+			pids[pid] = new PID(pid, this);
+			pids[pid].readIndex(in);
+		}
+		StreamIndex.PsiRecorder.replay(in, pids, this);
+	}
+
+	/**
+	 * Reads the packets that were appended to the file since the last call to parseStream or followStream. Used to follow a recording that is still being written.
+	 * Packets already read are not parsed again, packet_pid, the offsets and the state of the PIDs are extended.
+	 * The TEMI PIDs are not parsed again, as that requires reading the whole file.
+	 * @return true when new packets were read
+	 * @throws IOException
+	 */
+	public boolean followStream() throws IOException {
+		if(!readAppendedPackets()) {
+			return false;
+		}
+		publishAppendedPackets();
+		return true;
+	}
+
+	/**
+	 * First part of followStream, reads and processes the packets that were appended to the file. Can run on a background thread while the views
+	 * use the TransportStream on the event dispatch thread: the sections are not handed to PSI yet, and getNo_packets still returns the old number.
+	 * publishAppendedPackets has to be called after this returned true, or threw an exception after reading some packets.
+	 * @return true when new packets were read
+	 * @throws IOException
+	 */
+	public boolean readAppendedPackets() throws IOException {
+		synchronized (followLock) {
+			if(file.length() - parsedLength < packetLength) {
+				return false;
+			}
+			if(pendingPsiUpdates == null) {
+				pendingPsiUpdates = new ArrayList<>();
+			}
+			try (MappedPacketReader reader = new MappedPacketReader(file, packetLength, isAVCHD() ? 4 : 0)) {
+				reader.moveTo(parsedLength);
+				readAllPackets(reader);
+			}
+			return no_packets != publishedPackets;
+		}
+	}
+
+	/**
+	 * Second part of followStream, hands the sections read by readAppendedPackets to PSI, updates the PID names and bit rates,
+	 * and makes the new packets visible to the views. Call it on the thread that uses PSI, normally the event dispatch thread.
+	 */
+	public void publishAppendedPackets() {
+		synchronized (followLock) {
+			final List<Runnable> psiUpdates = pendingPsiUpdates;
+			pendingPsiUpdates = null;
+			if(psiUpdates != null) {
+				psiUpdates.forEach(Runnable::run);
+			}
+			namePIDs();
+			setGeneralPsiTableHandlers();
+			calculateBitRate();
+			calculateBitrateTDT();
+			calculateZeroTime();
+			publishedPackets = no_packets;
+		}
+	}
+
+	/**
+	 * hand a completed section (or mega-frame initialization packet) to PSI. While readAppendedPackets runs the update is kept till publishAppendedPackets,
+	 * so PSI only changes on the thread that shows it.
+	 * @param update
+	 */
+	void updatePsi(Runnable update) {
+		if (pendingPsiUpdates != null) {
+			pendingPsiUpdates.add(update);
+		} else {
+			update.run();
+		}
+	}
+
+	/**
+	 * read from the current position of reader till the end of the file. The end is remembered, so followStream can continue from there when the file grows.
+	 * @param reader
+	 * @throws IOException
+	 */
+	private void readAllPackets(MappedPacketReader reader) throws IOException {
+		ensureCapacity(reader.getFileLength());
+		if(isAVCHD()) {
+			readAVCHDPackets(reader);
+		} else if(PreferencesManager.isEnableParallelParse()) {
+			readPacketsParallel(reader);
+		} else {
+			readPackets(reader, this::processPacket);
+		}
+		parsedLength = reader.getOffset();
+	}
+
+	/**
+	 * make sure the helpers that are sized by the number of packets can hold all packets of a file of fileLength bytes.
+	 * The file might have grown since this TransportStream was created. The packetStore grows by itself.
+	 * @param fileLength
+	 */
+	private void ensureCapacity(long fileLength) {
+		len = fileLength;
+		long maxPackets = maxPackets(fileLength);
+		if(maxPackets > offsetHelper.getMaxPacket()) {
+			offsetHelper.setMaxPackets(maxPackets);
 			if(isAVCHD()) {
-				readAVCHDPackets(fileStream);
-			} else {
-				readPackets(fileStream);
+				rollOverHelper.setMaxPackets(maxPackets);
 			}
 		}
-		postProcess();
 	}
 
-	private void readPackets(PositionPushbackInputStream fileStream) throws IOException {
-		int count = 0;
-		int bytes_read = 0;
-		int lastHandledSyncErrorPacket = -1;
-		byte[] buf = new byte[packetLength];
-		do {
-			long offset = fileStream.getPosition();
-			bytes_read = fileStream.read(buf, 0, packetLength);
-			int next = fileStream.read();
-			if ((bytes_read == packetLength) && (buf[0] == sync_byte)
-					&& ((next == -1) || (next == sync_byte))) {
-				// always push back first byte of next packet
-				if ((next != -1)) {
-					fileStream.unread(next);
-				}
+	private long maxPackets(long fileLength) {
+		return fileLength / packetLength;
+	}
+
+	/**
+	 * Reads packets on this thread, and lets a ParallelPacketProcessor do the PID processing on all cores.
+	 * Not used for AVCHD, there the PID processing needs the ATS/roll over data while it is still being built.
+	 */
+	private void readPacketsParallel(MappedPacketReader reader) throws IOException {
+		parallelParsing = true;
+		try (ParallelPacketProcessor processor = new ParallelPacketProcessor(this)) {
+			readPackets(reader, packet -> processor.process(registerPacket(packet), packet));
+		} finally {
+			parallelParsing = false;
+		}
+	}
+
+	@FunctionalInterface
+	private interface PacketHandler {
+		void handle(TSPacket packet) throws IOException;
+	}
+
+	private void readPackets(MappedPacketReader reader, PacketHandler packetHandler) throws IOException {
+		long count = no_packets;
+		long lastHandledSyncErrorPacket = -1;
+		// one packet is reused for the whole file, whoever needs to keep it makes a copy
+		final TSPacket packet = new TSPacket(packetLength, this);
+		while (reader.hasPacket()) {
+			long offset = reader.getOffset();
+			if (reader.isSynced()) {
 				offsetHelper.addPacket(no_packets, offset);
-				processPacket(new TSPacket(buf, count, this));
+				packet.wrap(reader.getWindow(), reader.getWindowPosition(), count);
+				packetHandler.handle(packet);
 				count++;
-			} else { // something wrong, find next syncbyte. First push back the lot
-				if ((next != -1)) {
-					if (lastHandledSyncErrorPacket != no_packets) {
-						sync_errors++;
-						logger.severe(String.format("Did not find sync byte, resyncing at offset:%d, packet_no:%d", offset,
-								no_packets));
-						lastHandledSyncErrorPacket = no_packets;
-					}
-					fileStream.unread(next);
-					fileStream.unread(buf, 0, bytes_read);
-					// now read 1 byte and restart all
-					fileStream.read(); // ignore result
+				reader.nextPacket();
+			} else { // something wrong, find next syncbyte.
+				if (!reader.hasNextByte()) {
+					break;
 				}
+				if (lastHandledSyncErrorPacket != no_packets) {
+					sync_errors++;
+					logger.severe(String.format("Did not find sync byte, resyncing at offset:%d, packet_no:%d", offset,
+							no_packets));
+					lastHandledSyncErrorPacket = no_packets;
+				}
+				// now skip to the next position that looks like the start of a packet, and restart all
+				reader.skipToNextSync();
 			}
-		} while (bytes_read == packetLength);
+		}
 	}
 
-	private void readAVCHDPackets(PositionPushbackInputStream fileStream) throws IOException {
-		int count = 0;
-		int bytes_read = 0;
-		int lastHandledSyncErrorPacket = -1;
-		byte[] buf = new byte[AVCHD_PACKET_LENGTH];
+	private void readAVCHDPackets(MappedPacketReader reader) throws IOException {
+		long count = no_packets;
+		long lastHandledSyncErrorPacket = -1;
 		
-		int lastArrivalTimeStamp = Integer.MAX_VALUE;
-		long currentRollOver = -1L;
-		do {
-			long offset = fileStream.getPosition();
-			bytes_read = fileStream.read(buf, 0, AVCHD_PACKET_LENGTH);
-			byte[] nextBytes =new byte[5];
-			int next = fileStream.read(nextBytes,0,5);
-			if ((bytes_read == packetLength) && (buf[4] == sync_byte)
-					&& ((next != 5) || (nextBytes[4] == sync_byte))) {
-				// always push back first byte of next packet
-				if ((next != -1)) {
-					fileStream.unread(nextBytes,0,next);
-				}
+		final AVCHDPacket packet = new AVCHDPacket(this);
+		while (reader.hasPacket()) {
+			long offset = reader.getOffset();
+			if (reader.isSynced()) {
 				offsetHelper.addPacket(no_packets, offset);
-				AVCHDPacket packet = new AVCHDPacket(buf, count, this);
+				packet.wrap(reader.getWindow(), reader.getWindowPosition(), count);
 				int arrivalTimestamp = packet.getArrivalTimestamp();
 				if (arrivalTimestamp < lastArrivalTimeStamp) {
 					currentRollOver++;
 					rollOverHelper.addPacket(count, currentRollOver);
 				}
 				lastArrivalTimeStamp = arrivalTimestamp;
-				packetATS[count] = arrivalTimestamp;
+				packetStore.setArrivalTimeStamp(count, arrivalTimestamp);
 				processPacket(packet);
 				count++;
-			} else { // something wrong, find next syncbyte. First push back the lot
-				if ((next != -1)) {
-					if (lastHandledSyncErrorPacket != no_packets) {
-						sync_errors++;
-						logger.severe(String.format("Did not find sync byte, resyncing at offset:%d, packet_no:%d", offset,
-								no_packets));
-						lastHandledSyncErrorPacket = no_packets;
-					}
-					fileStream.unread(nextBytes,0,next);
-					fileStream.unread(buf, 0, bytes_read);
-					// now read 1 byte and restart all
-					fileStream.read(); // ignore result
+				reader.nextPacket();
+			} else { // something wrong, find next syncbyte.
+				if (!reader.hasNextByte()) {
+					break;
+				}
+				if (lastHandledSyncErrorPacket != no_packets) {
+					sync_errors++;
+					logger.severe(String.format("Did not find sync byte, resyncing at offset:%d, packet_no:%d", offset,
+							no_packets));
+					lastHandledSyncErrorPacket = no_packets;
 				}
+				// now skip to the next position that looks like the start of a packet, and restart all
+				reader.skipToNextSync();
 			}
-		} while (bytes_read == packetLength);
+		}
 	}
 
 	public void postProcess() {
+		publishedPackets = no_packets;
 		namePIDs();
 		setGeneralPsiTableHandlers();
 		parseTemiPids();
@@ -403,17 +644,26 @@ public class TransportStream implements TreeNode{
 	}
 
 	private void processPacket(TSPacket packet) {
+		registerPacket(packet).updatePacket(packet);
+	}
+
+	/**
+	 * store pid and flags of packet, and count it.
+	 * @param packet
+	 * @return the PID this packet belongs to, created if this is the first packet for it
+	 */
+	private PID registerPacket(TSPacket packet) {
 		short pid = packet.getPID();
-		packet_pid[no_packets]=addPIDFlags(packet, pid);
+		packetStore.setPidFlags(no_packets, addPIDFlags(packet, pid));
 		no_packets++;
 		if(pids[pid]==null) {
 			pids[pid] = new PID(pid,this);
 		}
-		pids[pid].updatePacket(packet);
 		if(packet.isTransportErrorIndicator()){
 			error_packets++;
 			logger.warning(String.format("TransportErrorIndicator set for packet %s", packet));
 		}
+		return pids[pid];
 	}
 
 	private static short addPIDFlags(TSPacket packet, short pid) {
@@ -433,6 +683,7 @@ public class TransportStream implements TreeNode{
 	/**
 	 *
 	 * Read the file, and parse only the packets for which a GeneralPesHandler is present in toParsePids. Used for analyzing PESdata, like a video, teletext or subtitle stream
+	 * When more than one PID is parsed, each handler runs on its own thread, while the file is still read only once.
 	 * @param toParsePids Map with an entry for each PID that should be parsed, and a handler that knows how to interpret the data
 	 * @throws IOException
 	 */
@@ -440,18 +691,71 @@ public class TransportStream implements TreeNode{
 		if((toParsePids==null)||(toParsePids.isEmpty())){
 			return;
 		}
-		
-		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")){
-			for(int t=0; t<no_packets;t++){
-				int pid = getPacket_pid(t);
-				GeneralPidHandler handler = toParsePids.get(pid);
-				if(handler!=null){
-					TSPacket packet = readPacket(t, randomAccessFile);
-					handler.processTSPacket(packet);
+		Map<Integer,GeneralPidHandler> handlers = new HashMap<>(toParsePids);
+		handlers.values().removeIf(Objects::isNull);
+		if(handlers.size()==1) {
+			Map.Entry<Integer, GeneralPidHandler> entry = handlers.entrySet().iterator().next();
+			GeneralPidHandler handler = entry.getValue();
+			PacketHandler[] packetHandlers = new PacketHandler[MAX_PIDS];
+			packetHandlers[entry.getKey()] = handler::processTSPacket;
+			readPidPackets(packetHandlers);
+			handler.postProcess();
+		}else if(handlers.size()>1) {
+			parsePidStreamsConcurrent(handlers);
+		}
+	}
+
+	/**
+	 * Every handler gets its own virtual thread, fed through a PidHandlerWorker. When all packets have been read, the postProcess of all handlers runs in parallel too.
+	 * An exception thrown by a handler is rethrown here, after all threads have finished.
+	 */
+	private void parsePidStreamsConcurrent(Map<Integer,GeneralPidHandler> handlers) throws IOException {
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			PacketHandler[] packetHandlers = new PacketHandler[MAX_PIDS];
+			List<PidHandlerWorker> workers = new ArrayList<>();
+			List<Future<?>> futures = new ArrayList<>();
+			for(Map.Entry<Integer, GeneralPidHandler> entry: handlers.entrySet()) {
+				PidHandlerWorker worker = new PidHandlerWorker(entry.getKey(), entry.getValue());
+				workers.add(worker);
+				packetHandlers[entry.getKey()] = worker::add;
+				futures.add(executor.submit(worker));
+			}
+			try {
+				readPidPackets(packetHandlers);
+			} finally {
+				for(PidHandlerWorker worker: workers) {
+					worker.finish();
 				}
+				ParallelPacketProcessor.awaitAll(futures);
+			}
+			for(PidHandlerWorker worker: workers) {
+				worker.rethrowFailure();
+			}
+
+			futures.clear();
+			for(PidHandlerWorker worker: workers) {
+				futures.add(executor.submit(worker.getHandler()::postProcess));
 			}
-			for(GeneralPidHandler pidHandler: toParsePids.values()) {
-				pidHandler.postProcess();
+			ParallelPacketProcessor.awaitAll(futures);
+		}
+	}
+
+	/**
+	 * read all packets for which packetHandlers has an entry, in order. Only the published packets, a followed file might be extended at the same time.
+	 * packets are read in increasing order, so the reader maps the file window after window, instead of a seek and read for every packet
+	 * @param packetHandlers array indexed by pid 
+	 */
+	private void readPidPackets(PacketHandler[] packetHandlers) throws IOException {
+		final long packets = publishedPackets;
+		try (MappedPacketReader reader = new MappedPacketReader(file, packetLength, isAVCHD() ? 4 : 0)){
+			for(long t=0; t<packets;t++){
+				PacketHandler handler = packetHandlers[getPacket_pid(t)];
+				if(handler!=null){
+					TSPacket packet = readPacket(t, reader);
+					if(packet!=null) {
+						handler.handle(packet);
+					}
+				}
 			}
 		}
 	}
@@ -478,10 +782,10 @@ public class TransportStream implements TreeNode{
 	}
 
 	/**
-	 * @return the number of TSPackets read
+	 * @return the number of TSPackets read, not counting the packets of a followed file that are being read and not published yet
 	 */
-	public int getNo_packets() {
-		return no_packets;
+	public long getNo_packets() {
+		return publishedPackets;
 	}
 
 	public PID[] getPids() {
@@ -503,7 +807,7 @@ public class TransportStream implements TreeNode{
 		t.add(new KVP("size",file.length()));
 
 		t.add(new KVP("modified",String.format("%1$tc", file.lastModified())));
-		t.add(new KVP("TS packets",no_packets));
+		t.add(new KVP("TS packets",publishedPackets));
 		t.add(new KVP("packet size",packetLength).setDescription(PreferencesManager.getPacketLengthModus()==0?"(detected)":"(forced)"));
 		t.add(new KVP("Error packets",error_packets));
 		t.add(new KVP("Sync Errors",sync_errors));
@@ -522,14 +826,15 @@ public class TransportStream implements TreeNode{
 		if(!psiOnlyModus(modus)){
 			KVP pidTreeNode = new KVP("PIDs").addTableSource(this::getTableModel,"PIDs");
 			t.add(pidTreeNode);
-			for (PID pid : pids) {
-				if((pid)!=null){
-					pidTreeNode.add(pid.getJTreeNode(modus));
+			pidTreeNode.setChildProvider(node -> {
+				for (PID pid : pids) {
+					if((pid)!=null){
+						node.add(pid.getJTreeNode(modus));
+					}
 				}
-
-			}
+			});
 			// TSPackets
-            if (no_packets == 0) {
+            if (publishedPackets == 0) {
                 t.add(new KVP("Transport packets "));
             } else {
                 JTreeLazyList list = new JTreeLazyList(new TSPacketGetter(this, modus));
@@ -637,7 +942,7 @@ public class TransportStream implements TreeNode{
 				addOptionalRowColumn("pid", PID::getPid, Integer.class).
 				addOptionalRowColumn("label", p->p.getLabelMaker().toString(), String.class).
 				addOptionalRowColumn("pid type", PID::getTypeString, String.class).
-				addOptionalRowColumn("packets", PID::getPackets, Integer.class).
+				addOptionalRowColumn("packets", PID::getPackets, Long.class).
 				addOptionalRowColumn("duplicate packets", PID::getDup_packets, Integer.class).
 				addOptionalRowColumn("continuity errors", PID::getContinuity_errors_count, Integer.class).
 				addOptionalRowColumn("scrambled", PID::isScrambled, Boolean.class).
@@ -1004,6 +1309,10 @@ public class TransportStream implements TreeNode{
 				teller++;
 				totBitrate += pid.getBitRate();
 			}
+			if ((pid != null) && (pid.getPcrTimeIndex().size() >= 2)
+					&& ((pcrTimeIndex == null) || (pid.getPcrTimeIndex().size() > pcrTimeIndex.size()))) {
+				pcrTimeIndex = pid.getPcrTimeIndex();
+			}
 		}
 		if (teller != 0) {
 			bitRate = totBitrate / teller;
@@ -1017,7 +1326,7 @@ public class TransportStream implements TreeNode{
 			if(tdtSectionList.size()>=2){
 				TDTsection first = tdtSectionList.getFirst();
 				TDTsection last = tdtSectionList.getLast();
-				long diffPacket = (long)last.getPacket_no() - first.getPacket_no();
+				long diffPacket = last.getPacket_no() - first.getPacket_no();
 				LocalDateTime utcCalenderLast = getUTCLocalDateTime(last.getUTC_time());
 				LocalDateTime utcCalenderFirst = getUTCLocalDateTime(first.getUTC_time());
 				// getUTCCalender might fail if not correct BCD, then will return null.
@@ -1032,13 +1341,13 @@ public class TransportStream implements TreeNode{
 	}
 
 	private void calculateZeroTime() {
-		if ((psi.getTdt() != null) && (getBitRate() != -1L)) {
+		if ((psi.getTdt() != null) && hasPacketTime()) {
 			List<TDTsection> tdtSectionList = psi.getTdt().getTdtSectionList();
 			if (!tdtSectionList.isEmpty()) {
 				TDTsection first = tdtSectionList.getFirst();
 				LocalDateTime firstTime = getUTCLocalDateTime(first.getUTC_time());
 				if (firstTime != null) {
-					long millsIntoStream = ((long) first.getPacket_no() * packetLength * 8 * 1000) / getBitRate();
+					long millsIntoStream = getTimeFromStartInMilliSecs(first.getPacket_no());
 					zeroTime = firstTime.minus (millsIntoStream, ChronoUnit.MILLIS);
 				}
 			}
@@ -1076,12 +1385,23 @@ public class TransportStream implements TreeNode{
 		return r;
 	}
 
-	public short getPacket_pid(int t) {
-		return (short) (0x1fff & packet_pid[t]);
+	public short getPacket_pid(long t) {
+		return (short) (0x1fff & packetStore.getPidFlags(t));
+	}
+
+	/**
+	 * @return packet counts per PID, up to date with the packets read so far
+	 */
+	public synchronized PidPacketCounts getPidPacketCounts() {
+		if (pidPacketCounts == null) {
+			pidPacketCounts = new PidPacketCounts(this::getPacket_pid);
+		}
+		pidPacketCounts.update(publishedPackets);
+		return pidPacketCounts;
 	}
 
-	public short getPacketPidFlags(int t) {
-		return  packet_pid[t];
+	public short getPacketPidFlags(long t) {
+		return packetStore.getPidFlags(t);
 	}
 
 	
@@ -1117,12 +1437,12 @@ public class TransportStream implements TreeNode{
 		}
 	}
 
-	public String getPacketTime(int packetNo){
+	public String getPacketTime(long packetNo){
 		if(isAVCHD()) {
 			return printPCRTime(getAVCHDPacketTime(packetNo));
 		}
 
-        if (getBitRate() == -1L) { // no bitrate, return packet number
+        if (!hasPacketTime()) { // no PCRs and no bitrate, return packet number
            return packetNo + " (packetNo)";
         }
 		if (zeroTime == null) {
@@ -1138,9 +1458,31 @@ public class TransportStream implements TreeNode{
 		return getFormattedDateTime(packetTime);
 	}
 
-	private int getTimeFromStartInMilliSecs(int packetNo) {
+	/**
+	 * @param packetNo
+	 * @return the date and time of packetNo, based on the first TDT and the PCRs (or bitrate). null if there is no TDT
+	 */
+	public LocalDateTime getPacketLocalDateTime(long packetNo) {
+		if (zeroTime == null) {
+			return null;
+		}
+		return zeroTime.plusNanos(1_000_000L * getTimeFromStartInMilliSecs(packetNo));
+	}
+
+	private boolean hasPacketTime() {
+		return (pcrTimeIndex != null) || (getBitRate() != -1L);
+	}
+
+	/**
+	 * time of packetNo relative to packet 0. Uses the PCR time index when available, so VBR streams and discontinuities are handled.
+	 * Else assumes a constant bitrate.
+	 */
+	private long getTimeFromStartInMilliSecs(long packetNo) {
+		if (pcrTimeIndex != null) {
+			return (pcrTimeIndex.getTime(packetNo) - pcrTimeIndex.getTime(0)) / (system_clock_frequency / 1000);
+		}
 		// calculation in long, intermediate results can be > Integer.MAX_VALUE
-		return (int) ((((long) packetNo) * packetLength * 8 * 1000L) / getBitRate());
+		return (packetNo * packetLength * 8 * 1000L) / getBitRate();
 	}
 
 
@@ -1158,7 +1500,6 @@ public class TransportStream implements TreeNode{
 	 * TODO the parameter packetNoOrPCR has two different meaning, because BitRateChat and TimeStampChart use different X-axis for aVCHD/DVB Full stream
 	 * This should be fixed somewhere else ???
 	 * @param packetNoOrPCR when stream is a AVCHD stream, this is time in PCR ticks, otherwise this is packetNo (which will be converted into time.
-	 *                      packetNo is always in range int, pcr value is long.
 	 * @return
 	 */
 	public String getShortPacketTime(long packetNoOrPCR){
@@ -1167,13 +1508,13 @@ public class TransportStream implements TreeNode{
 			return printPCRTime(packetNoOrPCR);
 		}
 
-		if(getBitRate()!=-1){ //can't calculate time  without a bitrate
+		if(hasPacketTime()){ //can't calculate time  without PCRs or a bitrate
 			if(zeroTime==null){
-				Instant instant = Instant.ofEpochMilli(getTimeFromStartInMilliSecs((int)packetNoOrPCR));
+				Instant instant = Instant.ofEpochMilli(getTimeFromStartInMilliSecs(packetNoOrPCR));
 				return getFormattedTime(instant.atZone(ZoneId.of("Z")).toLocalDateTime());
 			}
 
-			return getFormattedTime(zeroTime.plusNanos(1_000_000L * getTimeFromStartInMilliSecs((int) packetNoOrPCR)));
+			return getFormattedTime(zeroTime.plusNanos(1_000_000L * getTimeFromStartInMilliSecs(packetNoOrPCR)));
 
 		} // no bitrate
 		return packetNoOrPCR +" (packetNo)";
@@ -1197,7 +1538,7 @@ public class TransportStream implements TreeNode{
 	}
 
 	// TODO handle FileNotFoundException more elegant, show some msg in GUI  
-	public TSPacket getTSPacket(int packetNo){
+	public TSPacket getTSPacket(long packetNo){
 		TSPacket packet = null;
 		if(offsetHelper.getMaxPacket()>packetNo){
 			try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")){
@@ -1211,7 +1552,35 @@ public class TransportStream implements TreeNode{
 		return packet;
 	}
 
-	private TSPacket readPacket(int packetNo, RandomAccessFile randomAccessFile)
+	/**
+	 * Read the packets of one PID between fromPacketNo and toPacketNo (inclusive) again from the file.
+	 * Used to get the data of PES packets that were not kept in memory.
+	 *
+	 * @param pid
+	 * @param fromPacketNo
+	 * @param toPacketNo
+	 * @return the packets in order, empty when the file can not be read
+	 */
+	public List<TSPacket> getTSPackets(int pid, long fromPacketNo, long toPacketNo){
+		List<TSPacket> packets = new ArrayList<>();
+		long last = Math.min(toPacketNo, offsetHelper.getMaxPacket() - 1);
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")){
+			for (long t = fromPacketNo; t <= last; t++) {
+				if(getPacket_pid(t)==pid){
+					TSPacket packet = readPacket(t, randomAccessFile);
+					if(packet!=null) {
+						packets.add(packet);
+					}
+				}
+			}
+		} catch (IOException e) {
+			logger.warning("IOException:"+e);
+			packets.clear();
+		}
+		return packets;
+	}
+
+	private TSPacket readPacket(long packetNo, RandomAccessFile randomAccessFile)
 			throws IOException {
 		TSPacket packet = null;
 		long offset = offsetHelper.getOffset(packetNo);
@@ -1232,17 +1601,35 @@ public class TransportStream implements TreeNode{
 	}
 
 
+	private TSPacket readPacket(long packetNo, MappedPacketReader reader) throws IOException {
+		TSPacket packet = null;
+		long offset = offsetHelper.getOffset(packetNo);
+		if(reader.moveTo(offset)) {
+			if(isAVCHD()) {
+				packet = new AVCHDPacket(reader.getWindow(), reader.getWindowPosition(), packetNo, this);
+			}else {
+				packet = new TSPacket(reader.getWindow(), reader.getWindowPosition(), packetLength, packetNo, this);
+			}
+			packet.setPacketOffset(offset);
+		}else{
+			logger.warning(String.format("less then packetLenghth (%d) bytes available at offset %d", packetLength, offset));
+		}
+		return packet;
+	}
+
 	/**
 	 * returns time (in system ticks) for packet, starting from 0 for begin of file, based on ATS in TP_extra_header
 	 * Only to be called for an AVCHD file
 	 */
-	public long getAVCHDPacketTime(int packetNo) {
-		if (isAVCHD() && packetATS != null) {
+	public long getAVCHDPacketTime(long packetNo) {
+		if (isAVCHD() && packetStore.hasArrivalTimeStamps()) {
+			int packetATS = packetStore.getArrivalTimeStamp(packetNo);
+			int firstATS = packetStore.getArrivalTimeStamp(0);
 			if (enabledHumaxAtsFix) {
 				return (rollOverHelper.getRollOver(packetNo) * ((0x4000_0000 >> 9) + 1) * 300)
-						+ fixHumaxAts(packetATS[packetNo]) - fixHumaxAts(packetATS[0]);
+						+ fixHumaxAts(packetATS) - fixHumaxAts(firstATS);
 			}
-			return (rollOverHelper.getRollOver(packetNo) * 0x4000_0000) + packetATS[packetNo] - packetATS[0];
+			return (rollOverHelper.getRollOver(packetNo) * 0x4000_0000) + packetATS - firstATS;
 		}
 		throw new RuntimeException("Not an AVCHD File!");
 	}
@@ -1279,7 +1666,7 @@ public class TransportStream implements TreeNode{
 		return sync_errors;
 	}
 
-	public int getError_packets() {
+	public long getError_packets() {
 		return error_packets;
 	}
 
@@ -1314,8 +1701,12 @@ public class TransportStream implements TreeNode{
 		return false;
 	}
 
+	boolean isParallelParsing() {
+		return parallelParsing;
+	}
+
 	public int getFirstAvchdPacketATS() {
-		return packetATS[0];
+		return packetStore.getArrivalTimeStamp(0);
 	}
 
 
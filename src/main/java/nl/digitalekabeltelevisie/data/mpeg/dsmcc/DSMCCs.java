@@ -178,21 +178,19 @@ public class DSMCCs extends AbstractPSITabel{
 			return new KVP("DSM-CCs (not enabled, select 'Settings -> Enable DSM-CC' to enable )");
 		}
 		
-		KVP t = new KVP("DSM-CCs");
-		
-		dsmccs
-			.values()
-			.parallelStream()
-			.map(k -> k.getJTreeNode(modus))
-			.forEachOrdered(t::add);
-
-		objectCarousels
-			.values()
-			.parallelStream()
-			.map(k -> k.getJTreeNode(modus))
-			.forEachOrdered(t::add);
-
-		return t;
+		return new KVP("DSM-CCs").setChildProvider(t -> {
+			dsmccs
+				.values()
+				.parallelStream()
+				.map(k -> k.getJTreeNode(modus))
+				.forEachOrdered(t::add);
+
+			objectCarousels
+				.values()
+				.parallelStream()
+				.map(k -> k.getJTreeNode(modus))
+				.forEachOrdered(t::add);
+		});
 	}
 
 
@@ -43,6 +43,7 @@ import nl.digitalekabeltelevisie.data.mpeg.TSPacket;
 import nl.digitalekabeltelevisie.data.mpeg.pes.dvbsubtitling.DVBSubtitlingPESDataField;
 import nl.digitalekabeltelevisie.data.mpeg.pes.video.Video138182Handler;
 import nl.digitalekabeltelevisie.data.mpeg.psi.PMTsection;
+import nl.digitalekabeltelevisie.util.PreferencesManager;
 import nl.digitalekabeltelevisie.util.Utils;
 
 /**
@@ -60,6 +61,10 @@ public class GeneralPesHandler extends GeneralPidHandler{
 	protected byte[] pesDataBuffer = new byte[DEFAULT_BUF_LEN];
 	protected int bufStart = 0;
 	protected int bufEnd = 0;
+	/**
+	 * when true, parsed PES packets added by addParsedPesPacket do not keep their data in memory
+	 */
+	private final boolean streamingPes = PreferencesManager.isEnableStreamingPes();
 
 
 	/**
@@ -71,6 +76,19 @@ public class GeneralPesHandler extends GeneralPidHandler{
 		pesPackets.add(pesData);
 	}
 
+	/**
+	 * Add a PES packet that has been completely parsed to pesPackets. When streaming PES is enabled, its data is released,
+	 * and read again from the file when needed.
+	 *
+	 * @param pesData parsed PES packet, that does not need its data for the rest of the parsing
+	 */
+	protected void addParsedPesPacket(final PesPacketData pesData){
+		if(streamingPes){
+			pesData.releaseData();
+		}
+		pesPackets.add(pesData);
+	}
+
 
 	@Override
 	public void processTSPacket(final TSPacket packet)
@@ -95,7 +113,7 @@ public class GeneralPesHandler extends GeneralPidHandler{
 					pesLength =getInt(data,4,2, 0xFFFF);
 					//for PES there can be only one pesPacket per TSpacket, and it always starts on first byte of payload.
 					pesData = new PesPacketData(pesStreamID, pesLength,this,packet.getPacketNo());
-					pesData.readBytes(data, 0, data.length);
+					pesData.readBytes(packet);
 					handlePesPacketIfComplete();
 
 				}
@@ -116,14 +134,14 @@ public class GeneralPesHandler extends GeneralPidHandler{
 					pesLength =getInt(data,4,2, 0xFFFF);
 					// for PES there can be only one pesPacket per TSpacket, and it always starts on first byte of payload.
 					pesData = new PesPacketData(pesStreamID, pesLength,this,packet.getPacketNo());
-					pesData.readBytes(data, 0, data.length);
+					pesData.readBytes(packet);
 					handlePesPacketIfComplete();
 				}else{
 					logger.warning("Not supported: Found PES packet start with data.length<6 at TSPacket: "+packet.getPacketNo());
 				}
 			}else if (pesData!=null){
 				// already in a packet,needs more data
-				pesData.readBytes(data, 0, data.length);
+				pesData.readBytes(packet);
 				handlePesPacketIfComplete();
 
 			}
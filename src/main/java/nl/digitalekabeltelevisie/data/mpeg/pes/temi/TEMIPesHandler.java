@@ -55,7 +55,7 @@ public class TEMIPesHandler extends GeneralPesHandler {
 		if(temiPesDataField.hasPTS()) {
 			long pts = temiPesDataField.getPts();
 			List<TimelineDescriptor> timelineDescriptors = Descriptor.findGenericDescriptorsInList(temiPesDataField.getAfDescriptors(),TimelineDescriptor.class);
-			int packetNo = temiPesDataField.getStartPacketNo();
+			long packetNo = temiPesDataField.getStartPacketNo();
 			Map<Integer, ArrayList<TemiTimeStamp>> temiList = getPID().getTemiMap();
 			for(TimelineDescriptor timelineDescriptor:timelineDescriptors) {
 				if((timelineDescriptor.getHas_timestamp()==1)||
@@ -0,0 +1,162 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg.pes.video;
+
+import java.util.Arrays;
+import java.util.List;
+
+import nl.digitalekabeltelevisie.data.mpeg.PesPacketData;
+
+/**
+ * PTS index of the PES packets of a 13818-2 video stream that contain an I-frame, used to find the background frame for subtitles.
+ * <p>
+ * The PTS values are kept sorted in a primitive array, so a lookup is a binary search. Distance between PTS values is measured
+ * modulo 2^33, so a PTS just after a wrap around is close to an I-frame just before it. When two I-frames are equally close
+ * the one that comes first in the stream is used.
+ *
+ * @author Eric Berendsen
+ *
+ */
+final class IFrameIndex {
+
+	static final long PTS_MODULO = 1L << 33;
+
+	private final long[] ptsValues;
+	/**
+	 * index in the list of PES packets, for the same entry in ptsValues
+	 */
+	private final int[] positions;
+	private final int pesCount;
+
+	/**
+	 * @param pesPackets all VideoPESDataFields of the stream, in stream order
+	 * @return index of the I-frames in pesPackets
+	 */
+	static IFrameIndex of(final List<PesPacketData> pesPackets) {
+		final int pesCount = pesPackets.size();
+		int count = 0;
+		final int[] found = new int[pesCount];
+		final long[] pts = new long[pesCount];
+		for (int i = 0; i < pesCount; i++) {
+			final PesPacketData pesPacket = pesPackets.get(i);
+			if (((VideoPESDataField) pesPacket).hasIFrame()) {
+				found[count] = i;
+				pts[count] = pesPacket.getPesHeader().getPts();
+				count++;
+			}
+		}
+		return new IFrameIndex(Arrays.copyOf(pts, count), Arrays.copyOf(found, count), pesCount);
+	}
+
+	/**
+	 * @param pts PTS of the I-frames, in stream order
+	 * @param found index of the I-frames in the list of PES packets, ascending
+	 * @param pesCount size of the list of PES packets
+	 */
+	IFrameIndex(final long[] pts, final int[] found, final int pesCount) {
+		this.pesCount = pesCount;
+		final int count = pts.length;
+		// stable sort on PTS, positions with the same PTS stay in stream order
+		final Integer[] order = new Integer[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Long.compare(Math.floorMod(pts[a], PTS_MODULO), Math.floorMod(pts[b], PTS_MODULO)));
+		ptsValues = new long[count];
+		positions = new int[count];
+		for (int i = 0; i < count; i++) {
+			ptsValues[i] = Math.floorMod(pts[order[i]], PTS_MODULO);
+			positions[i] = found[order[i]];
+		}
+	}
+
+	/**
+	 * @return number of PES packets this index was built from, when the list has grown the index has to be rebuild
+	 */
+	int getPesCount() {
+		return pesCount;
+	}
+
+	/**
+	 * @return number of I-frames
+	 */
+	int size() {
+		return ptsValues.length;
+	}
+
+	/**
+	 * @param pts
+	 * @return index in the list of PES packets of the I-frame closest to pts, or -1 when there are no I-frames
+	 */
+	int find(final long pts) {
+		final int size = ptsValues.length;
+		if (size == 0) {
+			return -1;
+		}
+		final long target = Math.floorMod(pts, PTS_MODULO);
+		final int i = lowerBound(target);
+		// nearest above and below, or the other end of the array when target is outside the range (wrap around)
+		long best = Long.MAX_VALUE;
+		for (final int c : new int[] { i - 1, i, 0, size - 1 }) {
+			if ((c >= 0) && (c < size)) {
+				best = Math.min(best, distance(ptsValues[c], target));
+			}
+		}
+		// at most two PTS values have this distance, use the first in the stream of all entries with either of them
+		int result = -1;
+		for (final long v : new long[] { Math.floorMod(target - best, PTS_MODULO), Math.floorMod(target + best, PTS_MODULO) }) {
+			final int j = lowerBound(v);
+			if ((j < size) && (ptsValues[j] == v) && ((result == -1) || (positions[j] < result))) {
+				result = positions[j];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return index of first entry with PTS &gt;= pts, or size() when there is none
+	 */
+	private int lowerBound(final long pts) {
+		int low = 0;
+		int high = ptsValues.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (ptsValues[mid] < pts) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	static long distance(final long a, final long b) {
+		final long d = Math.abs(a - b);
+		return Math.min(d, PTS_MODULO - d);
+	}
+}
@@ -92,8 +92,14 @@ package nl.digitalekabeltelevisie.data.mpeg.pes.video;
 import java.awt.image.BufferedImage;
 import java.util.Arrays;
 
+import nl.digitalekabeltelevisie.data.mpeg.pes.video.common.StartCodeScanner;
 
 
+/**
+ * Decodes I-frames of ISO/IEC 13818-2 video. All decoding state is in the instance, the static tables are never written after class initialization.
+ * So one instance should be used by one thread, but different instances can decode frames concurrently.
+ *
+ */
 public class MpvDecoder extends Object {
 
 
@@ -121,10 +127,10 @@ public class MpvDecoder extends Object {
 	private final int[] LastPosVal = new int[2];
 
 	/**
-	 * integer matrix by dukios
+	 * integer matrix by dukios, only written in the static initializer
 	 */
 
-	static int ref_dct_matrix_i[] = new int[64];
+	private static final int ref_dct_matrix_i[] = new int[64];
 
 	/**
 	 *
@@ -974,6 +980,11 @@ public class MpvDecoder extends Object {
 	{
 		Flush_Bits((8 - (BitPos & 7)) & 7);
 
+		final int startCode = StartCodeScanner.findStartCode(buf, BufferPos, buf.length);
+		if (startCode >= 0) {
+			Flush_Bits((startCode - BufferPos) << 3);
+			return;
+		}
 		while (Show_Bits(24) != 1) {
 			Flush_Bits(8);
 		}
@@ -29,7 +29,10 @@ package nl.digitalekabeltelevisie.data.mpeg.pes.video;
 
 import static nl.digitalekabeltelevisie.util.Utils.indexOf;
 
+import java.util.Arrays;
+
 import nl.digitalekabeltelevisie.controller.KVP;
+import nl.digitalekabeltelevisie.data.mpeg.PesPacketData;
 import nl.digitalekabeltelevisie.data.mpeg.pes.video.common.AuxiliaryData;
 
 
@@ -39,11 +42,9 @@ import nl.digitalekabeltelevisie.data.mpeg.pes.video.common.AuxiliaryData;
  */
 public class UserData extends VideoMPEG2Section {
 
-	private final byte[] data;
-	private final int offset;
 	private final int len;
 
-	private final AuxiliaryData auxData;
+	private AuxiliaryData auxData;
 
 
 	/**
@@ -52,8 +53,6 @@ public class UserData extends VideoMPEG2Section {
 	 */
 	public UserData(final byte[] data, final int offset) {
 		super(data, offset);
-		this.data = data;
-		this.offset = offset;
 		final int end = indexOf(data, new byte[]{0,0,1}, offset+1);
 		len = end - offset-1;
 
@@ -72,13 +71,22 @@ public class UserData extends VideoMPEG2Section {
 
 
 	/**
-	 * @return the data
+	 * AuxiliaryData keeps a reference to data, so it is parsed again from a copy of the user data
 	 */
-	public byte[] getData() {
-		return data;
+	@Override
+	void releaseData(final PesPacketData pesPacket) {
+		final byte[] data = getData();
+		final int start = getOffset() + 1;
+		if((len >= 0) && ((start + len) <= data.length)) {
+			try {
+				auxData = new AuxiliaryData(Arrays.copyOfRange(data, start, start + len), 0, len);
+			} catch (final RuntimeException e) {
+				return; // parsing needed bytes after the user data, keep data
+			}
+			super.releaseData(pesPacket);
+		}
 	}
 
-
 	/**
 	 * @return the len
 	 */
@@ -87,13 +95,6 @@ public class UserData extends VideoMPEG2Section {
 	}
 
 
-	/**
-	 * @return the offset
-	 */
-	public int getOffset() {
-		return offset;
-	}
-
 	public AuxiliaryData getAuxData() {
 		return auxData;
 	}
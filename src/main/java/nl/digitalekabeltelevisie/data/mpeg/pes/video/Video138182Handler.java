@@ -30,13 +30,18 @@ package nl.digitalekabeltelevisie.data.mpeg.pes.video;
 
 
 import static nl.digitalekabeltelevisie.util.Utils.addListJTree;
+import static nl.digitalekabeltelevisie.util.Utils.printTimebase90kHz;
 
 import java.awt.Color;
+import java.awt.Graphics2D;
 import java.awt.Paint;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.logging.Logger;
 
 import org.jfree.chart.JFreeChart;
@@ -63,6 +68,45 @@ public class Video138182Handler extends VideoHandler implements ImageSource{
 
 	private static final Logger logger = Logger.getLogger(Video138182Handler.class.getName());
 
+	/**
+	 * max number of decoded background frames kept, subtitles mostly use a few I-frames in a row
+	 */
+	private static final int MAX_BACKGROUND_FRAMES = 16;
+
+	private static final int THUMBNAIL_WIDTH = 160;
+	private static final int THUMBNAIL_HEIGHT = 90;
+	private static final int THUMBNAILS_PER_ROW = 8;
+	/**
+	 * max number of thumbnails in the filmstrip, 96 thumbnails of 160 * 110 pixels is about 7 MB
+	 */
+	static final int MAX_THUMBNAILS = 96;
+	/**
+	 * room above the thumbnails, when not all I-frames are shown
+	 */
+	private static final int FILMSTRIP_HEADER_HEIGHT = 24;
+	/**
+	 * room below each thumbnail for its pts
+	 */
+	private static final int THUMBNAIL_LABEL_HEIGHT = 20;
+
+	/**
+	 * scaled image of an I-frame
+	 *
+	 * @param pts of the PES packet containing the I-frame
+	 * @param image
+	 */
+	public record Thumbnail(long pts, BufferedImage image) {}
+
+	private record BackgroundFrameKey(long pts, int width, int height) {}
+
+	private IFrameIndex iFrameIndex;
+
+	private final Map<BackgroundFrameKey, BufferedImage> backgroundFrames = new LinkedHashMap<>(MAX_BACKGROUND_FRAMES, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<BackgroundFrameKey, BufferedImage> eldest) {
+			return size() > MAX_BACKGROUND_FRAMES;
+		}
+	};
 	
 	/**
 	 * Helper class for the getImage method, to color the bars in the bar chart different for I, B and P frames.
@@ -154,7 +198,7 @@ public class Video138182Handler extends VideoHandler implements ImageSource{
 	 */
 	@Override
 	protected void processPesDataBytes(final PesPacketData pesData){
-		pesPackets.add(new VideoPESDataField(pesData));
+		addParsedPesPacket(new VideoPESDataField(pesData));
 
 	}
 
@@ -164,7 +208,7 @@ public class Video138182Handler extends VideoHandler implements ImageSource{
 	 */
 	@Override
 	public KVP getJTreeNode(int modus) {
-		KVP s = new KVP("13818-2 PES Data").addImageSource(this, "Frames");
+		KVP s = new KVP("13818-2 PES Data").addImageSource(this, "Frames").addBackgroundImageSource(this::getFilmstrip, "I-Frames");
 		addListJTree(s,pesPackets,modus,"PES Packets");
 		addCCDataToTree(modus, s);
 		
@@ -174,28 +218,142 @@ public class Video138182Handler extends VideoHandler implements ImageSource{
 	/**
 	 * find IFrame closest to the supplied pts, and return it's image in the requested size (height * width)
 	 *
+	 * Decoded images are cached, so the returned image is shared and should not be modified.
+	 *
 	 * @param height
 	 * @param width
 	 * @param pts
 	 * @return
 	 */
 	public BufferedImage getImage(int height, int width, long pts) {
-		VideoPESDataField resultPES = null;
-
-		long diff = Long.MAX_VALUE;
-		for (PesPacketData pesPacket : pesPackets) { // iterate over all video frames, in case pts wraps around
-			VideoPESDataField video = (VideoPESDataField)pesPacket;
-			if(video.hasIFrame() && (Math.abs(video.getPesHeader().getPts() - pts) <diff)){
-				resultPES = video;
-				diff = Math.abs(video.getPesHeader().getPts() - pts);
+		VideoPESDataField resultPES = findIFrame(pts);
+		if(resultPES==null){
+			return null;
+		}
+		BackgroundFrameKey key = new BackgroundFrameKey(resultPES.getPesHeader().getPts(), width, height);
+		synchronized (backgroundFrames) {
+			BufferedImage image = backgroundFrames.get(key);
+			if(image!=null){
+				return image;
 			}
 		}
-		if(resultPES!=null){
-			return resultPES.getImage(width,height);
+		BufferedImage image = resultPES.getImage(width,height);
+		if(image!=null){
+			synchronized (backgroundFrames) {
+				backgroundFrames.put(key, image);
+			}
+		}
+		return image;
+	}
+
+	/**
+	 * @param pts
+	 * @return PES packet with the I-frame closest to pts, also when pts wraps around, or null when there are no I-frames
+	 */
+	private synchronized VideoPESDataField findIFrame(long pts) {
+		if((iFrameIndex==null)||(iFrameIndex.getPesCount()!=pesPackets.size())){
+			iFrameIndex = IFrameIndex.of(pesPackets);
+		}
+		int i = iFrameIndex.find(pts);
+		if(i<0){
+			return null;
+		}
+		return (VideoPESDataField)pesPackets.get(i);
+	}
+
+	private List<VideoPESDataField> getIFrames() {
+		return pesPackets.stream()
+				.map(VideoPESDataField.class::cast)
+				.filter(VideoPESDataField::hasIFrame)
+				.toList();
+	}
+
+	/**
+	 * Decode I-frames of this stream, and scale them to height * width. Each I-frame is decoded by its own MpvDecoder,
+	 * in parallel on the common ForkJoinPool. I-frames that can not be decoded are left out.
+	 * When the calling thread is interrupted, the I-frames that have not been started yet are skipped.
+	 *
+	 * @param height
+	 * @param width
+	 * @param maxThumbnails when there are more I-frames, only this many are decoded, evenly spread over the stream (including first and last)
+	 * @return thumbnails in stream order
+	 */
+	public List<Thumbnail> getThumbnails(int height, int width, int maxThumbnails) {
+		return createThumbnails(spread(getIFrames(), maxThumbnails), height, width);
+	}
+
+	private static List<Thumbnail> createThumbnails(List<VideoPESDataField> iFrames, int height, int width) {
+		final Thread caller = Thread.currentThread();
+		return iFrames.parallelStream()
+				.map(video -> caller.isInterrupted() ? null : createThumbnail(video, height, width))
+				.filter(Objects::nonNull)
+				.toList();
+	}
+
+	/**
+	 * @return at most max elements of list, evenly spread from the first to the last element
+	 */
+	static <T> List<T> spread(List<T> list, int max) {
+		if (list.size() <= max) {
+			return list;
+		}
+		if (max <= 1) {
+			return list.subList(0, max);
+		}
+		List<T> result = new ArrayList<>(max);
+		for (int i = 0; i < max; i++) {
+			result.add(list.get((int) (((long) i * (list.size() - 1)) / (max - 1))));
+		}
+		return result;
+	}
+
+	private static Thumbnail createThumbnail(VideoPESDataField video, int height, int width) {
+		try {
+			BufferedImage image = video.getImage(width, height);
+			if(image!=null){
+				return new Thumbnail(video.getPesHeader().getPts(), image);
+			}
+		} catch (RuntimeException e) {
+			logger.warning("could not decode I-frame in PES packet starting at packet "+video.getStartPacketNo()+": "+e);
 		}
 		return null;
 	}
 
+	/**
+	 * Slow, decodes up to MAX_THUMBNAILS I-frames, so it is used as a BackgroundImageSource.
+	 *
+	 * @return image with thumbnails of the I-frames (at most MAX_THUMBNAILS, evenly spread over the stream), with their pts.
+	 * null when the thread was interrupted
+	 */
+	public BufferedImage getFilmstrip() {
+		List<VideoPESDataField> iFrames = getIFrames();
+		List<Thumbnail> thumbnails = createThumbnails(spread(iFrames, MAX_THUMBNAILS), THUMBNAIL_HEIGHT, THUMBNAIL_WIDTH);
+		if (Thread.currentThread().isInterrupted()) {
+			return null;
+		}
+		int header = iFrames.size() > MAX_THUMBNAILS ? FILMSTRIP_HEADER_HEIGHT : 0;
+		int columns = Math.max(1, Math.min(THUMBNAILS_PER_ROW, thumbnails.size()));
+		int rows = Math.max(1, (thumbnails.size() + columns - 1) / columns);
+		int cellHeight = THUMBNAIL_HEIGHT + THUMBNAIL_LABEL_HEIGHT;
+		BufferedImage res = new BufferedImage(columns * THUMBNAIL_WIDTH, header + (rows * cellHeight), BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = res.createGraphics();
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, res.getWidth(), res.getHeight());
+		g.setColor(Color.BLACK);
+		if (header > 0) {
+			g.drawString(thumbnails.size() + " of " + iFrames.size() + " I-frames", 4, 16);
+		}
+		for (int i = 0; i < thumbnails.size(); i++) {
+			Thumbnail thumbnail = thumbnails.get(i);
+			int x = (i % columns) * THUMBNAIL_WIDTH;
+			int y = header + ((i / columns) * cellHeight);
+			g.drawImage(thumbnail.image(), x, y, null);
+			g.drawString(printTimebase90kHz(thumbnail.pts()), x + 4, y + THUMBNAIL_HEIGHT + 15);
+		}
+		g.dispose();
+		return res;
+	}
+
 	public MPEG2SectionIterator getSectionIterator(){
 
 		return new MPEG2SectionIterator();
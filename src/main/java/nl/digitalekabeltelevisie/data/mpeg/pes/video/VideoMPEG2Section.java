@@ -27,10 +27,12 @@
 
 package nl.digitalekabeltelevisie.data.mpeg.pes.video;
 
-import static nl.digitalekabeltelevisie.util.Utils.indexOf;
+import static nl.digitalekabeltelevisie.data.mpeg.pes.video.common.StartCodeScanner.findNALUnitEnd;
+import static nl.digitalekabeltelevisie.data.mpeg.pes.video.common.StartCodeScanner.findStartCode;
 
 import nl.digitalekabeltelevisie.controller.KVP;
 import nl.digitalekabeltelevisie.controller.TreeNode;
+import nl.digitalekabeltelevisie.data.mpeg.PesPacketData;
 import nl.digitalekabeltelevisie.util.BitSource;
 
 /**
@@ -50,6 +52,10 @@ public class VideoMPEG2Section implements TreeNode{
 	private byte[]data;
 	// helper to get bits instead of bytes
 	protected BitSource bs;
+	/**
+	 * PES packet the data is read from again, after releaseData
+	 */
+	private PesPacketData pesPacket;
 
 	public VideoMPEG2Section(final byte[]data, final int offset) {
 		super();
@@ -67,7 +73,7 @@ public class VideoMPEG2Section implements TreeNode{
 
 		t.add(new KVP("length",getLength()));
 		t.add(new KVP("start_code",startCode,VideoPESDataField.getStartCodeString(startCode)));
-		t.add(new KVP("data",data,offset,getLength()));
+		t.add(new KVP("data",getData(),offset,getLength()));
 		return t;
 	}
 
@@ -80,16 +86,42 @@ public class VideoMPEG2Section implements TreeNode{
 	}
 
 	protected int getLength(){
-		int i = indexOf(data, new byte[]{0,0,1},offset); // look for start code
+		final byte[] sectionData = getData();
+		int i = findStartCode(sectionData, offset, sectionData.length); // look for start code
 		if(i>=0){ // next section in same byte[]
 			return (i-offset);
 		}
-		i = indexOf(data, new byte[]{0,0,0},offset); // look for stuffing
+		i = findNALUnitEnd(sectionData, offset, sectionData.length); // no start code, so this finds stuffing
 		if(i>=0){ //
 			return (i-offset);
 		}
 		// fall back to length of array
-		return data.length - offset;
+		return sectionData.length - offset;
+	}
+
+	/**
+	 * Drop the reference to the PES data, after parsing only getData() needs it.
+	 *
+	 * @param pesPacket that contains this section, and can read its data again
+	 */
+	void releaseData(final PesPacketData pesPacket) {
+		this.pesPacket = pesPacket;
+		data = null;
+		bs = null;
+	}
+
+	/**
+	 * @return the data of the PES packet that contains this section, starting at getOffset()
+	 */
+	public byte[] getData() {
+		if(data == null) {
+			return pesPacket.getData();
+		}
+		return data;
+	}
+
+	public int getOffset() {
+		return offset;
 	}
 
 	public String toString(){
@@ -29,8 +29,8 @@ package nl.digitalekabeltelevisie.data.mpeg.pes.video;
 
 import static java.lang.Byte.toUnsignedInt;
 import static nl.digitalekabeltelevisie.data.mpeg.pes.video.ExtensionHeader.getExtensionStartCodeIdentifierString;
+import static nl.digitalekabeltelevisie.data.mpeg.pes.video.common.StartCodeScanner.findStartCode;
 import static nl.digitalekabeltelevisie.util.Utils.addListJTree;
-import static nl.digitalekabeltelevisie.util.Utils.indexOf;
 
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
@@ -64,7 +64,7 @@ public class VideoPESDataField extends PesPacketData implements TreeNode, ImageS
 
 		int i = pesDataStart;
 		while((i<(data.length))&&(i>=0)){
-			i = indexOf(data, new byte[]{0,0,1},i);
+			i = findStartCode(data, i, data.length - 1); // start code value byte should be in data too
 			if(i>=0){
 				VideoMPEG2Section section;
 				if(toUnsignedInt(data[i+3])==0x00){
@@ -217,6 +217,20 @@ public class VideoPESDataField extends PesPacketData implements TreeNode, ImageS
 		return sections;
 	}
 
+	/**
+	 * The sections get their data from this PES packet after the data is released
+	 */
+	@Override
+	public boolean releaseData() {
+		if(!super.releaseData()) {
+			return false;
+		}
+		for(final VideoMPEG2Section section : sections) {
+			section.releaseData(this);
+		}
+		return true;
+	}
+
 
 	/**
 	 * If this VideoPESDataField contains a PictureHeader with picture_coding_type = "I"
@@ -231,7 +245,7 @@ public class VideoPESDataField extends PesPacketData implements TreeNode, ImageS
 
 		if(hasIFrame()){
 			MpvDecoder mpvDecoder = new MpvDecoder();
-			mpvDecoder.decodeArray(data, false, false, false, 0);
+			mpvDecoder.decodeArray(getData(), false, false, false, 0);
 
 			return mpvDecoder.getImage();
 		}
@@ -254,7 +268,7 @@ public class VideoPESDataField extends PesPacketData implements TreeNode, ImageS
 
 		if(hasIFrame()){
 			MpvDecoder mpvDecoder = new MpvDecoder();
-			mpvDecoder.decodeArray(data, false, false, false, 0);
+			mpvDecoder.decodeArray(getData(), false, false, false, 0);
 
 			return mpvDecoder.getImage(w,h);
 		}
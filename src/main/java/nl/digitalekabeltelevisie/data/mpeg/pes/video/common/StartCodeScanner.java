@@ -0,0 +1,92 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg.pes.video.common;
+
+/**
+ * Finds start codes (0x00 0x00 0x01) in MPEG-2 video and H.26x Annex B byte streams.
+ * <p>
+ * The scan looks at the byte that would be the last byte of the pattern. When that byte is larger than 1
+ * no pattern can end there, or in the next two bytes, so the scan moves three bytes ahead. Most bytes in
+ * coded video are larger than 1, so only about one byte in three is read.
+ *
+ * @author Eric Berendsen
+ *
+ */
+public final class StartCodeScanner {
+
+	private StartCodeScanner() {
+		// static only
+	}
+
+	/**
+	 * @param data
+	 * @param from index to start search from
+	 * @param to index after the last byte to be searched, the whole start code has to be before to
+	 * @return index of the first 0x00 0x00 0x01, or -1 when there is none
+	 */
+	public static int findStartCode(final byte[] data, final int from, final int to) {
+		int i = Math.max(from, 0) + 2;
+		while (i < to) {
+			final byte b = data[i];
+			if (b == 0) {
+				i++;
+			} else if (b != 1) {
+				i += 3;
+			} else if ((data[i - 1] == 0) && (data[i - 2] == 0)) {
+				return i - 2;
+			} else {
+				i += 3;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * A NAL unit ends at the next start code, or at trailing zero bytes (0x00 0x00 0x00).
+	 * Both are found in the same pass, see ITU-T H.264 Annex B.
+	 *
+	 * @param data
+	 * @param from index to start search from
+	 * @param to index after the last byte to be searched
+	 * @return index of the first 0x00 0x00 0x01 or 0x00 0x00 0x00, or -1 when there is none
+	 */
+	public static int findNALUnitEnd(final byte[] data, final int from, final int to) {
+		int i = Math.max(from, 0) + 2;
+		while (i < to) {
+			final byte b = data[i];
+			if ((b != 0) && (b != 1)) {
+				i += 3;
+			} else if ((data[i - 1] == 0) && (data[i - 2] == 0)) {
+				return i - 2;
+			} else {
+				i++;
+			}
+		}
+		return -1;
+	}
+}
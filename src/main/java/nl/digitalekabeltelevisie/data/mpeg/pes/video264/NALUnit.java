@@ -75,16 +75,27 @@ public class NALUnit extends AbstractNALUnit {
 				nalUnitHeaderMvcExtension = new NalUnitHeaderMvcExtension(bs);
 			}
 		}
-		readRBSPBytes();
+		if(isSlice()) {
+			readRBSPHeaderBytes();
+		}else {
+			readRBSPBytes();
+		}
 		createRBSP();
 	}
 
+	/**
+	 * @return true for the coded slices of which createRBSP only parses the slice header
+	 */
+	private boolean isSlice() {
+		return (nal_unit_type == 1) || (nal_unit_type == 5) || (nal_unit_type == 20);
+	}
+
 	@Override
 	protected void createRBSP() {
 		if(nal_unit_type==1){
-			rbsp=new Slice_layer_without_partitioning_rbsp(rbsp_byte, numBytesInRBSP);
+			rbsp=createHeaderRBSP(Slice_layer_without_partitioning_rbsp::new);
 		}else if(nal_unit_type==5){
-			rbsp=new Slice_layer_without_partitioning_rbsp(rbsp_byte, numBytesInRBSP);
+			rbsp=createHeaderRBSP(Slice_layer_without_partitioning_rbsp::new);
 		}else if(nal_unit_type==6){
 			rbsp=new Sei_rbsp(rbsp_byte, numBytesInRBSP);
 		}else if(nal_unit_type==7){
@@ -100,7 +111,7 @@ public class NALUnit extends AbstractNALUnit {
 		}else if(nal_unit_type==15){
 			rbsp=new Subset_seq_parameter_set_rbsp(rbsp_byte, numBytesInRBSP);
 		}else if(nal_unit_type==20){
-			rbsp=new Slice_layer_extension_rbsp(rbsp_byte, numBytesInRBSP, svc_extension_flag, avc_3d_extension_flag);
+			rbsp=createHeaderRBSP((b, n, r) -> new Slice_layer_extension_rbsp(b, n, r, svc_extension_flag, avc_3d_extension_flag));
 		}else{
 			logger.warning("not implemented nal_unit_type: "+nal_unit_type+" ("+getNALUnitTypeString(nal_unit_type)+")");
 			
@@ -110,7 +121,7 @@ public class NALUnit extends AbstractNALUnit {
 
 	public KVP getJTreeNode(int modus) {
 		KVP t = new KVP("NALUnit ("+getNALUnitTypeString(nal_unit_type)+")");
-		t.add(new KVP("bytes",bytes,offset,numBytesInNALunit));
+		t.add(new KVP("bytes",getBytes(),offset,numBytesInNALunit));
 		t.add(new KVP("numBytesInNALunit",numBytesInNALunit));
 		t.add(new KVP("forbidden_zero_bit",forbidden_zero_bit));
 		t.add(new KVP("nal_ref_idc",nal_ref_idc));
@@ -131,7 +142,7 @@ public class NALUnit extends AbstractNALUnit {
 			}
 		}
 
-		t.add(new KVP("rbsp_byte",rbsp_byte,0,numBytesInRBSP));
+		t.add(new KVP("rbsp_byte",getRbsp_byte(),0,numBytesInRBSP));
 		t.add(new KVP("NumBytesInRBSP",numBytesInRBSP));
 		if(rbsp!=null){
 			t.add(rbsp.getJTreeNode(modus));
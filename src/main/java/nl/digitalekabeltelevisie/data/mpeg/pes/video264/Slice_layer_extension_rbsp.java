@@ -27,6 +27,7 @@
 
 package nl.digitalekabeltelevisie.data.mpeg.pes.video264;
 
+import java.util.function.IntFunction;
 import java.util.logging.Logger;
 
 import nl.digitalekabeltelevisie.controller.KVP;
@@ -47,8 +48,8 @@ public class Slice_layer_extension_rbsp extends RBSP {
 	private Slice_header slice_header;
 
 	protected Slice_layer_extension_rbsp(byte[] rbsp_bytes,
-			int numBytesInRBSP, int svc_extension_flag, int avc_3d_extension_flag) {
-		super(rbsp_bytes, numBytesInRBSP);
+			int numBytesInRBSP, IntFunction<byte[]> refill, int svc_extension_flag, int avc_3d_extension_flag) {
+		super(rbsp_bytes, numBytesInRBSP, refill);
 		this.svc_extension_flag = svc_extension_flag;
 		this.avc_3d_extension_flag = avc_3d_extension_flag;
 		
@@ -27,6 +27,8 @@
 
 package nl.digitalekabeltelevisie.data.mpeg.pes.video264;
 
+import java.util.function.IntFunction;
+
 import nl.digitalekabeltelevisie.controller.KVP;
 import nl.digitalekabeltelevisie.data.mpeg.pes.video26x.RBSP;
 
@@ -39,8 +41,8 @@ public class Slice_layer_without_partitioning_rbsp extends RBSP {
 	private Slice_header slice_header;
 
 	protected Slice_layer_without_partitioning_rbsp(byte[] rbsp_bytes,
-			int numBytesInRBSP) {
-		super(rbsp_bytes, numBytesInRBSP);
+			int numBytesInRBSP, IntFunction<byte[]> refill) {
+		super(rbsp_bytes, numBytesInRBSP, refill);
 		slice_header = new Slice_header(bitSource);
 	}
 
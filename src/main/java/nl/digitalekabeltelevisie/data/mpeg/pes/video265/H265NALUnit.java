@@ -54,21 +54,36 @@ public class H265NALUnit extends AbstractNALUnit implements TreeNode {
 		this.nuh_layer_id = bs.readBits(6);
 		this.nuh_temporal_id_plus1 = bs.readBits(3);
 
-		readRBSPBytes();
+		if(isSlice()) {
+			readRBSPHeaderBytes();
+		}else {
+			readRBSPBytes();
+		}
 		createRBSP();
 	}
 
+	/**
+	 * @return true for the coded slice segments (TRAIL_N..CRA_NUT) of which createRBSP only parses the slice segment header
+	 */
+	private boolean isSlice() {
+		return switch (nal_unit_type) {
+		case TRAIL_N, TRAIL_R, TSA_N, TSA_R, STSA_N, STSA_R, RADL_N, RADL_R, RASL_N, RASL_R,
+				BLA_W_LP, BLA_W_RADL, BLA_N_LP, IDR_W_RADL, IDR_N_LP, CRA_NUT -> true;
+		default -> false;
+		};
+	}
+
 	@Override
 	public KVP getJTreeNode(int modus) {
 		KVP t = new KVP("NALUnit (" + nal_unit_type.name() + " " + nal_unit_type.getDescription() + ")");
-		t.add(new KVP("bytes", bytes, offset, numBytesInNALunit));
+		t.add(new KVP("bytes", getBytes(), offset, numBytesInNALunit));
 		t.add(new KVP("numBytesInNALunit", numBytesInNALunit));
 		t.add(new KVP("forbidden_zero_bit", forbidden_zero_bit));
 		t.add(new KVP("nal_unit_type", nal_unit_type.getType(), nal_unit_type.getDescription()));
 		t.add(new KVP("nuh_layer_id", nuh_layer_id));
 		t.add(new KVP("nuh_temporal_id_plus1", nuh_temporal_id_plus1));
 
-		t.add(new KVP("rbsp_byte", rbsp_byte, 0, numBytesInRBSP));
+		t.add(new KVP("rbsp_byte", getRbsp_byte(), 0, numBytesInRBSP));
 		t.add(new KVP("NumBytesInRBSP", numBytesInRBSP));
 		if (rbsp != null) {
 			t.add(rbsp.getJTreeNode(modus));
@@ -121,7 +136,7 @@ public class H265NALUnit extends AbstractNALUnit implements TreeNode {
 			case IDR_W_RADL:
 			case IDR_N_LP:
 			case CRA_NUT:
-				rbsp = new Slice_segment_layer_rbsp(rbsp_byte, numBytesInRBSP, nal_unit_type);
+				rbsp = createHeaderRBSP((b, n, r) -> new Slice_segment_layer_rbsp(b, n, r, nal_unit_type));
 				break;
 				
 			case FD_NUT:
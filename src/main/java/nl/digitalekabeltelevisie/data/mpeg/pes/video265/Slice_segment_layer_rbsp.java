@@ -27,6 +27,8 @@
 
 package nl.digitalekabeltelevisie.data.mpeg.pes.video265;
 
+import java.util.function.IntFunction;
+
 import nl.digitalekabeltelevisie.controller.KVP;
 import nl.digitalekabeltelevisie.data.mpeg.pes.video26x.RBSP;
 
@@ -34,8 +36,8 @@ public class Slice_segment_layer_rbsp extends RBSP {
 	
 	Slice_segment_header slice_segment_header;
 
-	public Slice_segment_layer_rbsp(byte[] rbsp_bytes, int numBytesInRBSP, NALUnitType nal_unit_type) {
-		super(rbsp_bytes, numBytesInRBSP);
+	public Slice_segment_layer_rbsp(byte[] rbsp_bytes, int numBytesInRBSP, IntFunction<byte[]> refill, NALUnitType nal_unit_type) {
+		super(rbsp_bytes, numBytesInRBSP, refill);
 		slice_segment_header = new  Slice_segment_header(bitSource, nal_unit_type);
 		
 	}
@@ -29,6 +29,7 @@ package nl.digitalekabeltelevisie.data.mpeg.pes.video266;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import nl.digitalekabeltelevisie.controller.KVP;
@@ -61,13 +62,17 @@ public class H266NALUnit extends AbstractNALUnit{
 		nal_unit_type = H266NALUnitType.getByType(bs.u(5));
 		nuh_temporal_id_plus1 = bs.u(3);
 
-		readRBSPBytes();
+		if(nal_unit_type.getClazz() == Slice_layer_rbsp.class) {
+			readRBSPHeaderBytes(); // only the slice header is parsed
+		}else {
+			readRBSPBytes();
+		}
 		createRBSP();
 	}
 
 	public KVP getJTreeNode(int modus) {
 		KVP t = new KVP("NALUnit ("+nal_unit_type+")");
-		t.add(new KVP("bytes",bytes,offset,numBytesInNALunit));
+		t.add(new KVP("bytes",getBytes(),offset,numBytesInNALunit));
 		t.add(new KVP("numBytesInNALunit",numBytesInNALunit));
 		t.add(new KVP("forbidden_zero_bit",forbidden_zero_bit));
 		t.add(new KVP("nuh_reserved_zero_bit",nuh_reserved_zero_bit));
@@ -75,7 +80,7 @@ public class H266NALUnit extends AbstractNALUnit{
 		t.add(new KVP("nal_unit_type",nal_unit_type.getType(),nal_unit_type.getDescription()));
 		t.add(new KVP("nuh_temporal_id_plus1",nuh_temporal_id_plus1));
 
-		t.add(new KVP("rbsp_byte",rbsp_byte,0,numBytesInRBSP));
+		t.add(new KVP("rbsp_byte",getRbsp_byte(),0,numBytesInRBSP));
 		t.add(new KVP("NumBytesInRBSP",numBytesInRBSP));
 		if(rbsp!=null){
 			t.add(rbsp.getJTreeNode(modus));
@@ -108,7 +113,13 @@ public class H266NALUnit extends AbstractNALUnit{
 
 		Class<? extends RBSP> rbspClass = nal_unit_type.getClazz();
 
-		if (rbspClass != null) {
+		if (rbspClass == Slice_layer_rbsp.class) {
+			try {
+				rbsp = createHeaderRBSP(Slice_layer_rbsp::new);
+			} catch (RuntimeException e) {
+				logger.log(Level.WARNING, "error parsing slice header of NAL unit " + nal_unit_type, e);
+			}
+		}else if (rbspClass != null) {
 			try {
 				Constructor<? extends RBSP> constr = rbspClass.getDeclaredConstructor(new Class[] { byte[].class, int.class });
 				rbsp = constr.newInstance(rbsp_byte, numBytesInRBSP);
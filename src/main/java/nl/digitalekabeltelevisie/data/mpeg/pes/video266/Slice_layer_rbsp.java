@@ -27,6 +27,8 @@
 
 package nl.digitalekabeltelevisie.data.mpeg.pes.video266;
 
+import java.util.function.IntFunction;
+
 import nl.digitalekabeltelevisie.controller.KVP;
 import nl.digitalekabeltelevisie.controller.TreeNode;
 import nl.digitalekabeltelevisie.data.mpeg.pes.video26x.RBSP;
@@ -70,8 +72,8 @@ public class Slice_layer_rbsp extends RBSP {
 
 	private SliceHeader slice_header;
 
-	protected Slice_layer_rbsp(byte[] rbsp_bytes, int numBytesInRBSP) {
-		super(rbsp_bytes, numBytesInRBSP);
+	protected Slice_layer_rbsp(byte[] rbsp_bytes, int numBytesInRBSP, IntFunction<byte[]> refill) {
+		super(rbsp_bytes, numBytesInRBSP, refill);
 		slice_header = new SliceHeader(bitSource);
 	}
 
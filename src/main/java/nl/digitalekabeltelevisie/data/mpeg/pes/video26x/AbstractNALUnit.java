@@ -23,9 +23,11 @@
 
 package nl.digitalekabeltelevisie.data.mpeg.pes.video26x;
 
+import java.util.function.IntFunction;
 import java.util.logging.Logger;
 
 import nl.digitalekabeltelevisie.controller.TreeNode;
+import nl.digitalekabeltelevisie.data.mpeg.PesPacketData;
 import nl.digitalekabeltelevisie.util.BitSource;
 
 /**
@@ -36,18 +38,43 @@ public abstract class AbstractNALUnit  implements TreeNode{
 
 	protected static final Logger logger = Logger.getLogger(AbstractNALUnit.class.getName());
 
+	/**
+	 * number of RBSP bytes that are unescaped first, for NAL units of which only the header is parsed (slices)
+	 */
+	private static final int HEADER_RBSP_BYTES = 64;
+
+	/**
+	 * Constructor of an RBSP of which only the start of the bytes is unescaped, refill unescapes more
+	 */
+	@FunctionalInterface
+	protected interface HeaderRBSPConstructor {
+		RBSP create(byte[] rbsp_bytes, int numBytesInRBSP, IntFunction<byte[]> refill);
+	}
+
 	public abstract String getNALUnitTypeString(final int nal_unit_type);
 
 
 	protected abstract void createRBSP();
 
-	protected final byte[] bytes;
+	protected byte[] bytes;
 	protected final int offset;
 	protected final int numBytesInNALunit;
 	protected BitSource bs;
-	protected final byte[] rbsp_byte;
+	/**
+	 * numBytesInNALunit long when all RBSP bytes are unescaped, shorter when readRBSPHeaderBytes only unescaped the start
+	 */
+	protected byte[] rbsp_byte;
 	protected int numBytesInRBSP = 0;
 	protected RBSP rbsp = null;
+	/**
+	 * start of the RBSP in bytes, -1 when the NAL unit header does not end on a byte boundary
+	 */
+	private int rbspStart = -1;
+	private int rbspEnd;
+	/**
+	 * PES packet the bytes are read from again, after releaseBytes
+	 */
+	private PesPacketData pesPacket;
 
 	/**
 	 * 
@@ -57,7 +84,6 @@ public abstract class AbstractNALUnit  implements TreeNode{
 		this.bytes = bytes;
 		this.offset = offset;
 		this.numBytesInNALunit = len;
-		rbsp_byte = new byte[len]; // max len, maybe a bit shorter
 
 
 		bs = new BitSource(bytes, offset);
@@ -67,6 +93,20 @@ public abstract class AbstractNALUnit  implements TreeNode{
 	 * 
 	 */
 	protected void readRBSPBytes() {
+		if(locateRBSP()) {
+			unescapeAllRBSPBytes();
+		}else {
+			readRBSPBytesBitByBit();
+		}
+	}
+
+	private void unescapeAllRBSPBytes() {
+		rbsp_byte = new byte[numBytesInNALunit]; // max len, maybe a bit shorter
+		numBytesInRBSP = EmulationPrevention.unescape(getBytes(), rbspStart, rbspEnd, rbsp_byte);
+	}
+
+	private void readRBSPBytesBitByBit() {
+		rbsp_byte = new byte[numBytesInNALunit];
 		numBytesInRBSP = 0;
 		for(int i = 1; i < numBytesInNALunit; i++ ) {
 			if( ((i + 2) < numBytesInNALunit) && (bs.nextBits(24) == 0x000003) ) {
@@ -80,7 +120,79 @@ public abstract class AbstractNALUnit  implements TreeNode{
 		}
 	}
 
+	/**
+	 * Like readRBSPBytes, but only unescapes the first HEADER_RBSP_BYTES. numBytesInRBSP is the length of the complete RBSP.
+	 * Use for NAL units of which only the header is parsed, and create the RBSP with createHeaderRBSP.
+	 */
+	protected void readRBSPHeaderBytes() {
+		if(!locateRBSP()) {
+			readRBSPBytesBitByBit();
+			return;
+		}
+		if((rbspEnd > bytes.length) || (numBytesInNALunit <= HEADER_RBSP_BYTES)) {
+			unescapeAllRBSPBytes(); // fails the same way as readRBSPBytes when the NAL unit runs past the end of bytes
+			return;
+		}
+		numBytesInRBSP = EmulationPrevention.countRBSPBytes(bytes, rbspStart, rbspEnd);
+		rbsp_byte = new byte[HEADER_RBSP_BYTES];
+		EmulationPrevention.unescape(bytes, rbspStart, rbspEnd, rbsp_byte);
+	}
+
+	/**
+	 * The RBSP starts after the NAL unit header, and is (numBytesInNALunit - 1) bytes long.
+	 * @return false when the header does not end on a byte boundary, then the bytes are read bit by bit
+	 */
+	private boolean locateRBSP() {
+		if(!bs.isByteAligned()) {
+			return false;
+		}
+		rbspStart = bs.getNextFullByteOffset();
+		rbspEnd = Math.max(rbspStart, (rbspStart + numBytesInNALunit) - 1);
+		bs.advanceBytes(rbspEnd - rbspStart);
+		return true;
+	}
+
+	/**
+	 * Create the RBSP from the bytes read by readRBSPHeaderBytes. When the parser reads past the unescaped bytes,
+	 * its BitSource gets more bytes from unescapeRBSPBytes. The result is the same as with readRBSPBytes.
+	 *
+	 * @param constructor RBSP constructor, taking rbsp_byte, numBytesInRBSP and the refill
+	 * @return the RBSP
+	 */
+	protected RBSP createHeaderRBSP(final HeaderRBSPConstructor constructor) {
+		return constructor.create(rbsp_byte, numBytesInRBSP, this::unescapeRBSPBytes);
+	}
+
+	/**
+	 * Unescape at least twice as many RBSP bytes as before, to the same positions in a new rbsp_byte
+	 *
+	 * @param minLength number of RBSP bytes needed
+	 * @return rbsp_byte, at least minLength long or numBytesInNALunit long when that is shorter
+	 */
+	private byte[] unescapeRBSPBytes(final int minLength) {
+		if((rbsp_byte.length < minLength) && (rbsp_byte.length < numBytesInNALunit)) {
+			final byte[] more = new byte[Math.min(Math.max(2 * rbsp_byte.length, minLength), numBytesInNALunit)];
+			EmulationPrevention.unescape(getBytes(), rbspStart, rbspEnd, more);
+			rbsp_byte = more;
+		}
+		return rbsp_byte;
+	}
+
+	/**
+	 * Drop the reference to the PES data, after parsing only getBytes() and getRbsp_byte() need it.
+	 *
+	 * @param pesPacket that contains this NAL unit, and can read its data again
+	 */
+	void releaseBytes(final PesPacketData pesPacket) {
+		this.pesPacket = pesPacket;
+		bytes = null;
+		bs = null;
+	}
+
 	public byte[] getBytes() {
+		if(bytes == null) {
+			return pesPacket.getData();
+		}
 		return bytes;
 	}
 
@@ -89,7 +201,13 @@ public abstract class AbstractNALUnit  implements TreeNode{
 	}
 
 
+	/**
+	 * @return all RBSP bytes, unescapes the remainder when readRBSPHeaderBytes was used
+	 */
 	public byte[] getRbsp_byte() {
+		if(rbsp_byte.length < numBytesInNALunit) {
+			unescapeAllRBSPBytes();
+		}
 		return rbsp_byte;
 	}
 
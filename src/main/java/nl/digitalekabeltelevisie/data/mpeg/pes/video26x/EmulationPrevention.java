@@ -0,0 +1,106 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg.pes.video26x;
+
+/**
+ * Removes the emulation_prevention_three_byte from NAL units (ITU-T H.264 7.3.1, H.265 7.3.1.1, H.266 7.3.1.1).
+ * <p>
+ * Instead of testing every byte, the scan looks at every third byte. A 0x00 0x00 0x03 sequence can only end at a byte that is 0x00 or 0x03,
+ * and when the byte at i is something else no sequence ends at i, i+1 or i+2. The bytes between two emulation prevention bytes are copied with System.arraycopy.
+ *
+ * @author Eric Berendsen
+ *
+ */
+public final class EmulationPrevention {
+
+	private EmulationPrevention() {
+		// static only
+	}
+
+	/**
+	 * @param src
+	 * @param from first byte to check
+	 * @param to index after the last byte
+	 * @return index of the first emulation_prevention_three_byte (0x03 preceded by 0x00 0x00, the whole sequence between from and to), or to when there is none
+	 */
+	public static int findEmulationPreventionByte(final byte[] src, final int from, final int to) {
+		int i = from + 2;
+		while (i < to) {
+			final byte b = src[i];
+			if (b == 0) {
+				i++;
+			} else if (b != 3) {
+				i += 3;
+			} else if ((src[i - 1] == 0) && (src[i - 2] == 0)) {
+				return i;
+			} else {
+				i += 3;
+			}
+		}
+		return to;
+	}
+
+	/**
+	 * Copy the RBSP bytes of src[from..to) into dest, without the emulation prevention bytes. Stops when dest is full.
+	 *
+	 * @param src
+	 * @param from
+	 * @param to
+	 * @param dest
+	 * @return number of bytes written into dest
+	 */
+	public static int unescape(final byte[] src, final int from, final int to, final byte[] dest) {
+		int written = 0;
+		int pos = from;
+		while ((pos < to) && (written < dest.length)) {
+			final int epb = findEmulationPreventionByte(src, pos, to);
+			final int len = Math.min(epb - pos, dest.length - written);
+			System.arraycopy(src, pos, dest, written, len);
+			written += len;
+			pos = epb + 1;
+		}
+		return written;
+	}
+
+	/**
+	 * @param src
+	 * @param from
+	 * @param to
+	 * @return number of RBSP bytes in src[from..to), so without the emulation prevention bytes
+	 */
+	public static int countRBSPBytes(final byte[] src, final int from, final int to) {
+		int count = 0;
+		int pos = from;
+		while (pos < to) {
+			final int epb = findEmulationPreventionByte(src, pos, to);
+			count += epb - pos;
+			pos = epb + 1;
+		}
+		return count;
+	}
+}
@@ -108,7 +108,7 @@ public abstract class H26xHandler<P extends H26xPESDataField<?>, N extends Abstr
 
 	@Override
 	protected void processPesDataBytes(final PesPacketData pesData) {
-		pesPackets.add(createH26xPESDataField(pesData));
+		addParsedPesPacket(createH26xPESDataField(pesData));
 
 	}
 
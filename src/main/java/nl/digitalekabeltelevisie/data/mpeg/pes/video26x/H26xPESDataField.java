@@ -23,7 +23,8 @@
 
 package nl.digitalekabeltelevisie.data.mpeg.pes.video26x;
 
-import static nl.digitalekabeltelevisie.util.Utils.indexOf;
+import static nl.digitalekabeltelevisie.data.mpeg.pes.video.common.StartCodeScanner.findNALUnitEnd;
+import static nl.digitalekabeltelevisie.data.mpeg.pes.video.common.StartCodeScanner.findStartCode;
 
 import java.util.*;
 import java.util.logging.Logger;
@@ -49,22 +50,16 @@ public abstract class H26xPESDataField<E extends AbstractNALUnit> extends PesPac
 		super(pesPacket);
 		int i = pesDataStart;
 		while((i<(data.length))&&(i>=0)){
-			i = indexOf(data, new byte[]{0,0,1},i);
+			i = findStartCode(data, i, data.length);
 			if(i>=0){ // found start_code_prefix_one_3bytes
 
 				i+=3; // start of NAL unit
 				// now look for end, either byte[]{0,0,1} or byte[]{0,0,0} or  TODO end of PES data
-				final int zeroEnd = indexOf(data, new byte[]{0,0,0},i);
-				final int oneEnd = indexOf(data, new byte[]{0,0,1},i);
+				// the next search for a start code continues from end, so data is scanned only once
+				final int nalEnd = findNALUnitEnd(data, i, data.length);
 				final int end;
-				if(zeroEnd>=0){
-					if(oneEnd>=0){
-						end = Math.min(zeroEnd, oneEnd);
-					}else{  // oneEnd not found, use zero Ende
-						end = zeroEnd;
-					}
-				}else if(oneEnd>=0){
-					end = oneEnd;
+				if(nalEnd>=0){
+					end = nalEnd;
 				}else{ // both not found, use pesLen
 					end = pesDataLen;
 				}
@@ -85,6 +80,20 @@ public abstract class H26xPESDataField<E extends AbstractNALUnit> extends PesPac
 
 
 
+	/**
+	 * The NAL units get their bytes from this PES packet after the data is released
+	 */
+	@Override
+	public boolean releaseData() {
+		if(!super.releaseData()) {
+			return false;
+		}
+		for(final E nalUnit : nalUnits) {
+			nalUnit.releaseBytes(this);
+		}
+		return true;
+	}
+
 	public List<E> getNalUnits() {
 		return nalUnits;
 	}
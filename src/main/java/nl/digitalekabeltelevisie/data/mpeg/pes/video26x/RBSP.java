@@ -27,6 +27,8 @@
 
 package nl.digitalekabeltelevisie.data.mpeg.pes.video26x;
 
+import java.util.function.IntFunction;
+
 import nl.digitalekabeltelevisie.controller.KVP;
 import nl.digitalekabeltelevisie.controller.TreeNode;
 import nl.digitalekabeltelevisie.util.BitSource;
@@ -54,6 +56,16 @@ public abstract class RBSP implements TreeNode {
 		this.numBytesInRBSP = numBytesInRBSP;
 	}
 
+	/**
+	 * For RBSPs of which only the start is unescaped in rbsp_bytes, refill unescapes more when the parser needs it.
+	 * @see AbstractNALUnit#createHeaderRBSP
+	 */
+	protected RBSP(byte[] rbsp_bytes, int numBytesInRBSP, IntFunction<byte[]> refill){
+		bitSource = new BitSource(rbsp_bytes, 0,numBytesInRBSP, refill);
+		bytes = rbsp_bytes;
+		this.numBytesInRBSP = numBytesInRBSP;
+	}
+
 	// used in Pic_parameter_set_rbsp and Seq_parameter_set_rbsp
 
 	/**
@@ -61,11 +61,11 @@ public class T2miPacket implements TreeNode {
 
 	private byte[] data;
 
-	private int packetNo;
+	private long packetNo;
 
 	private Payload payload;
 
-	public T2miPacket(byte[] result, int packetNo) {
+	public T2miPacket(byte[] result, long packetNo) {
 		data = result;
 		this.packetNo = packetNo;
 
@@ -153,7 +153,7 @@ public class T2miPacket implements TreeNode {
 
 	}
 
-	public int getPacketNo() {
+	public long getPacketNo() {
 		return packetNo;
 	}
 
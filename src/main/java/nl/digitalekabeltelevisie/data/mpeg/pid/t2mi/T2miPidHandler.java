@@ -79,7 +79,7 @@ public class T2miPidHandler extends GeneralPidHandler {
 	public void processTSPacket(TSPacket packet) {
 		initialized = true;
 		byte[] data = packet.getData();
-		int packetNo = packet.getPacketNo();
+		long packetNo = packet.getPacketNo();
 		if(packet.isPayloadUnitStartIndicator()) { //first byte is offset
 			if(!packetStarted) {
 				packetStarted = true;
@@ -97,7 +97,7 @@ public class T2miPidHandler extends GeneralPidHandler {
 
 	}
 
-	private void readBytes(byte[] data, int offsetIn, int packetNo) {
+	private void readBytes(byte[] data, int offsetIn, long packetNo) {
 		int offset = offsetIn;
 		int bytesLeft = data.length - offset;
 		while (bytesLeft > 0) {
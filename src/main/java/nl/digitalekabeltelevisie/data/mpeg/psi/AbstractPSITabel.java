@@ -81,26 +81,43 @@ public abstract class AbstractPSITabel implements TreeNode{
 			last = last.getNextVersion();
 		}
 		if(last.equals(newSection)){ // already have an instance if this section, just update the stats on the existing section
-			int previousPacketNo = last.getLast_packet_no();
-			TransportStream transportStream = newSection.getParentTransportStream();
-			long distance ;
-			if(newSection.getParentTransportStream().isAVCHD()) {
-				distance = transportStream.getAVCHDPacketTime(newSection.getPacket_no()) - transportStream.getAVCHDPacketTime(previousPacketNo);
-			}else {
-				distance = newSection.getPacket_no() - previousPacketNo;
-			}
-			if(distance>last.getMaxPacketDistance()){
-				last.setMaxPacketDistance(distance);
-			}
-			if(distance<last.getMinPacketDistance()){
-				last.setMinPacketDistance(distance);
-			}
-			last.setLast_packet_no(newSection.getPacket_no());
-			last.setOccurrence_count(last.getOccurrence_count()+1);
+			updateOccurrence(last, newSection.getPacket_no());
+			storedAs(newSection, last);
 			return last;
 		}
 		last.setNextVersion(newSection);
+		storedAs(newSection, newSection);
 		return newSection;
 	}
 
+	/**
+	 * update the statistics of section for another occurrence, starting at packetNo
+	 * @param section
+	 * @param packetNo
+	 */
+	public static void updateOccurrence(final TableSection section, final long packetNo) {
+		long previousPacketNo = section.getLast_packet_no();
+		TransportStream transportStream = section.getParentTransportStream();
+		long distance ;
+		if(transportStream.isAVCHD()) {
+			distance = transportStream.getAVCHDPacketTime(packetNo) - transportStream.getAVCHDPacketTime(previousPacketNo);
+		}else {
+			distance = packetNo - previousPacketNo;
+		}
+		if(distance>section.getMaxPacketDistance()){
+			section.setMaxPacketDistance(distance);
+		}
+		if(distance<section.getMinPacketDistance()){
+			section.setMinPacketDistance(distance);
+		}
+		section.setLast_packet_no(packetNo);
+		section.setOccurrence_count(section.getOccurrence_count()+1);
+	}
+
+	private static void storedAs(final TableSection newSection, final TableSection stored) {
+		if(newSection.getRaw_data()!=null){
+			newSection.getRaw_data().setStoredSection(stored);
+		}
+	}
+
 }
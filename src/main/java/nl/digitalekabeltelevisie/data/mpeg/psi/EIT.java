@@ -28,15 +28,11 @@ package nl.digitalekabeltelevisie.data.mpeg.psi;
 
 import static nl.digitalekabeltelevisie.data.mpeg.descriptors.Descriptor.findDescriptorApplyListFunc;
 import static nl.digitalekabeltelevisie.util.Utils.addListJTree;
-import static nl.digitalekabeltelevisie.util.Utils.getDurationSeconds;
-import static nl.digitalekabeltelevisie.util.Utils.isUndefined;
 import static nl.digitalekabeltelevisie.util.Utils.simpleModus;
 
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.function.IntPredicate;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -49,7 +45,6 @@ import nl.digitalekabeltelevisie.data.mpeg.PSI;
 import nl.digitalekabeltelevisie.data.mpeg.descriptors.ParentalRatingDescriptor;
 import nl.digitalekabeltelevisie.data.mpeg.psi.EITsection.Event;
 import nl.digitalekabeltelevisie.gui.EITableImage;
-import nl.digitalekabeltelevisie.util.Interval;
 import nl.digitalekabeltelevisie.util.ServiceIdentification;
 import nl.digitalekabeltelevisie.util.Utils;
 import nl.digitalekabeltelevisie.util.tablemodel.FlexTableModel;
@@ -196,15 +191,17 @@ public class EIT extends AbstractPSITabel{
 						}
 						
 
-						for (EITsection section : sections) {
-							if(section!= null){
-                                if (simpleModus(modus)) {
-                                    addListJTree(tableNode, section.getEventList(), modus, "events");
-                                } else {
-                                    addSectionVersionsToJTree(tableNode, section, modus);
-                                }
+						tableNode.setChildProvider(node -> {
+							for (EITsection section : sections) {
+								if(section!= null){
+									if (simpleModus(modus)) {
+										addListJTree(node, section.getEventList(), modus, "events");
+									} else {
+										addSectionVersionsToJTree(node, section, modus);
+									}
+								}
 							}
-						}
+						});
 					}
 					// now all sections for service are in serviceSections
 					streamImageMap.put(new ServiceIdentification(orgNetworkId, transport_stream_id, serviceId), serviceSections);
@@ -298,52 +295,6 @@ public class EIT extends AbstractPSITabel{
 	}
 	
 
-	/**
-	 * Returns the start time of the first, and the end time of the last event of the services in this EIT table.
-	 * Only the services contained in serviceSet are used in the calculation
-	 *
-	 * @param serviceSet service ID of services to be included in calculation
-	 * @param eitTable map of service IDs to EITSection[] Can contain sections from different Table IDs, like 0x50 and 0x51, etc... (for very long EPGs)
-	 * @return Interval that covers all events in eitTable
-	 */
-	public static Interval getSpanningInterval(Set<ServiceIdentification> serviceSet, Map<ServiceIdentification, EITsection[]> eitTable) {
-		LocalDateTime startDate = null;
-		LocalDateTime endDate = null;
-		// services to be displayed
-
-		for(ServiceIdentification serviceNo : serviceSet){
-			for(EITsection section :eitTable.get(serviceNo)){
-				if(section!= null){
-					List<Event> eventList = section.getEventList();
-					for(Event event:eventList){
-						byte[] startTime = event.getStartTime();
-						if(isUndefined(startTime)){ // undefined start time
-							continue;
-						}
-						LocalDateTime eventStart = Utils.getUTCLocalDateTime(startTime);
-						if((startDate==null)||(startDate.isAfter(eventStart))){
-							startDate = eventStart;
-						}
-						if(eventStart!=null){
-							try{
-								LocalDateTime eventEnd =eventStart.plusSeconds(getDurationSeconds(event.getDuration()));
-								if((endDate==null)||(endDate.isBefore(eventEnd))){
-									endDate = eventEnd;
-								}
-							}catch(NumberFormatException nfe){
-								logger.log(Level.WARNING, "getSpanningInterval: Event.duration is not a valid BCD number;", nfe);
-							}
-						}
-					}
-				}
-			}
-		}
-		if((startDate!=null)&&(endDate!=null)){
-			return new Interval(startDate,endDate);
-		}
-		return null;
-	}
-
 	public Map<ServiceIdentification, EITsection[]> getCombinedSchedule() {
 		return getFlatEit(tableId -> tableId >= 80);
 	}
@@ -43,16 +43,16 @@ public class GeneralPSITable extends AbstractPSITabel{
 	
 	public static class TableSectionOccurrence{
 
-		private final int packetNo;
+		private final long packetNo;
 		private final TableSection tableSection;
 
-		public TableSectionOccurrence(int packetNo, TableSection tableSection) {
+		public TableSectionOccurrence(long packetNo, TableSection tableSection) {
 			super();
 			this.packetNo = packetNo;
 			this.tableSection = tableSection;
 		}
 
-		public int getPacketNo() {
+		public long getPacketNo() {
 			return packetNo;
 		}
 
@@ -87,7 +87,7 @@ public class GeneralPSITable extends AbstractPSITabel{
 
 	public void update(TableSection section){
 
-		int startPacket = section.getPacket_no();
+		long startPacket = section.getPacket_no();
 
 		if(section.sectionSyntaxIndicator==0x01){ // long syntax, section_syntax_indicator==1
 
@@ -112,8 +112,8 @@ public class GeneralPSITable extends AbstractPSITabel{
 			TableSection existingSection = simpleSectionsd.get(section);
 			if (existingSection != null)
 			{
-				int previousPacketNo = existingSection.getLast_packet_no();
-				int distance = section.getPacket_no() - previousPacketNo;
+				long previousPacketNo = existingSection.getLast_packet_no();
+				long distance = section.getPacket_no() - previousPacketNo;
 				if(distance>existingSection.getMaxPacketDistance()){
 					existingSection.setMaxPacketDistance(distance);
 				}
@@ -131,6 +131,16 @@ public class GeneralPSITable extends AbstractPSITabel{
 		}
 	}
 
+	/**
+	 * another occurrence of a long syntax section that is equal to the last version of section, see SectionRepeatCache
+	 * @param section
+	 * @param packetNo
+	 */
+	public void updateRepeat(TableSection section, long packetNo){
+		updateOccurrence(section, packetNo);
+		tableSectionOccurrences.add(new TableSectionOccurrence(packetNo, section));
+	}
+
 	/* (non-Javadoc)
 	 * @see nl.digitalekabeltelevisie.controller.TreeNode#getJTreeNode(int)
 	 */
@@ -72,8 +72,8 @@ public class TableSection implements TreeNode{
 
 	/* non DVB fields */
 
-	private int firstPacketNo;
-	private int lastPacketNo;
+	private long firstPacketNo;
+	private long lastPacketNo;
 	/**
 	 * min distance between packets, in packets for CBR, in system_ ticks for AVCHD
 	 */
@@ -83,7 +83,7 @@ public class TableSection implements TreeNode{
 	 */
 	private long maxPacketDistance;
 	private int occurrenceCount;
-	private int packetNo;
+	private long packetNo;
 
 	public TableSection(PsiSectionData raw_data, PID parent){
         this.raw_data = raw_data;
@@ -435,7 +435,7 @@ public class TableSection implements TreeNode{
 	}
 
 
-	private String getRepetitionRate(int count, int last, int  first) {
+	private String getRepetitionRate(int count, long last, long  first) {
 		TransportStream parentTransportStream = parentPID.getParentTransportStream();
 		long bitrate=parentTransportStream.getBitRate();
 		if((bitrate> 0L)&&(count>=2)){
@@ -521,19 +521,19 @@ public class TableSection implements TreeNode{
 		this.nextVersion = next;
 	}
 
-	public int getFirst_packet_no() {
+	public long getFirst_packet_no() {
 		return firstPacketNo;
 	}
 
-	public void setFirst_packet_no(int first_packet_no) {
+	public void setFirst_packet_no(long first_packet_no) {
 		this.firstPacketNo = first_packet_no;
 	}
 
-	public int getLast_packet_no() {
+	public long getLast_packet_no() {
 		return lastPacketNo;
 	}
 
-	public void setLast_packet_no(int last_packet_no) {
+	public void setLast_packet_no(long last_packet_no) {
 		this.lastPacketNo = last_packet_no;
 	}
 
@@ -545,11 +545,11 @@ public class TableSection implements TreeNode{
 		this.occurrenceCount = occurrence_count;
 	}
 
-	public int getPacket_no() {
+	public long getPacket_no() {
 		return packetNo;
 	}
 	
-	public void setPacket_no(int packetNo) {
+	public void setPacket_no(long packetNo) {
 		this.packetNo = packetNo;
 		raw_data.setPacket_no(packetNo);
 	}
@@ -128,7 +128,7 @@ public class GeneralPsiTableHandler extends GeneralPidHandler {
 		List<TableSectionOccurrence> tableSectionOccurrences = psi.getTableSectionOccurrences();
 		
 		for(TableSectionOccurrence tableSectionOccurrence:tableSectionOccurrences) {
-			int packetNo = tableSectionOccurrence.getPacketNo();
+			long packetNo = tableSectionOccurrence.getPacketNo();
 			
 			TableSection section = new TableSection(new PsiSectionData(tableSectionOccurrence.getTableSection().getRaw_data()), pid);
 			section.setPacket_no(packetNo);
@@ -1,32 +1,43 @@
-/**
- *
- *  http://www.digitalekabeltelevisie.nl/dvb_inspector
- *
- *  This code is Copyright 2009-2022 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
- *
- *  This file is part of DVB Inspector.
- *
- *  DVB Inspector is free software: you can redistribute it and/or modify
- *  it under the terms of the GNU General Public License as published by
- *  the Free Software Foundation, either version 3 of the License, or
- *  (at your option) any later version.
- *
- *  DVB Inspector is distributed in the hope that it will be useful,
- *  but WITHOUT ANY WARRANTY; without even the implied warranty of
- *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- *  GNU General Public License for more details.
- *
- *  You should have received a copy of the GNU General Public License
- *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
- *
- *  The author requests that he be notified of any application, applet, or
- *  other binary that makes use of this code, but that's more out of curiosity
- *  than anything and is not required.
- *
- */
-package nl.digitalekabeltelevisie.data.mpeg;
-
-public record TimeStamp(long x, long time) {
-
-
-}
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.gui;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Source of an image that takes long to create, like one that decodes many video frames.
+ * DVBtree only creates the image when its tab is shown, on a background thread, so the GUI does not freeze.
+ * When the user selects another node the thread is interrupted, getImage() should then stop as soon as possible.
+ */
+public non-sealed interface BackgroundImageSource extends DetailSource{
+
+	/**
+	 * @return the image, or null when there is nothing to show (or the thread was interrupted)
+	 */
+	BufferedImage getImage();
+}
@@ -85,7 +85,7 @@ public class BarChart extends ChartPanel implements TransportStreamView {
 	}
 
 	private static double[][] createCbrData(final TransportStream transportStream, final ViewContext viewContext,
-			final short[] used_pids, final int[] pidCountAvg) {
+			final short[] used_pids, final long[] pidCountAvg) {
 		final int steps = viewContext.getGraphSteps();
 		final double[][] data = new double[3][viewContext.getShown().size()];
 	
@@ -107,10 +107,10 @@ public class BarChart extends ChartPanel implements TransportStreamView {
 	
 			final int[] periodpidcount = new int[MAX_PIDS];
 	
-			final int startPacketStep = viewContext.getStartPacket() + (int) (((long) t * (long) (viewContext.getEndPacket() - viewContext.getStartPacket())) / steps);
-			final int endPacketStep = viewContext.getStartPacket() + (int) (((long) (t + 1) * (long) (viewContext.getEndPacket() - viewContext.getStartPacket())) / steps);
+			final long startPacketStep = viewContext.getStartPacket() + ((t * (viewContext.getEndPacket() - viewContext.getStartPacket())) / steps);
+			final long endPacketStep = viewContext.getStartPacket() + (((t + 1) * (viewContext.getEndPacket() - viewContext.getStartPacket())) / steps);
 	
-			for (int r = startPacketStep; r < endPacketStep; r++) {
+			for (long r = startPacketStep; r < endPacketStep; r++) {
 				final int pid_current_packet = transportStream.getPacket_pid(r);
 				periodpidcount[pid_current_packet]++;
 			}
@@ -140,8 +140,8 @@ public class BarChart extends ChartPanel implements TransportStreamView {
 		final ChartLabel[] avgMinMaxLabels = createAvgMinMaxLabels();
 
 		// AVG
-		final int[] pidCountAvg = new int[MAX_PIDS];
-		for (int r = viewContext.getStartPacket(); r < viewContext.getEndPacket(); r++) {
+		final long[] pidCountAvg = new long[MAX_PIDS];
+		for (long r = viewContext.getStartPacket(); r < viewContext.getEndPacket(); r++) {
 			final int pid_current_packet = transportStream.getPacket_pid(r);
 			pidCountAvg[pid_current_packet]++;
 		}
@@ -159,7 +159,7 @@ public class BarChart extends ChartPanel implements TransportStreamView {
 	}
 
 	private static double[][] createAvchdData(final TransportStream transportStream, final ViewContext viewContext,
-			final short[] usedPids, final int[] pidCountAvg) {
+			final short[] usedPids, final long[] pidCountAvg) {
 		final int steps = viewContext.getGraphSteps();
 		final double[][] data = new double[3][viewContext.getShown().size()];
 
@@ -178,7 +178,7 @@ public class BarChart extends ChartPanel implements TransportStreamView {
 		}
 
 
-		int packetIndex = viewContext.getStartPacket();
+		long packetIndex = viewContext.getStartPacket();
 		long startStepPacketTime = startSelectionTime;
 		
 		for (int step = 0; step < steps; step++) {
@@ -35,6 +35,7 @@ import java.awt.BorderLayout;
 import java.text.FieldPosition;
 import java.text.NumberFormat;
 import java.text.ParsePosition;
+import java.util.Arrays;
 
 import javax.swing.ButtonGroup;
 import javax.swing.JLabel;
@@ -44,6 +45,7 @@ import javax.swing.JRadioButton;
 import nl.digitalekabeltelevisie.controller.ChartLabel;
 import nl.digitalekabeltelevisie.controller.ViewContext;
 import nl.digitalekabeltelevisie.data.mpeg.MPEGConstants;
+import nl.digitalekabeltelevisie.data.mpeg.PidPacketCounts;
 import nl.digitalekabeltelevisie.data.mpeg.TransportStream;
 import nl.digitalekabeltelevisie.gui.utils.GuiUtils;
 
@@ -214,11 +216,14 @@ public class BitRateChart extends JPanel implements TransportStreamView{
 		final int numberOfSteps = viewContext.getGraphSteps();
 
 		final CategoryTableXYDataset categoryTableXYDataset = new CategoryTableXYDataset();
+		final PidPacketCounts pidPacketCounts = transportStream.getPidPacketCounts();
+		final int[] pidcount = new int[MAX_PIDS];
 
-		int startPacketStep = getFirstPacketNoOfStep(viewContext, 0);
+		long startPacketStep = getFirstPacketNoOfStep(viewContext, 0);
 		for (int step = 0; step < numberOfSteps; step++) {
-			final int endPacketStep = getFirstPacketNoOfStep(viewContext, step + 1);
-			final int[] pidcount = countPidOccurrencesInStep(transportStream, startPacketStep, endPacketStep);
+			final long endPacketStep = getFirstPacketNoOfStep(viewContext, step + 1);
+			Arrays.fill(pidcount, 0);
+			pidPacketCounts.addCounts(startPacketStep, endPacketStep, pidcount);
 
 			for (int pidIndex = 0; pidIndex < used_pids.length; pidIndex++) {
 				if (transportStream.getBitRate() == -1) {
@@ -248,32 +253,17 @@ public class BitRateChart extends JPanel implements TransportStreamView{
 		return labels;
 	}
 
-	/**
-	 * @param transportStream
-	 * @param startPacketStep
-	 * @param endPacketStep
-	 * @return
-	 */
-	private static int[] countPidOccurrencesInStep(final TransportStream transportStream, final int startPacketStep, final int endPacketStep) {
-		final int [] pidcount = new int [MAX_PIDS];
-		for(int r = startPacketStep; r< endPacketStep;r++ ){
-			final int pid_current_packet=transportStream.getPacket_pid(r);
-			pidcount[pid_current_packet]++;
-		}
-		return pidcount;
-	}
-
 	/**
 	 * @param viewContext
 	 * @param steps
 	 * @param step
 	 * @return
 	 */
-	private static int getFirstPacketNoOfStep(final ViewContext viewContext, final int step) {
+	private static long getFirstPacketNoOfStep(final ViewContext viewContext, final int step) {
 
 		int steps = viewContext.getGraphSteps();
 		final long packetsInSelectedRange = viewContext.getEndPacket() - viewContext.getStartPacket();
-		return viewContext.getStartPacket() + (int) ((step * packetsInSelectedRange) / steps);
+		return viewContext.getStartPacket() + ((step * packetsInSelectedRange) / steps);
 	}
 
 	private void addLegendRadioButtons() {
@@ -326,16 +316,17 @@ public class BitRateChart extends JPanel implements TransportStreamView{
 		long endSelectionTime = transportStream.getAVCHDPacketTime(viewContext.getEndPacket() - 1);
 		long selectionDuration = endSelectionTime - startSelectionTime;
 		
-		int packetIndex = viewContext.getStartPacket();
+		final PidPacketCounts pidPacketCounts = transportStream.getPidPacketCounts();
+		final int [] pidcount = new int [MAX_PIDS];
+
+		long packetIndex = viewContext.getStartPacket();
 		long startStepPacketTime = startSelectionTime;
 		for (int step = 0; step < numberOfSteps; step++) {
 			final long endStepPacketTime = startSelectionTime + (selectionDuration * (step + 1) / numberOfSteps);
-			final int [] pidcount = new int [MAX_PIDS];
-			while(packetIndex< viewContext.getEndPacket() && transportStream.getAVCHDPacketTime(packetIndex) <= endStepPacketTime) {
-				final int pid_current_packet=transportStream.getPacket_pid(packetIndex);
-				pidcount[pid_current_packet]++;
-				packetIndex++;
-			}
+			final long endPacketIndex = findFirstPacketAfter(transportStream, packetIndex, viewContext.getEndPacket(), endStepPacketTime);
+			Arrays.fill(pidcount, 0);
+			pidPacketCounts.addCounts(packetIndex, endPacketIndex, pidcount);
+			packetIndex = endPacketIndex;
 	
 			for (int pidIndex = 0; pidIndex < used_pids.length; pidIndex++) {
 				if (endStepPacketTime > startStepPacketTime) {
@@ -348,5 +339,23 @@ public class BitRateChart extends JPanel implements TransportStreamView{
 		return categoryTableXYDataset;
 	}
 
+	/**
+	 * binary search for the first packet in [from, to) with an arrival time after time, ATS (corrected for roll over) never decrease.
+	 *
+	 * @return the packet number, or to if there is none
+	 */
+	private static long findFirstPacketAfter(final TransportStream transportStream, final long from, final long to, final long time) {
+		long low = from;
+		long high = to;
+		while (low < high) {
+			final long mid = (low + high) >>> 1;
+			if (transportStream.getAVCHDPacketTime(mid) <= time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
 
 }
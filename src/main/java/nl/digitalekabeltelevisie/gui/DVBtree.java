@@ -44,11 +44,17 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -80,8 +86,8 @@ import nl.digitalekabeltelevisie.data.mpeg.pid.t2mi.PlpHandler;
 import nl.digitalekabeltelevisie.data.mpeg.psi.handler.GeneralPsiTableHandler;
 import nl.digitalekabeltelevisie.gui.utils.GuiUtils;
 import nl.digitalekabeltelevisie.main.DVBinspector;
-import nl.digitalekabeltelevisie.util.KvpPreorderEnumaration;
 import nl.digitalekabeltelevisie.util.JTreeLazyList;
+import nl.digitalekabeltelevisie.util.KvpSearchIndex;
 import nl.digitalekabeltelevisie.util.PreferencesManager;
 
 /**
@@ -170,6 +176,34 @@ public class DVBtree extends JPanel implements HyperlinkListener, TransportStrea
 	
 	private DVBinspector controller;
 
+	/**
+	 * builds the search index of the tree in the background. One thread, so a new index is only built after an old (cancelled) one stopped.
+	 */
+	private static final ExecutorService searchIndexExecutor = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "DVBtree search index");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * index of the current tree, created on first search. null when the tree changed
+	 */
+	private FutureTask<KvpSearchIndex> searchIndex;
+	private TreeSearch treeSearch;
+	/**
+	 * number of nodes the search index collects per event on the EDT
+	 */
+	private static final int SEARCH_INDEX_CHUNK = 2000;
+
+	/**
+	 * client property of an ImagePanel in the detailPanel, holding the BackgroundImageSource that still has to be started when its tab is shown
+	 */
+	private static final String PENDING_IMAGE_SOURCE = "pendingImageSource";
+	/**
+	 * background images being created for the selected node, cancelled when another node is selected
+	 */
+	private final List<SwingWorker<BufferedImage, Void>> imageWorkers = new ArrayList<>();
+
 	/**
 	 *
 	 * Creates a new DVBTree
@@ -265,6 +299,7 @@ public class DVBtree extends JPanel implements HyperlinkListener, TransportStrea
 	            return 0;  
 		    }  
 		});  
+		detailPanel.addChangeListener(e -> startPendingImage());
 		
 
 		//Add the scroll panes to a split pane.
@@ -337,7 +372,7 @@ public class DVBtree extends JPanel implements HyperlinkListener, TransportStrea
 					}
 					break;
 				case JTreeLazyList.RangeNode rangeNode when subList.get(0).equalsIgnoreCase(rangeNode.getLabel().trim()):
-					return rangeNode.findChildForActual(Integer.parseInt(subList.get(1)));
+					return rangeNode.findChildForActual(Long.parseLong(subList.get(1)));
 				default:
 					// EMPTY
 				}
@@ -359,6 +394,7 @@ public class DVBtree extends JPanel implements HyperlinkListener, TransportStrea
 	@Override
 	public void setTransportStream(TransportStream transportStream, ViewContext viewContext){
 		ts=transportStream;
+		invalidateSearchIndex();
 		if(ts!=null){
 			model=new DefaultTreeModel(ts.getJTreeNode(mod));
 			tree.setModel(model);
@@ -417,6 +453,7 @@ public class DVBtree extends JPanel implements HyperlinkListener, TransportStrea
 	}
 
 	private void rebuildTree(){
+		invalidateSearchIndex();
 		if(ts!=null){
 			model = new DefaultTreeModel(ts.getJTreeNode(mod));
 			tree.setModel(model);
@@ -477,6 +514,7 @@ public class DVBtree extends JPanel implements HyperlinkListener, TransportStrea
 		// node1 is either a KVP (most normal items) or a
 		// MutableTreeNode (for LazyList)
 		MutableTreeNode node1 = (MutableTreeNode) tree.getLastSelectedPathComponent();
+		cancelImageWorkers();
 		detailPanel.removeAll();
 
 		if (node1 == null) {
@@ -519,6 +557,12 @@ public class DVBtree extends JPanel implements HyperlinkListener, TransportStrea
 					detailPanel.addTab(label, imagePanel);
 				}
 				break;
+			case BackgroundImageSource backgroundImageSource:
+				ImagePanel pendingPanel = new ImagePanel();
+				pendingPanel.putClientProperty(PENDING_IMAGE_SOURCE, backgroundImageSource);
+				detailPanel.addTab(label, pendingPanel);
+				startPendingImage();
+				break;
 			case HTMLSource htmlSource:
 				HtmlPanel htmlPanel = new HtmlPanel(controller, this, htmlSource.getHTML());
 				detailPanel.addTab(label, new JScrollPane(htmlPanel));
@@ -545,6 +589,51 @@ public class DVBtree extends JPanel implements HyperlinkListener, TransportStrea
 		}
 	}
 
+	/**
+	 * Start creating the image of the selected tab, when it is a BackgroundImageSource that has not been started yet.
+	 * The image is created by a SwingWorker, so on a bounded pool of threads, and shown when it is ready.
+	 */
+	private void startPendingImage() {
+		if (!(detailPanel.getSelectedComponent() instanceof ImagePanel imagePanel)
+				|| !(imagePanel.getClientProperty(PENDING_IMAGE_SOURCE) instanceof BackgroundImageSource imageSource)) {
+			return;
+		}
+		imagePanel.putClientProperty(PENDING_IMAGE_SOURCE, null);
+		imagePanel.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+		SwingWorker<BufferedImage, Void> worker = new SwingWorker<>() {
+			@Override
+			protected BufferedImage doInBackground() {
+				return imageSource.getImage();
+			}
+
+			@Override
+			protected void done() {
+				imageWorkers.remove(this);
+				imagePanel.setCursor(Cursor.getDefaultCursor());
+				if (isCancelled()) {
+					return;
+				}
+				try {
+					imagePanel.setImage(get());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException e) {
+					logger.log(Level.WARNING, "could not create image from BackgroundImageSource:", e.getCause());
+					imagePanel.setImage(GuiUtils.getErrorImage("Ooops.\n\n" + "Something went wrong generating this image.\n\n"  + GuiUtils.getImproveMsg()));
+				}
+			}
+		};
+		imageWorkers.add(worker);
+		worker.execute();
+	}
+
+	private void cancelImageWorkers() {
+		for (SwingWorker<BufferedImage, Void> worker : new ArrayList<>(imageWorkers)) {
+			worker.cancel(true);
+		}
+		imageWorkers.clear();
+	}
+
 	/* (non-Javadoc)
 	 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
 	 */
@@ -725,6 +814,7 @@ public class DVBtree extends JPanel implements HyperlinkListener, TransportStrea
 		// thanks to Yong Zhang for the tip for refreshing the tree structure.
 		kvp.add(node);
 		((DefaultTreeModel)tree.getModel()).nodeStructureChanged(kvp);
+		invalidateSearchIndex();
 		setCursor(Cursor.getDefaultCursor());
 	}
 
@@ -803,7 +893,7 @@ public class DVBtree extends JPanel implements HyperlinkListener, TransportStrea
 				TreePath childPath = path.pathByAddingChild(child);
 				if(tree.isVisible(childPath)){
 					res.append(preFix).append("+-").append(child.getPlainText()).append(System.lineSeparator());
-					if(!child.isLeaf()){
+					if(!child.isLeaf() && tree.isExpanded(childPath)){ // children of collapsed nodes are not visible, and may not even exist yet
 						if (child == kvp.getLastChild()) { // lastChild
 							res.append(getViewTree(child, preFix + "  ", childPath)); // last , so prefix with "  "
 						} else {
@@ -885,45 +975,76 @@ public class DVBtree extends JPanel implements HyperlinkListener, TransportStrea
 
 	}
 
-	public boolean findAndShow(String s,KvpPreorderEnumaration enumeration) {
-		
-        KVP node = searchNode(s.toLowerCase(),enumeration);
-        if (node != null) {
-          showNode(node);
-          return true;
-        }
-        return false;
+	/**
+	 * Start a search in the background, any running search is cancelled. The first search on a tree builds the search index.
+	 * The nodes to index are collected on the EDT, in chunks so the GUI stays responsive while the parts of the tree that have never been expanded are created.
+	 * When the tree is rebuilt (like when following a growing file) before all nodes are collected, the index is cancelled.
+	 *
+	 * @param searchText text to look for, case insensitive
+	 * @return the running search, or null when there is no tree
+	 */
+	public TreeSearch startSearch(String searchText) {
+		cancelSearch();
+		if (ts == null) {
+			return null;
+		}
+		if (searchIndex == null) {
+			KvpSearchIndex.Collector collector = new KvpSearchIndex.Collector((KVP) model.getRoot());
+			searchIndex = new FutureTask<>(() -> KvpSearchIndex.build(collectOnEdt(collector)));
+			searchIndexExecutor.execute(searchIndex);
+		}
+		treeSearch = new TreeSearch(this, searchText, searchIndex);
+		treeSearch.execute();
+		return treeSearch;
+	}
+
+	/**
+	 * Runs the collector on the EDT a chunk at a time, until it has all nodes. Called from the search index thread.
+	 */
+	private static KVP[] collectOnEdt(KvpSearchIndex.Collector collector) throws InterruptedException, InvocationTargetException {
+		boolean[] done = {false};
+		while (!done[0]) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException("collecting nodes for search index interrupted");
+			}
+			SwingUtilities.invokeAndWait(() -> done[0] = collector.collect(SEARCH_INDEX_CHUNK));
+		}
+		return collector.getNodes();
+	}
+
+	private void cancelSearch() {
+		if (treeSearch != null) {
+			treeSearch.cancel(true);
+			treeSearch = null;
+		}
+	}
+
+	private void invalidateSearchIndex() {
+		// hits of a search on the old tree can not be shown anymore, and should not keep the old tree in memory
+		if ((treeSearch != null) && (controller.getTreeSearch() == treeSearch)) {
+			controller.resetSearch();
+		}
+		cancelSearch();
+		if (searchIndex != null) {
+			searchIndex.cancel(true);
+			searchIndex = null;
+		}
 	}
 	
 	public void showRoot() {
 		 showNode((TreeNode)model.getRoot());
 	}
 
-	private void showNode(TreeNode node) {
+	void showNode(TreeNode node) {
 		TreeNode[] nodes = model.getPathToRoot(node);
 		TreePath path = new TreePath(nodes);
 		
+		// the node may be in a part of the tree that was created for the search index, and was never expanded
+		tree.expandPath(path.getParentPath());
 		tree.scrollPathToVisible(path);
 		tree.setSelectionPath(path);
 	}
 
-	public KvpPreorderEnumaration createNewDefaultMutableTreeNodePreorderEnumaration(){
-		return new KvpPreorderEnumaration((KVP)model.getRoot());
-	}
-
-	private static KVP searchNode(String targetString, KvpPreorderEnumaration enumeration) {
-		while (enumeration.hasMoreElements()) {
-			KVP node = enumeration.nextElement();
-			if (node != null){
-				String nodeString = node.toString();
-				if( nodeString.toLowerCase().contains(targetString)) {
-					return node;
-				}
-			}
-		}
-		return null;
-	}
-
 
 	private void saveBytes(KVP kvp) {
 
@@ -31,6 +31,6 @@ package nl.digitalekabeltelevisie.gui;
  * @author Eric
  *
  */
-sealed public interface DetailSource permits HTMLSource, ImageSource, TableSource, XMLSource {
+sealed public interface DetailSource permits BackgroundImageSource, HTMLSource, ImageSource, TableSource, XMLSource {
 
 }
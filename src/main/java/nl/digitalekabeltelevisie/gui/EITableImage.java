@@ -27,9 +27,7 @@
 
 package nl.digitalekabeltelevisie.gui;
 
-import static nl.digitalekabeltelevisie.util.Utils.getDurationSeconds;
 import static nl.digitalekabeltelevisie.util.Utils.getUTCLocalDateTime;
-import static nl.digitalekabeltelevisie.util.Utils.isUndefined;
 import static nl.digitalekabeltelevisie.util.Utils.roundHourDown;
 import static nl.digitalekabeltelevisie.util.Utils.roundHourUp;
 
@@ -45,13 +43,12 @@ import java.awt.event.ComponentListener;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 
 import java.util.List;
 import java.util.Map;
-import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.swing.JPanel;
@@ -64,6 +61,7 @@ import nl.digitalekabeltelevisie.data.mpeg.psi.EIT;
 import nl.digitalekabeltelevisie.data.mpeg.psi.EITsection;
 import nl.digitalekabeltelevisie.data.mpeg.psi.EITsection.Event;
 import nl.digitalekabeltelevisie.data.mpeg.psi.TDTsection;
+import nl.digitalekabeltelevisie.gui.utils.EITEventIndex;
 import nl.digitalekabeltelevisie.gui.utils.GuiUtils;
 import nl.digitalekabeltelevisie.util.Interval;
 import nl.digitalekabeltelevisie.util.ServiceIdentification;
@@ -90,8 +88,10 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 
 	private EIT eit;
 	private long milliSecsPerPixel = DEFAULT_MILLI_SECS_PER_PIXEL;
-	private Map<ServiceIdentification, EITsection[]> servicesTable = null;
-	private SortedSet<ServiceIdentification> serviceOrder = null;
+	/**
+	 * events of the services to be displayed, in display order
+	 */
+	private EITEventIndex eventIndex = null;
 	private Interval interval;
 	private boolean selectedSchedule = true;
 
@@ -107,9 +107,7 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 	 */
 	public EITableImage(EIT eit, Map<ServiceIdentification, EITsection[]> table){
 		this.eit = eit;
-		this.servicesTable = table;
-		serviceOrder = new TreeSet<>(table.keySet());
-		this.interval = EIT.getSpanningInterval(serviceOrder, table);
+		setServicesTable(table);
 		this.milliSecsPerPixel = DEFAULT_MILLI_SECS_PER_PIXEL;
 	}
 
@@ -138,13 +136,10 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 		if(stream!=null){
 			eit = stream.getPsi().getEit();
 			if(selectedSchedule ){
-				servicesTable = eit.getCombinedSchedule();
+				setServicesTable(eit.getCombinedSchedule());
 			}else{
-				servicesTable = eit.getCombinedPresentFollowing();
+				setServicesTable(eit.getCombinedPresentFollowing());
 			}
-
-			this.serviceOrder = new TreeSet<>(servicesTable.keySet());
-			this.interval = EIT.getSpanningInterval(serviceOrder, servicesTable);
 		} else {
 			eit = null;
 			interval = null;
@@ -153,6 +148,15 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 		repaint();
 	}
 
+	/**
+	 * decode the events of all services in table once, they are used for drawing and for the tooltips
+	 * @param table
+	 */
+	private void setServicesTable(Map<ServiceIdentification, EITsection[]> table) {
+		eventIndex = new EITEventIndex(new TreeSet<>(table.keySet()), table);
+		interval = eventIndex.getInterval();
+	}
+
 	/* (non-Javadoc)
 	 * @see nl.digitalekabeltelevisie.gui.ImageSource#getImage()
 	 */
@@ -169,7 +173,7 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 		LocalDateTime startDate = roundHourDown(interval.start());
 		LocalDateTime endDate = roundHourUp(interval.end());
 
-		int height = (serviceOrder.size()*LINE_HEIGHT)+1 + LEGEND_HEIGHT;
+		int height = (eventIndex.getServiceCount()*LINE_HEIGHT)+1 + LEGEND_HEIGHT;
 		int legendWidth = (int) (startDate.until(endDate,ChronoUnit.SECONDS) *1000L /milliSecsPerPixel);
 		int width = 1+SERVICE_NAME_WIDTH + legendWidth;
 		
@@ -203,13 +207,14 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 		int char_descend = 16;
 
 		// draw labels
-		drawLabels(gd, serviceOrder, nameFont, 0, offset, char_descend);
+		drawLabels(gd, 0, eventIndex.getServiceCount(), nameFont, 0, offset, char_descend);
 
 		// draw grid
 		gd.setFont(font);
-		for(ServiceIdentification serviceNo : serviceOrder){
-			EITsection[] eiTsections = servicesTable.get(serviceNo);
-			drawServiceEvents(gd, startDate, SERVICE_NAME_WIDTH, offset, char_descend, eiTsections);
+		long startSecond = startDate.toEpochSecond(ZoneOffset.UTC);
+		long endSecond = endDate.toEpochSecond(ZoneOffset.UTC);
+		for(int row = 0; row < eventIndex.getServiceCount(); row++){
+			drawServiceEvents(gd, startSecond, SERVICE_NAME_WIDTH, offset, char_descend, row, startSecond, endSecond);
 			offset+=LINE_HEIGHT;
 		}
 		return img;
@@ -217,25 +222,21 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 
 
 	/**
-	 * Draw all events for a single service
+	 * Draw the events for a single service that overlap the period from till to
 	 *
 	 * @param gd
-	 * @param startDate
+	 * @param startSecond time at x, in seconds since 1970
 	 * @param x
 	 * @param y
 	 * @param char_descend
-	 * @param eiTsections
+	 * @param row index of the service
+	 * @param from start of period to draw, in seconds since 1970
+	 * @param to end of period to draw, in seconds since 1970
 	 */
-	private void drawServiceEvents(Graphics2D gd, LocalDateTime startDate, int x, int y, int char_descend,
-                                   EITsection[] eiTsections) {
-		for(EITsection section :eiTsections){
-			if(section!= null){
-				List<Event> eventList = section.getEventList();
-				for(Event event:eventList){
-					drawEvent(gd, startDate, event, x, y, char_descend);
-				}
-			}
-		}
+	private void drawServiceEvents(Graphics2D gd, long startSecond, int x, int y, int char_descend,
+                                   int row, long from, long to) {
+		eventIndex.forEachEvent(row, from, to,
+				(event, start, end) -> drawEvent(gd, startSecond, event, start, end, x, y, char_descend));
 	}
 
 
@@ -243,44 +244,35 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 	 * Draw single event
 	 *
 	 * @param gd
-	 * @param startDate
+	 * @param startSecond time at x, in seconds since 1970
 	 * @param event
+	 * @param eventStart in seconds since 1970
+	 * @param eventEnd in seconds since 1970
 	 * @param x
 	 * @param y
 	 * @param char_descend
 	 */
-	private void drawEvent(Graphics2D gd, LocalDateTime startDate, Event event, int x, int y, int char_descend) {
-		byte[] startTime = event.getStartTime();
-		if(isUndefined(startTime)){
-			return;
-		}
-		LocalDateTime eventStart = getUTCLocalDateTime(startTime);
+	private void drawEvent(Graphics2D gd, long startSecond, Event event, long eventStart, long eventEnd, int x, int y, int char_descend) {
+		int w = (int)((eventEnd - eventStart)*1000L/milliSecsPerPixel);
+		int eventX = x+(int)((eventStart - startSecond)*1000L/milliSecsPerPixel);
+		String eventName= event.getEventName();
 
-		try{
-		int w = (int)(getDurationSeconds(event.getDuration())*1000L/milliSecsPerPixel);
-			int eventX = x+(int)(startDate.until(eventStart, ChronoUnit.MILLIS)/milliSecsPerPixel);
-			String eventName= event.getEventName();
-
-			// FIll gray
-			gd.setColor(Color.GRAY);
-			gd.fillRect(eventX, y, w, LINE_HEIGHT);
-
-			// black border
-			gd.setColor(Color.BLACK);
-			gd.drawRect(eventX, y, w, LINE_HEIGHT);
-			// title
+		// FIll gray
+		gd.setColor(Color.GRAY);
+		gd.fillRect(eventX, y, w, LINE_HEIGHT);
 
+		// black border
+		gd.setColor(Color.BLACK);
+		gd.drawRect(eventX, y, w, LINE_HEIGHT);
+		// title
 
-			Graphics2D gd2 = (Graphics2D)gd.create();
-			gd2.clipRect(eventX+5, y, w-10, LINE_HEIGHT);
 
-			gd2.setColor(Color.WHITE);
-			gd2.drawString(eventName, eventX+5,y+char_descend);
-			gd2.dispose();
-		}catch(NumberFormatException nfe){
-			logger.log(Level.WARNING, "drawEvent: Event.duration is not a valid BCD number;", nfe);
+		Graphics2D gd2 = (Graphics2D)gd.create();
+		gd2.clipRect(eventX+5, y, w-10, LINE_HEIGHT);
 
-		}
+		gd2.setColor(Color.WHITE);
+		gd2.drawString(eventName, eventX+5,y+char_descend);
+		gd2.dispose();
 	}
 
 
@@ -290,18 +282,20 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 	 * If no name found in SDT put "Service " + service ID.
 	 *
 	 * @param gd
-	 * @param serviceSet
+	 * @param firstRow index of first service to draw
+	 * @param endRow index after the last service to draw
 	 * @param nameFont
 	 * @param x
-	 * @param y
+	 * @param y position of the first service (row 0)
 	 * @param char_descend
 	 */
-	private void drawLabels(Graphics2D gd, SortedSet<ServiceIdentification> serviceSet, Font nameFont,
+	private void drawLabels(Graphics2D gd, int firstRow, int endRow, Font nameFont,
                             int x, int y, int char_descend) {
-		int labelY = y; 
+		int labelY = y + (firstRow*LINE_HEIGHT);
 		gd.setFont(nameFont);
 
-		for(ServiceIdentification serviceNo : serviceSet){
+		for(int row = firstRow; row < endRow; row++){
+			ServiceIdentification serviceNo = eventIndex.getService(row);
 			String serviceName = this.eit.
 					getParentPSI().
 					getSdt().
@@ -339,6 +333,16 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 				TDTsection first = tdtSectionList.getFirst();
 				LocalDateTime sectionStart = getUTCLocalDateTime(first.getUTC_time());
 				if(sectionStart!=null){
+					// period covered by the recording, from the time of the first and last packet
+					TransportStream transportStream = first.getParentTransportStream();
+					LocalDateTime streamStart = transportStream.getPacketLocalDateTime(0);
+					LocalDateTime streamEnd = transportStream.getPacketLocalDateTime(transportStream.getNo_packets() - 1);
+					if((streamStart!=null)&&(streamEnd!=null)){
+						gd.setColor(Color.ORANGE);
+						int startX = x+(int)(startDate.until(streamStart,ChronoUnit.MILLIS)/milliSecsPerPixel);
+						int endX = x+(int)(startDate.until(streamEnd,ChronoUnit.MILLIS)/milliSecsPerPixel);
+						gd.fillRect(startX, (y+legendHeight)-4, Math.max(1, endX-startX), 4);
+					}
 					gd.setColor(Color.RED);
 					int labelX = x+(int)(startDate.until(sectionStart,ChronoUnit.SECONDS) * 1000L/milliSecsPerPixel);
 					gd.drawLine(labelX, y, labelX, (y+legendHeight)-1);
@@ -390,7 +394,7 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 			LocalDateTime endDate = roundHourUp(interval.end());
 
 			int legendHeight = 40;
-			int height = (serviceOrder.size()*LINE_HEIGHT)+1 + legendHeight;
+			int height = (eventIndex.getServiceCount()*LINE_HEIGHT)+1 + legendHeight;
 			int width = 1+SERVICE_NAME_WIDTH + (int)(startDate.until(endDate,ChronoUnit.SECONDS) * 1000L/milliSecsPerPixel);
 			return new Dimension(width,height);
 		}
@@ -420,9 +424,9 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 			if( y>(translatedY+LEGEND_HEIGHT)){ // mouse not over legend?
 
 				int row = (y-LEGEND_HEIGHT)/LINE_HEIGHT;
-				if(row<serviceOrder.size()){ // not below last line
+				if(row<eventIndex.getServiceCount()){ // not below last line
 					r1.append("<html><b>");
-					ServiceIdentification serviceIdent = serviceOrder.toArray(new ServiceIdentification[0])[row];
+					ServiceIdentification serviceIdent = eventIndex.getService(row);
 
 					if(x>(translatedX+SERVICE_NAME_WIDTH)) { // over event line 
 						String name = eit.getParentPSI().
@@ -432,7 +436,7 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 								orElse("Service "+serviceIdent.serviceId());
 						r1.append(name).append("</b><br><br>");
 						LocalDateTime thisDate =roundHourDown(interval.start()).plusSeconds(milliSecsPerPixel *(x-SERVICE_NAME_WIDTH) / 1000L);
-						Event event = findEvent(serviceIdent, thisDate);
+						Event event = eventIndex.findEvent(row, thisDate.toEpochSecond(ZoneOffset.UTC));
 						if(event!=null){
 							r1.append(event.getHTML());
 						}else{ // NO event found, just display time
@@ -462,37 +466,6 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 		return r1.toString();
 	}
 
-	/**
-	 * Find event in servicesTable, based on serviceID, and date
-	 *
-	 * @param serviceID
-	 * @param date
-	 * @return
-	 */
-	private Event findEvent(ServiceIdentification serviceID, LocalDateTime date){
-		EITsection[] list = servicesTable.get(serviceID);
-		for(EITsection section:list){
-			if(section!=null){
-				List<Event> eventList = section.getEventList();
-				for(Event event: eventList){
-					byte[] startTime = event.getStartTime();
-					if(!isUndefined(startTime)) {
-						LocalDateTime eventStart = getUTCLocalDateTime(startTime);
-						if(date.isAfter(eventStart)||date.equals(eventStart)){
-							LocalDateTime eventEnd = eventStart.plusSeconds(getDurationSeconds(event.getDuration()));
-							if(eventEnd.isAfter(date)){
-								return event;
-							}
-						}
-					}
-				}
-			}
-		}
-
-		return null;
-	}
-
-
 	/* (non-Javadoc)
 	 * @see java.awt.event.ComponentListener#componentHidden(java.awt.event.ComponentEvent)
 	 */
@@ -563,8 +536,15 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 			drawLegend(gd, startDate, endDate,SERVICE_NAME_WIDTH,translatedY, LEGEND_HEIGHT);
 			drawActualTime(gd, startDate, SERVICE_NAME_WIDTH, translatedY,LEGEND_HEIGHT);
 
+			// only the services and the period in view are drawn
+			int firstRow = Math.max(0, translatedY/LINE_HEIGHT);
+			int endRow = Math.min(eventIndex.getServiceCount(), ((translatedY + viewHeight - LEGEND_HEIGHT)/LINE_HEIGHT) + 1);
+			long startSecond = startDate.toEpochSecond(ZoneOffset.UTC);
+			long fromSecond = startSecond + ((translatedX - 1L) * milliSecsPerPixel / 1000L);
+			long toSecond = startSecond + ((translatedX + viewWidth - SERVICE_NAME_WIDTH + 1L) * milliSecsPerPixel / 1000L) + 1;
+
 			// draw labels
-			drawLabels(gd, serviceOrder, nameFont, translatedX, offset, char_descend);
+			drawLabels(gd, firstRow, endRow, nameFont, translatedX, offset, char_descend);
 
 			gd.setColor(Color.BLUE);
 			gd.fillRect(translatedX, translatedY, SERVICE_NAME_WIDTH, LEGEND_HEIGHT);
@@ -575,11 +555,8 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 			gd2.setFont(font);
 			gd2.clipRect(translatedX+SERVICE_NAME_WIDTH, translatedY+LEGEND_HEIGHT, viewWidth -SERVICE_NAME_WIDTH, viewHeight - LEGEND_HEIGHT);
 
-			SortedSet<ServiceIdentification> order = serviceOrder;
-			for(ServiceIdentification serviceNo : order){
-				EITsection[] eiTsections = servicesTable.get(serviceNo);
-				drawServiceEvents(gd2, startDate, SERVICE_NAME_WIDTH, offset, char_descend, eiTsections);
-				offset+=LINE_HEIGHT;
+			for(int row = firstRow; row < endRow; row++){
+				drawServiceEvents(gd2, startSecond, SERVICE_NAME_WIDTH, offset + (row*LINE_HEIGHT), char_descend, row, fromSecond, toSecond);
 			}
 
 			gd2.dispose();
@@ -604,9 +581,7 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 	public void selectPresentFollowing() {
 		selectedSchedule = false;
 		if(eit!=null){
-			servicesTable = eit.getCombinedPresentFollowing();
-			serviceOrder = new TreeSet<>(servicesTable.keySet());
-			interval = EIT.getSpanningInterval(serviceOrder, servicesTable);
+			setServicesTable(eit.getCombinedPresentFollowing());
 			setSize(getDimension());
 			repaint();
 		}
@@ -622,9 +597,7 @@ public class EITableImage extends JPanel implements ComponentListener,ImageSourc
 	public void selectSchedule() {
 		selectedSchedule = true;
 		if(eit!=null){
-			servicesTable = eit.getCombinedSchedule();
-			serviceOrder = new TreeSet<>(servicesTable.keySet());
-			interval = EIT.getSpanningInterval(serviceOrder, servicesTable);
+			setServicesTable(eit.getCombinedSchedule());
 			setSize(getDimension());
 			repaint();
 		}
@@ -0,0 +1,56 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.gui;
+
+import java.awt.event.ActionEvent;
+
+import javax.swing.JCheckBoxMenuItem;
+
+import nl.digitalekabeltelevisie.main.DVBinspector;
+import nl.digitalekabeltelevisie.util.PreferencesManager;
+
+/**
+ * When enabled, the result of parsing a file is stored in an index file next to it, so opening the same file again is fast.
+ */
+/**
+ * When enabled, video PES packets only keep their parsed headers after parsing. The payload is read again from the file when it is needed, for display or to decode a picture.
+ */
+public class EnableStreamingPesAction extends AbstractSetPreferenceAction {
+
+	public EnableStreamingPesAction(final DVBinspector controller) {
+		super(controller, "Re-read video PES data from file");
+		contr = controller;
+	}
+
+	@Override
+	public void actionPerformed(final ActionEvent e) {
+		JCheckBoxMenuItem cb = (JCheckBoxMenuItem) e.getSource();
+		// used by the PES handlers of streams that are opened after this, no need to reload the current stream
+		PreferencesManager.setEnableStreamingPes(cb.isSelected());
+	}
+}
@@ -33,7 +33,6 @@ import java.beans.*;
 import javax.swing.*;
 
 import nl.digitalekabeltelevisie.main.DVBinspector;
-import nl.digitalekabeltelevisie.util.KvpPreorderEnumaration;
 
 class FindDialog extends JDialog
                    implements ActionListener,
@@ -45,7 +44,7 @@ class FindDialog extends JDialog
 
     private String buttonString1 = "Search";
     private String buttonString2 = "Cancel";
-	private KvpPreorderEnumaration enummeration;
+	private TreeSearch treeSearch;
 
 
 
@@ -54,9 +53,7 @@ class FindDialog extends JDialog
         this.controller = controller;
         
         
-		enummeration = controller.getTreeView().createNewDefaultMutableTreeNodePreorderEnumaration();
-		controller.setSearchEnumeration(enummeration);
-		controller.setSearchString(null);
+		controller.setTreeSearch(null);
 
         setTitle("Search");
 
@@ -109,21 +106,18 @@ class FindDialog extends JDialog
 			optionPane.setValue(JOptionPane.UNINITIALIZED_VALUE);
 
 			if (buttonString1.equals(value)) {
-				searchText = textField.getText();
-				controller.setSearchString(searchText);
-
-				boolean found = controller.getTreeView().findAndShow(searchText, enummeration);
-				if (!found) {
-					setTitle("No (more) instances of '" + searchText + "' found");
-					controller.setSearchEnumeration(null);
-					controller.setSearchString(null);
+				if (treeSearch == null) {
+					searchText = textField.getText();
+					treeSearch = controller.getTreeView().startSearch(searchText);
+					controller.setTreeSearch(treeSearch);
 					textField.setEnabled(false);
-					optionPane.getRootPane().getDefaultButton().setEnabled(false);
-
-				} else {
 					optionPane.getRootPane().getDefaultButton().setText("Next");
-					textField.setEnabled(false);
-
+				}
+				// hits are found in the background, the next one is shown when it is available
+				if (treeSearch != null) {
+					treeSearch.showNext(this::noMoreHits);
+				} else {
+					noMoreHits();
 				}
 
 			} else {
@@ -133,6 +127,14 @@ class FindDialog extends JDialog
 		}
 	}
 
+	private void noMoreHits() {
+		setTitle("No (more) instances of '" + searchText + "' found");
+		if (controller.getTreeSearch() == treeSearch) {
+			controller.setTreeSearch(null);
+		}
+		optionPane.getRootPane().getDefaultButton().setEnabled(false);
+	}
+
     /** This method clears the dialog and hides it. */
     public void clearAndHide() {
         textField.setText(null);
@@ -28,7 +28,6 @@ import java.awt.event.ActionEvent;
 import javax.swing.*;
 
 import nl.digitalekabeltelevisie.main.DVBinspector;
-import nl.digitalekabeltelevisie.util.KvpPreorderEnumaration;
 
 public class FindNextAction extends AbstractAction {
 
@@ -42,19 +41,18 @@ public class FindNextAction extends AbstractAction {
 	@Override
 	public void actionPerformed(ActionEvent e) {
 
-		String searchText = controller.getSearchString();
-		KvpPreorderEnumaration enummeration = controller.getSearchEnumeration();
-		if ((searchText != null) && (enummeration != null)) {
-			boolean found = controller.getTreeView().findAndShow(searchText, enummeration);
-			if (!found) {
+		TreeSearch treeSearch = controller.getTreeSearch();
+		if (treeSearch != null) {
+			String searchText = treeSearch.getSearchText();
+			treeSearch.showNext(() -> {
 				JOptionPane.showMessageDialog(controller.getFrame(),
 						"No (more) instances of '" + searchText + "' found",
 						"No (more) instances of '" + searchText + "' found",
 						JOptionPane.INFORMATION_MESSAGE);
-				controller.setSearchEnumeration(null);
-				controller.setSearchString(null);
-				controller.getFindNextAction().setEnabled(false);
-			}
+				if (controller.getTreeSearch() == treeSearch) {
+					controller.setTreeSearch(null);
+				}
+			});
 		}
 	}
 }
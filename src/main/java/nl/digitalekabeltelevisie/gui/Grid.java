@@ -32,8 +32,15 @@ import static nl.digitalekabeltelevisie.util.Utils.escapeHtmlBreakLines;
 import java.awt.*;
 import java.awt.datatransfer.Clipboard;
 import java.awt.event.*;
-import java.util.HashMap;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.AbstractAction;
 import javax.swing.JPanel;
@@ -43,12 +50,16 @@ import javax.swing.SwingConstants;
 
 import nl.digitalekabeltelevisie.controller.ChartLabel;
 import nl.digitalekabeltelevisie.controller.ViewContext;
+import nl.digitalekabeltelevisie.data.mpeg.MPEGConstants;
 import nl.digitalekabeltelevisie.data.mpeg.TSPacket;
 import nl.digitalekabeltelevisie.data.mpeg.TransportStream;
 import nl.digitalekabeltelevisie.util.Utils;
 
 /**
  * Grid to show individual TS-packets color coded. Mouse over will display PID.
+ * <p>
+ * The grid is painted from tiles (images of TILE_HEIGHT pixels high, full width), that are kept in a LRU cache, so scrolling
+ * only has to render the rows that were not visible before. Tiles next to the visible ones are rendered in the background.
  *
  * @author Eric
  *
@@ -66,10 +77,10 @@ public class Grid extends JPanel implements ComponentListener, Scrollable
 			int x=mouseLocation.x - windowLocation.x;
 			int y=mouseLocation.y - windowLocation.y;
 			
-			final int realPacketNo = getPacketNumber(x,y);
+			final long realPacketNo = getPacketNumber(x,y);
 			if(realPacketNo>=0) {
 				final short pid = stream.getPacket_pid(realPacketNo);
-				if(colors.containsKey(pid)){ // don't care about actual color, just want to know is this pid shown
+				if(gridState.pidColors()[pid]!=0){ // don't care about actual color, just want to know is this pid shown
 					String htmlString = getPacketHTML(realPacketNo);
 					String plainData = Utils.extractTextFromHTML(htmlString);
 					TextHTMLTransferable transferable = new TextHTMLTransferable(plainData, htmlString);
@@ -86,6 +97,35 @@ public class Grid extends JPanel implements ComponentListener, Scrollable
                         BasicStroke.CAP_BUTT,
                         BasicStroke.JOIN_MITER,
                         3.0f, DASH1, 0.0f);
+	private static final BasicStroke STROKE_2 = new BasicStroke(2);
+
+	/**
+	 * height of a tile in pixels, rounded down to whole rows of packets
+	 */
+	private static final int TILE_HEIGHT = 256;
+	private static final int TILE_MARGIN = 1;
+	/**
+	 * at most 48 tiles of 256 * 2000 pixels is about 100 MB
+	 */
+	private static final int MAX_TILES = 48;
+	private static final int PREFETCH_TILES = 2;
+
+	private static final ExecutorService tileExecutor = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "Grid tiles");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * everything that determines the content of a tile
+	 */
+	private record TileKey(long firstPacket, int blockSize, int blocksPerRow, int rows, int options) {}
+
+	/**
+	 * the stream and selection that is shown, replaced as a whole when it changes so tiles rendered in the background for an old state can be ignored.
+	 * pidColors has the ARGB color for each PID that is shown, 0 for PIDs that are not shown
+	 */
+	private record GridState(TransportStream stream, int[] pidColors, long startPacket, long noPacketsInView) {}
 
 	/**
 	 *
@@ -101,9 +141,16 @@ public class Grid extends JPanel implements ComponentListener, Scrollable
 	private int lines = 0;
 
 	private TransportStream stream;
-	private Map<Short, Paint> colors;
-	private int startPacket;
-	private int noPacketsInView;
+	private transient volatile GridState gridState = new GridState(null, new int[MPEGConstants.MAX_PIDS], 0, 0);
+	private final transient Map<TileKey, BufferedImage> tiles = new LinkedHashMap<>(MAX_TILES, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<TileKey, BufferedImage> eldest) {
+			return size() > MAX_TILES;
+		}
+	};
+	private final transient Set<TileKey> pendingTiles = new HashSet<>();
+	private long startPacket;
+	private long noPacketsInView;
 	private boolean showAdaptationField = false;
 	private boolean showPayloadStart = false;
 	private boolean showErrorIndicator = false;
@@ -130,22 +177,24 @@ public class Grid extends JPanel implements ComponentListener, Scrollable
 
 	public final void setTransportStream(final TransportStream stream, final ViewContext viewContext) {
 		this.stream = stream;
-		this.colors= new HashMap<>();
+		final int[] pidColors = new int[MPEGConstants.MAX_PIDS];
 
 		if(stream!=null){
 			startPacket = viewContext.getStartPacket();
-			int endPacket = viewContext.getEndPacket();
+			long endPacket = viewContext.getEndPacket();
 			noPacketsInView = endPacket - startPacket;
 
-			lines = (noPacketsInView/blocksPerRow);
+			lines = (int)(noPacketsInView/blocksPerRow);
 			if((noPacketsInView%blocksPerRow)!=0){
 				lines++;
 			}
 
 			for(final ChartLabel l:viewContext.getShown()){
-				colors.put(l.getPid(), l.getColor());
+				pidColors[l.getPid()] = ((Color)l.getColor()).getRGB(); // alpha is always set, so never 0
 			}
 		}
+		gridState = new GridState(stream, pidColors, startPacket, noPacketsInView);
+		clearTiles();
 
 		// exact text does not matter. getToolTipText overridden. This is only needed to activate tool tips
 		setToolTipText("Test");
@@ -163,124 +212,182 @@ public class Grid extends JPanel implements ComponentListener, Scrollable
 	public void paintComponent(final Graphics g) {
 
 		final Graphics2D graphics2d = (Graphics2D) g;
-		graphics2d.setStroke(DASHED);
 		setBackground(Color.WHITE);
 		super.paintComponent(graphics2d);    // paints background
-		if(stream!=null){
-			final int startline = graphics2d.getClipBounds().y/blockH;
-			final int endLine = startline+1+(graphics2d.getClipBounds().height/blockH) ;
-			for (int row = startline; row <= endLine; row++) {
-				for (int column = 0; column < blocksPerRow; column++) {
-					paintPacket(graphics2d, row, column);
+		if((stream!=null)&&(blocksPerRow>0)){
+			final int rowsPerTile = Math.max(1, TILE_HEIGHT/blockH);
+			final int tileHeight = rowsPerTile*blockH;
+			final int noTiles = (lines+rowsPerTile-1)/rowsPerTile;
+			final Rectangle clip = graphics2d.getClipBounds();
+			// tiles have a margin of one pixel above and below
+			final int firstTile = Math.max(0, clip.y-1)/tileHeight;
+			final int lastTile = Math.min(noTiles-1, (clip.y+clip.height)/tileHeight);
+			for (int tile = firstTile; tile <= lastTile; tile++) {
+				graphics2d.drawImage(getTile(createTileKey(tile, rowsPerTile)), 0, (tile*tileHeight)-TILE_MARGIN, null);
+			}
+			// tiles just above and below the visible part, so scrolling can use them
+			for (int i = 1; i <= PREFETCH_TILES; i++) {
+				if(lastTile+i < noTiles) {
+					prefetchTile(createTileKey(lastTile+i, rowsPerTile));
+				}
+				if(firstTile-i >= 0) {
+					prefetchTile(createTileKey(firstTile-i, rowsPerTile));
 				}
 			}
 		}
 	}
 
-	/**
-	 * @param graphics2d
-	 * @param row
-	 * @param column
-	 */
-	private void paintPacket(final Graphics2D graphics2d, final int row, final int column) {
-		final int packetNo = (row*blocksPerRow)+column;
-		if(packetNo<noPacketsInView){
-			final short pidFlags = stream.getPacketPidFlags(packetNo+startPacket);
-			final short pid = (short) (pidFlags & 0x1fff);
-			final Color packetPidColor = (Color)colors.get(pid);
-			if(packetPidColor==null){
-				paintGridLines(graphics2d, row, column, Color.WHITE);
-			}else{
-				graphics2d.setColor(packetPidColor);
-				graphics2d.fillRect(column*blockW, row*blockH, blockW, blockH);
-				paintAdaptationFieldMarker(graphics2d, row, column, pidFlags, packetPidColor);
-				paintPayloadStartMarker(graphics2d, row, column, pidFlags, packetPidColor);
-				paintErrorFlagMarker(graphics2d, row, column, pidFlags, packetPidColor);
-				paintGridLines(graphics2d, row, column, packetPidColor);
+	private TileKey createTileKey(final int tile, final int rowsPerTile) {
+		final int options = (showAdaptationField?1:0)|(showPayloadStart?2:0)|(showErrorIndicator?4:0)|(gridLines<<3);
+		return new TileKey(startPacket+((long)tile*rowsPerTile*blocksPerRow), blockW, blocksPerRow, rowsPerTile, options);
+	}
+
+	private BufferedImage getTile(final TileKey key) {
+		synchronized (tiles) {
+			final BufferedImage tile = tiles.get(key);
+			if(tile!=null){
+				return tile;
+			}
+		}
+		final BufferedImage tile = renderTile(gridState, key);
+		synchronized (tiles) {
+			tiles.put(key, tile);
+		}
+		return tile;
+	}
+
+	private void prefetchTile(final TileKey key) {
+		final GridState state = gridState;
+		synchronized (tiles) {
+			if(tiles.containsKey(key) || !pendingTiles.add(key)){
+				return;
+			}
+		}
+		tileExecutor.execute(() -> {
+			final BufferedImage tile = (state == gridState) ? renderTile(state, key) : null;
+			synchronized (tiles) {
+				pendingTiles.remove(key);
+				if ((tile != null) && (state == gridState)) { // not changed while rendering
+					tiles.put(key, tile);
+				}
 			}
+		});
+	}
+
+	private void clearTiles() {
+		synchronized (tiles) {
+			tiles.clear();
 		}
 	}
 
 	/**
-	 * @param g2
-	 * @param row
-	 * @param column
-	 * @param packetPidColor
+	 * Render the packets of one tile. Fills are written directly in the pixels of the image, the markers and grid lines are drawn
+	 * on top of each packet before the next packet is filled, same order as painting packet by packet on the screen.
+	 * <p>
+	 * Lines are 2 pixels wide, and can extend one pixel into the row above or below. So the image has a transparent margin
+	 * of one pixel above and below the rows, and packets of PIDs that are not shown are transparent too. When the tiles are drawn from top to bottom
+	 * the result is the same as drawing all packets in order.
 	 */
-	private void paintGridLines(final Graphics2D g2, final int row, final int column, final Color packetPidColor) {
+	private static BufferedImage renderTile(final GridState state, final TileKey key) {
+		final int blockSize = key.blockSize();
+		final int width = key.blocksPerRow()*blockSize;
+		final BufferedImage image = new BufferedImage(width, (key.rows()*blockSize)+(2*TILE_MARGIN), BufferedImage.TYPE_INT_ARGB);
+		final int[] pixels = ((DataBufferInt)image.getRaster().getDataBuffer()).getData();
+		final Graphics2D g2 = key.options()!=0 ? image.createGraphics() : null;
+		if(g2!=null){
+			g2.translate(0, TILE_MARGIN);
+		}
+
+		final long firstPacket = key.firstPacket() - state.startPacket();
+		final int firstRow = (int)(firstPacket/key.blocksPerRow());
+		for (int r = 0; r < key.rows(); r++) {
+			for (int column = 0; column < key.blocksPerRow(); column++) {
+				final long packetNo = firstPacket + (r*key.blocksPerRow()) + column;
+				if(packetNo>=state.noPacketsInView()){
+					break;
+				}
+				final short pidFlags = state.stream().getPacketPidFlags(packetNo+state.startPacket());
+				final int argb = state.pidColors()[pidFlags & 0x1fff];
+				final int x = column*blockSize;
+				final int y = r*blockSize;
+				if(argb==0){ // PID not shown
+					if(g2!=null){
+						paintGridLines(g2, key, x, y, firstRow+r, column, 0xFFFFFF);
+					}
+				}else{
+					for (int line = y+TILE_MARGIN; line < y+TILE_MARGIN+blockSize; line++) {
+						Arrays.fill(pixels, (line*width)+x, (line*width)+x+blockSize, argb);
+					}
+					if(g2!=null){
+						paintAdaptationFieldMarker(g2, key, x, y, pidFlags, argb);
+						paintPayloadStartMarker(g2, key, x, y, pidFlags, argb);
+						paintErrorFlagMarker(g2, key, x, y, pidFlags, argb);
+						paintGridLines(g2, key, x, y, firstRow+r, column, argb);
+					}
+				}
+			}
+		}
+		if(g2!=null){
+			g2.dispose();
+		}
+		return image;
+	}
+
+	private static void paintGridLines(final Graphics2D g2, final TileKey key, final int x, final int y, final int row, final int column, final int packetPidColor) {
+		final int gridLines = key.options()>>3;
+		final int blockSize = key.blockSize();
 		if(gridLines !=0){
 			if(((column%gridLines)==0)&&(column!=0)){
 				g2.setColor(getContrastingColor(packetPidColor));
-				g2.setStroke(new BasicStroke(2));
-				g2.drawLine((column*blockW), (row*blockH)+1, (column*blockW), ((row+1)*blockH)-1);
+				g2.setStroke(STROKE_2);
+				g2.drawLine(x, y+1, x, (y+blockSize)-1);
 			}
 			if(((row%gridLines)==0)&&(row!=0)){
 				g2.setColor(getContrastingColor(packetPidColor));
-				g2.setStroke(new BasicStroke(2));
-				g2.drawLine((column*blockW), (row*blockH), ((column+1)*blockW)-1, (row*blockH));
+				g2.setStroke(STROKE_2);
+				g2.drawLine(x, y, (x+blockSize)-1, y);
 			}
 		}
 	}
 
-	/**
-	 * @param g2
-	 * @param row
-	 * @param column
-	 * @param pidFlags
-	 * @param packetPidColor
-	 */
-	private void paintErrorFlagMarker(final Graphics2D g2, final int row, final int column, final short pidFlags,
-			final Color packetPidColor) {
-		final short errorFlag = (short) (pidFlags & TransportStream.TRANSPORT_ERROR_FLAG);
-		if(showErrorIndicator && (errorFlag!=0)){
+	private static void paintErrorFlagMarker(final Graphics2D g2, final TileKey key, final int x, final int y, final short pidFlags,
+			final int packetPidColor) {
+		final int blockSize = key.blockSize();
+		if(((key.options()&4)!=0) && ((pidFlags & TransportStream.TRANSPORT_ERROR_FLAG)!=0)){
 			g2.setColor(getContrastingColor(packetPidColor));
-			g2.setStroke(new BasicStroke(2));
+			g2.setStroke(STROKE_2);
 
-			g2.drawLine((column*blockW)+1, (row*blockH)+1, ((column+1)*blockW)-1, ((row+1)*blockH)-1);
-			g2.drawLine((column*blockW)+1, ((row+1)*blockH)-1, ((column+1)*blockW)-1, (row*blockH)+1);
+			g2.drawLine(x+1, y+1, (x+blockSize)-1, (y+blockSize)-1);
+			g2.drawLine(x+1, (y+blockSize)-1, (x+blockSize)-1, y+1);
 		}
 	}
 
-	/**
-	 * @param g2
-	 * @param row
-	 * @param column
-	 * @param pidFlags
-	 * @param packetPidColor
-	 */
-	private void paintPayloadStartMarker(final Graphics2D g2, final int row, final int column, final short pidFlags,
-			final Color packetPidColor) {
-		final short payloadStartFlag = (short) (pidFlags & TransportStream.PAYLOAD_UNIT_START_FLAG);
-		if(showPayloadStart && (payloadStartFlag!=0)){
+	private static void paintPayloadStartMarker(final Graphics2D g2, final TileKey key, final int x, final int y, final short pidFlags,
+			final int packetPidColor) {
+		final int blockSize = key.blockSize();
+		if(((key.options()&2)!=0) && ((pidFlags & TransportStream.PAYLOAD_UNIT_START_FLAG)!=0)){
 			g2.setColor(getContrastingColor(packetPidColor));
 			g2.setStroke(DASHED);
 
-			g2.drawRect((column*blockW)+1, (row*blockH)+1, blockW-2, blockH-2);
+			g2.drawRect(x+1, y+1, blockSize-2, blockSize-2);
 		}
 	}
 
-	/**
-	 * @param g
-	 * @param row
-	 * @param column
-	 * @param pidFlags
-	 * @param packetPidColor
-	 */
-	private void paintAdaptationFieldMarker(final Graphics2D g, final int row, final int column, final short pidFlags,
-			final Color packetPidColor) {
-		final short adaptationFlag = (short) (pidFlags & TransportStream.ADAPTATION_FIELD_FLAG);
-		if(showAdaptationField&& (adaptationFlag!=0)){
-			g.setColor(getContrastingColor(packetPidColor));
-			g.fillRect((column*blockW)+2, (row*blockH)+2, blockW/2, blockH/2);
+	private static void paintAdaptationFieldMarker(final Graphics2D g2, final TileKey key, final int x, final int y, final short pidFlags,
+			final int packetPidColor) {
+		final int blockSize = key.blockSize();
+		if(((key.options()&1)!=0) && ((pidFlags & TransportStream.ADAPTATION_FIELD_FLAG)!=0)){
+			g2.setColor(getContrastingColor(packetPidColor));
+			g2.fillRect(x+2, y+2, blockSize/2, blockSize/2);
 		}
 	}
 
 	/**
-	 * @param c
+	 * @param rgb color as 0x..RRGGBB
 	 * @return
 	 */
-	private static Color getContrastingColor(final Color c) {
-		if((c.getGreen()+c.getRed()+c.getBlue())<384){
+	private static Color getContrastingColor(final int rgb) {
+		if((((rgb>>16)&0xFF)+((rgb>>8)&0xFF)+(rgb&0xFF))<384){
 			return Color.WHITE;
 		}
 		return Color.BLACK;
@@ -308,10 +415,10 @@ public class Grid extends JPanel implements ComponentListener, Scrollable
 			final int x=e.getX();
 			final int y=e.getY();
 			
-			final int realPacketNo = getPacketNumber(x,y);
+			final long realPacketNo = getPacketNumber(x,y);
 			if(realPacketNo>=0) {
 				final short pid = stream.getPacket_pid(realPacketNo);
-				if(colors.containsKey(pid)){ // don't care about actual color, just want to know is this pid shown
+				if(gridState.pidColors()[pid]!=0){ // don't care about actual color, just want to know is this pid shown
 					return getPacketHTML(realPacketNo);
 				}
 			}
@@ -320,10 +427,10 @@ public class Grid extends JPanel implements ComponentListener, Scrollable
 	}
 
 	
-	private int getPacketNumber(int x, int y) {
+	private long getPacketNumber(int x, int y) {
 		if((x>=0)&&(y>=0)){
 			if((x/blockW)<blocksPerRow){ // empty space to the right
-				final int packetNo = ((y/blockH)*blocksPerRow)+(x/blockW);
+				final long packetNo = ((long)(y/blockH)*blocksPerRow)+(x/blockW);
 				if(packetNo<noPacketsInView){
 					return packetNo +startPacket;
 				}
@@ -335,7 +442,7 @@ public class Grid extends JPanel implements ComponentListener, Scrollable
 	 * @param realPacketNo
 	 * @return
 	 */
-	private String getPacketHTML(final int realPacketNo) {
+	private String getPacketHTML(final long realPacketNo) {
 		final StringBuilder r=new StringBuilder();
 		final TSPacket packet = stream.getTSPacket(realPacketNo);
 		r.append("<html>");
@@ -380,7 +487,7 @@ public class Grid extends JPanel implements ComponentListener, Scrollable
 		final int wid = (int)getVisibleRect().getWidth();
 		blocksPerRow = wid/blockW;
 		if(stream!=null){
-			lines = (noPacketsInView/blocksPerRow);
+			lines = (int)(noPacketsInView/blocksPerRow);
 			if((noPacketsInView%blocksPerRow)!=0){
 				lines++;
 			}
@@ -402,6 +509,7 @@ public class Grid extends JPanel implements ComponentListener, Scrollable
 	 */
 	public void setShowAdaptationField(final boolean b) {
 		showAdaptationField = b;
+		clearTiles();
 		repaint();
 
 	}
@@ -411,6 +519,7 @@ public class Grid extends JPanel implements ComponentListener, Scrollable
 	 */
 	public void setShowPayloadStart(final boolean b) {
 		showPayloadStart = b;
+		clearTiles();
 		repaint();
 
 	}
@@ -420,6 +529,7 @@ public class Grid extends JPanel implements ComponentListener, Scrollable
 	 */
 	public void setShowErrorIndicator(final boolean b) {
 		showErrorIndicator = b;
+		clearTiles();
 		repaint();
 
 	}
@@ -480,6 +590,7 @@ public class Grid extends JPanel implements ComponentListener, Scrollable
 	public void setBlockSize(final int s){
 		blockW = s;
 		blockH = s;
+		clearTiles();
 		componentResized(null);
 	}
 
@@ -489,6 +600,7 @@ public class Grid extends JPanel implements ComponentListener, Scrollable
 
 	public void setGridLines(final int gridLines) {
 		this.gridLines = gridLines;
+		clearTiles();
 		repaint();
 	}
 }
@@ -63,8 +63,20 @@ PropertyChangeListener {
 
 	private NumberFormat numberFormat;
 
+	/**
+	 * the slider is int based, for streams of more than Integer.MAX_VALUE packets each step of the slider is scale packets
+	 */
+	private long scale = 1;
+	private long min;
+	private long max;
+	private long value;
+	/**
+	 * true while the slider is set from the text field, so the exact value is not replaced by a multiple of scale
+	 */
+	private boolean updatingSlider;
 
-	PacketSelectionPanel( final String myTitle, final int low, final int upper, final int value) {
+
+	PacketSelectionPanel( final String myTitle, final long low, final long upper, final long value) {
 		super();
 		setBorder(BorderFactory.createCompoundBorder(
 				BorderFactory.createTitledBorder(myTitle),
@@ -84,7 +96,8 @@ PropertyChangeListener {
 		textField.setColumns(10);
 		textField.setValue(value);
 		textField.addPropertyChangeListener(this);
-		boundedRangeModel = new DefaultBoundedRangeModel(value,0,low,upper);
+		setRange(low, upper, value);
+		boundedRangeModel = new DefaultBoundedRangeModel((int)(value / scale),0,(int)(low / scale),(int)(upper / scale));
 
 
 		//Add the slider.
@@ -143,13 +156,12 @@ PropertyChangeListener {
 	public void stateChanged(final ChangeEvent e) {
 		final NumberFormatter formatter = (NumberFormatter)textField.getFormatter();
 
-		final int min = boundedRangeModel.getMinimum();
-		final int max = boundedRangeModel.getMaximum();
-		final int val = boundedRangeModel.getValue();
-
+		if (!updatingSlider) {
+			value = Math.clamp(boundedRangeModel.getValue() * scale, min, max);
+		}
 		formatter.setMinimum(min);
 		formatter.setMaximum(max);
-		textField.setValue(val);
+		textField.setValue(value);
 	}
 
 
@@ -160,20 +172,42 @@ PropertyChangeListener {
 	@Override
 	public void propertyChange(final PropertyChangeEvent e) {
 		if ("value".equals(e.getPropertyName())) {
-			final Number value = (Number)e.getNewValue();
-			boundedRangeModel.setValue(value.intValue());
+			value = ((Number)e.getNewValue()).longValue();
+			setSliderValue();
 		}
 	}
 
-	public void setRangeValue(final int min, final int max, final int val){
-		slider.setMinimum(min);
-		slider.setMaximum(max);
-		slider.setValue(val);
+	public void setRangeValue(final long min, final long max, final long val){
+		setRange(min, max, val);
+		updatingSlider = true;
+		try {
+			slider.setMinimum((int)(min / scale));
+			slider.setMaximum((int)(max / scale));
+		} finally {
+			updatingSlider = false;
+		}
+		setSliderValue();
 		textField.setValue(val);
 	}
 
-	public int getValue(){
-		return boundedRangeModel.getValue();
+	public long getValue(){
+		return value;
+	}
+
+	private void setRange(final long newMin, final long newMax, final long newValue) {
+		min = newMin;
+		max = newMax;
+		value = newValue;
+		scale = Math.max(1, ((newMax - 1) / Integer.MAX_VALUE) + 1);
+	}
+
+	private void setSliderValue() {
+		updatingSlider = true;
+		try {
+			boundedRangeModel.setValue((int)(value / scale));
+		} finally {
+			updatingSlider = false;
+		}
 	}
 
 }
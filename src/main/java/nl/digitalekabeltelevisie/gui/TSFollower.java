@@ -0,0 +1,135 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.gui;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+import nl.digitalekabeltelevisie.data.mpeg.TransportStream;
+import nl.digitalekabeltelevisie.main.DVBinspector;
+
+/**
+ * Follows a file that is still being written, like a recording in progress.
+ * <p>
+ * A timer periodically starts a background worker that reads the packets that were appended to the file (see {@link TransportStream#readAppendedPackets()}).
+ * When it is done the result is published on the event dispatch thread ({@link TransportStream#publishAppendedPackets()}), and when there are new packets
+ * DVBinspector refreshes the views. So the views are refreshed at most once every FOLLOW_INTERVAL, and a tick is skipped while the previous read still runs.
+ * <p>
+ * While the worker reads, the views keep using the TransportStream on the EDT and from their own background threads. The completed sections are kept
+ * till the publish, so PSI, the PID names and the bit rates only change on the EDT, and getNo_packets only grows at the publish, which bounds what views look at.
+ * The data the worker appends to is safe for concurrent readers: the per packet data is kept in PacketMetadataStore, the PCR/PTS/DTS chart uses snapshots
+ * of the time stamp lists (see {@link nl.digitalekabeltelevisie.data.mpeg.TimeStampList#view()}), and the PCR time index is published safely as well.
+ * Counters of a PID (packets, errors) may be ahead of the tree until it is refreshed after the publish.
+ *
+ */
+public class TSFollower implements ActionListener {
+
+	private static final Logger logger = Logger.getLogger(TSFollower.class.getName());
+
+	/**
+	 * milliseconds between reads of the file
+	 */
+	public static final int FOLLOW_INTERVAL = 2000;
+
+	private final TransportStream transportStream;
+	private final DVBinspector control;
+	private final Timer timer;
+	/**
+	 * worker of the read in progress, only used on the EDT
+	 */
+	private AppendedPacketsReader reader;
+	private boolean stopped;
+
+	private class AppendedPacketsReader extends SwingWorker<Boolean, Void> {
+
+		private final long previousPackets;
+
+		AppendedPacketsReader(final long previousPackets) {
+			this.previousPackets = previousPackets;
+		}
+
+		@Override
+		protected Boolean doInBackground() throws Exception {
+			return transportStream.readAppendedPackets();
+		}
+
+		@Override
+		protected void done() {
+			reader = null;
+			try {
+				if (get()) {
+					transportStream.publishAppendedPackets();
+					if (!stopped) {
+						control.transportStreamExtended(previousPackets);
+					}
+				}
+			} catch (final ExecutionException executionException) {
+				logger.log(Level.WARNING, "Error reading appended packets, stop following file", executionException.getCause());
+				// packets read before the error are published, so PSI is complete for what the views show
+				transportStream.publishAppendedPackets();
+				if (!stopped) {
+					control.setFollowStream(false);
+				}
+			} catch (final InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	public TSFollower(final TransportStream transportStream, final DVBinspector controller) {
+		this.transportStream = transportStream;
+		this.control = controller;
+		timer = new Timer(FOLLOW_INTERVAL, this);
+		timer.setCoalesce(true);
+	}
+
+	public void start() {
+		timer.start();
+	}
+
+	public void stop() {
+		timer.stop();
+		stopped = true;
+	}
+
+	@Override
+	public void actionPerformed(final ActionEvent e) {
+		if (reader != null) {
+			return;
+		}
+		reader = new AppendedPacketsReader(transportStream.getNo_packets());
+		reader.execute();
+	}
+
+}
@@ -35,6 +35,10 @@ import java.text.NumberFormat;
 import java.text.ParsePosition;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.swing.*;
 
@@ -42,11 +46,13 @@ import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.axis.ValueAxis;
 import org.jfree.chart.labels.StandardXYToolTipGenerator;
 import org.jfree.chart.labels.XYToolTipGenerator;
 import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.data.Range;
 import org.jfree.data.xy.XYDataset;
 
 import nl.digitalekabeltelevisie.controller.ViewContext;
@@ -61,6 +67,72 @@ import nl.digitalekabeltelevisie.util.Utils;
 
 public class TimeStampChart extends JPanel implements TransportStreamView, ActionListener{
 
+	private static final Logger logger = Logger.getLogger(TimeStampChart.class.getName());
+
+	/**
+	 * minimum number of buckets the visible part of the series is decimated into
+	 */
+	private static final int MIN_BUCKETS = 1000;
+	/**
+	 * ms to wait after the last zoom or pan before the visible part is decimated again
+	 */
+	private static final int REFINE_DELAY = 250;
+
+	/**
+	 * Decimates the PCR/PTS/DTS series in the background. The first run creates the chart, later runs replace the dataset after zooming or panning.
+	 */
+	private final class DatasetBuilder extends SwingWorker<TimestampXYDataset, Void> {
+
+		private final int selectedIndex;
+		private final TimestampXYDataset source;
+		private final Range range;
+		private final int buckets;
+
+		DatasetBuilder(int selectedIndex, TimestampXYDataset source, Range range) {
+			this.selectedIndex = selectedIndex;
+			this.source = source;
+			this.range = range;
+			this.buckets = Math.max(MIN_BUCKETS, chartPanel.getWidth());
+		}
+
+		@Override
+		protected TimestampXYDataset doInBackground() throws InterruptedException {
+			return source.decimate(range, buckets);
+		}
+
+		@Override
+		protected void done() {
+			if (isCancelled() || (datasetBuilder != this)) {
+				return;
+			}
+			try {
+				TimestampXYDataset dataset = get();
+				decimatedRange = range;
+				if (freeChart == null) {
+					freeChart = createChart(selectedIndex, dataset);
+					chartPanel.setChart(freeChart);
+					freeChart.getLegend().setVisible(legendVisible);
+					chartPanel.setDomainZoomable(true);
+					chartPanel.setRangeZoomable(true);
+					fillSelectionPanels();
+					freeChart.getXYPlot().getDomainAxis().addChangeListener(event -> {
+						if (!settingDataset) {
+							refineTimer.restart();
+						}
+					});
+				} else {
+					settingDataset = true;
+					freeChart.getXYPlot().setDataset(0, dataset);
+					settingDataset = false;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				logger.log(Level.WARNING, "could not create PCR/PTS/DTS graph", e);
+			}
+		}
+	}
+
 
 	class HoverCopyAction extends AbstractAction{
 
@@ -145,6 +217,18 @@ public class TimeStampChart extends JPanel implements TransportStreamView, Actio
 
 	private JRadioButton packetNoButton;
 
+	/**
+	 * all PCR/PTS/DTS time stamps of the selected service, the chart shows a decimated copy
+	 */
+	private TimestampXYDataset fullDataset;
+	private DatasetBuilder datasetBuilder;
+	/**
+	 * domain range of the dataset shown in the chart, null for the complete series
+	 */
+	private Range decimatedRange;
+	private boolean settingDataset;
+	private final Timer refineTimer = new Timer(REFINE_DELAY, e -> refineDataset());
+
 
 	/**
 	 * Creates a new TimeStampChart
@@ -180,7 +264,8 @@ public class TimeStampChart extends JPanel implements TransportStreamView, Actio
 		
 		HoverCopyAction hoverCopyAction = new HoverCopyAction();
 		getActionMap().put("copytip", hoverCopyAction);
-		
+
+		refineTimer.setRepeats(false);
 		setTransportStream(transportStream,viewContext);
 		add(chartPanel,BorderLayout.CENTER);
 	}
@@ -224,6 +309,7 @@ public class TimeStampChart extends JPanel implements TransportStreamView, Actio
 	public final void setTransportStream(TransportStream transportStream, ViewContext viewContext){
 		this.transportStream = transportStream;
 		this.viewContext = viewContext;
+		cancelDatasetBuilder();
 		serviceChooser.removeActionListener(this);
 		serviceChooser.removeAllItems();
 		pmts.clear();
@@ -284,12 +370,42 @@ public class TimeStampChart extends JPanel implements TransportStreamView, Actio
 	 *
 	 */
 	private void updateChartPanel() {
-		freeChart = createChart(serviceChooser.getSelectedIndex());
-		chartPanel.setChart(freeChart);
-		freeChart.getLegend().setVisible(legendVisible);
-		chartPanel.setDomainZoomable(true);
-		chartPanel.setRangeZoomable(true);
-		fillSelectionPanels();
+		cancelDatasetBuilder();
+		int selectedIndex = serviceChooser.getSelectedIndex();
+		fullDataset = createDataSet(selectedIndex);
+		freeChart = null;
+		chartPanel.setChart(GuiUtils.createTitleOnlyChart("Creating PCR/PTS/DTS graph..."));
+		seriesSelectionPanel.removeAll();
+		temiSelectionPanel.removeAll();
+		seriesSelectionPanel.revalidate();
+		temiSelectionPanel.revalidate();
+		datasetBuilder = new DatasetBuilder(selectedIndex, fullDataset, null);
+		datasetBuilder.execute();
+	}
+
+	/**
+	 * decimate the series again for the visible domain range, after the user zoomed or panned
+	 */
+	private void refineDataset() {
+		if ((freeChart == null) || (fullDataset == null)) {
+			return;
+		}
+		ValueAxis domainAxis = freeChart.getXYPlot().getDomainAxis();
+		Range range = domainAxis.isAutoRange() ? null : domainAxis.getRange();
+		if (Objects.equals(range, decimatedRange)) {
+			return;
+		}
+		cancelDatasetBuilder();
+		datasetBuilder = new DatasetBuilder(serviceChooser.getSelectedIndex(), fullDataset, range);
+		datasetBuilder.execute();
+	}
+
+	private void cancelDatasetBuilder() {
+		refineTimer.stop();
+		if (datasetBuilder != null) {
+			datasetBuilder.cancel(true);
+			datasetBuilder = null;
+		}
 	}
 
 	private void fillSelectionPanels() {
@@ -338,9 +454,8 @@ public class TimeStampChart extends JPanel implements TransportStreamView, Actio
 	 * @param viewContext
 	 * @return
 	 */
-	private JFreeChart createChart(int selectedIndex) {
+	private JFreeChart createChart(int selectedIndex, XYDataset categoryTableXYDataset) {
 
-		XYDataset categoryTableXYDataset = createDataSet(selectedIndex);
 		PMTsection section = pmts.get(selectedIndex);
 		String serviceLabel = getServiceName(transportStream, section.getProgramNumber());
 
@@ -413,7 +528,7 @@ public class TimeStampChart extends JPanel implements TransportStreamView, Actio
 	}
 
 	
-	private XYDataset createDataSet(int selectedIndex) {
+	private TimestampXYDataset createDataSet(int selectedIndex) {
 		
 		PMTsection pmt = pmts.get(selectedIndex);
 		return new TimestampXYDataset(pmt,transportStream,viewContext);
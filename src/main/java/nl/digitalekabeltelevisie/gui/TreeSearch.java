@@ -0,0 +1,144 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.SwingWorker;
+
+import nl.digitalekabeltelevisie.controller.KVP;
+import nl.digitalekabeltelevisie.util.KvpSearchIndex;
+
+/**
+ * Search for a text in the DVBtree, running in the background.
+ * <p>
+ * Waits for the {@link KvpSearchIndex} of the tree (which is built only once per tree), and then publishes the hits
+ * as they are found. The hits are collected on the Event Dispatch Thread, {@link #showNext(Runnable)} shows the next one, or if it
+ * has not been found yet, shows it as soon as it arrives.
+ * <p>
+ * A search is cancelled when a new search is started, or when the tree is rebuilt.
+ */
+public class TreeSearch extends SwingWorker<Integer, KVP> {
+
+	private static final Logger logger = Logger.getLogger(TreeSearch.class.getName());
+
+	private final DVBtree dvbTree;
+	private final String searchText;
+	private final Future<KvpSearchIndex> index;
+
+	// only accessed on EDT
+	private final List<KVP> hits = new ArrayList<>();
+	private int current = -1;
+	private Runnable waitingForNext;
+	private boolean finished;
+
+	TreeSearch(DVBtree dvbTree, String searchText, Future<KvpSearchIndex> index) {
+		this.dvbTree = dvbTree;
+		this.searchText = searchText;
+		this.index = index;
+	}
+
+	public String getSearchText() {
+		return searchText;
+	}
+
+	@Override
+	protected Integer doInBackground() throws InterruptedException, ExecutionException {
+		KvpSearchIndex kvpSearchIndex = index.get();
+		int[] count = {0};
+		kvpSearchIndex.forEachHit(searchText, 0, i -> {
+			if (isCancelled()) {
+				return false;
+			}
+			count[0]++;
+			publish(kvpSearchIndex.getNode(i));
+			return true;
+		});
+		return count[0];
+	}
+
+	@Override
+	protected void process(List<KVP> chunks) {
+		if (isCancelled()) {
+			return;
+		}
+		hits.addAll(chunks);
+		if (waitingForNext != null) {
+			waitingForNext = null;
+			showNext(null);
+		}
+	}
+
+	@Override
+	protected void done() {
+		finished = true;
+		if (!isCancelled()) {
+			try {
+				get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				logger.log(Level.WARNING, "search for '" + searchText + "' failed", e.getCause());
+			}
+		}
+		if (waitingForNext != null) {
+			Runnable noMoreHits = waitingForNext;
+			waitingForNext = null;
+			noMoreHits.run();
+		}
+	}
+
+	/**
+	 * Show the next hit in the tree. Must be called on the EDT.
+	 *
+	 * @param noMoreHits called when there is no next hit, possibly later when the search is still running (may be null)
+	 */
+	public void showNext(Runnable noMoreHits) {
+		if (current + 1 < hits.size()) {
+			current++;
+			dvbTree.showNode(hits.get(current));
+		} else if (finished) {
+			if (noMoreHits != null) {
+				noMoreHits.run();
+			}
+		} else {
+			waitingForNext = noMoreHits != null ? noMoreHits : () -> {};
+		}
+	}
+
+	/**
+	 * @return number of hits found so far
+	 */
+	public int getHitCount() {
+		return hits.size();
+	}
+}
@@ -0,0 +1,206 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.gui.utils;
+
+import static nl.digitalekabeltelevisie.util.Utils.getDurationSeconds;
+import static nl.digitalekabeltelevisie.util.Utils.getUTCLocalDateTime;
+import static nl.digitalekabeltelevisie.util.Utils.isUndefined;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import nl.digitalekabeltelevisie.data.mpeg.psi.EITsection;
+import nl.digitalekabeltelevisie.data.mpeg.psi.EITsection.Event;
+import nl.digitalekabeltelevisie.util.Interval;
+import nl.digitalekabeltelevisie.util.ServiceIdentification;
+
+/**
+ * The events of a set of services, with start and end time decoded once, for the EIT grid (EITableImage).
+ * Per service the events are sorted on start time, together with the running maximum of the end times.
+ * That makes finding the events that overlap a period a binary search, even when events overlap each other.
+ * <p>
+ * Times are in seconds since 1970-01-01 UTC.
+ *
+ * @author Eric Berendsen
+ *
+ */
+public final class EITEventIndex {
+
+	private static final Logger logger = Logger.getLogger(EITEventIndex.class.getName());
+
+	/**
+	 * receives the events found by forEachEvent
+	 */
+	@FunctionalInterface
+	public interface EventConsumer {
+		void accept(Event event, long start, long end);
+	}
+
+	private record ServiceEvents(Event[] events, long[] starts, long[] ends, long[] maxEnds) {
+	}
+
+	private record DecodedEvent(Event event, long start, long end) {
+	}
+
+	private final ServiceIdentification[] services;
+	private final ServiceEvents[] serviceEvents;
+	private final Interval interval;
+
+	/**
+	 * @param serviceOrder services in the order they are displayed
+	 * @param table EIT sections per service
+	 */
+	public EITEventIndex(SortedSet<ServiceIdentification> serviceOrder, Map<ServiceIdentification, EITsection[]> table) {
+		services = serviceOrder.toArray(new ServiceIdentification[0]);
+		serviceEvents = new ServiceEvents[services.length];
+		long first = Long.MAX_VALUE;
+		long last = Long.MIN_VALUE;
+		for (int row = 0; row < services.length; row++) {
+			List<DecodedEvent> decoded = new ArrayList<>();
+			for (EITsection section : table.get(services[row])) {
+				if (section != null) {
+					for (Event event : section.getEventList()) {
+						byte[] startTime = event.getStartTime();
+						if (isUndefined(startTime)) {
+							continue;
+						}
+						LocalDateTime eventStart = getUTCLocalDateTime(startTime);
+						if (eventStart == null) {
+							continue;
+						}
+						long start = eventStart.toEpochSecond(ZoneOffset.UTC);
+						first = Math.min(first, start);
+						try {
+							long end = start + getDurationSeconds(event.getDuration());
+							last = Math.max(last, end);
+							decoded.add(new DecodedEvent(event, start, end));
+						} catch (NumberFormatException nfe) {
+							logger.log(Level.WARNING, "Event.duration is not a valid BCD number;", nfe);
+						}
+					}
+				}
+			}
+			serviceEvents[row] = createServiceEvents(decoded);
+		}
+		if ((first != Long.MAX_VALUE) && (last != Long.MIN_VALUE)) {
+			interval = new Interval(LocalDateTime.ofEpochSecond(first, 0, ZoneOffset.UTC), LocalDateTime.ofEpochSecond(last, 0, ZoneOffset.UTC));
+		} else {
+			interval = null;
+		}
+	}
+
+	private static ServiceEvents createServiceEvents(List<DecodedEvent> decoded) {
+		// stable sort, so events with the same start keep the order of the sections
+		decoded.sort(Comparator.comparingLong(DecodedEvent::start));
+		int size = decoded.size();
+		Event[] events = new Event[size];
+		long[] starts = new long[size];
+		long[] ends = new long[size];
+		long[] maxEnds = new long[size];
+		long maxEnd = Long.MIN_VALUE;
+		for (int i = 0; i < size; i++) {
+			DecodedEvent event = decoded.get(i);
+			events[i] = event.event();
+			starts[i] = event.start();
+			ends[i] = event.end();
+			maxEnd = Math.max(maxEnd, event.end());
+			maxEnds[i] = maxEnd;
+		}
+		return new ServiceEvents(events, starts, ends, maxEnds);
+	}
+
+	/**
+	 * @return period from the start of the first event till the end of the last event, null if there are no events
+	 */
+	public Interval getInterval() {
+		return interval;
+	}
+
+	public int getServiceCount() {
+		return services.length;
+	}
+
+	public ServiceIdentification getService(int row) {
+		return services[row];
+	}
+
+	/**
+	 * @param row
+	 * @param time seconds since 1970-01-01 UTC
+	 * @return the event of service row that is running at time, null if none
+	 */
+	public Event findEvent(int row, long time) {
+		Event[] found = new Event[1];
+		forEachEvent(row, time, time + 1, (event, start, end) -> {
+			if (found[0] == null) {
+				found[0] = event;
+			}
+		});
+		return found[0];
+	}
+
+	/**
+	 * Calls consumer, in order of start time, for every event of service row that overlaps the period from till to.
+	 *
+	 * @param row
+	 * @param from seconds since 1970-01-01 UTC, inclusive
+	 * @param to seconds since 1970-01-01 UTC, exclusive
+	 * @param consumer
+	 */
+	public void forEachEvent(int row, long from, long to, EventConsumer consumer) {
+		ServiceEvents service = serviceEvents[row];
+		// events before i all end at or before from
+		int i = firstIndexAbove(service.maxEnds(), from);
+		for (; (i < service.starts().length) && (service.starts()[i] < to); i++) {
+			if (service.ends()[i] > from) {
+				consumer.accept(service.events()[i], service.starts()[i], service.ends()[i]);
+			}
+		}
+	}
+
+	private static int firstIndexAbove(long[] sorted, long value) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (sorted[mid] <= value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -30,6 +30,7 @@ import java.util.*;
 import java.util.logging.Logger;
 
 import org.jfree.data.DomainOrder;
+import org.jfree.data.Range;
 import org.jfree.data.general.*;
 import org.jfree.data.xy.XYDataset;
 
@@ -45,7 +46,7 @@ public class TimestampXYDataset implements XYDataset {
 	/** The group that the dataset belongs to. */
     private DatasetGroup group;
 
-    private final List<List<TimeStamp>> seriesList = new ArrayList<>();
+    private final List<TimeStampSeries> seriesList = new ArrayList<>();
     final ArrayList<String> seriesKeys = new ArrayList<>();
 //    final ArrayList<Integer> seriesOffset = new ArrayList<>();
 //    final ArrayList<Integer> seriesViewContextLength = new ArrayList<>();
@@ -53,7 +54,15 @@ public class TimestampXYDataset implements XYDataset {
     
 	private static final Logger logger = Logger.getLogger(TimestampXYDataset.class.getName());
 
-    
+	/**
+	 * series with less than this number of points per bucket are not decimated
+	 */
+	private static final int MIN_POINTS_PER_BUCKET = 4;
+
+	private TimestampXYDataset() {
+		// used by decimate
+	}
+
 
 	public TimestampXYDataset(PMTsection pmt, TransportStream transportStream, ViewContext viewContext) {
 		
@@ -79,20 +88,20 @@ public class TimestampXYDataset implements XYDataset {
 
 	private void findSCTE35Points(TransportStream transportStream, boolean hasSCTE35, Component component) {
 		if(hasSCTE35 && component.getStreamtype()==0x86){
-			List<TimeStamp> exitPoints = new ArrayList<>();
-			List<TimeStamp> returnPoints = new ArrayList<>();
-			List<TimeStamp> timeSignalPoints = new ArrayList<>();
+			TimeStampList exitPoints = new TimeStampList();
+			TimeStampList returnPoints = new TimeStampList();
+			TimeStampList timeSignalPoints = new TimeStampList();
 			SpliceInfoSections spliceSections = transportStream.getPsi().getScte35_table().getSpliceInfoSections((short) component.getElementaryPID());
 			if(spliceSections!=null){
 				findSpliceInserts(exitPoints, returnPoints, timeSignalPoints,spliceSections);
-				addToSeriesList(exitPoints, getComponentLabel(transportStream, component) + " Exit Point");
-				addToSeriesList(returnPoints, getComponentLabel(transportStream, component) + " Return Point");
-				addToSeriesList(timeSignalPoints, getComponentLabel(transportStream, component) + " time_signal");
+				addToSeriesList(exitPoints.view(), getComponentLabel(transportStream, component) + " Exit Point");
+				addToSeriesList(returnPoints.view(), getComponentLabel(transportStream, component) + " Return Point");
+				addToSeriesList(timeSignalPoints.view(), getComponentLabel(transportStream, component) + " time_signal");
 			}
 		}
 	}
 
-	private static void findSpliceInserts(List<TimeStamp> exitPoints, List<TimeStamp> returnPoints, List<TimeStamp> timeSignalPoints,
+	private static void findSpliceInserts(TimeStampList exitPoints, TimeStampList returnPoints, TimeStampList timeSignalPoints,
 			SpliceInfoSections spliceSections) {
 		List<SpliceInfoSection> spliceInfoSectionList = spliceSections.getSpliceInfoSectionList();
 		for (SpliceInfoSection spliceSection : spliceInfoSectionList) {
@@ -113,32 +122,126 @@ public class TimestampXYDataset implements XYDataset {
 						.getSplice_command();
 				SpliceInfoSection.SpliceTime spliceTime = timeSignal.getSplice_time();
 				if ((spliceTime != null) && (spliceTime.getTime_specified_flag() == 1)) {
-					TimeStamp ts = new TimeStamp(spliceSection.getPacket_no(), spliceTime.getSpliceTimeAdjusted());
-					timeSignalPoints.add(ts);
+					timeSignalPoints.add(spliceSection.getPacket_no(), spliceTime.getSpliceTimeAdjusted());
 				}
 			}
 		}
 	}
 
-	private static void handleProgramSplicePoint(List<TimeStamp> exitPoints, List<TimeStamp> returnPoints,
+	private static void handleProgramSplicePoint(TimeStampList exitPoints, TimeStampList returnPoints,
 			SpliceInfoSection spliceSection, SpliceInfoSection.SpliceInsert spliceInsert) {
 		SpliceInfoSection.SpliceTime spliceTime = spliceInsert.getSplice_time();
 		if ((spliceTime != null) && (spliceTime.getTime_specified_flag() == 1)) {
-			TimeStamp ts = new TimeStamp(spliceSection.getPacket_no(), spliceTime.getSpliceTimeAdjusted());
 			if (spliceInsert.getOut_of_network_indicator() == 1) {
-				exitPoints.add(ts);
+				exitPoints.add(spliceSection.getPacket_no(), spliceTime.getSpliceTimeAdjusted());
 			} else {
-				returnPoints.add(ts);
+				returnPoints.add(spliceSection.getPacket_no(), spliceTime.getSpliceTimeAdjusted());
+			}
+		}
+	}
+
+
+	/**
+	 * Create a dataset with the same series, but with only the points with the lowest and highest value per bucket.
+	 * The visible range is divided in buckets (typically one per pixel), the parts of the series outside it get a quarter of that number of buckets.
+	 * The first and last point of every series are always included, so the bounds of the dataset do not change.
+	 *
+	 * @param visible domain range that should have full resolution, null for the complete series
+	 * @param buckets number of buckets for the visible range
+	 * @return decimated dataset, with the series in the same order
+	 * @throws InterruptedException when the thread was interrupted while decimating
+	 */
+	public TimestampXYDataset decimate(Range visible, int buckets) throws InterruptedException {
+		TimestampXYDataset result = new TimestampXYDataset();
+		for (int series = 0; series < seriesList.size(); series++) {
+			if (Thread.currentThread().isInterrupted()) {
+				throw new InterruptedException("decimating timestamps interrupted");
+			}
+			result.seriesList.add(decimate(seriesList.get(series), visible, buckets));
+			result.seriesKeys.add(seriesKeys.get(series));
+		}
+		return result;
+	}
+
+	private static TimeStampSeries decimate(TimeStampSeries series, Range visible, int buckets) {
+		int size = series.size();
+		if (size <= (MIN_POINTS_PER_BUCKET * buckets)) {
+			return series;
+		}
+		long first = series.getX(0);
+		long last = series.getX(size - 1);
+		double lower = first;
+		double upper = last;
+		if (visible != null) {
+			lower = Math.clamp(visible.getLowerBound(), first, last);
+			upper = Math.clamp(visible.getUpperBound(), first, last);
+		}
+		TimeStampList result = new TimeStampList();
+		result.add(series.getX(0), series.getTime(0));
+		int done = addBuckets(series, result, first, lower, buckets / 4, 0);
+		done = addBuckets(series, result, lower, upper, buckets, done);
+		done = addBuckets(series, result, upper, last + 1.0, buckets / 4, done);
+		if (done < (size - 1)) {
+			result.add(series.getX(size - 1), series.getTime(size - 1));
+		}
+		return result.view();
+	}
+
+	/**
+	 * add the points with the lowest and highest time of each bucket between from and to (exclusive) to result, in the original order.
+	 * @return index of the last point in series that was added
+	 */
+	private static int addBuckets(TimeStampSeries series, TimeStampList result, double from, double to, int buckets, int lastAdded) {
+		if ((to <= from) || (buckets <= 0)) {
+			return lastAdded;
+		}
+		double bucketWidth = (to - from) / buckets;
+		int start = Math.max(lastAdded + 1, firstIndexAtOrAfter(series, from));
+		for (int bucket = 1; bucket <= buckets; bucket++) {
+			int end = firstIndexAtOrAfter(series, (bucket == buckets) ? to : (from + (bucket * bucketWidth)));
+			if (start < end) {
+				int min = start;
+				int max = start;
+				for (int i = start + 1; i < end; i++) {
+					long time = series.getTime(i);
+					if (time < series.getTime(min)) {
+						min = i;
+					} else if (time > series.getTime(max)) {
+						max = i;
+					}
+				}
+				int firstPoint = Math.min(min, max);
+				int secondPoint = Math.max(min, max);
+				result.add(series.getX(firstPoint), series.getTime(firstPoint));
+				if (secondPoint != firstPoint) {
+					result.add(series.getX(secondPoint), series.getTime(secondPoint));
+				}
+				lastAdded = secondPoint;
+				start = end;
 			}
 		}
+		return lastAdded;
 	}
 
+	private static int firstIndexAtOrAfter(TimeStampSeries series, double x) {
+		int low = 0;
+		int high = series.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (series.getX(mid) < x) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
 
 	private static String getComponentLabel(TransportStream transportStream, Component component) {
 		return (short) component.getElementaryPID()+" - "+transportStream.getShortLabel((short) component.getElementaryPID());
 	}
 
-	private void addToSeriesList(List<TimeStamp> list, String componentLabel) {
+	private void addToSeriesList(TimeStampSeries list, String componentLabel) {
 		if((list!=null)&&(!list.isEmpty())){
 			seriesList.add(list);
 			seriesKeys.add(componentLabel);
@@ -194,22 +297,22 @@ public class TimestampXYDataset implements XYDataset {
 
 	@Override
 	public Number getX(int series, int item) {
-		return seriesList.get(series).get(item).x();
+		return seriesList.get(series).getX(item);
 	}
 
 	@Override
 	public double getXValue(int series, int item) {
-		return seriesList.get(series).get(item).x();
+		return seriesList.get(series).getX(item);
 	}
 
 	@Override
 	public Number getY(int series, int item) {
-		return seriesList.get(series).get(item).time();
+		return seriesList.get(series).getTime(item);
 	}
 
 	@Override
 	public double getYValue(int series, int item) {
-		return seriesList.get(series).get(item).time();
+		return seriesList.get(series).getTime(item);
 	}
 
 }
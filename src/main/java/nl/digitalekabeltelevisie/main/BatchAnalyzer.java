@@ -0,0 +1,327 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.main;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.opencsv.CSVWriter;
+
+import nl.digitalekabeltelevisie.controller.KVP;
+import nl.digitalekabeltelevisie.data.mpeg.PCR;
+import nl.digitalekabeltelevisie.data.mpeg.PID;
+import nl.digitalekabeltelevisie.data.mpeg.TransportStream;
+import nl.digitalekabeltelevisie.data.mpeg.pes.GeneralPidHandler;
+import nl.digitalekabeltelevisie.gui.DVBtree;
+import nl.digitalekabeltelevisie.util.PreferencesManager;
+
+/**
+ * Headless entry point, analyzes a list of files without starting the GUI, and writes a summary per file as JSON or CSV.
+ * <p>
+ * For every file the first pass is done (like opening it in DVB Inspector), optionally followed by parsing all PES PIDs.
+ * The summary contains the stream totals and per PID the bitrate, continuity errors and PCR statistics. JSON output also contains the PSI tree, and with -pes the tree of every parsed PID.
+ * Files are analyzed concurrently on a fixed thread pool. java.awt.headless is set before anything else, so this can run on a server without display.
+ * <pre>
+ * java -cp DVBinspector.jar nl.digitalekabeltelevisie.main.BatchAnalyzer [-csv] [-pes] [-parallel] [-streaming] [-index] [-threads n] [-out directory] file...
+ * </pre>
+ * Without -out the results of all files are written to standard out, in the order of the arguments. With -out a .json or .csv file is written per input file.
+ * A file that can not be analyzed gives an object with an "error" field in JSON, and a row with only the file and the error in CSV.
+ * <p>
+ * The settings of the GUI are not used, every setting has its default value (see {@link PreferencesManager#useDefaultSettings()}).
+ * -parallel uses the multi-core first pass, -streaming does not keep the PES data in memory with -pes,
+ * and -index reads and writes the .dvbidx index file next to each file.
+ *
+ * @author Eric Berendsen
+ *
+ */
+public final class BatchAnalyzer {
+
+	private static final Logger LOGGER = Logger.getLogger(BatchAnalyzer.class.getName());
+
+	private static final String[] CSV_HEADER = { "file", "pid", "label", "type", "packets", "bitrate", "continuity errors",
+			"duplicate packets", "scrambled", "pcr count", "first pcr", "last pcr", "error" };
+
+	private final boolean csv;
+	private final boolean parsePes;
+
+	BatchAnalyzer(boolean csv, boolean parsePes) {
+		this.csv = csv;
+		this.parsePes = parsePes;
+	}
+
+	public static void main(final String[] args) throws IOException, InterruptedException {
+		System.setProperty("java.awt.headless", "true");
+		PreferencesManager.useDefaultSettings();
+
+		boolean csv = false;
+		boolean parsePes = false;
+		int threads = Runtime.getRuntime().availableProcessors();
+		File outDir = null;
+		final List<File> files = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "-csv" -> csv = true;
+			case "-json" -> csv = false;
+			case "-pes" -> parsePes = true;
+			case "-parallel" -> PreferencesManager.setEnableParallelParse(true);
+			case "-streaming" -> PreferencesManager.setEnableStreamingPes(true);
+			case "-index" -> PreferencesManager.setEnableIndexCache(true);
+			case "-threads" -> threads = Integer.parseInt(nextArg(args, ++i));
+			case "-out" -> outDir = new File(nextArg(args, ++i));
+			default -> files.add(new File(args[i]));
+			}
+		}
+		if (files.isEmpty()) {
+			System.err.println("usage: BatchAnalyzer [-csv|-json] [-pes] [-parallel] [-streaming] [-index] [-threads n] [-out directory] file...");
+			System.exit(2);
+		}
+		if ((outDir != null) && !outDir.isDirectory() && !outDir.mkdirs()) {
+			System.err.println("Can not create output directory " + outDir);
+			System.exit(2);
+		}
+
+		final BatchAnalyzer analyzer = new BatchAnalyzer(csv, parsePes);
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+		final List<Future<String>> results = new ArrayList<>();
+		for (final File file : files) {
+			results.add(executor.submit(() -> analyzer.analyze(file)));
+		}
+		executor.shutdown();
+
+		boolean failures = false;
+		try (Writer stdOut = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+			if (outDir == null) {
+				stdOut.write(csv ? csvHeader() : "[\n");
+			}
+			for (int i = 0; i < files.size(); i++) {
+				final File file = files.get(i);
+				String result;
+				try {
+					result = results.get(i).get();
+				} catch (final ExecutionException e) {
+					LOGGER.log(Level.WARNING, "error analyzing " + file, e.getCause());
+					failures = true;
+					result = csv ? errorCsv(file, e.getCause()) : errorJson(file, e.getCause());
+				}
+				if (outDir == null) {
+					if (!csv && (i > 0)) {
+						stdOut.write(",\n");
+					}
+					stdOut.write(result);
+				} else {
+					writeResult(new File(outDir, file.getName() + (csv ? ".csv" : ".json")), csv ? csvHeader() + result : result);
+				}
+			}
+			if ((outDir == null) && !csv) {
+				stdOut.write("\n]\n");
+			}
+		}
+		System.exit(failures ? 1 : 0);
+	}
+
+	private static String nextArg(final String[] args, final int i) {
+		if (i >= args.length) {
+			throw new IllegalArgumentException("missing value for " + args[i - 1]);
+		}
+		return args[i];
+	}
+
+	private static void writeResult(final File file, final String result) throws IOException {
+		try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+			out.write(result);
+		}
+	}
+
+	/**
+	 * @return summary of file, as JSON or CSV (without header)
+	 */
+	String analyze(final File file) throws Exception {
+		final TransportStream transportStream = new TransportStream(file);
+		transportStream.parseStream(null);
+		final Map<Integer, GeneralPidHandler> pidHandlers = new HashMap<>();
+		if (parsePes) {
+			for (final PID pid : transportStream.getPids()) {
+				if ((pid != null) && (pid.getPidHandler() != null)) {
+					pidHandlers.put(pid.getPid(), pid.getPidHandler());
+				}
+			}
+			transportStream.parsePidStreams(pidHandlers);
+		}
+		return csv ? toCsv(transportStream) : toJson(transportStream, pidHandlers);
+	}
+
+	/**
+	 * @return bitrate of the PID, based on its share of the packets and the bitrate of the stream. -1 if the bitrate of the stream is not known
+	 */
+	private static long pidBitRate(final TransportStream transportStream, final PID pid) {
+		final long bitRate = transportStream.getBitRate();
+		if ((bitRate == -1L) || (transportStream.getNo_packets() == 0)) {
+			return -1L;
+		}
+		return (bitRate * pid.getPackets()) / transportStream.getNo_packets();
+	}
+
+	private static String csvHeader() throws IOException {
+		try (StringWriter sw = new StringWriter(); CSVWriter csvWriter = new CSVWriter(sw)) {
+			csvWriter.writeNext(CSV_HEADER);
+			csvWriter.flush();
+			return sw.toString();
+		}
+	}
+
+	private static String toCsv(final TransportStream transportStream) throws IOException {
+		try (StringWriter sw = new StringWriter(); CSVWriter csvWriter = new CSVWriter(sw)) {
+			for (final PID pid : transportStream.getPids()) {
+				if (pid != null) {
+					csvWriter.writeNext(new String[] {
+							transportStream.getFile().getPath(),
+							Integer.toString(pid.getPid()),
+							transportStream.getShortLabel((short) pid.getPid()),
+							pid.getTypeString(),
+							Long.toString(pid.getPackets()),
+							Long.toString(pidBitRate(transportStream, pid)),
+							Long.toString(pid.getContinuity_errors_count()),
+							Integer.toString(pid.getDup_packets()),
+							Boolean.toString(pid.isScrambled()),
+							Long.toString(pid.getPcr_count()),
+							pcrString(pid.getFirstPCR()),
+							pcrString(pid.getLastPCR()),
+							"" });
+				}
+			}
+			csvWriter.flush();
+			return sw.toString();
+		}
+	}
+
+	/**
+	 * @return the PCR value, or null. PID has no last PCR after the first PCR or a discontinuity
+	 */
+	private static Long pcrValue(final PCR pcr) {
+		return pcr == null ? null : pcr.getProgram_clock_reference();
+	}
+
+	private static String pcrString(final PCR pcr) {
+		final Long value = pcrValue(pcr);
+		return value == null ? "" : value.toString();
+	}
+
+	private static String toJson(final TransportStream transportStream, final Map<Integer, GeneralPidHandler> pidHandlers) {
+		final JsonBuilder json = new JsonBuilder();
+		json.beginObject()
+			.field("file", transportStream.getFile().getPath())
+			.field("packet length", transportStream.getPacketLenghth())
+			.field("packets", transportStream.getNo_packets())
+			.field("error packets", transportStream.getError_packets())
+			.field("sync errors", transportStream.getSync_errors())
+			.field("bitrate", transportStream.getBitRate())
+			.field("length (secs)", transportStream.getLength());
+		json.name("pids").beginArray();
+		for (final PID pid : transportStream.getPids()) {
+			if (pid != null) {
+				json.beginObject()
+					.field("pid", pid.getPid())
+					.field("label", transportStream.getShortLabel((short) pid.getPid()))
+					.field("type", pid.getTypeString())
+					.field("packets", pid.getPackets())
+					.field("bitrate", pidBitRate(transportStream, pid))
+					.field("continuity errors", pid.getContinuity_errors_count())
+					.field("duplicate packets", pid.getDup_packets())
+					.field("scrambled", pid.isScrambled());
+				if (pid.getPcr_count() > 0) {
+					json.name("pcr").beginObject()
+						.field("count", pid.getPcr_count())
+						.field("first", pcrValue(pid.getFirstPCR()))
+						.field("last", pcrValue(pid.getLastPCR()))
+						.field("first packet", pid.getFirstPCRpacketNo())
+						.field("last packet", pid.getLastPCR() == null ? null : Long.valueOf(pid.getLastPCRpacketNo()))
+						.endObject();
+				}
+				final GeneralPidHandler handler = pidHandlers.get(pid.getPid());
+				if (handler != null) {
+					json.name("data");
+					tree(json, handler.getJTreeNode(DVBtree.SIMPLE_MODUS));
+				}
+				json.endObject();
+			}
+		}
+		json.endArray();
+		json.name("psi");
+		tree(json, transportStream.getPsi().getJTreeNode(DVBtree.PSI_ONLY_MODUS));
+		return json.endObject().toString();
+	}
+
+	/**
+	 * a KVP tree as nested objects, every node has the text as shown in the tree view, and its children
+	 */
+	private static void tree(final JsonBuilder json, final KVP kvp) {
+		json.beginObject().field("text", kvp.getPlainText());
+		if (!kvp.isLeaf()) {
+			json.name("children").beginArray();
+			final Enumeration<javax.swing.tree.TreeNode> children = kvp.children();
+			while (children.hasMoreElements()) {
+				if (children.nextElement() instanceof KVP child) {
+					tree(json, child);
+				}
+			}
+			json.endArray();
+		}
+		json.endObject();
+	}
+
+	static String errorCsv(final File file, final Throwable error) throws IOException {
+		final String[] row = new String[CSV_HEADER.length];
+		Arrays.fill(row, "");
+		row[0] = file.getPath();
+		row[row.length - 1] = String.valueOf(error);
+		try (StringWriter sw = new StringWriter(); CSVWriter csvWriter = new CSVWriter(sw)) {
+			csvWriter.writeNext(row);
+			csvWriter.flush();
+			return sw.toString();
+		}
+	}
+
+	private static String errorJson(final File file, final Throwable error) {
+		return new JsonBuilder().beginObject()
+				.field("file", file.getPath())
+				.field("error", String.valueOf(error))
+				.endObject().toString();
+	}
+}
@@ -71,7 +71,6 @@ import nl.digitalekabeltelevisie.data.mpeg.pid.t2mi.T2miPidHandler;
 import nl.digitalekabeltelevisie.gui.*;
 import nl.digitalekabeltelevisie.gui.exception.NotAnMPEGFileException;
 import nl.digitalekabeltelevisie.gui.utils.RecentFiles;
-import nl.digitalekabeltelevisie.util.KvpPreorderEnumaration;
 import nl.digitalekabeltelevisie.util.PreferencesManager;
 import nl.digitalekabeltelevisie.util.Utils;
 
@@ -102,6 +101,9 @@ public class DVBinspector implements ChangeListener, ActionListener{
 	
 	private PIDDialog pidDialog = null;
 
+	private TSFollower follower = null;
+	private JCheckBoxMenuItem followStreamMenuItem;
+
 	private ViewContext viewContext = new ViewContext();
 
 	private int modus;
@@ -109,8 +111,7 @@ public class DVBinspector implements ChangeListener, ActionListener{
 	private FindNextAction findNextAction;
 
 
-	private KvpPreorderEnumaration searchEnummeration;
-	private String searchString;
+	private TreeSearch treeSearch;
 
 
 	/**
@@ -412,6 +413,21 @@ public class DVBinspector implements ChangeListener, ActionListener{
 		enableHumaxAtsFix.setMnemonic(KeyEvent.VK_H);
 		enableHumaxAtsFix.setSelected(PreferencesManager.isEnableHumaxAtsFix());
 		settingsMenu.add(enableHumaxAtsFix);
+
+		final JCheckBoxMenuItem enableParallelParse = new JCheckBoxMenuItem(new EnableParallelParseAction(this));
+		enableParallelParse.setMnemonic(KeyEvent.VK_U);
+		enableParallelParse.setSelected(PreferencesManager.isEnableParallelParse());
+		settingsMenu.add(enableParallelParse);
+
+		final JCheckBoxMenuItem enableIndexCache = new JCheckBoxMenuItem(new EnableIndexCacheAction(this));
+		enableIndexCache.setMnemonic(KeyEvent.VK_X);
+		enableIndexCache.setSelected(PreferencesManager.isEnableIndexCache());
+		settingsMenu.add(enableIndexCache);
+
+		final JCheckBoxMenuItem enableStreamingPes = new JCheckBoxMenuItem(new EnableStreamingPesAction(this));
+		enableStreamingPes.setMnemonic(KeyEvent.VK_E);
+		enableStreamingPes.setSelected(PreferencesManager.isEnableStreamingPes());
+		settingsMenu.add(enableStreamingPes);
 		settingsMenu.addSeparator();
 		
 		final JCheckBoxMenuItem enableGenericPSI = new JCheckBoxMenuItem(new EnableGenericPSIAction(this));
@@ -552,6 +568,10 @@ public class DVBinspector implements ChangeListener, ActionListener{
 		
 		fileMenu.add(recentFilesMenu);
 
+		followStreamMenuItem = new JCheckBoxMenuItem(new FollowStreamAction(this));
+		followStreamMenuItem.setMnemonic(KeyEvent.VK_L);
+		fileMenu.add(followStreamMenuItem);
+
 		final JMenuItem exitMenuItem = new JMenuItem("Exit",KeyEvent.VK_X);
 		exitMenuItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_W, InputEvent.CTRL_DOWN_MASK));
 		exitMenuItem.addActionListener(this);
@@ -632,6 +652,7 @@ public class DVBinspector implements ChangeListener, ActionListener{
 	 * @param transportStream
 	 */
 	public void setTransportStream(final TransportStream transportStream) {
+		setFollowStream(false);
 		this.transportStream = transportStream;
 		if(transportStream!=null){
 			updatePIDLists(transportStream,pidDialog);
@@ -645,6 +666,45 @@ public class DVBinspector implements ChangeListener, ActionListener{
 
 	}
 
+	/**
+	 * start or stop following the current file, for a recording that is still being written.
+	 * @param follow
+	 */
+	public void setFollowStream(final boolean follow) {
+		if(follower!=null){
+			follower.stop();
+			follower = null;
+		}
+		if(follow && (transportStream!=null)){
+			follower = new TSFollower(transportStream, this);
+			follower.start();
+		}
+		if(followStreamMenuItem!=null){
+			followStreamMenuItem.setSelected(follower!=null);
+		}
+	}
+
+	/**
+	 * Called by the TSFollower when packets were appended to the stream. When the packet range of the views reached the end of the stream, it is extended.
+	 * The tree, bitrate and bar chart views are refreshed, other views are updated when their settings change.
+	 * @param previousPackets number of packets before the stream was extended
+	 */
+	public void transportStreamExtended(final long previousPackets) {
+		if(transportStream.getNoPIDS()!=(viewContext.getShown().size()+viewContext.getNotShown().size())){
+			// new PIDs found, start with all PIDs shown
+			updatePIDLists(transportStream,pidDialog);
+		}else{
+			if(viewContext.getEndPacket()==previousPackets){
+				viewContext.setEndPacket(transportStream.getNo_packets());
+			}
+			viewContext.setMaxPacket(transportStream.getNo_packets());
+			pidDialog.setConfig(viewContext);
+		}
+		treeView.refreshView();
+		bitRateView.setTransportStream(transportStream, viewContext);
+		barChart.setTransportStream(transportStream, viewContext);
+	}
+
 	public DVBtree getTreeView() {
 		return treeView;
 	}
@@ -767,31 +827,13 @@ public class DVBinspector implements ChangeListener, ActionListener{
 	}
 
 
-	public void setSearchEnumeration(KvpPreorderEnumaration enummeration) {
-		this.searchEnummeration = enummeration;
-		if(enummeration==null){
-			findNextAction.setEnabled(false);
-		}else if(searchString!=null){
-			findNextAction.setEnabled(true);
-		}
-		
-	}
-
-	public KvpPreorderEnumaration getSearchEnumeration() {
-		return searchEnummeration;
+	public void setTreeSearch(TreeSearch treeSearch) {
+		this.treeSearch = treeSearch;
+		findNextAction.setEnabled(treeSearch != null);
 	}
 
-	public String getSearchString() {
-		return searchString;
-	}
-
-	public void setSearchString(String searchString) {
-		this.searchString = searchString;
-		if(searchString==null){
-			findNextAction.setEnabled(false);
-		}else if(searchEnummeration!=null){
-			findNextAction.setEnabled(true);
-		}
+	public TreeSearch getTreeSearch() {
+		return treeSearch;
 	}
 
 	public FindNextAction getFindNextAction() {
@@ -800,8 +842,7 @@ public class DVBinspector implements ChangeListener, ActionListener{
 
 
 	public void resetSearch(){
-		searchEnummeration = null;
-		searchString = null;
+		treeSearch = null;
 		findNextAction.setEnabled(false);
 	}
 
@@ -0,0 +1,152 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.main;
+
+/**
+ * Minimal JSON writer, just enough for the summaries of BatchAnalyzer. Commas between elements are added automatically.
+ *
+ * @author Eric Berendsen
+ *
+ */
+final class JsonBuilder {
+
+	private final StringBuilder sb = new StringBuilder();
+	private boolean needComma = false;
+
+	JsonBuilder beginObject() {
+		separator();
+		sb.append('{');
+		needComma = false;
+		return this;
+	}
+
+	JsonBuilder endObject() {
+		sb.append('}');
+		needComma = true;
+		return this;
+	}
+
+	JsonBuilder beginArray() {
+		separator();
+		sb.append('[');
+		needComma = false;
+		return this;
+	}
+
+	JsonBuilder endArray() {
+		sb.append(']');
+		needComma = true;
+		return this;
+	}
+
+	/**
+	 * name of the next value in an object
+	 */
+	JsonBuilder name(final String name) {
+		separator();
+		string(name);
+		sb.append(':');
+		needComma = false;
+		return this;
+	}
+
+	JsonBuilder field(final String name, final String value) {
+		name(name);
+		if (value == null) {
+			sb.append("null");
+		} else {
+			string(value);
+		}
+		needComma = true;
+		return this;
+	}
+
+	JsonBuilder field(final String name, final long value) {
+		name(name);
+		sb.append(value);
+		needComma = true;
+		return this;
+	}
+
+	/**
+	 * @param value written as null when null
+	 */
+	JsonBuilder field(final String name, final Long value) {
+		name(name);
+		sb.append(value == null ? "null" : value.toString());
+		needComma = true;
+		return this;
+	}
+
+	JsonBuilder field(final String name, final double value) {
+		name(name);
+		sb.append(Double.isFinite(value) ? Double.toString(value) : "null");
+		needComma = true;
+		return this;
+	}
+
+	JsonBuilder field(final String name, final boolean value) {
+		name(name);
+		sb.append(value);
+		needComma = true;
+		return this;
+	}
+
+	private void separator() {
+		if (needComma) {
+			sb.append(',');
+		}
+	}
+
+	private void string(final String s) {
+		sb.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			switch (c) {
+			case '"' -> sb.append("\\\"");
+			case '\\' -> sb.append("\\\\");
+			case '\n' -> sb.append("\\n");
+			case '\r' -> sb.append("\\r");
+			case '\t' -> sb.append("\\t");
+			default -> {
+				if (c < 0x20) {
+					sb.append(String.format("\\u%04x", (int) c));
+				} else {
+					sb.append(c);
+				}
+			}
+			}
+		}
+		sb.append('"');
+	}
+
+	@Override
+	public String toString() {
+		return sb.toString();
+	}
+}
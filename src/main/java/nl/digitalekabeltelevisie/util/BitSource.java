@@ -28,6 +28,7 @@
 package nl.digitalekabeltelevisie.util;
 
 import java.util.Arrays;
+import java.util.function.IntFunction;
 
 import nl.digitalekabeltelevisie.controller.DVBString;
 import nl.digitalekabeltelevisie.gui.HTMLSource;
@@ -47,11 +48,15 @@ import nl.digitalekabeltelevisie.gui.HTMLSource;
  *
  */
 public class BitSource implements HTMLSource{
-	private final byte[] bytes;
+	private byte[] bytes;
 	private int byteOffset = 0;
 	private int bitOffset = 0;
 
 	private final int lastBytePlusOne;
+	/**
+	 * supplies a longer bytes array when a read runs past the end of bytes, null when bytes is all there is
+	 */
+	private final IntFunction<byte[]> refill;
 
 
 	public static final int[] powerOf2 = {1,2,4,8, 16,32,64,128,
@@ -67,6 +72,7 @@ public class BitSource implements HTMLSource{
 		this.bytes = bytes;
 		this.byteOffset = offset;
 		this.lastBytePlusOne=bytes.length;
+		this.refill = null;
 	}
 
 
@@ -77,9 +83,24 @@ public class BitSource implements HTMLSource{
 	 * @param lastBytePlusOne index after last byte to be used, so NOT len of usefull bytes. ie to read bytes 5..8 use offset = 5, and len = 9 (NOT 4!)
 	 */
 	public BitSource(final byte[] bytes,final int offset,final int lastBytePlusOne) {
+		this(bytes, offset, lastBytePlusOne, null);
+	}
+
+	/**
+	 * For when bytes only holds the start of the data. When reading needs more bytes than bytes.length, refill is called
+	 * with the number of bytes needed. It returns an array with the same start, that is at least that long, or as long as
+	 * the data is (then reading past the end still throws an ArrayIndexOutOfBounds).
+	 *
+	 * @param bytes
+	 * @param offset
+	 * @param lastBytePlusOne index after last byte of all data, not of bytes
+	 * @param refill
+	 */
+	public BitSource(final byte[] bytes,final int offset,final int lastBytePlusOne, final IntFunction<byte[]> refill) {
 		this.bytes = bytes;
 		this.byteOffset = offset;
 		this.lastBytePlusOne=lastBytePlusOne;
+		this.refill = refill;
 	}
 
 	
@@ -92,6 +113,7 @@ public class BitSource implements HTMLSource{
 		this.byteOffset = src.byteOffset;
 		this.bitOffset = src.bitOffset;
 		this.lastBytePlusOne = src.byteOffset + len;
+		this.refill = src.refill;
 	}
 	
 	public BitSource(BitSource src) {
@@ -99,6 +121,17 @@ public class BitSource implements HTMLSource{
 		this.byteOffset = src.byteOffset;
 		this.bitOffset = src.bitOffset;
 		this.lastBytePlusOne = src.lastBytePlusOne;
+		this.refill = src.refill;
+	}
+
+	/**
+	 * Make sure bytes holds the bytes up to end, when there is a refill
+	 * @param end index after the last byte that is going to be read
+	 */
+	private void ensureBytes(final int end) {
+		if((end > bytes.length) && (refill != null)) {
+			bytes = refill.apply(end);
+		}
 	}
 
 
@@ -112,6 +145,7 @@ public class BitSource implements HTMLSource{
 		if ((numBits < 0) || (numBits > 32)) {
 			throw new IllegalArgumentException();
 		}
+		ensureBytes(byteOffset + ((bitOffset + numBits + 7) >> 3));
 
 		int result = 0;
 
@@ -158,6 +192,7 @@ public class BitSource implements HTMLSource{
 		if ((numBits < 0) || (numBits > 64)) {
 			throw new IllegalArgumentException();
 		}
+		ensureBytes(byteOffset + ((bitOffset + numBits + 7) >> 3));
 
 		long result = 0;
 
@@ -206,6 +241,7 @@ public class BitSource implements HTMLSource{
 
 		// Next read whole bytes
 		if(noBytes>0){
+			ensureBytes(byteOffset+noBytes);
 			byte[] result = Arrays.copyOfRange(bytes, byteOffset,byteOffset+noBytes);
 			byteOffset+=noBytes;
 			return result;
@@ -284,6 +320,7 @@ public class BitSource implements HTMLSource{
 		if ((numBits < 1) || (numBits > 32)) {
 			throw new IllegalArgumentException();
 		}
+		ensureBytes(localByteOffset + ((localBitOffset + numBits + 7) >> 3));
 
 		int result = 0;
 
@@ -71,8 +71,8 @@ public class JTreeLazyList {
 		 * level > 0, direct children are RangeNodes with new level = level - 1
 		 */
 		final int level;
-		final int start;
-		final int end;
+		final long start;
+		final long end;
 		private MutableTreeNode[] children=null;
 		
 		private MutableTreeNode parent;
@@ -84,7 +84,7 @@ public class JTreeLazyList {
 		 * @param start
 		 * @param end
 		 */
-		private RangeNode(int level, int start, int end, MutableTreeNode parent) {
+		private RangeNode(int level, long start, long end, MutableTreeNode parent) {
 			super();
 			this.level = level;
 			this.start = start;
@@ -92,7 +92,7 @@ public class JTreeLazyList {
 			this.parent = parent;
 		}
 
-		private RangeNode(int level, int start, int end,String label) {
+		private RangeNode(int level, long start, long end,String label) {
 			super();
 			this.level = level;
 			this.start = start;
@@ -110,10 +110,10 @@ public class JTreeLazyList {
 			return b.toString();
 		}
 
-		private RangeNode createChild(int level, int currentStart, int index) {
-			final int maxLeafsChild = ipower(STEP_SIZE, level);
-			int childStart = currentStart + (maxLeafsChild * index);
-			int childEnd = (currentStart + (maxLeafsChild * (index + 1)));
+		private RangeNode createChild(int level, long currentStart, int index) {
+			final long maxLeafsChild = ipower(STEP_SIZE, level);
+			long childStart = currentStart + (maxLeafsChild * index);
+			long childEnd = (currentStart + (maxLeafsChild * (index + 1)));
 			childEnd = Math.min(itemGetter.getNoItems(), childEnd);
 			return new RangeNode(level - 1, childStart, childEnd, this);
 		}
@@ -151,14 +151,14 @@ public class JTreeLazyList {
 		 */
 		@Override
 		public int getChildCount() {
-			final int maxLeafsCurrentNode = ipower(STEP_SIZE, level+1);
+			final long maxLeafsCurrentNode = ipower(STEP_SIZE, level+1);
 			if ((start + maxLeafsCurrentNode) <= itemGetter.getNoItems()) {
 				return STEP_SIZE;
 			}
 			if (level == 0) {
-				return end - start;
+				return (int) (end - start);
 			}
-			return divideRoundUp((end-start),ipower(STEP_SIZE,level));
+			return (int) divideRoundUp((end-start),ipower(STEP_SIZE,level));
 		}
 
 		/* (non-Javadoc)
@@ -264,8 +264,8 @@ public class JTreeLazyList {
 		 * @param children = new MutableTreeNode[STEP_SIZE];
 		 * @return
 		 */
-		public MutableTreeNode findChildForActual(int actual) {
-			int index = itemGetter.getIndexForActualNumber(actual);
+		public MutableTreeNode findChildForActual(long actual) {
+			long index = itemGetter.getIndexForActualNumber(actual);
 			return findChildForIndex(index);
 		}
 
@@ -273,13 +273,13 @@ public class JTreeLazyList {
 		 * @param index
 		 * @return
 		 */
-		private MutableTreeNode findChildForIndex(int index) {
+		private MutableTreeNode findChildForIndex(long index) {
 			if(level == 0) {
-				return getChildAt(index);
+				return getChildAt((int) index);
 			}
-			int divisor = ipower(STEP_SIZE,level);			
-			MutableTreeNode child = getChildAt(Integer.divideUnsigned(index, divisor));
-			int newIndex = Integer.remainderUnsigned(index, divisor);
+			long divisor = ipower(STEP_SIZE,level);			
+			MutableTreeNode child = getChildAt((int) Long.divideUnsigned(index, divisor));
+			long newIndex = Long.remainderUnsigned(index, divisor);
 			if(child instanceof RangeNode rangeNode) {
 				return rangeNode.findChildForIndex(newIndex);
 			}
@@ -315,9 +315,9 @@ public class JTreeLazyList {
 	 * @param noPackets2
 	 * @return
 	 */
-	private static int determineLevel(int noPackets2) {
+	private static int determineLevel(long noPackets2) {
 		int level=0;
-		int upperBound = STEP_SIZE;
+		long upperBound = STEP_SIZE;
 		while(upperBound < noPackets2){
 			upperBound *= STEP_SIZE;
 			level++;
@@ -326,9 +326,9 @@ public class JTreeLazyList {
 	}
 
 
-	static int ipower(int base, int exponent) {
+	static long ipower(int base, int exponent) {
 		int exp = exponent;
-		int result = 1;
+		long result = 1;
 		while (exp > 0) {
 			result *= base;
 			exp--;
@@ -336,7 +336,7 @@ public class JTreeLazyList {
 		return result;
 	}
 
-	public static int divideRoundUp(int num, int divisor) {
+	public static long divideRoundUp(long num, long divisor) {
 		return ((num + divisor) - 1) / divisor;
 	}
 }
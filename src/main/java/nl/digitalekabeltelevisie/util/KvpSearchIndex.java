@@ -0,0 +1,250 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.util;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+
+import nl.digitalekabeltelevisie.controller.KVP;
+
+/**
+ * Index of the text of all KVPs in a tree, for case insensitive substring search.
+ * <p>
+ * Nodes are numbered in pre-order, so hits are found in the order they appear in the tree.
+ * For every node the lower case text is kept, and for every trigram (three consecutive chars) a sorted list of the nodes containing it.
+ * A query only has to check the nodes in the shortest list of one of its trigrams, instead of all nodes.
+ * Queries shorter than three chars are answered by scanning all texts.
+ * <p>
+ * The text of a node is its presentation ({@link KVP#toString()}) plus the plain text with numbers in both decimal and hex,
+ * so a search for "0x1f" also finds a PID that is shown as 31.
+ * <p>
+ * The whole tree is indexed, so the children of nodes that have not been expanded yet (see {@link KVP#setChildProvider}) are created while
+ * collecting the nodes. Only lists that are not made of KVPs (like the packets of {@link JTreeLazyList}) are skipped.
+ * <p>
+ * The index is a snapshot, it has to be built again when the tree changes. The nodes are collected by a {@link Collector} on the thread that owns
+ * the tree (the Event Dispatch Thread), in chunks so that thread is not blocked while a large tree is created.
+ * The rest of the work is done by {@link #build(KVP[])}, which only reads the text of those nodes and
+ * can run on any thread. Once built the index is immutable, and can be used from any thread.
+ */
+public final class KvpSearchIndex {
+
+	private static final int[] EMPTY = new int[0];
+
+	private final KVP[] nodes;
+	private final String[] texts;
+	private final Map<Long, int[]> trigrams;
+
+	private KvpSearchIndex(KVP[] nodes, String[] texts, Map<Long, int[]> trigrams) {
+		this.nodes = nodes;
+		this.texts = texts;
+		this.trigrams = trigrams;
+	}
+
+	/**
+	 * Collects the nodes of a tree in pre-order, a chunk at a time. Creates the children of lazy nodes when it gets to them.
+	 * Must be used on the thread that owns the tree, so the tree does not change while walking a chunk.
+	 */
+	public static final class Collector {
+		private final List<KVP> nodeList = new ArrayList<>();
+		private final Deque<KVP> stack = new ArrayDeque<>();
+
+		public Collector(KVP root) {
+			stack.push(root);
+		}
+
+		/**
+		 * @param maxNodes number of nodes to collect in this call
+		 * @return true when all nodes have been collected
+		 */
+		public boolean collect(int maxNodes) {
+			for (int n = 0; n < maxNodes && !stack.isEmpty(); n++) {
+				KVP node = stack.pop();
+				nodeList.add(node);
+				for (int i = node.getChildCount() - 1; i >= 0; i--) {
+					if (node.getChildAt(i) instanceof KVP child) {
+						stack.push(child);
+					}
+				}
+			}
+			return stack.isEmpty();
+		}
+
+		/**
+		 * @return the nodes collected so far, in pre-order
+		 */
+		public KVP[] getNodes() {
+			return nodeList.toArray(new KVP[0]);
+		}
+	}
+
+	/**
+	 * Collect root and all its descendants in pre-order in one go, see {@link Collector}.
+	 *
+	 * @param root
+	 * @return the nodes to index
+	 */
+	public static KVP[] snapshot(KVP root) {
+		Collector collector = new Collector(root);
+		collector.collect(Integer.MAX_VALUE);
+		return collector.getNodes();
+	}
+
+	/**
+	 * Index the nodes collected by a {@link Collector}. Only the text of the nodes is used, so this can run on any thread.
+	 *
+	 * @param nodes in pre-order
+	 * @return the index
+	 * @throws InterruptedException when the thread was interrupted while building
+	 */
+	public static KvpSearchIndex build(KVP[] nodes) throws InterruptedException {
+		String[] texts = new String[nodes.length];
+		Map<Long, IntList> postings = new HashMap<>();
+
+		for (int id = 0; id < nodes.length; id++) {
+			if ((id & 0x3FF) == 0 && Thread.interrupted()) {
+				throw new InterruptedException("building search index interrupted");
+			}
+			String text = getSearchText(nodes[id]);
+			texts[id] = text;
+			for (int i = 0; i + 3 <= text.length(); i++) {
+				postings.computeIfAbsent(trigram(text, i), k -> new IntList()).addOnce(id);
+			}
+		}
+
+		Map<Long, int[]> trigrams = new HashMap<>(postings.size() * 2);
+		postings.forEach((k, v) -> trigrams.put(k, v.toArray()));
+		return new KvpSearchIndex(nodes, texts, trigrams);
+	}
+
+	/**
+	 * @param node
+	 * @return the (lower case) text that is searched for node
+	 */
+	public static String getSearchText(KVP node) {
+		String shown = node.toString();
+		String plain = node.getPlainText();
+		if (shown.equals(plain)) {
+			return shown.toLowerCase(Locale.ROOT);
+		}
+		return (shown + '\n' + plain).toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * @return number of nodes in the index
+	 */
+	public int size() {
+		return nodes.length;
+	}
+
+	/**
+	 * @param index pre-order number of node
+	 * @return the node
+	 */
+	public KVP getNode(int index) {
+		return nodes[index];
+	}
+
+	/**
+	 * @param searchText text to look for, case insensitive
+	 * @param from first node to consider
+	 * @return index of first node at or after from that contains searchText, or -1
+	 */
+	public int findNext(String searchText, int from) {
+		int[] result = {-1};
+		forEachHit(searchText, from, i -> {
+			result[0] = i;
+			return false;
+		});
+		return result[0];
+	}
+
+	/**
+	 * Calls consumer for every node at or after from that contains searchText, in pre-order. Stops when consumer returns false.
+	 *
+	 * @param searchText text to look for, case insensitive
+	 * @param from first node to consider
+	 * @param consumer gets the index of each hit, returns false to stop
+	 */
+	public void forEachHit(String searchText, int from, IntPredicate consumer) {
+		String target = searchText.toLowerCase(Locale.ROOT);
+		if (target.isEmpty()) {
+			return;
+		}
+		int[] candidates = null;
+		for (int i = 0; i + 3 <= target.length(); i++) {
+			int[] list = trigrams.getOrDefault(trigram(target, i), EMPTY);
+			if (candidates == null || list.length < candidates.length) {
+				candidates = list;
+			}
+		}
+		if (candidates == null) { // short query, check all
+			for (int i = Math.max(0, from); i < texts.length; i++) {
+				if (texts[i].contains(target) && !consumer.test(i)) {
+					return;
+				}
+			}
+			return;
+		}
+		int start = Arrays.binarySearch(candidates, from);
+		if (start < 0) {
+			start = -start - 1;
+		}
+		for (int i = start; i < candidates.length; i++) {
+			int id = candidates[i];
+			if (texts[id].contains(target) && !consumer.test(id)) {
+				return;
+			}
+		}
+	}
+
+	private static long trigram(String s, int i) {
+		return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+	}
+
+	/**
+	 * growable list of increasing ints, used while building the postings
+	 */
+	private static final class IntList {
+		private int[] values = new int[4];
+		private int size;
+
+		void addOnce(int value) {
+			if (size > 0 && values[size - 1] == value) {
+				return;
+			}
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+}
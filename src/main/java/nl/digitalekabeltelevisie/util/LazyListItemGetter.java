@@ -45,12 +45,12 @@ public interface LazyListItemGetter {
 	 * @param i
 	 * @return
 	 */
-	MutableTreeNode getTreeNode(int i);
+	MutableTreeNode getTreeNode(long i);
 
 	/**
 	 * @return total number of elements to be displayed
 	 */
-	int getNoItems();
+	long getNoItems();
 	
 	/**
 	 * Return the number of the packet for the i-th packet in this list
@@ -60,11 +60,11 @@ public interface LazyListItemGetter {
 	 * @param i
 	 * @return
 	 */
-	default int getActualNumberForIndex(int i) {
+	default long getActualNumberForIndex(long i) {
 		return i;
 	}
 
-	default int getIndexForActualNumber(int i) {
+	default long getIndexForActualNumber(long i) {
 		return i;
 	}
 
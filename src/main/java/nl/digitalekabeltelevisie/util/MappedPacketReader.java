@@ -0,0 +1,232 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.util;
+
+import java.awt.Component;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import javax.swing.ProgressMonitor;
+
+/**
+ * Walks a file containing fixed length packets by mapping consecutive windows of it into memory, instead of pulling every byte through an InputStream.
+ * The packet under the cursor is available as a view on the current window ({@link #getWindow()} / {@link #getWindowPosition()}), no bytes are copied by the reader itself.
+ * <p>
+ * Resyncing follows the same rules as the original stream based reader; a packet is accepted when its sync byte is found, and the sync byte of the next packet is found as well (or the file ends).
+ * Otherwise the cursor advances to the next position where that holds, see {@link #skipToNextSync()}.
+ *
+ * @author Eric Berendsen
+ *
+ */
+public class MappedPacketReader implements Closeable {
+
+	public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+	private static final byte SYNC_BYTE = 0x47;
+
+	private final FileChannel channel;
+	private final long fileLength;
+	private final int packetLength;
+	/**
+	 * position of the sync byte inside a packet, 0 for normal TS packets, 4 for AVCHD packets (after TP_extra_header)
+	 */
+	private final int syncOffset;
+	private final int windowSize;
+
+	private MappedByteBuffer window;
+	private long windowStart = 0;
+	private int windowLength = 0;
+	private long position = 0;
+
+	private ProgressMonitor monitor;
+	private long divider = 1;
+
+	public MappedPacketReader(File file, int packetLength, int syncOffset) throws IOException {
+		this(file, packetLength, syncOffset, DEFAULT_WINDOW_SIZE);
+	}
+
+	public MappedPacketReader(File file, int packetLength, int syncOffset, int windowSize) throws IOException {
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		this.fileLength = channel.size();
+		this.packetLength = packetLength;
+		this.syncOffset = syncOffset;
+		this.windowSize = Math.max(windowSize, (2 * packetLength) + syncOffset);
+	}
+
+	/**
+	 * Show a ProgressMonitor while reading, cancelling it results in an InterruptedIOException, just like ProgressMonitorLargeInputStream
+	 * @param parentComponent
+	 * @param message
+	 */
+	public void setProgressMonitor(Component parentComponent, Object message) {
+		if (fileLength > Integer.MAX_VALUE) {
+			divider = (fileLength / Integer.MAX_VALUE) + 1;
+		}
+		monitor = new ProgressMonitor(parentComponent, message, null, 0, (int) (fileLength / divider));
+		monitor.setMillisToPopup(2);
+		monitor.setMillisToDecideToPopup(1);
+	}
+
+	/**
+	 * @return true if there are at least packetLength bytes left at the current position
+	 */
+	public boolean hasPacket() {
+		return position + packetLength <= fileLength;
+	}
+
+	/**
+	 * @return true if there is at least one byte after the packet at the current position
+	 */
+	public boolean hasNextByte() {
+		return position + packetLength < fileLength;
+	}
+
+	/**
+	 * @return true if the packet at the current position starts with a sync byte, and is followed by another sync byte (or by less than a complete TP_extra_header + sync byte at the end of the file)
+	 * @throws IOException
+	 */
+	public boolean isSynced() throws IOException {
+		long remainingAfterPacket = fileLength - (position + packetLength);
+		ensureMapped(packetLength + (int) Math.min(syncOffset + 1L, remainingAfterPacket));
+		int index = getWindowPosition();
+		if (window.get(index + syncOffset) != SYNC_BYTE) {
+			return false;
+		}
+		return (remainingAfterPacket < syncOffset + 1) || (window.get(index + packetLength + syncOffset) == SYNC_BYTE);
+	}
+
+	/**
+	 * Move the cursor to offset, and make sure the packet there is mapped. Used for reading selected packets, 
+	 * as long as offsets are increasing the file is mapped window after window, just like for sequential reading.
+	 * @param offset file offset of the start of the packet
+	 * @return true if a complete packet is available at offset
+	 * @throws IOException
+	 */
+	public boolean moveTo(long offset) throws IOException {
+		position = offset;
+		if (!hasPacket()) {
+			return false;
+		}
+		ensureMapped(packetLength);
+		return true;
+	}
+
+	public void nextPacket() {
+		position += packetLength;
+	}
+
+	public void skipByte() {
+		position++;
+	}
+
+	/**
+	 * Advance at least one byte, to the next position where {@link #isSynced()} is true.
+	 * Stops at the same position as calling {@link #skipByte()} until isSynced() or until there is no next byte, but looks at the mapped window
+	 * a long at a time with a {@link SyncScanner}, instead of one position per call.
+	 * @throws IOException
+	 */
+	public void skipToNextSync() throws IOException {
+		position++;
+		// last position where both sync bytes are inside the file, after that isSynced() handles the end of the file
+		final long lastScanPosition = fileLength - packetLength - syncOffset - 1;
+		final int needed = packetLength + syncOffset + 1;
+		while (position <= lastScanPosition) {
+			ensureMapped(needed);
+			long scanEnd = Math.min(lastScanPosition + 1, (windowStart + windowLength) - needed + 1);
+			int found = SyncScanner.findPacketStart(window, getWindowPosition(), (int) (scanEnd - windowStart), packetLength, syncOffset, 2);
+			if (found >= 0) {
+				position = windowStart + found;
+				return;
+			}
+			position = scanEnd;
+		}
+		while (hasPacket() && !isSynced() && hasNextByte()) {
+			position++;
+		}
+	}
+
+	/**
+	 * @return file offset of the current position
+	 */
+	public long getOffset() {
+		return position;
+	}
+
+	public long getFileLength() {
+		return fileLength;
+	}
+
+	/**
+	 * @return the mapped window that contains the packet at the current position. Only valid after {@link #isSynced()} or {@link #moveTo(long)} returned true
+	 */
+	public ByteBuffer getWindow() {
+		return window;
+	}
+
+	/**
+	 * @return index of the packet at the current position into {@link #getWindow()}
+	 */
+	public int getWindowPosition() {
+		return (int) (position - windowStart);
+	}
+
+	private void ensureMapped(int needed) throws IOException {
+		if ((window != null) && (position >= windowStart) && (position + needed <= windowStart + windowLength)) {
+			return;
+		}
+		windowStart = position;
+		windowLength = (int) Math.min(windowSize, fileLength - windowStart);
+		window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+		updateProgress();
+	}
+
+	private void updateProgress() throws InterruptedIOException {
+		if (monitor != null) {
+			monitor.setProgress((int) (windowStart / divider));
+			if (monitor.isCanceled()) {
+				throw new InterruptedIOException("progress");
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+		if (monitor != null) {
+			monitor.close();
+		}
+	}
+
+}
@@ -27,26 +27,34 @@
 
 package nl.digitalekabeltelevisie.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Keeps track of at which position in file packets start. 
  */
 public class OffsetHelper {
 
-	private RangeHashMap<Integer, Long> rangeHashMap = new RangeHashMap<>();
-	private int maxPackets = -1;
+	private RangeHashMap<Long, Long> rangeHashMap = new RangeHashMap<>();
+	private long maxPackets = -1;
 	private int packetLength = 0;
 	
-	RangeHashMap<Integer, Long>.Entry currentEntry = null;
+	RangeHashMap<Long, Long>.Entry currentEntry = null;
+	/**
+	 * last entry found by getOffset, packets are mostly requested in increasing order, so next request is probably in same range
+	 */
+	private RangeHashMap<Long, Long>.Entry lastFoundEntry = null;
 
-	public OffsetHelper(int max_packets, int packetLength) {
+	public OffsetHelper(long max_packets, int packetLength) {
 		this.maxPackets = max_packets;
 		this.packetLength = packetLength;
 	}
 
-	public void addPacket(int packetNo, long offset) {
+	public void addPacket(long packetNo, long offset) {
 		if(currentEntry == null){
-			currentEntry = rangeHashMap.new Entry(0,maxPackets, offset); 
-			rangeHashMap.put(0, currentEntry);
+			currentEntry = rangeHashMap.new Entry(0L,maxPackets, offset); 
+			rangeHashMap.put(0L, currentEntry);
 		}else if(calculateOffset(packetNo, currentEntry) != offset){
 			currentEntry.setUpper(packetNo - 1);
 			currentEntry = rangeHashMap.new Entry(packetNo, maxPackets, offset);
@@ -54,17 +62,60 @@ public class OffsetHelper {
 		}
 	}
 
-	public int getMaxPacket() {
+	public long getMaxPacket() {
 		return maxPackets;
 	}
 
-	public long getOffset(int packetNo) {
-		RangeHashMap<Integer, Long>.Entry entry = rangeHashMap.findEntry(packetNo);
+	/**
+	 * Used when the file has grown, the current range is extended to the new maximum
+	 * @param maxPackets
+	 */
+	public void setMaxPackets(long maxPackets) {
+		this.maxPackets = maxPackets;
+		if(currentEntry != null){
+			currentEntry.setUpper(maxPackets);
+		}
+	}
+
+	/**
+	 * write all ranges, used for the index cache
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeIndex(DataOutput out) throws IOException {
+		out.writeInt(rangeHashMap.entries().size());
+		for(RangeHashMap<Long, Long>.Entry entry : rangeHashMap.entries()) {
+			out.writeLong(entry.getLower());
+			out.writeLong(entry.getUpper());
+			out.writeLong(entry.getValue());
+		}
+	}
+
+	/**
+	 * restore the ranges written by writeIndex, new packets can be added after it
+	 * @param in
+	 * @throws IOException
+	 */
+	public void readIndex(DataInput in) throws IOException {
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			long lower = in.readLong();
+			currentEntry = rangeHashMap.new Entry(lower, in.readLong(), in.readLong());
+			rangeHashMap.put(lower, currentEntry);
+		}
+	}
+
+	public long getOffset(long packetNo) {
+		RangeHashMap<Long, Long>.Entry entry = lastFoundEntry;
+		if((entry == null) || (packetNo < entry.getLower()) || (packetNo > entry.getUpper())) {
+			entry = rangeHashMap.findEntry(packetNo);
+			lastFoundEntry = entry;
+		}
 		return calculateOffset(packetNo, entry); 
 	}
 
-	private long calculateOffset(int packetNo, RangeHashMap<Integer, Long>.Entry entry) {
-		return entry.getValue() + ((long)(packetNo - entry.getLower()) * packetLength);
+	private long calculateOffset(long packetNo, RangeHashMap<Long, Long>.Entry entry) {
+		return entry.getValue() + ((packetNo - entry.getLower()) * packetLength);
 	}
 
 
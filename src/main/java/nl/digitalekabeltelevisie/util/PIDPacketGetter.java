@@ -46,7 +46,7 @@ public class PIDPacketGetter implements LazyListItemGetter {
 	TransportStream transportStream = null;
 	int modus;
 	int pid;
-	int[] packetMapping = null;
+	long[] packetMapping = null;
 	/**
 	 *
 	 */
@@ -61,18 +61,18 @@ public class PIDPacketGetter implements LazyListItemGetter {
 	 * @see nl.digitalekabeltelevisie.util.LazyListItemGetter#getTreeNode(int)
 	 */
 	@Override
-	public MutableTreeNode getTreeNode(int i) {
+	public MutableTreeNode getTreeNode(long i) {
 		if(packetMapping==null){
 			buildPacketMapping();
 		}
 
-		return transportStream.getTSPacket(packetMapping[i]).getJTreeNode(modus);
+		return transportStream.getTSPacket(packetMapping[(int) i]).getJTreeNode(modus);
 	}
 
 	private void buildPacketMapping() {
 		int k = 0;
-		packetMapping = new int [getNoItems()];
-		for (int j = 0; j < transportStream.getNo_packets(); j++) {
+		packetMapping = new long [Math.toIntExact(getNoItems())];
+		for (long j = 0; j < transportStream.getNo_packets(); j++) {
 			int p = transportStream.getPacket_pid(j);
 			if(p==pid){
 				packetMapping[k++]=j;
@@ -84,7 +84,7 @@ public class PIDPacketGetter implements LazyListItemGetter {
 	 * @see nl.digitalekabeltelevisie.util.LazyListItemGetter#getNoItems()
 	 */
 	@Override
-	public int getNoItems() {
+	public long getNoItems() {
 
 		 PID p = transportStream.getPID(pid);
 		 if(p!=null){
@@ -95,16 +95,16 @@ public class PIDPacketGetter implements LazyListItemGetter {
 	}
 	
 	@Override
-	public int getActualNumberForIndex(int i) {
+	public long getActualNumberForIndex(long i) {
 		if(packetMapping==null){
 			buildPacketMapping();
 		}
 		
-		return packetMapping[i];
+		return packetMapping[(int) i];
 	}
 	
 	@Override
-	public int getIndexForActualNumber(int a) {
+	public long getIndexForActualNumber(long a) {
 		return Arrays.binarySearch(packetMapping, a);
 		
 	}
@@ -27,13 +27,16 @@
 
 package nl.digitalekabeltelevisie.util;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.prefs.AbstractPreferences;
 import java.util.prefs.Preferences;
 
 import nl.digitalekabeltelevisie.main.DVBinspector;
 
 public class PreferencesManager {
 
-	final static Preferences prefs = Preferences.userNodeForPackage(DVBinspector.class);
+	static volatile Preferences prefs = Preferences.userNodeForPackage(DVBinspector.class);
 
 	private static final String DEFAULT_G0_CHARACTER_SET = "defaultg0_character_set";
 	private static final String DEFAULT_PRIVATE_DATA_SPECIFIER = "private_data_spcifier";
@@ -58,6 +61,9 @@ public class PreferencesManager {
 	private static final String ENABLE_PCR_PTS = "enable_pcr_pts";
 	private static final String ENABLE_M7_FASTSCAN = "enable_m7_fastscan";
 	private static final String ENABLE_HUMAX_ATS_FIX = "enable_humax_ats_fix";
+	private static final String ENABLE_PARALLEL_PARSE = "enable_parallel_parse";
+	private static final String ENABLE_INDEX_CACHE = "enable_index_cache";
+	private static final String ENABLE_STREAMING_PES = "enable_streaming_pes";
 
 	private static final String SELECT_MPEG_FILE_FILTER = "select_mpeg_file_filter";
 	
@@ -69,6 +75,72 @@ public class PreferencesManager {
 	private PreferencesManager() {
 	}
 
+	/**
+	 * From now on use the default value for every setting instead of the value stored by the GUI, and keep changes in memory only.
+	 * For headless runs, so their result does not depend on what the user last selected in the GUI, and they do not change it.
+	 */
+	public static void useDefaultSettings() {
+		prefs = new MemoryPreferences(null, "");
+	}
+
+	/**
+	 * Preferences that are only kept in memory, see useDefaultSettings
+	 */
+	private static final class MemoryPreferences extends AbstractPreferences {
+
+		private final Map<String, String> values = new HashMap<>();
+		private final Map<String, MemoryPreferences> children = new HashMap<>();
+
+		MemoryPreferences(MemoryPreferences parent, String name) {
+			super(parent, name);
+		}
+
+		@Override
+		protected void putSpi(String key, String value) {
+			values.put(key, value);
+		}
+
+		@Override
+		protected String getSpi(String key) {
+			return values.get(key);
+		}
+
+		@Override
+		protected void removeSpi(String key) {
+			values.remove(key);
+		}
+
+		@Override
+		protected void removeNodeSpi() {
+			values.clear();
+		}
+
+		@Override
+		protected String[] keysSpi() {
+			return values.keySet().toArray(new String[0]);
+		}
+
+		@Override
+		protected String[] childrenNamesSpi() {
+			return children.keySet().toArray(new String[0]);
+		}
+
+		@Override
+		protected AbstractPreferences childSpi(String name) {
+			return children.computeIfAbsent(name, n -> new MemoryPreferences(this, n));
+		}
+
+		@Override
+		protected void syncSpi() {
+			// nothing stored
+		}
+
+		@Override
+		protected void flushSpi() {
+			// nothing stored
+		}
+	}
+
 	public static int getDefaultG0CharacterSet() {
 		return prefs.getInt(DEFAULT_G0_CHARACTER_SET, 0);
 	}
@@ -210,6 +282,42 @@ public class PreferencesManager {
 		return getEnableHumaxAtsFix();
 	}
 
+	public static void setEnableParallelParse(boolean enabled) {
+		prefs.putBoolean(ENABLE_PARALLEL_PARSE, enabled);
+	}
+
+	public static boolean getEnableParallelParse() {
+		return prefs.getBoolean(ENABLE_PARALLEL_PARSE, false);
+	}
+
+	public static boolean isEnableParallelParse() {
+		return getEnableParallelParse();
+	}
+
+	public static void setEnableIndexCache(boolean enabled) {
+		prefs.putBoolean(ENABLE_INDEX_CACHE, enabled);
+	}
+
+	public static boolean getEnableIndexCache() {
+		return prefs.getBoolean(ENABLE_INDEX_CACHE, false);
+	}
+
+	public static boolean isEnableIndexCache() {
+		return getEnableIndexCache();
+	}
+
+	public static void setEnableStreamingPes(boolean enabled) {
+		prefs.putBoolean(ENABLE_STREAMING_PES, enabled);
+	}
+
+	public static boolean getEnableStreamingPes() {
+		return prefs.getBoolean(ENABLE_STREAMING_PES, false);
+	}
+
+	public static boolean isEnableStreamingPes() {
+		return getEnableStreamingPes();
+	}
+
 	
 	public static void setSelectMpegFileFilter(boolean enabled) {
 		prefs.putBoolean(SELECT_MPEG_FILE_FILTER, enabled);
@@ -26,9 +26,12 @@
  */
 package nl.digitalekabeltelevisie.util;
 
-import java.util.TreeMap;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
+ * Ranges are looked up by the views while a followed file is read and new ranges are added, so the table is a concurrent map.
+ *
  * @author Eric Berendsen
  *
  */
@@ -76,7 +79,7 @@ public class RangeHashMap<K extends Comparable<?>,V> {
 		}
 	}
 
-	private final TreeMap<K, Entry> table= new TreeMap<K, Entry>();
+	private final ConcurrentSkipListMap<K, Entry> table= new ConcurrentSkipListMap<K, Entry>();
 
 	public void put(final K start, final K end, final V value){
 		final Entry e = new Entry(start,end,value);
@@ -106,5 +109,12 @@ public class RangeHashMap<K extends Comparable<?>,V> {
 		table.put(start, entry);
 	}
 
+	/**
+	 * @return all entries, ordered by lower bound
+	 */
+	public Collection<Entry> entries() {
+		return table.values();
+	}
+
 
 }
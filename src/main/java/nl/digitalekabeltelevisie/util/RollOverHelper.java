@@ -27,24 +27,28 @@
 
 package nl.digitalekabeltelevisie.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Keeps track of ats roll-over for AVCHD/Blu-ray packets (192 bytes) 
  */
 public class RollOverHelper {
 
-	private RangeHashMap<Integer, Long> rangeHashMap = new RangeHashMap<>();
-	private int maxPackets = -1;
+	private RangeHashMap<Long, Long> rangeHashMap = new RangeHashMap<>();
+	private long maxPackets = -1;
 	
-	RangeHashMap<Integer, Long>.Entry currentEntry = null;
+	RangeHashMap<Long, Long>.Entry currentEntry = null;
 
-	public RollOverHelper(int max_packets) {
+	public RollOverHelper(long max_packets) {
 		this.maxPackets = max_packets;
 	}
 
-	public void addPacket(int packetNo, long rollOver) {
+	public void addPacket(long packetNo, long rollOver) {
 		if(currentEntry == null){
-			currentEntry = rangeHashMap.new Entry(0,maxPackets, rollOver); 
-			rangeHashMap.put(0, currentEntry);
+			currentEntry = rangeHashMap.new Entry(0L,maxPackets, rollOver); 
+			rangeHashMap.put(0L, currentEntry);
 		}else if(currentEntry.getValue() != rollOver){
 			currentEntry.setUpper(packetNo - 1);
 			currentEntry = rangeHashMap.new Entry(packetNo, maxPackets, rollOver);
@@ -52,12 +56,51 @@ public class RollOverHelper {
 		}
 	}
 
-	public int getMaxPacket() {
+	public long getMaxPacket() {
 		return maxPackets;
 	}
 
-	public long getRollOver(int packetNo) {
-		RangeHashMap<Integer, Long>.Entry entry = rangeHashMap.findEntry(packetNo);
+	/**
+	 * Used when the file has grown, the current range is extended to the new maximum
+	 * @param maxPackets
+	 */
+	public void setMaxPackets(long maxPackets) {
+		this.maxPackets = maxPackets;
+		if(currentEntry != null){
+			currentEntry.setUpper(maxPackets);
+		}
+	}
+
+	/**
+	 * write all ranges, used for the index cache
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeIndex(DataOutput out) throws IOException {
+		out.writeInt(rangeHashMap.entries().size());
+		for(RangeHashMap<Long, Long>.Entry entry : rangeHashMap.entries()) {
+			out.writeLong(entry.getLower());
+			out.writeLong(entry.getUpper());
+			out.writeLong(entry.getValue());
+		}
+	}
+
+	/**
+	 * restore the ranges written by writeIndex, new packets can be added after it
+	 * @param in
+	 * @throws IOException
+	 */
+	public void readIndex(DataInput in) throws IOException {
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			long lower = in.readLong();
+			currentEntry = rangeHashMap.new Entry(lower, in.readLong(), in.readLong());
+			rangeHashMap.put(lower, currentEntry);
+		}
+	}
+
+	public long getRollOver(long packetNo) {
+		RangeHashMap<Long, Long>.Entry entry = rangeHashMap.findEntry(packetNo);
 		return entry.getValue(); 
 	}
 
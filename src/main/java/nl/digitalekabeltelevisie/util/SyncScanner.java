@@ -0,0 +1,106 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Finds the start of packets in a buffer, by looking for a number of sync bytes at packetLength distance from each other.
+ * <p>
+ * The buffer is scanned 8 bytes at a time; a long is only looked at byte by byte when it contains a sync byte.
+ * On random data (like a damaged part of a recording) that skips about 97% of the positions without looking at the following packet.
+ *
+ * @author Eric Berendsen
+ *
+ */
+public final class SyncScanner {
+
+	private static final byte SYNC_BYTE = 0x47;
+
+	private static final long SYNC_PATTERN = 0x4747_4747_4747_4747L;
+	private static final long LOW_BITS = 0x0101_0101_0101_0101L;
+	private static final long HIGH_BITS = 0x8080_8080_8080_8080L;
+
+	private SyncScanner() {
+		// static only
+	}
+
+	/**
+	 * Find the first position p in [from, to) where the bytes at p + syncOffset + k * packetLength (for k = 0 .. consecutive - 1) are all sync bytes.
+	 * The caller has to make sure all these bytes are inside buf for every p &lt; to.
+	 *
+	 * @param buf
+	 * @param from first position (start of packet, so before the TP_extra_header for AVCHD) to check
+	 * @param to end (exclusive) of the positions to check
+	 * @param packetLength
+	 * @param syncOffset position of the sync byte inside a packet, 4 for AVCHD
+	 * @param consecutive number of sync bytes that have to be found
+	 * @return the first matching position, or -1 if there is none
+	 */
+	public static int findPacketStart(ByteBuffer buf, int from, int to, int packetLength, int syncOffset, int consecutive) {
+		int i = from + syncOffset;
+		final int end = to + syncOffset;
+		while (i < end) {
+			if ((end - i) >= Long.BYTES) {
+				if (!containsSyncByte(buf.getLong(i))) {
+					i += Long.BYTES;
+					continue;
+				}
+				for (int last = i + Long.BYTES; i < last; i++) {
+					if (isPacketStart(buf, i, packetLength, consecutive)) {
+						return i - syncOffset;
+					}
+				}
+			} else {
+				if (isPacketStart(buf, i, packetLength, consecutive)) {
+					return i - syncOffset;
+				}
+				i++;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param word
+	 * @return true if at least one of the bytes in word is a sync byte. Standard "has zero byte" test on word XOR 0x4747..., never misses one.
+	 */
+	private static boolean containsSyncByte(long word) {
+		long x = word ^ SYNC_PATTERN;
+		return ((x - LOW_BITS) & ~x & HIGH_BITS) != 0;
+	}
+
+	private static boolean isPacketStart(ByteBuffer buf, int syncIndex, int packetLength, int consecutive) {
+		for (int k = 0; k < consecutive; k++) {
+			if (buf.get(syncIndex + (k * packetLength)) != SYNC_BYTE) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
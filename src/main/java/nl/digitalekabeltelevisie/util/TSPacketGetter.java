@@ -55,7 +55,7 @@ public class TSPacketGetter implements LazyListItemGetter {
 	 * @see nl.digitalekabeltelevisie.util.LazyListItemGetter#getTreeNode(int)
 	 */
 	@Override
-	public MutableTreeNode getTreeNode(int i) {
+	public MutableTreeNode getTreeNode(long i) {
 
 		return transportStream.getTSPacket(i).getJTreeNode(modus);
 	}
@@ -64,7 +64,7 @@ public class TSPacketGetter implements LazyListItemGetter {
 	 * @see nl.digitalekabeltelevisie.util.LazyListItemGetter#getNoItems()
 	 */
 	@Override
-	public int getNoItems() {
+	public long getNoItems() {
 
 		return transportStream.getNo_packets();
 	}
@@ -1110,7 +1110,8 @@ public final class Utils {
 				if (tableSource != null) {
 					kvp.addTableSource(tableSource, label);
 				}
-				addToList(kvp, itemCollection, modus);
+				// items are only turned into nodes when the list is expanded
+				kvp.setChildProvider(node -> addToList(node, itemCollection, modus));
 				parent.add(kvp);
 			}
 		}
@@ -0,0 +1,81 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CRCcheckTest {
+
+	/**
+	 * the original byte by byte implementation
+	 */
+	private static long referenceCrc32(final byte[] data, final int offset, final int len) {
+		long crc = 0xffffffffL;
+		for (int i = offset; i < (len + offset); i++) {
+			crc = ((crc << 8) & 0xffffffffL) ^ CRCcheck.crc_table[(((int) (crc >> 24)) ^ Byte.toUnsignedInt(data[i])) & 0xff];
+		}
+		return crc;
+	}
+
+	@Test
+	public void sameAsByteByByte() {
+		final Random random = new Random(188);
+		final byte[] data = new byte[4200];
+		random.nextBytes(data);
+		final ByteBuffer bigEndian = ByteBuffer.wrap(data);
+		final ByteBuffer littleEndian = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+		for (int len = 0; len < 300; len++) {
+			for (int offset = 0; offset < 9; offset++) {
+				final long expected = referenceCrc32(data, offset, len);
+				assertEquals(expected, CRCcheck.crc32(data, offset, len));
+				assertEquals(expected, CRCcheck.crc32(bigEndian, offset, len));
+				assertEquals(expected, CRCcheck.crc32(littleEndian, offset, len));
+			}
+		}
+		assertEquals(referenceCrc32(data, 3, 4096), CRCcheck.crc32(data, 3, 4096));
+	}
+
+	@Test
+	public void validSection() {
+		// PAT with one program, CRC_32 included
+		final byte[] pat = { 0x00, (byte) 0xb0, 0x0d, 0x00, 0x01, (byte) 0xc1, 0x00, 0x00, 0x00, 0x01, (byte) 0xe1, 0x00, 0, 0, 0, 0 };
+		final long crc = referenceCrc32(pat, 0, 12);
+		pat[12] = (byte) (crc >> 24);
+		pat[13] = (byte) (crc >> 16);
+		pat[14] = (byte) (crc >> 8);
+		pat[15] = (byte) crc;
+		assertEquals(0L, CRCcheck.crc32(pat, pat.length));
+		assertEquals(0L, CRCcheck.crc32(ByteBuffer.wrap(pat), 0, pat.length));
+	}
+}
@@ -0,0 +1,111 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class PacketMetadataStoreTest {
+
+	private static final long PACKETS = (3L * PacketMetadataStore.CHUNK_PACKETS) + 17;
+
+	private static short pidFlags(long packetNo) {
+		return (short) (packetNo * 31);
+	}
+
+	private static int arrivalTimeStamp(long packetNo) {
+		return (int) (packetNo * 7);
+	}
+
+	/**
+	 * like Grid reading packets in the background, while a followed file grows over several chunks
+	 */
+	@Test
+	public void readWhileGrowing() throws InterruptedException {
+		final PacketMetadataStore store = new PacketMetadataStore(false);
+		final AtomicLong written = new AtomicLong();
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		final Thread reader = new Thread(() -> {
+			try {
+				final ThreadLocalRandom random = ThreadLocalRandom.current();
+				long count;
+				while ((count = written.get()) < PACKETS) {
+					if (count > 0) {
+						final long packetNo = random.nextLong(count);
+						assertEquals(pidFlags(packetNo), store.getPidFlags(packetNo));
+						assertEquals(pidFlags(count - 1), store.getPidFlags(count - 1));
+					}
+				}
+			} catch (Throwable t) {
+				failure.set(t);
+			}
+		});
+		reader.start();
+		for (long packetNo = 0; packetNo < PACKETS; packetNo++) {
+			store.setPidFlags(packetNo, pidFlags(packetNo));
+			written.lazySet(packetNo + 1);
+		}
+		written.set(PACKETS);
+		reader.join();
+		assertNull(String.valueOf(failure.get()), failure.get());
+	}
+
+	@Test
+	public void writeRead() throws Exception {
+		final PacketMetadataStore store = new PacketMetadataStore(true);
+		final long count = PacketMetadataStore.CHUNK_PACKETS + 3L;
+		for (long packetNo = 0; packetNo < count; packetNo++) {
+			store.setPidFlags(packetNo, pidFlags(packetNo));
+			store.setArrivalTimeStamp(packetNo, arrivalTimeStamp(packetNo));
+		}
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			store.write(out, count);
+		}
+
+		final PacketMetadataStore read = new PacketMetadataStore(true);
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			read.read(in, count);
+		}
+		for (long packetNo = 0; packetNo < count; packetNo += 997) {
+			assertEquals(pidFlags(packetNo), read.getPidFlags(packetNo));
+			assertEquals(arrivalTimeStamp(packetNo), read.getArrivalTimeStamp(packetNo));
+		}
+		assertEquals(pidFlags(count - 1), read.getPidFlags(count - 1));
+	}
+}
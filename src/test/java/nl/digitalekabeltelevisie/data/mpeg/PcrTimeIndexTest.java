@@ -0,0 +1,78 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class PcrTimeIndexTest {
+
+	private static final long PCR_MODULO = (1L << 33) * 300;
+	private static final long FRAME = 27_000_000L / 25;
+
+	@Test
+	public void interpolatesVariableRate() {
+		PcrTimeIndex index = new PcrTimeIndex();
+		index.add(100, 5_000_000L, false);
+		index.add(200, 5_000_000L + FRAME, false); // 100 packets in 40 ms
+		index.add(220, 5_000_000L + (2 * FRAME), false); // 20 packets in 40 ms
+
+		assertEquals(0, index.getTime(100));
+		assertEquals(FRAME / 2, index.getTime(150));
+		assertEquals(FRAME + (FRAME / 2), index.getTime(210));
+		assertEquals(-FRAME / 2, index.getTime(50)); // extrapolated before first PCR
+		assertEquals(3 * FRAME, index.getTime(240)); // extrapolated after last PCR
+		assertEquals(5_000_000L + FRAME + (FRAME / 2), index.getPcr(210));
+		assertEquals(210, index.getPacketNo(FRAME + (FRAME / 2)));
+		assertEquals(150, index.getPacketNo(FRAME / 2));
+	}
+
+	@Test
+	public void handlesWrapAroundAndDiscontinuity() {
+		PcrTimeIndex index = new PcrTimeIndex();
+		long pcr = PCR_MODULO - FRAME;
+		index.add(0, pcr, false);
+		index.add(100, (pcr + FRAME) % PCR_MODULO, false);
+		index.add(200, (pcr + (2 * FRAME)) % PCR_MODULO, false);
+		assertEquals(2 * FRAME, index.getTime(200));
+		assertEquals(FRAME + (FRAME / 2), index.getPcr(250)); // after wrap around
+
+		// new timeline, time continues at the rate before the discontinuity
+		index.add(300, 1_000L, true);
+		index.add(400, 1_000L + FRAME, false);
+		assertEquals(3 * FRAME, index.getTime(300));
+		assertEquals(4 * FRAME, index.getTime(400));
+		assertEquals(1_000L + (FRAME / 2), index.getPcr(350));
+		assertEquals(350, index.getPacketNo(3 * FRAME + (FRAME / 2)));
+
+		// PCR going backwards without discontinuity_indicator is treated as a discontinuity too
+		index.add(500, 10L, false);
+		assertEquals(5 * FRAME, index.getTime(500));
+	}
+}
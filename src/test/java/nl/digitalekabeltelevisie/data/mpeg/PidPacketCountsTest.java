@@ -0,0 +1,122 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import static nl.digitalekabeltelevisie.data.mpeg.MPEGConstants.MAX_PIDS;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PidPacketCountsTest {
+
+	private static final int BLOCK_SIZE = 1024;
+	private static final int[] PIDS = { 0, 0x11, 0x100, 0x101, 0x1FFF };
+
+	private static int[] createPids(int noPackets, long seed) {
+		final Random random = new Random(seed);
+		final int[] pids = new int[noPackets];
+		for (int i = 0; i < noPackets; i++) {
+			pids[i] = PIDS[random.nextInt(PIDS.length)];
+		}
+		// a PID that only starts in a later block
+		for (int i = 3 * BLOCK_SIZE + 7; i < noPackets; i += 101) {
+			pids[i] = 0x200;
+		}
+		return pids;
+	}
+
+	private static void assertCounts(PidPacketCounts counts, int[] pids, int from, int to) {
+		final int[] expected = new int[MAX_PIDS];
+		for (int i = from; i < to; i++) {
+			expected[pids[i]]++;
+		}
+		final int[] actual = new int[MAX_PIDS];
+		counts.addCounts(from, to, actual);
+		assertArrayEquals("range " + from + ".." + to, expected, actual);
+	}
+
+	@Test
+	public void blockBoundaries() {
+		final int noPackets = 5 * BLOCK_SIZE + 300;
+		final int[] pids = createPids(noPackets, 1);
+		final PidPacketCounts counts = new PidPacketCounts(p -> pids[(int) p]);
+		counts.update(noPackets);
+
+		final int[] edges = { 0, 1, BLOCK_SIZE - 1, BLOCK_SIZE, BLOCK_SIZE + 1, 2 * BLOCK_SIZE, 3 * BLOCK_SIZE + 7, 5 * BLOCK_SIZE - 1, 5 * BLOCK_SIZE, 5 * BLOCK_SIZE + 1, noPackets };
+		for (final int from : edges) {
+			for (final int to : edges) {
+				if (from <= to) {
+					assertCounts(counts, pids, from, to);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void emptyRange() {
+		final int[] pids = createPids(4 * BLOCK_SIZE, 2);
+		final PidPacketCounts counts = new PidPacketCounts(p -> pids[(int) p]);
+		counts.update(pids.length);
+		for (final int at : new int[] { 0, BLOCK_SIZE, 2 * BLOCK_SIZE + 5, pids.length }) {
+			final int[] actual = new int[MAX_PIDS];
+			counts.addCounts(at, at, actual);
+			assertArrayEquals(new int[MAX_PIDS], actual);
+		}
+	}
+
+	@Test
+	public void randomRanges() {
+		final int[] pids = createPids(20 * BLOCK_SIZE + 17, 3);
+		final PidPacketCounts counts = new PidPacketCounts(p -> pids[(int) p]);
+		counts.update(pids.length);
+		final Random random = new Random(4);
+		for (int i = 0; i < 500; i++) {
+			final int a = random.nextInt(pids.length + 1);
+			final int b = random.nextInt(pids.length + 1);
+			assertCounts(counts, pids, Math.min(a, b), Math.max(a, b));
+		}
+	}
+
+	@Test
+	public void growingStream() {
+		final int[] pids = createPids(10 * BLOCK_SIZE, 5);
+		final PidPacketCounts counts = new PidPacketCounts(p -> pids[(int) p]);
+		final Random random = new Random(6);
+		for (int noPackets = 0; noPackets <= pids.length; noPackets += 700) {
+			counts.update(noPackets);
+			for (int i = 0; i < 20; i++) {
+				final int a = random.nextInt(noPackets + 1);
+				final int b = random.nextInt(noPackets + 1);
+				assertCounts(counts, pids, Math.min(a, b), Math.max(a, b));
+			}
+			assertCounts(counts, pids, 0, noPackets);
+		}
+	}
+}
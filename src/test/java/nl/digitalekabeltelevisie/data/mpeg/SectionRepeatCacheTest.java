@@ -0,0 +1,99 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import nl.digitalekabeltelevisie.data.mpeg.psi.TableSection;
+
+public class SectionRepeatCacheTest {
+
+	private static final int EIT_OTHER_PF = 0x4F;
+	private static final int SDT_OTHER = 0x46;
+
+	@Test
+	public void eitOfOtherStreamsDoNotReplaceEachOther() {
+		final SectionRepeatCache cache = new SectionRepeatCache();
+		// same service_id and section_number, different transport_stream_id
+		final TableSection first = store(cache, SyntheticStream.longSection(EIT_OTHER_PF, 0x1001, 3, 0, 1, eitBody(0x0010, 0x22d4)));
+		final TableSection second = store(cache, SyntheticStream.longSection(EIT_OTHER_PF, 0x1001, 3, 0, 1, eitBody(0x0011, 0x22d4)));
+
+		assertSame(first, cache.findRepeat(section(SyntheticStream.longSection(EIT_OTHER_PF, 0x1001, 3, 0, 1, eitBody(0x0010, 0x22d4)))));
+		assertSame(second, cache.findRepeat(section(SyntheticStream.longSection(EIT_OTHER_PF, 0x1001, 3, 0, 1, eitBody(0x0011, 0x22d4)))));
+		assertNull(cache.findRepeat(section(SyntheticStream.longSection(EIT_OTHER_PF, 0x1001, 3, 0, 1, eitBody(0x0010, 0x22d5)))));
+	}
+
+	@Test
+	public void sdtOfOtherNetworksDoNotReplaceEachOther() {
+		final SectionRepeatCache cache = new SectionRepeatCache();
+		// same transport_stream_id, different original_network_id
+		final TableSection first = store(cache, SyntheticStream.longSection(SDT_OTHER, 0x0010, 0, 0, 0, sdtBody(0x22d4)));
+		final TableSection second = store(cache, SyntheticStream.longSection(SDT_OTHER, 0x0010, 0, 0, 0, sdtBody(0x22d5)));
+
+		assertSame(first, cache.findRepeat(section(SyntheticStream.longSection(SDT_OTHER, 0x0010, 0, 0, 0, sdtBody(0x22d4)))));
+		assertSame(second, cache.findRepeat(section(SyntheticStream.longSection(SDT_OTHER, 0x0010, 0, 0, 0, sdtBody(0x22d5)))));
+	}
+
+	@Test
+	public void changedSectionIsNoRepeat() {
+		final SectionRepeatCache cache = new SectionRepeatCache();
+		final TableSection stored = store(cache, SyntheticStream.longSection(SDT_OTHER, 0x0010, 0, 0, 0, sdtBody(0x22d4)));
+
+		assertSame(stored, cache.findRepeat(section(SyntheticStream.longSection(SDT_OTHER, 0x0010, 0, 0, 0, sdtBody(0x22d4)))));
+		assertNull(cache.findRepeat(section(SyntheticStream.longSection(SDT_OTHER, 0x0010, 1, 0, 0, sdtBody(0x22d4)))));
+	}
+
+	private static TableSection store(SectionRepeatCache cache, byte[] bytes) {
+		final PsiSectionData section = section(bytes);
+		assertNull(cache.findRepeat(section));
+		final TableSection tableSection = new TableSection(section, null);
+		cache.put(section, tableSection);
+		return tableSection;
+	}
+
+	private static PsiSectionData section(byte[] bytes) {
+		return new PsiSectionData(bytes);
+	}
+
+	/**
+	 * transport_stream_id, original_network_id, segment_last_section_number, last_table_id, no events
+	 */
+	private static byte[] eitBody(int transportStreamId, int originalNetworkId) {
+		return new byte[] { (byte) (transportStreamId >> 8), (byte) transportStreamId, (byte) (originalNetworkId >> 8), (byte) originalNetworkId,
+				1, (byte) EIT_OTHER_PF };
+	}
+
+	/**
+	 * original_network_id, reserved_future_use, no services
+	 */
+	private static byte[] sdtBody(int originalNetworkId) {
+		return new byte[] { (byte) (originalNetworkId >> 8), (byte) originalNetworkId, (byte) 0xFF };
+	}
+}
@@ -0,0 +1,160 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import static nl.digitalekabeltelevisie.data.mpeg.SyntheticStream.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+import javax.swing.tree.TreeNode;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import nl.digitalekabeltelevisie.gui.DVBtree;
+import nl.digitalekabeltelevisie.util.PreferencesManager;
+
+public class StreamIndexTest {
+
+	private static final long FRAME = 27_000_000L / 25;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private boolean enableIndexCache;
+
+	@Before
+	public void enableIndexCache() {
+		enableIndexCache = PreferencesManager.isEnableIndexCache();
+		PreferencesManager.setEnableIndexCache(true);
+	}
+
+	@After
+	public void restoreIndexCache() {
+		PreferencesManager.setEnableIndexCache(enableIndexCache);
+	}
+
+	/**
+	 * mega-frame initialization packet (TS 101 191) without individual addressing
+	 */
+	private static byte[] mip(int synchronizationTimeStamp) {
+		final byte[] mip = new byte[21];
+		mip[1] = 19; // section_length
+		mip[6] = (byte) (synchronizationTimeStamp >> 16);
+		mip[7] = (byte) (synchronizationTimeStamp >> 8);
+		mip[8] = (byte) synchronizationTimeStamp;
+		final long crc = CRCcheck.crc32(mip, mip.length - 4);
+		for (int i = 0; i < 4; i++) {
+			mip[17 + i] = (byte) (crc >>> (8 * (3 - i)));
+		}
+		return mip;
+	}
+
+	/**
+	 * PSI that is mostly repeated, with a new version of the PMT of program 2 half way, and mega-frame initialization packets
+	 */
+	private File createStream() throws Exception {
+		final SyntheticStream stream = new SyntheticStream();
+		for (int i = 0; i < 200; i++) {
+			if ((i % 10) == 0) {
+				stream.section(0x0, pat(1, 1, 0x100, 2, 0x200));
+				stream.section(0x100, pmt(1, 0x101, 0x02, 0x101, 0x03, 0x102));
+				final byte[] pmt2 = pmt(2, 0x201, 0x02, 0x201);
+				if (i >= 100) {
+					final byte[] body = new byte[pmt2.length - 12];
+					System.arraycopy(pmt2, 8, body, 0, body.length);
+					stream.section(0x200, longSection(0x02, 2, 1, 0, 0, body));
+				} else {
+					stream.section(0x200, pmt2);
+				}
+				stream.section(0x14, shortSection(0x70, new byte[] { (byte) 0xE5, 0x3B, 0x12, 0x00, (byte) (i / 10) }));
+			}
+			// the same packet is repeated every 4 packets
+			stream.packet(0x15, mip(i % 4));
+			stream.pcr(0x101, i * FRAME, false);
+			stream.pcr(0x201, i * FRAME, false);
+		}
+		return stream.write(folder.newFile("psi.ts"));
+	}
+
+	private static void dump(TreeNode node, String indent, StringBuilder out) {
+		out.append(indent).append(node).append('\n');
+		for (int i = 0; i < node.getChildCount(); i++) {
+			dump(node.getChildAt(i), indent + " ", out);
+		}
+	}
+
+	private static String psiTree(TransportStream transportStream) {
+		final StringBuilder out = new StringBuilder();
+		dump(transportStream.getPsi().getJTreeNode(DVBtree.PSI_ONLY_MODUS), "", out);
+		for (final PID pid : transportStream.getPids()) {
+			if (pid != null) {
+				out.append(pid.getPid()).append(' ').append(pid.getPackets()).append('\n');
+				dump(pid.getPsi().getJTreeNode(DVBtree.PSI_ONLY_MODUS), "", out);
+			}
+		}
+		return out.toString();
+	}
+
+	@Test
+	public void psiFromIndexEqualsParsed() throws Exception {
+		final File file = createStream();
+		final File indexFile = StreamIndex.getIndexFile(file);
+
+		final TransportStream parsed = new TransportStream(file);
+		parsed.parseStream(null);
+		assertTrue("index written", indexFile.isFile());
+		// index is not rewritten when it is loaded
+		assertTrue(indexFile.setLastModified(1_000_000_000_000L));
+
+		final TransportStream loaded = new TransportStream(file);
+		loaded.parseStream(null);
+		assertEquals("index loaded", 1_000_000_000_000L, indexFile.lastModified());
+
+		assertEquals(parsed.getNo_packets(), loaded.getNo_packets());
+		assertEquals(200, loaded.getPsi().getNetworkSync().getJTreeNode(0).getChildCount());
+		final String parsedTree = psiTree(parsed);
+		assertTrue(parsedTree, parsedTree.contains("version: 1\n"));
+		assertEquals(parsedTree, psiTree(loaded));
+	}
+
+	@Test
+	public void repeatedSectionsStoredOnce() {
+		final StreamIndex.PsiRecorder recorder = new StreamIndex.PsiRecorder();
+		for (int i = 0; i < 100; i++) {
+			recorder.addMegaFrameInitializationPacket(0x15, i, mip(i % 4));
+			recorder.addMegaFrameInitializationPacket(0x16, i, mip(0));
+		}
+		assertEquals(200, recorder.getNoOccurrences());
+		assertEquals(5, recorder.getNoPayloads());
+	}
+}
@@ -0,0 +1,252 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Builds small transport streams for tests, with PSI sections, PCRs and PES packets.
+ */
+public final class SyntheticStream {
+
+	private static final int PACKET_LENGTH = 188;
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private final int[] continuityCounters = new int[MPEGConstants.MAX_PIDS];
+
+	/**
+	 * @return number of packets written so far
+	 */
+	public int getNoPackets() {
+		return out.size() / PACKET_LENGTH;
+	}
+
+	/**
+	 * section (including CRC) in packets of pid, with a pointer_field in the first one
+	 */
+	public SyntheticStream section(int pid, byte[] section) {
+		final byte[] data = new byte[section.length + 1];
+		System.arraycopy(section, 0, data, 1, section.length);
+		payload(pid, data, null, false, (byte) 0xFF);
+		return this;
+	}
+
+	/**
+	 * packet with only an adaptation field with a PCR
+	 * @param pcr 27 MHz value (base * 300 + extension)
+	 */
+	public SyntheticStream pcr(int pid, long pcr, boolean discontinuity) {
+		final byte[] packet = header(pid, false, 0x20);
+		packet[4] = (byte) 183;
+		packet[5] = (byte) (0x10 | (discontinuity ? 0x80 : 0));
+		writePcr(packet, 6, pcr);
+		Arrays.fill(packet, 12, PACKET_LENGTH, (byte) 0xFF);
+		out.writeBytes(packet);
+		return this;
+	}
+
+	/**
+	 * PES packet in packets of pid, the first one with a PCR
+	 */
+	public SyntheticStream pes(int pid, byte[] pesPacket, long pcr) {
+		payload(pid, pesPacket, pcr, true, (byte) 0xFF);
+		return this;
+	}
+
+	/**
+	 * one packet with payload, without pointer_field, stuffed with 0xFF
+	 */
+	public SyntheticStream packet(int pid, byte[] payload) {
+		payload(pid, payload, null, false, (byte) 0xFF);
+		return this;
+	}
+
+	public byte[] toByteArray() {
+		return out.toByteArray();
+	}
+
+	public File write(File file) throws IOException {
+		try (FileOutputStream fileOut = new FileOutputStream(file)) {
+			out.writeTo(fileOut);
+		}
+		return file;
+	}
+
+	private void payload(int pid, byte[] data, Long pcr, boolean stuffWithAdaptationField, byte stuffing) {
+		int pos = 0;
+		boolean first = true;
+		while (first || (pos < data.length)) {
+			final boolean withPcr = first && (pcr != null);
+			int adaptationLength = withPcr ? 8 : 0; // including adaptation_field_length byte
+			int space = PACKET_LENGTH - 4 - adaptationLength;
+			int chunk = Math.min(space, data.length - pos);
+			if ((chunk < space) && stuffWithAdaptationField) {
+				adaptationLength += space - chunk;
+				space = chunk;
+			}
+			final byte[] packet = header(pid, first, adaptationLength > 0 ? 0x30 : 0x10);
+			int offset = 4;
+			if (adaptationLength > 0) {
+				packet[4] = (byte) (adaptationLength - 1);
+				if (adaptationLength > 1) {
+					packet[5] = (byte) (withPcr ? 0x10 : 0);
+					int stuffStart = 6;
+					if (withPcr) {
+						writePcr(packet, 6, pcr);
+						stuffStart = 12;
+					}
+					Arrays.fill(packet, stuffStart, 4 + adaptationLength, (byte) 0xFF);
+				}
+				offset += adaptationLength;
+			}
+			System.arraycopy(data, pos, packet, offset, chunk);
+			Arrays.fill(packet, offset + chunk, PACKET_LENGTH, stuffing);
+			pos += chunk;
+			first = false;
+			out.writeBytes(packet);
+		}
+	}
+
+	private byte[] header(int pid, boolean payloadUnitStart, int adaptationFieldControl) {
+		final byte[] packet = new byte[PACKET_LENGTH];
+		packet[0] = 0x47;
+		packet[1] = (byte) ((payloadUnitStart ? 0x40 : 0) | (pid >> 8));
+		packet[2] = (byte) pid;
+		packet[3] = (byte) (adaptationFieldControl | continuityCounters[pid]);
+		if ((adaptationFieldControl & 0x10) != 0) {
+			continuityCounters[pid] = (continuityCounters[pid] + 1) & 0x0F;
+		}
+		return packet;
+	}
+
+	private static void writePcr(byte[] packet, int offset, long pcr) {
+		final long base = pcr / 300;
+		final long extension = pcr % 300;
+		final long bits = (base << 15) | (0x3FL << 9) | extension;
+		for (int i = 0; i < 6; i++) {
+			packet[offset + i] = (byte) (bits >>> (8 * (5 - i)));
+		}
+	}
+
+	/**
+	 * long section (section_syntax_indicator 1), with CRC
+	 */
+	public static byte[] longSection(int tableId, int tableIdExtension, int version, int sectionNumber, int lastSectionNumber, byte[] body) {
+		final int sectionLength = 5 + body.length + 4;
+		final byte[] section = new byte[3 + sectionLength];
+		section[0] = (byte) tableId;
+		section[1] = (byte) (0xB0 | (sectionLength >> 8));
+		section[2] = (byte) sectionLength;
+		section[3] = (byte) (tableIdExtension >> 8);
+		section[4] = (byte) tableIdExtension;
+		section[5] = (byte) (0xC1 | (version << 1));
+		section[6] = (byte) sectionNumber;
+		section[7] = (byte) lastSectionNumber;
+		System.arraycopy(body, 0, section, 8, body.length);
+		final long crc = CRCcheck.crc32(section, section.length - 4);
+		for (int i = 0; i < 4; i++) {
+			section[section.length - 4 + i] = (byte) (crc >>> (8 * (3 - i)));
+		}
+		return section;
+	}
+
+	/**
+	 * short section (section_syntax_indicator 0), like the TDT
+	 */
+	public static byte[] shortSection(int tableId, byte[] body) {
+		final byte[] section = new byte[3 + body.length];
+		section[0] = (byte) tableId;
+		section[1] = (byte) (0x70 | (body.length >> 8));
+		section[2] = (byte) body.length;
+		System.arraycopy(body, 0, section, 3, body.length);
+		return section;
+	}
+
+	/**
+	 * @param programAndPids pairs of program_number and PMT PID
+	 */
+	public static byte[] pat(int transportStreamId, int... programAndPids) {
+		final byte[] body = new byte[programAndPids.length * 2];
+		for (int i = 0; i < programAndPids.length; i += 2) {
+			body[2 * i] = (byte) (programAndPids[i] >> 8);
+			body[(2 * i) + 1] = (byte) programAndPids[i];
+			body[(2 * i) + 2] = (byte) (0xE0 | (programAndPids[i + 1] >> 8));
+			body[(2 * i) + 3] = (byte) programAndPids[i + 1];
+		}
+		return longSection(0x00, transportStreamId, 0, 0, 0, body);
+	}
+
+	/**
+	 * @param typeAndPids pairs of stream_type and elementary_PID, no descriptors
+	 */
+	public static byte[] pmt(int program, int pcrPid, int... typeAndPids) {
+		final byte[] body = new byte[4 + ((typeAndPids.length / 2) * 5)];
+		body[0] = (byte) (0xE0 | (pcrPid >> 8));
+		body[1] = (byte) pcrPid;
+		body[2] = (byte) 0xF0;
+		body[3] = 0;
+		int pos = 4;
+		for (int i = 0; i < typeAndPids.length; i += 2) {
+			body[pos++] = (byte) typeAndPids[i];
+			body[pos++] = (byte) (0xE0 | (typeAndPids[i + 1] >> 8));
+			body[pos++] = (byte) typeAndPids[i + 1];
+			body[pos++] = (byte) 0xF0;
+			body[pos++] = 0;
+		}
+		return longSection(0x02, program, 0, 0, 0, body);
+	}
+
+	/**
+	 * PES packet with a PTS, PES_packet_length 0 for video stream ids
+	 */
+	public static byte[] pesPacket(int streamId, long pts, byte[] payload) {
+		final int headerDataLength = 5;
+		final int length = 3 + headerDataLength + payload.length;
+		final byte[] pes = new byte[6 + length];
+		pes[2] = 1;
+		pes[3] = (byte) streamId;
+		if ((streamId & 0xF0) != 0xE0) {
+			pes[4] = (byte) (length >> 8);
+			pes[5] = (byte) length;
+		}
+		pes[6] = (byte) 0x80;
+		pes[7] = (byte) 0x80;
+		pes[8] = headerDataLength;
+		pes[9] = (byte) (0x21 | ((pts >> 29) & 0x0E));
+		pes[10] = (byte) (pts >> 22);
+		pes[11] = (byte) (((pts >> 14) & 0xFE) | 1);
+		pes[12] = (byte) (pts >> 7);
+		pes[13] = (byte) (((pts << 1) & 0xFE) | 1);
+		System.arraycopy(payload, 0, pes, 14, payload.length);
+		return pes;
+	}
+}
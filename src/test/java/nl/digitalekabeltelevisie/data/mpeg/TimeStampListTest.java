@@ -0,0 +1,110 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TimeStampListTest {
+
+	private static void assertSeries(long[] xs, long[] times, TimeStampSeries series) {
+		assertEquals(xs.length, series.size());
+		for (int i = 0; i < xs.length; i++) {
+			assertEquals(xs[i], series.getX(i));
+			assertEquals(times[i], series.getTime(i));
+		}
+	}
+
+	@Test
+	public void widenedForLargeX() {
+		final TimeStampList list = new TimeStampList();
+		final long[] xs = new long[40];
+		final long[] times = new long[40];
+		for (int i = 0; i < 20; i++) {
+			xs[i] = i * 1000L;
+			times[i] = 1L << 40 | i;
+			list.add(xs[i], times[i]);
+		}
+		final TimeStampSeries before = list.view();
+		// arrival times of AVCHD do not fit in an int
+		for (int i = 20; i < 40; i++) {
+			xs[i] = 3_000_000_000L + i;
+			times[i] = i;
+			list.add(xs[i], times[i]);
+		}
+		assertSeries(xs, times, list.view());
+		assertSeries(Arrays.copyOf(xs, 20), Arrays.copyOf(times, 20), before);
+	}
+
+	@Test
+	public void viewWhileAdding() throws Exception {
+		final TimeStampList list = new TimeStampList();
+		final int count = 2_000_000;
+		final Thread writer = new Thread(() -> {
+			for (int i = 0; i < count; i++) {
+				list.add(i, 2L * i);
+			}
+		});
+		writer.start();
+		int lastSize = 0;
+		while (lastSize < count) {
+			final TimeStampSeries series = list.view();
+			assertTrue(series.size() >= lastSize);
+			for (int i = lastSize; i < series.size(); i++) {
+				assertEquals(i, series.getX(i));
+				assertEquals(2L * i, series.getTime(i));
+			}
+			lastSize = series.size();
+		}
+		writer.join();
+	}
+
+	@Test
+	public void writeRead() throws Exception {
+		final TimeStampList list = new TimeStampList();
+		list.add(1, 2);
+		list.add(Integer.MAX_VALUE + 1L, 3);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			list.write(out);
+		}
+		final TimeStampList read = new TimeStampList();
+		read.add(5, 6);
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			read.read(in);
+		}
+		assertSeries(new long[] { 1, Integer.MAX_VALUE + 1L }, new long[] { 2, 3 }, read.view());
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg;
+
+import static nl.digitalekabeltelevisie.data.mpeg.SyntheticStream.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Files with more than Integer.MAX_VALUE packets can be opened, packet numbers are long.
+ * Uses sparse files, so nothing is actually written.
+ */
+public class TransportStreamLargeFileTest {
+
+	private static final long LARGE = (Integer.MAX_VALUE + 100L) * 188;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static void setLength(File file, long length) {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(length);
+		} catch (IOException e) {
+			Assume.assumeNoException("file system does not support sparse files", e);
+		}
+	}
+
+	private File createStream() throws Exception {
+		final SyntheticStream stream = new SyntheticStream();
+		for (int i = 0; i < 10; i++) {
+			stream.section(0x0, pat(1, 1, 0x100));
+			stream.section(0x100, pmt(1, 0x101, 0x02, 0x101));
+		}
+		return stream.write(folder.newFile("grow.ts"));
+	}
+
+	@Test
+	public void openLargeFile() throws Exception {
+		final File file = createStream();
+		setLength(file, LARGE);
+		final TransportStream transportStream = new TransportStream(file);
+		assertEquals(188, transportStream.getPacketLenghth());
+		assertEquals(0, transportStream.getNo_packets());
+	}
+}
@@ -0,0 +1,238 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg.pes.video;
+
+import static nl.digitalekabeltelevisie.data.mpeg.SyntheticStream.*;
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import nl.digitalekabeltelevisie.data.mpeg.SyntheticStream;
+import nl.digitalekabeltelevisie.data.mpeg.TransportStream;
+import nl.digitalekabeltelevisie.data.mpeg.pes.video.Video138182Handler.Thumbnail;
+
+/**
+ * Thumbnails and filmstrip of a generated intra only MPEG-2 stream. Every frame has one grey level, which increases with the frame number.
+ */
+public class FilmstripTest {
+
+	private static final int VIDEO_PID = 0x101;
+	private static final long FIRST_PTS = 90_000L;
+	private static final long FRAME_PTS = 3_600L;
+	private static final int WIDTH = 32;
+	private static final int HEIGHT = 32;
+
+	/**
+	 * dct_dc_size_luminance (Table B.12) for size 0..8
+	 */
+	private static final String[] DC_SIZE_LUMINANCE = { "100", "00", "01", "101", "110", "1110", "11110", "111110", "1111110" };
+	private static final String DC_SIZE_CHROMINANCE_0 = "00";
+	private static final String END_OF_BLOCK = "10";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final class BitWriter {
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		private int current;
+		private int bits;
+
+		BitWriter put(long value, int n) {
+			for (int i = n - 1; i >= 0; i--) {
+				bit((int) (value >> i) & 1);
+			}
+			return this;
+		}
+
+		BitWriter put(String code) {
+			for (int i = 0; i < code.length(); i++) {
+				bit(code.charAt(i) - '0');
+			}
+			return this;
+		}
+
+		private void bit(int b) {
+			current = (current << 1) | b;
+			if (++bits == 8) {
+				out.write(current);
+				current = 0;
+				bits = 0;
+			}
+		}
+
+		/**
+		 * start codes are byte aligned
+		 */
+		BitWriter align() {
+			while (bits != 0) {
+				bit(0);
+			}
+			return this;
+		}
+
+		byte[] toByteArray() {
+			align();
+			return out.toByteArray();
+		}
+	}
+
+	/**
+	 * @param dcDifference luminance of the frame is 128 + dcDifference
+	 * @return I-frame with sequence header, only DC coefficients
+	 */
+	private static byte[] frame(int dcDifference) {
+		final BitWriter b = new BitWriter();
+		// sequence_header
+		b.put(0x1B3, 32).put(WIDTH, 12).put(HEIGHT, 12).put(2, 4).put(3, 4).put(0x3FFFF, 18).put(1, 1).put(100, 10).put(0, 3).align();
+		// sequence_extension, main profile @ main level, progressive 4:2:0
+		b.put(0x1B5, 32).put(1, 4).put(0x48, 8).put(1, 1).put(1, 2).put(0, 4).put(0, 12).put(1, 1).put(0, 8).put(0, 1).put(0, 7).align();
+		// picture_header, I-frame
+		b.put(0x100, 32).put(0, 10).put(1, 3).put(0xFFFF, 16).put(0, 1).align();
+		// picture_coding_extension, intra_dc_precision 8 bits, frame picture, frame_pred_frame_dct
+		b.put(0x1B5, 32).put(8, 4).put(0xFFFF, 16).put(0, 2).put(3, 2).put(0, 1).put(1, 1).put(0, 6).put(1, 1).put(1, 1).put(0, 1).align();
+
+		final int size = 32 - Integer.numberOfLeadingZeros(Math.abs(dcDifference));
+		final int bits = dcDifference >= 0 ? dcDifference : (dcDifference + (1 << size)) - 1;
+		for (int row = 0; row < (HEIGHT / 16); row++) {
+			b.put(0x101 + row, 32).put(8, 5).put(0, 1);
+			for (int mb = 0; mb < (WIDTH / 16); mb++) {
+				// macroblock_address_increment 1, macroblock_type intra
+				b.put("1").put("1");
+				for (int block = 0; block < 6; block++) {
+					if ((mb == 0) && (block == 0)) { // dc predictor is reset at the start of each slice
+						b.put(DC_SIZE_LUMINANCE[size]).put(bits, size);
+					} else {
+						b.put(block < 4 ? DC_SIZE_LUMINANCE[0] : DC_SIZE_CHROMINANCE_0);
+					}
+					b.put(END_OF_BLOCK);
+				}
+			}
+			b.align();
+		}
+		b.put(0x1B7, 32);
+		return b.toByteArray();
+	}
+
+	private static int dcDifference(int frame, int frames) {
+		return -100 + ((200 * frame) / frames);
+	}
+
+	private Video138182Handler createHandler(int frames) throws Exception {
+		final SyntheticStream stream = new SyntheticStream();
+		stream.section(0x0, pat(1, 1, 0x100));
+		stream.section(0x100, pmt(1, VIDEO_PID, 0x02, VIDEO_PID));
+		for (int i = 0; i < frames; i++) {
+			stream.pes(VIDEO_PID, pesPacket(0xE0, FIRST_PTS + (i * FRAME_PTS), frame(dcDifference(i, frames))), i * 300L * FRAME_PTS);
+		}
+		// unbounded video PES packets end at the start of the next one
+		stream.pes(VIDEO_PID, pesPacket(0xE0, FIRST_PTS + (frames * FRAME_PTS), new byte[] { 0, 0, 1, (byte) 0xB7 }), frames * 300L * FRAME_PTS);
+
+		final TransportStream transportStream = new TransportStream(stream.write(folder.newFile("mpv.ts")));
+		transportStream.parseStream(null);
+		final Video138182Handler handler = (Video138182Handler) transportStream.getPID(VIDEO_PID).getPidHandler();
+		transportStream.parsePidStreams(Map.of(VIDEO_PID, handler));
+		return handler;
+	}
+
+	private static int grey(BufferedImage image) {
+		return image.getRGB(image.getWidth() / 2, image.getHeight() / 2) & 0xFF;
+	}
+
+	@Test
+	public void thumbnailsOfAllIFrames() throws Exception {
+		final Video138182Handler handler = createHandler(10);
+		final List<Thumbnail> thumbnails = handler.getThumbnails(90, 160, Video138182Handler.MAX_THUMBNAILS);
+		assertEquals(10, thumbnails.size());
+		int previousGrey = -1;
+		for (int i = 0; i < thumbnails.size(); i++) {
+			final Thumbnail thumbnail = thumbnails.get(i);
+			assertEquals(FIRST_PTS + (i * FRAME_PTS), thumbnail.pts());
+			assertEquals(160, thumbnail.image().getWidth());
+			assertEquals(90, thumbnail.image().getHeight());
+			final int grey = grey(thumbnail.image());
+			assertTrue("frame " + i + " brighter than previous", grey > previousGrey);
+			previousGrey = grey;
+		}
+	}
+
+	@Test
+	public void thumbnailsSpread() throws Exception {
+		final List<Thumbnail> thumbnails = createHandler(10).getThumbnails(90, 160, 4);
+		assertEquals(List.of(FIRST_PTS, FIRST_PTS + (3 * FRAME_PTS), FIRST_PTS + (6 * FRAME_PTS), FIRST_PTS + (9 * FRAME_PTS)),
+				thumbnails.stream().map(Thumbnail::pts).toList());
+	}
+
+	@Test
+	public void filmstrip() throws Exception {
+		final Video138182Handler handler = createHandler(10);
+		final BufferedImage filmstrip = handler.getFilmstrip();
+		// 8 thumbnails per row, each 160 * 90 with 20 pixels for the pts below it
+		assertEquals(8 * 160, filmstrip.getWidth());
+		assertEquals(2 * 110, filmstrip.getHeight());
+		final List<Thumbnail> thumbnails = handler.getThumbnails(90, 160, Video138182Handler.MAX_THUMBNAILS);
+		assertEquals(thumbnails.get(0).image().getRGB(80, 45), filmstrip.getRGB(80, 45));
+		assertEquals(thumbnails.get(9).image().getRGB(80, 45), filmstrip.getRGB(160 + 80, 110 + 45));
+		// right of the last thumbnail is empty
+		assertEquals(0xFFFFFFFF, filmstrip.getRGB(2 * 160 + 80, 110 + 45));
+	}
+
+	@Test
+	public void filmstripCapped() throws Exception {
+		final int frames = Video138182Handler.MAX_THUMBNAILS + 20;
+		final Video138182Handler handler = createHandler(frames);
+		final BufferedImage filmstrip = handler.getFilmstrip();
+		final int rows = Video138182Handler.MAX_THUMBNAILS / 8;
+		// header with the number of I-frames shown
+		assertEquals(8 * 160, filmstrip.getWidth());
+		assertEquals(24 + (rows * 110), filmstrip.getHeight());
+		// first and last I-frame are included
+		final List<Thumbnail> all = handler.getThumbnails(90, 160, frames);
+		assertEquals(frames, all.size());
+		assertEquals(grey(all.get(0).image()), grey(filmstrip.getSubimage(0, 24, 160, 90)));
+		assertEquals(grey(all.get(frames - 1).image()), grey(filmstrip.getSubimage(7 * 160, 24 + ((rows - 1) * 110), 160, 90)));
+	}
+
+	@Test
+	public void filmstripInterrupted() throws Exception {
+		final Video138182Handler handler = createHandler(10);
+		Thread.currentThread().interrupt();
+		try {
+			assertNull(handler.getFilmstrip());
+		} finally {
+			Thread.interrupted();
+		}
+	}
+}
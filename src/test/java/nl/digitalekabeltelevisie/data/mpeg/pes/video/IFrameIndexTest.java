@@ -0,0 +1,71 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg.pes.video;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class IFrameIndexTest {
+
+	private static final long MAX_PTS = IFrameIndex.PTS_MODULO - 1;
+
+	@Test
+	public void testEmpty() {
+		final IFrameIndex index = new IFrameIndex(new long[0], new int[0], 10);
+		assertEquals(-1, index.find(1000));
+		assertEquals(10, index.getPesCount());
+	}
+
+	@Test
+	public void testClosest() {
+		final IFrameIndex index = new IFrameIndex(new long[] { 1000, 46000, 91000 }, new int[] { 0, 12, 24 }, 30);
+		assertEquals(3, index.size());
+		assertEquals(0, index.find(0));
+		assertEquals(0, index.find(23500)); // equally close, first in stream
+		assertEquals(12, index.find(23501));
+		assertEquals(12, index.find(46000));
+		assertEquals(24, index.find(200000));
+	}
+
+	@Test
+	public void testSamePtsUsesFirstInStream() {
+		final IFrameIndex index = new IFrameIndex(new long[] { 5000, 1000, 5000 }, new int[] { 3, 7, 9 }, 10);
+		assertEquals(3, index.find(5000));
+		assertEquals(3, index.find(3000)); // tie between 1000 and 5000, 1000 sorts first but 5000 comes first in the stream
+		assertEquals(7, index.find(2999));
+	}
+
+	@Test
+	public void testWrapAround() {
+		final IFrameIndex index = new IFrameIndex(new long[] { MAX_PTS - 45000, 45000 }, new int[] { 0, 12 }, 20);
+		assertEquals(0, index.find(MAX_PTS - 1000));
+		assertEquals(12, index.find(1000));
+		assertEquals(0, index.find(MAX_PTS)); // 45000 before, 45001 after
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg.pes.video.common;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class StartCodeScannerTest {
+
+	private static int reference(final byte[] data, final int from, final int to, final boolean zeroEnds) {
+		for (int i = Math.max(from, 0); (i + 2) < to; i++) {
+			if ((data[i] == 0) && (data[i + 1] == 0) && ((data[i + 2] == 1) || (zeroEnds && (data[i + 2] == 0)))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Test
+	public void sameAsByteByByte() {
+		final Random random = new Random(4711);
+		for (int run = 0; run < 5000; run++) {
+			final byte[] data = new byte[random.nextInt(200)];
+			final int zeroes = 1 + random.nextInt(8);
+			for (int i = 0; i < data.length; i++) {
+				final int r = random.nextInt(16);
+				data[i] = (byte) (r < zeroes ? 0 : r < (zeroes + 2) ? 1 : random.nextInt(256));
+			}
+			final int from = random.nextInt(data.length + 1);
+			final int to = from + random.nextInt((data.length - from) + 1);
+			assertEquals(reference(data, from, to, false), StartCodeScanner.findStartCode(data, from, to));
+			assertEquals(reference(data, from, to, true), StartCodeScanner.findNALUnitEnd(data, from, to));
+		}
+	}
+
+	@Test
+	public void startCodeAtEnd() {
+		final byte[] data = { 0x47, 0, 0, 1, (byte) 0xB3, 0, 0, 0, 0, 1 };
+		assertEquals(1, StartCodeScanner.findStartCode(data, 0, data.length));
+		assertEquals(7, StartCodeScanner.findStartCode(data, 2, data.length));
+		assertEquals(-1, StartCodeScanner.findStartCode(data, 2, data.length - 1));
+		assertEquals(5, StartCodeScanner.findNALUnitEnd(data, 2, data.length));
+	}
+}
@@ -0,0 +1,89 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.data.mpeg.pes.video26x;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class EmulationPreventionTest {
+
+	/**
+	 * byte by byte, the way AbstractNALUnit used to do it
+	 */
+	private static byte[] reference(final byte[] src, final int from, final int to) {
+		final byte[] res = new byte[to - from];
+		int n = 0;
+		for (int i = from; i < to; i++) {
+			if (((i + 2) < to) && (src[i] == 0) && (src[i + 1] == 0) && (src[i + 2] == 3)) {
+				res[n++] = src[i++];
+				res[n++] = src[i++];
+			} else {
+				res[n++] = src[i];
+			}
+		}
+		return Arrays.copyOf(res, n);
+	}
+
+	@Test
+	public void sameAsByteByByte() {
+		final Random random = new Random(42);
+		for (int run = 0; run < 2000; run++) {
+			final byte[] src = new byte[1 + random.nextInt(300)];
+			for (int i = 0; i < src.length; i++) {
+				final int r = random.nextInt(8);
+				src[i] = (byte) (r < 4 ? 0 : r < 6 ? 3 : random.nextInt(256));
+			}
+			final int from = random.nextInt(src.length);
+			final int to = from + random.nextInt((src.length - from) + 1);
+			final byte[] expected = reference(src, from, to);
+
+			final byte[] dest = new byte[to - from];
+			assertEquals(expected.length, EmulationPrevention.unescape(src, from, to, dest));
+			assertArrayEquals(expected, Arrays.copyOf(dest, expected.length));
+			assertEquals(expected.length, EmulationPrevention.countRBSPBytes(src, from, to));
+
+			final byte[] prefix = new byte[random.nextInt(dest.length + 1)];
+			final int written = EmulationPrevention.unescape(src, from, to, prefix);
+			assertEquals(Math.min(prefix.length, expected.length), written);
+			assertArrayEquals(Arrays.copyOf(expected, written), Arrays.copyOf(prefix, written));
+		}
+	}
+
+	@Test
+	public void keepsThreeWithoutZeros() {
+		final byte[] src = { 0, 0, 3, 0, 0, 3, 3, 0, 3, 0, 0, 3 };
+		assertEquals(9, EmulationPrevention.countRBSPBytes(src, 0, src.length));
+		assertEquals(2, EmulationPrevention.findEmulationPreventionByte(src, 0, src.length));
+		assertEquals(5, EmulationPrevention.findEmulationPreventionByte(src, 3, src.length));
+		assertEquals(src.length - 1, EmulationPrevention.findEmulationPreventionByte(src, 6, src.length - 1)); // last 0x03 outside range
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.main;
+
+import static nl.digitalekabeltelevisie.data.mpeg.SyntheticStream.pat;
+import static nl.digitalekabeltelevisie.data.mpeg.SyntheticStream.pmt;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import nl.digitalekabeltelevisie.data.mpeg.SyntheticStream;
+import nl.digitalekabeltelevisie.util.PreferencesManager;
+
+public class BatchAnalyzerTest {
+
+	private static final long FRAME = 27_000_000L / 25;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * PID 0x101 has a PCR discontinuity at its last PCR, so after the first pass it has a first PCR but no last PCR. PID 0x201 has regular PCRs.
+	 */
+	private File createStream() throws Exception {
+		final SyntheticStream stream = new SyntheticStream();
+		for (int i = 0; i < 20; i++) {
+			if ((i % 5) == 0) {
+				stream.section(0x0, pat(1, 1, 0x100, 2, 0x200));
+				stream.section(0x100, pmt(1, 0x101, 0x02, 0x101));
+				stream.section(0x200, pmt(2, 0x201, 0x02, 0x201));
+			}
+			stream.pcr(0x101, i == 19 ? 5 * FRAME : (1000 + i) * FRAME, i == 19);
+			stream.pcr(0x201, (2000 + i) * FRAME, false);
+		}
+		return stream.write(folder.newFile("discontinuity.ts"));
+	}
+
+	@Test
+	public void jsonWithPcrDiscontinuity() throws Exception {
+		final String json = new BatchAnalyzer(false, false).analyze(createStream());
+
+		assertTrue(json, json.contains("\"pid\":257,"));
+		assertTrue(json, json.contains("\"pcr\":{\"count\":1,\"first\":" + (5 * FRAME) + ",\"last\":null,\"first packet\":"));
+		assertTrue(json, json.contains(",\"last packet\":null}"));
+		assertTrue(json, json.contains("\"pcr\":{\"count\":20,\"first\":" + (2000 * FRAME) + ",\"last\":" + (2019 * FRAME) + ","));
+		assertTrue(json, json.startsWith("{\"file\":"));
+		assertTrue(json, json.endsWith("}"));
+	}
+
+	@Test
+	public void csvWithPcrDiscontinuity() throws Exception {
+		final String csv = new BatchAnalyzer(true, false).analyze(createStream());
+
+		assertTrue(csv, csv.contains("\"257\""));
+		assertTrue(csv, csv.contains("\"" + (5 * FRAME) + "\",\"\""));
+	}
+
+	@Test
+	public void csvErrorRow() throws Exception {
+		final String csv = BatchAnalyzer.errorCsv(new File("missing.ts"), new FileNotFoundException("missing.ts (No such file or directory)"));
+
+		assertTrue(csv, csv.startsWith("\"missing.ts\","));
+		assertTrue(csv, csv.contains("\"java.io.FileNotFoundException: missing.ts (No such file or directory)\""));
+		assertEquals(csv, 12, csv.split("\",\"", -1).length - 1);
+	}
+
+	@Test
+	public void defaultSettingsDoNotWriteIndex() throws Exception {
+		final File file = createStream();
+		final File index = new File(file.getPath() + ".dvbidx");
+		try {
+			PreferencesManager.useDefaultSettings();
+			new BatchAnalyzer(false, false).analyze(file);
+			assertFalse(index.exists());
+
+			PreferencesManager.setEnableIndexCache(true);
+			new BatchAnalyzer(false, false).analyze(file);
+			assertTrue(index.exists());
+		} finally {
+			PreferencesManager.useDefaultSettings();
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.main;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class JsonBuilderTest {
+
+	@Test
+	public void escaping() {
+		final String json = new JsonBuilder().beginObject()
+				.field("quote \" and \\", "line\nbreak\r\ttab")
+				.field("control", "a\u0001b\u001fc")
+				.field("text", "café / €")
+				.endObject().toString();
+		assertEquals("{\"quote \\\" and \\\\\":\"line\\nbreak\\r\\ttab\",\"control\":\"a\\u0001b\\u001fc\",\"text\":\"café / €\"}", json);
+	}
+
+	@Test
+	public void nesting() {
+		final JsonBuilder json = new JsonBuilder().beginObject().field("a", 1);
+		json.name("list").beginArray();
+		json.beginObject().field("b", true).endObject();
+		json.beginObject().endObject();
+		json.beginArray().endArray();
+		json.endArray();
+		json.name("object").beginObject().field("c", 2.5).endObject();
+		json.endObject();
+		assertEquals("{\"a\":1,\"list\":[{\"b\":true},{},[]],\"object\":{\"c\":2.5}}", json.toString());
+	}
+
+	@Test
+	public void nulls() {
+		final String json = new JsonBuilder().beginObject()
+				.field("string", (String) null)
+				.field("long", (Long) null)
+				.field("boxed", Long.valueOf(-1))
+				.field("nan", Double.NaN)
+				.field("infinite", Double.POSITIVE_INFINITY)
+				.endObject().toString();
+		assertEquals("{\"string\":null,\"long\":null,\"boxed\":-1,\"nan\":null,\"infinite\":null}", json);
+	}
+}
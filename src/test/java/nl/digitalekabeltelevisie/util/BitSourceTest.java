@@ -29,6 +29,8 @@ package nl.digitalekabeltelevisie.util;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+
 import org.junit.*;
 
 public class BitSourceTest {
@@ -75,4 +77,22 @@ public class BitSourceTest {
 		assertEquals(copy.readBits(11) ,0b0111_1111_1111);
 
 	}
+
+	@Test
+	public void refill() {
+		int[] refills = {0};
+		BitSource refilled = new BitSource(Arrays.copyOf(rawBits, 1), 0, rawBits.length, minLength -> {
+			refills[0]++;
+			return Arrays.copyOf(rawBits, Math.min(minLength, rawBits.length));
+		});
+		assertEquals(refilled.readBits(7) ,0);
+		assertEquals(0, refills[0]);
+		assertEquals(refilled.nextBits(11) ,0b0111_1111_1111);
+		assertEquals(1, refills[0]);
+		assertEquals(refilled.readBits(11) ,0b0111_1111_1111);
+		assertEquals(refilled.available(),14);
+		assertEquals(refilled.readBits(14) ,0);
+		assertEquals(2, refills[0]);
+		assertThrows(ArrayIndexOutOfBoundsException.class, () -> refilled.readBits(1));
+	}
 }
@@ -0,0 +1,115 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import nl.digitalekabeltelevisie.controller.KVP;
+
+public class KvpSearchIndexTest {
+
+	private static KVP createTree() {
+		KVP root = new KVP("root");
+		KVP pids = new KVP("PIDs");
+		root.add(pids);
+		pids.add(new KVP("pid", 31, "EIT"));
+		pids.add(new KVP("pid", 256, "Video"));
+		KVP lazy = new KVP("events").setChildProvider(k -> {
+			k.add(new KVP("event_name", "Evening News"));
+			k.add(new KVP("event_name", "Late Movie"));
+		});
+		root.add(lazy);
+		root.add(new KVP("ne"));
+		return root;
+	}
+
+	private static KvpSearchIndex expandAndBuild(KVP root) throws InterruptedException {
+		// like JTree does when the lazy node is expanded
+		((KVP) root.getChildAt(1)).getChildCount();
+		return KvpSearchIndex.build(KvpSearchIndex.snapshot(root));
+	}
+
+	@Test
+	public void findsInPreOrder() throws InterruptedException {
+		KVP root = createTree();
+		KvpSearchIndex index = expandAndBuild(root);
+		assertEquals(8, index.size());
+
+		List<String> hits = new ArrayList<>();
+		index.forEachHit("EVENT", 0, i -> hits.add(index.getNode(i).getLabel()));
+		assertEquals(List.of("events", "event_name", "event_name"), hits);
+
+		int first = index.findNext("movie", 0);
+		assertEquals(6, first);
+		assertEquals(-1, index.findNext("movie", first + 1));
+		assertEquals(-1, index.findNext("no such text", 0));
+	}
+
+	@Test
+	public void shortQueryAndHex() throws InterruptedException {
+		KvpSearchIndex index = expandAndBuild(createTree());
+		// short query does not use trigrams, "ne" is in "Evening News" and in "ne"
+		assertEquals(5, index.findNext("ne", 0));
+		assertEquals(7, index.findNext("ne", 6));
+		assertEquals(-1, index.findNext("ne", 8));
+
+		// pid 256 is found by its hex value, even when numbers are shown as decimal
+		assertEquals(3, index.findNext("0x100", 0));
+	}
+
+	@Test
+	public void lazyChildrenIndexed() throws InterruptedException {
+		KVP root = createTree();
+		KVP lazy = (KVP) root.getChildAt(1);
+		KvpSearchIndex index = KvpSearchIndex.build(KvpSearchIndex.snapshot(root));
+		assertFalse("snapshot creates the children of lazy nodes", lazy.hasPendingChildren());
+		assertEquals(8, index.size());
+		assertEquals(6, index.findNext("movie", 0));
+	}
+
+	@Test
+	public void collectInChunks() throws InterruptedException {
+		KvpSearchIndex.Collector collector = new KvpSearchIndex.Collector(createTree());
+		int chunks = 1;
+		while (!collector.collect(3)) {
+			chunks++;
+		}
+		assertEquals(3, chunks);
+		KvpSearchIndex chunked = KvpSearchIndex.build(collector.getNodes());
+		KvpSearchIndex whole = expandAndBuild(createTree());
+		assertEquals(whole.size(), chunked.size());
+		for (int i = 0; i < whole.size(); i++) {
+			assertEquals(whole.getNode(i).toString(), chunked.getNode(i).toString());
+		}
+	}
+}
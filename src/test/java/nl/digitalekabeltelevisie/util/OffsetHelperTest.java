@@ -0,0 +1,69 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.util;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import org.junit.Test;
+
+public class OffsetHelperTest {
+
+	private static final long LARGE = Integer.MAX_VALUE + 10L;
+
+	@Test
+	public void packetNumbersAboveIntRange() {
+		OffsetHelper helper = new OffsetHelper(LARGE + 1000, 188);
+		helper.addPacket(0, 0);
+		helper.addPacket(LARGE, (LARGE * 188) + 5); // 5 bytes skipped because of a sync error
+
+		assertEquals(188L * 100, helper.getOffset(100));
+		assertEquals((LARGE - 1) * 188, helper.getOffset(LARGE - 1));
+		assertEquals((LARGE * 188) + 5, helper.getOffset(LARGE));
+		assertEquals(((LARGE + 500) * 188) + 5, helper.getOffset(LARGE + 500));
+	}
+
+	@Test
+	public void indexRoundTrip() throws Exception {
+		OffsetHelper helper = new OffsetHelper(LARGE + 1000, 188);
+		helper.addPacket(0, 0);
+		helper.addPacket(LARGE, (LARGE * 188) + 5);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		helper.writeIndex(new DataOutputStream(bytes));
+
+		OffsetHelper restored = new OffsetHelper(LARGE + 2000, 188);
+		restored.readIndex(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		restored.setMaxPackets(LARGE + 2000);
+		assertEquals((LARGE - 1) * 188, restored.getOffset(LARGE - 1));
+		assertEquals(((LARGE + 1500) * 188) + 5, restored.getOffset(LARGE + 1500));
+	}
+}
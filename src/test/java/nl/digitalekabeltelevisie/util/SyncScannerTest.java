@@ -0,0 +1,83 @@
+/**
+ *
+ *  http://www.digitalekabeltelevisie.nl/dvb_inspector
+ *
+ *  This code is Copyright 2009-2026 by Eric Berendsen (e_berendsen@digitalekabeltelevisie.nl)
+ *
+ *  This file is part of DVB Inspector.
+ *
+ *  DVB Inspector is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  DVB Inspector is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with DVB Inspector.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *  The author requests that he be notified of any application, applet, or
+ *  other binary that makes use of this code, but that's more out of curiosity
+ *  than anything and is not required.
+ *
+ */
+
+package nl.digitalekabeltelevisie.util;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SyncScannerTest {
+
+	private static final int PACKET_LENGTH = 188;
+
+	@Test
+	public void findsFirstPacketStart() {
+		byte[] data = new byte[4096];
+		data[1000] = 0x47;
+		data[1000 + PACKET_LENGTH] = 0x47;
+		data[2000] = 0x47; // no following sync byte
+		data[2500] = 0x47;
+		data[2500 + PACKET_LENGTH] = 0x47;
+		ByteBuffer buf = ByteBuffer.wrap(data);
+		assertEquals(1000, SyncScanner.findPacketStart(buf, 0, 3000, PACKET_LENGTH, 0, 2));
+		assertEquals(2500, SyncScanner.findPacketStart(buf, 1001, 3000, PACKET_LENGTH, 0, 2));
+		assertEquals(-1, SyncScanner.findPacketStart(buf, 1001, 2500, PACKET_LENGTH, 0, 2));
+		assertEquals(-1, SyncScanner.findPacketStart(buf, 0, 3000, PACKET_LENGTH, 0, 3));
+	}
+
+	@Test
+	public void syncOffset() {
+		byte[] data = new byte[1024];
+		data[104] = 0x47;
+		data[104 + 192] = 0x47;
+		ByteBuffer buf = ByteBuffer.wrap(data);
+		assertEquals(100, SyncScanner.findPacketStart(buf, 0, 500, 192, 4, 2));
+		assertEquals(-1, SyncScanner.findPacketStart(buf, 0, 100, 192, 4, 2));
+	}
+
+	@Test
+	public void sameAsByteByByte() {
+		Random random = new Random(42);
+		byte[] data = new byte[20_000];
+		random.nextBytes(data);
+		ByteBuffer buf = ByteBuffer.wrap(data);
+		int to = data.length - PACKET_LENGTH;
+		for (int from = 0; from < 1000; from += 7) {
+			int expected = -1;
+			for (int p = from; (p < to) && (expected < 0); p++) {
+				if ((data[p] == 0x47) && (data[p + PACKET_LENGTH] == 0x47)) {
+					expected = p;
+				}
+			}
+			assertEquals(expected, SyncScanner.findPacketStart(buf, from, to, PACKET_LENGTH, 0, 2));
+		}
+	}
+}